@@ -0,0 +1,18 @@
+-- Persistent tier of the LLM response cache, keyed by a SHA-256 hash of model + prompt
+CREATE TABLE senior_sync.llm_response_cache (
+    cache_key VARCHAR(64) PRIMARY KEY,
+    feature VARCHAR(50) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    response_text TEXT NOT NULL,
+    input_tokens BIGINT NOT NULL DEFAULT 0,
+    output_tokens BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+-- Index for purging expired entries
+CREATE INDEX idx_llm_response_cache_expires_at ON senior_sync.llm_response_cache(expires_at);
+
+COMMENT ON TABLE senior_sync.llm_response_cache IS 'Cached LLM responses so identical prompts are not paid for twice';
+COMMENT ON COLUMN senior_sync.llm_response_cache.cache_key IS 'Hex SHA-256 of model and prompt';
+COMMENT ON COLUMN senior_sync.llm_response_cache.expires_at IS 'Entry is ignored and purged after this time';
@@ -0,0 +1,8 @@
+-- Track when each ranking score was computed and which version of the request it was computed from,
+-- so only new or changed requests are re-scored
+ALTER TABLE senior_sync.requests_ranking
+    ADD COLUMN scored_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    ADD COLUMN source_updated_at TIMESTAMPTZ;
+
+COMMENT ON COLUMN senior_sync.requests_ranking.scored_at IS 'When the priority score was computed';
+COMMENT ON COLUMN senior_sync.requests_ranking.source_updated_at IS 'updated_at of the senior request the score was computed from; older than the request means the score is stale';
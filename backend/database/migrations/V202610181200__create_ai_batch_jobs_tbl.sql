@@ -0,0 +1,26 @@
+-- Long-running AI batch operations (e.g. spam checks over many requests), tracked so clients can poll and jobs resume after a restart
+CREATE TABLE senior_sync.ai_batch_jobs (
+    id UUID PRIMARY KEY,
+    job_type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    request_ids JSONB NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    total_count INT NOT NULL,
+    processed_count INT NOT NULL DEFAULT 0,
+    failed_count INT NOT NULL DEFAULT 0,
+    spam_count INT NOT NULL DEFAULT 0,
+    error_message TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMPTZ
+);
+
+-- At most one active job per identical submission, so duplicates reuse the running work
+CREATE UNIQUE INDEX uq_ai_batch_jobs_active_request_hash ON senior_sync.ai_batch_jobs(job_type, request_hash)
+    WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Index for resuming unfinished jobs at startup
+CREATE INDEX idx_ai_batch_jobs_status ON senior_sync.ai_batch_jobs(status);
+
+COMMENT ON TABLE senior_sync.ai_batch_jobs IS 'Asynchronous AI batch jobs with progress; results live in the feature tables (e.g. spam_detection_results)';
+COMMENT ON COLUMN senior_sync.ai_batch_jobs.request_hash IS 'Hex SHA-256 of the sorted, distinct request ids';
@@ -0,0 +1,20 @@
+-- Cluster-wide single-flight claims for LLM calls, so each request is classified by one instance while the others wait
+CREATE TABLE senior_sync.llm_single_flight (
+    flight_key VARCHAR(200) PRIMARY KEY,
+    feature VARCHAR(50) NOT NULL,
+    request_id BIGINT NOT NULL,
+    prompt_hash VARCHAR(64) NOT NULL,
+    owner VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    lease_expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Index for purging finished and abandoned flights
+CREATE INDEX idx_llm_single_flight_updated_at ON senior_sync.llm_single_flight(updated_at);
+
+COMMENT ON TABLE senior_sync.llm_single_flight IS 'Which instance is calling the LLM for a request; the result itself is stored by the feature (e.g. spam_detection_results)';
+COMMENT ON COLUMN senior_sync.llm_single_flight.flight_key IS 'feature:request_id:prompt_hash, also hashed into the advisory lock key';
+COMMENT ON COLUMN senior_sync.llm_single_flight.status IS 'RUNNING while the owner calls the LLM, DONE once its result is stored';
+COMMENT ON COLUMN senior_sync.llm_single_flight.lease_expires_at IS 'Another instance may take over a RUNNING flight after this time';
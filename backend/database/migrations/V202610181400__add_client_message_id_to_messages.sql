@@ -0,0 +1,10 @@
+-- Client supplied id of the inbound message, so a double tap or a retried webhook replays the stored reply instead of
+-- running the turn again
+ALTER TABLE senior_sync.messages ADD COLUMN client_message_id VARCHAR(100);
+
+-- Both messages of a turn carry the id, one per direction
+CREATE UNIQUE INDEX uq_messages_conversation_direction_client_message_id
+    ON senior_sync.messages(conversation_id, direction, client_message_id)
+    WHERE client_message_id IS NOT NULL;
+
+COMMENT ON COLUMN senior_sync.messages.client_message_id IS 'Idempotency key of the turn that wrote this message, NULL when the client did not send one';
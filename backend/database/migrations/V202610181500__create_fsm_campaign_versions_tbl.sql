@@ -0,0 +1,18 @@
+-- Immutable snapshots of each campaign's fsm_transitions, so edits go live without a restart while conversations
+-- already in a flow keep running on the graph they started with
+CREATE TABLE senior_sync.fsm_campaign_versions (
+    campaign_name VARCHAR(100) NOT NULL,
+    version INT NOT NULL,
+    fingerprint VARCHAR(32) NOT NULL,
+    transitions JSONB NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (campaign_name, version),
+    CONSTRAINT uq_fsm_campaign_versions_fingerprint UNIQUE (campaign_name, fingerprint)
+);
+
+ALTER TABLE senior_sync.conversations ADD COLUMN campaign_version INT;
+
+COMMENT ON TABLE senior_sync.fsm_campaign_versions IS 'Published versions of a campaign graph, written by the chatbot when fsm_transitions changes';
+COMMENT ON COLUMN senior_sync.fsm_campaign_versions.fingerprint IS 'md5 of the campaign''s transitions, the same graph always maps to the same version';
+COMMENT ON COLUMN senior_sync.fsm_campaign_versions.transitions IS 'Array of {trigger, source_state, dest_state, guard_name, action_name}';
+COMMENT ON COLUMN senior_sync.conversations.campaign_version IS 'Campaign version the conversation runs on, re-pinned to the latest when a flow starts over';
@@ -0,0 +1,5 @@
+-- Keyset pages of a conversation's history and clearing it by conversation both range over this index
+CREATE INDEX idx_messages_conversation_id_id ON senior_sync.messages(conversation_id, id);
+
+-- Conversation lookup of every chatbot turn and of the history query
+CREATE INDEX idx_conversations_campaign_name_senior_id ON senior_sync.conversations(campaign_name, senior_id);
@@ -0,0 +1,18 @@
+-- Record which classifier produced each spam verdict instead of marking it in the free-text reason
+ALTER TABLE senior_sync.spam_detection_results
+    ADD COLUMN source VARCHAR(20) NOT NULL DEFAULT 'LLM';
+
+-- Verdicts stored before this migration carry their origin as a reason prefix
+UPDATE senior_sync.spam_detection_results
+SET source = 'PRE_FILTER',
+    detection_reason = LTRIM(SUBSTRING(detection_reason FROM LENGTH('[pre-filter]') + 1))
+WHERE detection_reason LIKE '[pre-filter]%';
+
+UPDATE senior_sync.spam_detection_results
+SET source = 'PARSE_FAILURE'
+WHERE detection_reason LIKE 'Failed to parse%';
+
+-- Index for evaluating the pre-filter against the latest LLM verdicts
+CREATE INDEX idx_spam_detection_source_detected_at ON senior_sync.spam_detection_results(source, detected_at DESC);
+
+COMMENT ON COLUMN senior_sync.spam_detection_results.source IS 'LLM, PRE_FILTER or PARSE_FAILURE';
@@ -0,0 +1,11 @@
+-- Leader leases for scheduled passes that must run on one instance at a time (e.g. AI ranking)
+CREATE TABLE senior_sync.scheduler_leases (
+    name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(100) NOT NULL,
+    lease_expires_at TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+COMMENT ON TABLE senior_sync.scheduler_leases IS 'Which instance currently leads a scheduled pass';
+COMMENT ON COLUMN senior_sync.scheduler_leases.lease_expires_at IS 'The owner renews the lease on every run; another instance may take over after this time';
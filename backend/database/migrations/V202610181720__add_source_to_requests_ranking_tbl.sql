@@ -0,0 +1,9 @@
+-- Record whether a stored ranking score is the local urgency score or an LLM refinement
+ALTER TABLE senior_sync.requests_ranking
+    ADD COLUMN source VARCHAR(10) NOT NULL DEFAULT 'LOCAL';
+
+UPDATE senior_sync.requests_ranking
+SET source = 'LLM'
+WHERE ranking_factors ->> 'source' = 'llm';
+
+COMMENT ON COLUMN senior_sync.requests_ranking.source IS 'LOCAL (time-dependent, recomputed when read) or LLM (refined, kept until the request changes or the score ages out)';
@@ -0,0 +1,12 @@
+-- A job is worked on by the instance holding its lease; the owner renews it while the job runs and another instance
+-- takes the job over once it expires, continuing from next_offset instead of starting again
+ALTER TABLE senior_sync.ai_batch_jobs
+    ADD COLUMN owner VARCHAR(100),
+    ADD COLUMN lease_expires_at TIMESTAMPTZ,
+    ADD COLUMN next_offset INT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN senior_sync.ai_batch_jobs.owner IS 'Instance that last claimed the job';
+COMMENT ON COLUMN senior_sync.ai_batch_jobs.lease_expires_at IS 'Another instance may claim the job after this time; NULL once the job has finished';
+COMMENT ON COLUMN senior_sync.ai_batch_jobs.next_offset IS 'Index into request_ids of the first request whose chunk has not been recorded yet';
+COMMENT ON COLUMN senior_sync.ai_batch_jobs.processed_count IS 'Requests with a stored verdict';
+COMMENT ON COLUMN senior_sync.ai_batch_jobs.failed_count IS 'Requests left without a stored verdict (errors and provisional pre-filter leanings)';
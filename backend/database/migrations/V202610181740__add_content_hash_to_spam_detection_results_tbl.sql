@@ -0,0 +1,5 @@
+-- A verdict only holds for the content it was made for; requests edited since are classified again
+ALTER TABLE senior_sync.spam_detection_results
+    ADD COLUMN content_hash VARCHAR(64);
+
+COMMENT ON COLUMN senior_sync.spam_detection_results.content_hash IS 'SHA-256 of the request title, description and priority the verdict was made for; NULL for verdicts stored before it was recorded, which are kept';
@@ -0,0 +1,23 @@
+-- messages has no updated_at column, the trigger from V202507041045 fails every UPDATE on it
+DROP TRIGGER IF EXISTS messages_updated_at ON senior_sync.messages;
+
+-- A senior has one conversation per campaign, the first turn relies on it to insert with ON CONFLICT. Concurrent first
+-- turns could create duplicates before; their messages move to the latest conversation and the others are removed
+WITH duplicates AS (
+    SELECT id, MAX(id) OVER (PARTITION BY campaign_name, senior_id) AS keep_id
+    FROM senior_sync.conversations
+)
+UPDATE senior_sync.messages m
+SET conversation_id = d.keep_id,
+    client_message_id = NULL -- Only replayed within the conversation the id was sent to
+FROM duplicates d
+WHERE m.conversation_id = d.id AND d.id <> d.keep_id;
+
+DELETE FROM senior_sync.conversations c
+USING senior_sync.conversations newer
+WHERE newer.campaign_name = c.campaign_name AND newer.senior_id = c.senior_id AND newer.id > c.id;
+
+-- Replaces the plain lookup index, the constraint's index serves the same lookups
+DROP INDEX senior_sync.idx_conversations_campaign_name_senior_id;
+ALTER TABLE senior_sync.conversations
+    ADD CONSTRAINT uq_conversations_campaign_name_senior_id UNIQUE (campaign_name, senior_id);
@@ -0,0 +1,18 @@
+-- Drafts live in the conversation's extended state now. Conversations still pointing at a senior_request_drafts row
+-- take over its answers (answers already in the extended state win) and drop the pointer; rows of conversations that
+-- were abandoned or restarted are no longer referenced by anything and are removed with the rest
+UPDATE senior_sync.conversations c
+SET extended_state = jsonb_strip_nulls(jsonb_build_object(
+        'draftRequestTypeId', d.request_type_id,
+        'draftTitle', d.title,
+        'draftDescription', d.description,
+        'draftPriority', d.priority)) || (c.extended_state - 'draftId')
+FROM senior_sync.senior_request_drafts d
+WHERE c.extended_state ? 'draftId'
+  AND d.id = (c.extended_state ->> 'draftId')::BIGINT;
+
+UPDATE senior_sync.conversations
+SET extended_state = extended_state - 'draftId'
+WHERE extended_state ? 'draftId';
+
+DELETE FROM senior_sync.senior_request_drafts;
@@ -0,0 +1,42 @@
+package orangle.seniorsync.chatbot.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.chatbot.dto.ChatbotCatalogStatusDto;
+import orangle.seniorsync.chatbot.service.catalog.ChatbotCatalog;
+import orangle.seniorsync.chatbot.service.catalog.IChatbotCatalogService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/chatbot/catalog")
+@PreAuthorize("hasRole('ADMIN')")
+public class ChatbotCatalogController {
+
+    private final IChatbotCatalogService chatbotCatalogService;
+
+    public ChatbotCatalogController(IChatbotCatalogService chatbotCatalogService) {
+        this.chatbotCatalogService = chatbotCatalogService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ChatbotCatalogStatusDto> getCatalogStatus() {
+        return ResponseEntity.ok(toStatus(chatbotCatalogService.getCatalog()));
+    }
+
+    @PostMapping("/reload")
+    public ResponseEntity<ChatbotCatalogStatusDto> reloadCatalog() {
+        log.info("Reloading chatbot catalog on request");
+        return ResponseEntity.ok(toStatus(chatbotCatalogService.reload()));
+    }
+
+    private static ChatbotCatalogStatusDto toStatus(ChatbotCatalog catalog) {
+        return new ChatbotCatalogStatusDto(
+                catalog.getFingerprint(),
+                catalog.getLoadedAt(),
+                catalog.getPromptCount(),
+                catalog.getReplyOptionSetCount(),
+                catalog.getRequestTypeCount());
+    }
+}
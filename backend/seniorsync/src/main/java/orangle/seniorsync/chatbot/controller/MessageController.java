@@ -3,6 +3,7 @@ package orangle.seniorsync.chatbot.controller;
 import lombok.extern.slf4j.Slf4j;
 import orangle.seniorsync.chatbot.dto.ConversationDto;
 import orangle.seniorsync.chatbot.dto.MessageDto;
+import orangle.seniorsync.chatbot.dto.MessageHistoryPageDto;
 import orangle.seniorsync.chatbot.service.MessageService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -29,6 +30,12 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    /**
+     * The senior's newest messages in the campaign, oldest first, capped at one history page.
+     *
+     * @deprecated use {@code /senior/{seniorId}/history}, which pages through older messages with a cursor
+     */
+    @Deprecated
     @GetMapping("/senior/{seniorId}")
     public ResponseEntity<List<MessageDto>> getMessagesBySenior(
             @PathVariable Long seniorId,
@@ -38,6 +45,26 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    /**
+     * A page of the senior's chat history in the campaign, newest message first.
+     *
+     * @param before message id cursor: only messages with a smaller id are returned. Omit it for the newest page, then
+     *               pass the previous page's {@code nextBefore}
+     * @param limit page size (default 50), clamped to 1-200
+     * @return the page, with {@code hasMore} and {@code nextBefore} null once the oldest message was returned
+     */
+    @GetMapping("/senior/{seniorId}/history")
+    public ResponseEntity<MessageHistoryPageDto> getMessageHistory(
+            @PathVariable Long seniorId,
+            @RequestParam(defaultValue = "lodging_request") String campaignName,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit) {
+        MessageHistoryPageDto page = messageService.getMessageHistory(seniorId, campaignName, before, limit);
+        log.info("Retrieved {} history messages for senior {} in campaign {} before {}",
+                page.messages().size(), seniorId, campaignName, before);
+        return ResponseEntity.ok(page);
+    }
+
     @GetMapping("/senior/{seniorId}/active-conversation")
     public ResponseEntity<ConversationDto> getActiveConversation(
             @PathVariable Long seniorId,
@@ -49,8 +76,8 @@ public class MessageController {
 
     @DeleteMapping("/conversation/{conversationId}/clear")
     public ResponseEntity<Void> clearConversationMessages(@PathVariable Long conversationId) {
-        messageService.clearConversationMessages(conversationId);
-        log.info("Cleared all messages for conversation {}", conversationId);
+        int deleted = messageService.clearConversationMessages(conversationId);
+        log.info("Cleared {} messages for conversation {}", deleted, conversationId);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
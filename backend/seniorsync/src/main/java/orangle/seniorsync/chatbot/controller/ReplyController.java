@@ -1,8 +1,10 @@
 package orangle.seniorsync.chatbot.controller;
 
+import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import orangle.seniorsync.chatbot.dto.IncomingMessageDto;
 import orangle.seniorsync.chatbot.dto.ReplyDto;
+import orangle.seniorsync.chatbot.service.ConversationTurnDispatcher;
 import orangle.seniorsync.chatbot.service.IReplyService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,21 +17,26 @@ import org.springframework.web.bind.annotation.*;
 public class ReplyController {
 
     private final IReplyService replyService;
+    private final ConversationTurnDispatcher turnDispatcher;
 
-    public ReplyController(IReplyService replyService) {
+    public ReplyController(IReplyService replyService, ConversationTurnDispatcher turnDispatcher) {
         this.replyService = replyService;
+        this.turnDispatcher = turnDispatcher;
     }
 
     @PostMapping("/reply")
     public ResponseEntity<ReplyDto> replyMessage(
-            @RequestBody IncomingMessageDto incomingMessage,
+            @Valid @RequestBody IncomingMessageDto incomingMessage,
             @RequestParam(defaultValue = "en") String languageCode) {
-        ReplyDto replyDto = replyService.replyMessage(
-                incomingMessage.campaignName(),
-                incomingMessage.seniorId(),
-                incomingMessage.replyOption(),
-                languageCode
-        );
+        // Turns of one conversation run one at a time, other conversations are not held up
+        ReplyDto replyDto = turnDispatcher.dispatch(incomingMessage.campaignName(), incomingMessage.seniorId(),
+                () -> replyService.replyMessage(
+                        incomingMessage.campaignName(),
+                        incomingMessage.seniorId(),
+                        incomingMessage.replyOption(),
+                        incomingMessage.clientMessageId(),
+                        languageCode
+                ));
         log.info("Replying with message to senior_id: {}", replyDto.senior_id());
         return ResponseEntity.ok(replyDto);
     }
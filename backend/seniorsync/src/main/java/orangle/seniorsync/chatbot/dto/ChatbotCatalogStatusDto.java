@@ -0,0 +1,12 @@
+package orangle.seniorsync.chatbot.dto;
+
+import java.time.OffsetDateTime;
+
+public record ChatbotCatalogStatusDto(
+        String fingerprint,
+        OffsetDateTime loadedAt,
+        int prompts,
+        int replyOptionSets,
+        int requestTypes
+) {
+}
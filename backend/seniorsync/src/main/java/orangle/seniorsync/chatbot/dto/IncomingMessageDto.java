@@ -2,10 +2,12 @@ package orangle.seniorsync.chatbot.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 public record IncomingMessageDto(
         @NotBlank String campaignName,
         @NotNull Long seniorId,
-        @NotBlank ReplyOption replyOption
+        @NotNull ReplyOption replyOption, // Not cascaded, the first turn sends a blank option
+        @Size(max = 100) String clientMessageId // Optional, a repeated id replays the stored reply
 ) {
 }
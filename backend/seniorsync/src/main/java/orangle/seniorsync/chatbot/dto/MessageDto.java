@@ -8,6 +8,7 @@ public record MessageDto(
         String direction,
         String content,
         String event,
+        String clientMessageId,
         OffsetDateTime createdAt
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package orangle.seniorsync.chatbot.dto;
+
+import java.util.List;
+
+/**
+ * One page of a senior's chat history, newest message first. {@code nextBefore} is the id of the oldest message on the
+ * page; pass it as {@code before} to get the page of older messages. It is null, and {@code hasMore} false, once the
+ * oldest message was returned.
+ */
+public record MessageHistoryPageDto(
+        List<MessageDto> messages,
+        Long nextBefore,
+        boolean hasMore
+) {
+}
@@ -0,0 +1,218 @@
+package orangle.seniorsync.chatbot.fsm;
+
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.chatbot.fsm.common.action.FsmErrorHandlingAction;
+import orangle.seniorsync.chatbot.model.FsmTransition;
+import orangle.seniorsync.chatbot.repository.FsmCampaignVersionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateContext;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs chatbot campaigns on compiled {@link CampaignTransitionTable}s, synchronously on the caller's thread.
+ * <p>
+ * Guards and actions are the existing Spring StateMachine beans, named in {@code fsm_transitions}. They get a
+ * {@link StateContext} carrying the event, the message headers and the conversation's extended state, like they did
+ * inside a state machine. Semantics match the machines this replaces: an unknown event or a rejected guard denies the
+ * event, and a failing action is reported to {@link FsmErrorHandlingAction} and denies it too, leaving the state as it was.
+ * <p>
+ * Campaign graphs are versioned ({@link FsmCampaignVersionRepository}). Nothing is read at startup: a campaign's current
+ * version is published on first use and each version's table is compiled the first time a conversation needs it, both
+ * outside the maps' locks so a slow database only holds up the turns that need that campaign. The fingerprint of
+ * {@code fsm_transitions} is polled every {@code seniorsync.chatbot.campaign.refresh-interval-ms}; when a loaded campaign
+ * changed, the new version is published and compiled in the background, then swapped in as current. Tables of earlier
+ * versions stay available to the conversations pinned to them until unused for {@code idle-table-ttl}; a conversation
+ * coming back later compiles its version again.
+ */
+@Slf4j
+@Service
+public class CampaignEngine implements ICampaignEngine {
+    private static final Guard<String, String> ALWAYS = context -> true;
+    private static final Action<String, String> NO_OP = context -> {};
+
+    private final Action<String, String> errorAction = new FsmErrorHandlingAction();
+    private final FsmCampaignVersionRepository versionRepo;
+    private final ApplicationContext ctx;
+    private final long idleTableTtlNanos;
+    private final Map<String, FsmCampaignVersionRepository.PublishedVersion> currentVersions = new ConcurrentHashMap<>();
+    private final Map<TableKey, LoadedTable> tables = new ConcurrentHashMap<>();
+
+    private record TableKey(String campaignName, int version) {
+    }
+
+    private static final class LoadedTable {
+        private final CampaignTransitionTable table;
+        private volatile long lastUsedNanos = System.nanoTime();
+
+        private LoadedTable(CampaignTransitionTable table) {
+            this.table = table;
+        }
+    }
+
+    public CampaignEngine(FsmCampaignVersionRepository versionRepo, ApplicationContext ctx,
+                          @Value("${seniorsync.chatbot.campaign.idle-table-ttl:1h}") Duration idleTableTtl) {
+        this.versionRepo = versionRepo;
+        this.ctx = ctx;
+        this.idleTableTtlNanos = idleTableTtl.toNanos();
+    }
+
+    @Override
+    public int currentVersion(String campaignName) {
+        FsmCampaignVersionRepository.PublishedVersion current = currentVersions.get(campaignName);
+        if (current != null) {
+            return current.version();
+        }
+        // Concurrent first uses may both publish, which is idempotent; the first one stored wins
+        FsmCampaignVersionRepository.PublishedVersion published = versionRepo.publish(campaignName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown campaign: " + campaignName));
+        current = currentVersions.putIfAbsent(campaignName, published);
+        if (current != null) {
+            return current.version();
+        }
+        log.info("Campaign {} is at version {}", campaignName, published.version());
+        return published.version();
+    }
+
+    @Override
+    public CampaignTransitionResult fire(String campaignName, int campaignVersion, String currentState, String event,
+                                         Map<Object, Object> extendedState, Map<String, Object> headers) {
+        CampaignTransitionTable table = table(campaignName, campaignVersion);
+
+        CampaignTransitionTable.Transition transition = table.find(currentState, event);
+        if (transition == null) {
+            log.warn("Campaign {} v{} has no transition from '{}' on event '{}'", campaignName, campaignVersion, currentState, event);
+            return CampaignTransitionResult.denied(currentState);
+        }
+
+        Message<String> message = MessageBuilder.withPayload(event).copyHeaders(headers).build();
+        StateContext<String, String> context = new DefaultStateContext<>(StateContext.Stage.TRANSITION, message,
+                message.getHeaders(), new DefaultExtendedState(extendedState), null, null, null, null, null);
+
+        if (!evaluate(transition.guard(), context)) {
+            log.info("Guard rejected transition {} --[{}]--> {}", currentState, event, transition.target());
+            return CampaignTransitionResult.denied(currentState);
+        }
+        try {
+            transition.action().execute(context);
+        } catch (Exception e) {
+            errorAction.execute(new DefaultStateContext<>(StateContext.Stage.TRANSITION, message, message.getHeaders(),
+                    context.getExtendedState(), null, null, null, null, e));
+            return CampaignTransitionResult.denied(currentState);
+        }
+        return CampaignTransitionResult.accepted(currentState, transition.target());
+    }
+
+    @Scheduled(fixedDelayString = "${seniorsync.chatbot.campaign.refresh-interval-ms:5000}")
+    public void refreshIfChanged() {
+        evictIdleTables();
+        if (currentVersions.isEmpty()) {
+            return; // No campaign used yet, nothing to keep current
+        }
+        try {
+            Map<String, String> fingerprints = versionRepo.findTransitionFingerprints();
+            for (Map.Entry<String, FsmCampaignVersionRepository.PublishedVersion> entry : currentVersions.entrySet()) {
+                String fingerprint = fingerprints.get(entry.getKey());
+                if (fingerprint != null && !fingerprint.equals(entry.getValue().fingerprint())) {
+                    publishAndSwap(entry.getKey());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep running on the current versions, the next poll retries
+            log.warn("Failed to refresh campaign versions: {}", e.getMessage());
+        }
+    }
+
+    private void publishAndSwap(String campaignName) {
+        versionRepo.publish(campaignName).ifPresent(published -> {
+            // Compile before the swap, so no turn waits on the new table
+            table(campaignName, published.version());
+            currentVersions.put(campaignName, published);
+            log.info("Campaign {} changed, new conversations start on version {}", campaignName, published.version());
+        });
+    }
+
+    /**
+     * Drops the tables of versions that are not current and have not been used for {@code idle-table-ttl}.
+     */
+    void evictIdleTables() {
+        long now = System.nanoTime();
+        tables.entrySet().removeIf(entry -> {
+            FsmCampaignVersionRepository.PublishedVersion current = currentVersions.get(entry.getKey().campaignName());
+            boolean isCurrent = current != null && current.version() == entry.getKey().version();
+            boolean evict = !isCurrent && now - entry.getValue().lastUsedNanos >= idleTableTtlNanos;
+            if (evict) {
+                log.info("Evicting unused table of campaign {} v{}", entry.getKey().campaignName(), entry.getKey().version());
+            }
+            return evict;
+        });
+    }
+
+    int loadedTableCount() {
+        return tables.size();
+    }
+
+    private CampaignTransitionTable table(String campaignName, int version) {
+        TableKey key = new TableKey(campaignName, version);
+        LoadedTable loaded = tables.get(key);
+        if (loaded == null) {
+            // Compiled outside the map, concurrent first uses may both compile and the first one stored wins
+            LoadedTable compiled = new LoadedTable(compile(campaignName, version));
+            loaded = tables.putIfAbsent(key, compiled);
+            if (loaded == null) {
+                loaded = compiled;
+            }
+        }
+        loaded.lastUsedNanos = System.nanoTime();
+        return loaded.table;
+    }
+
+    private CampaignTransitionTable compile(String campaignName, int version) {
+        List<FsmTransition> rows = versionRepo.findTransitions(campaignName, version);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Unknown campaign version: " + campaignName + " v" + version);
+        }
+        try {
+            return CampaignTransitionTable.compile(campaignName, rows, this::lookupGuard, this::lookupAction);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to compile transition table for campaign: " + campaignName + " v" + version, e);
+        }
+    }
+
+    private static boolean evaluate(Guard<String, String> guard, StateContext<String, String> context) {
+        try {
+            return guard.evaluate(context);
+        } catch (Exception e) {
+            // Same as a state machine: a failing guard does not let the transition through
+            log.warn("Guard failed, denying transition: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private Guard<String, String> lookupGuard(String name) {
+        if (!StringUtils.hasText(name) || !ctx.containsBean(name)) {
+            return ALWAYS;
+        }
+        return ctx.getBean(name, Guard.class);
+    }
+
+    private Action<String, String> lookupAction(String name) {
+        if (!StringUtils.hasText(name) || !ctx.containsBean(name)) {
+            return NO_OP;
+        }
+        return ctx.getBean(name, Action.class);
+    }
+}
@@ -0,0 +1,15 @@
+package orangle.seniorsync.chatbot.fsm;
+
+/**
+ * Outcome of firing an event. A denied event (no transition, guard rejected or action failed) leaves the state unchanged.
+ */
+public record CampaignTransitionResult(boolean accepted, String sourceState, String targetState) {
+
+    public static CampaignTransitionResult accepted(String sourceState, String targetState) {
+        return new CampaignTransitionResult(true, sourceState, targetState);
+    }
+
+    public static CampaignTransitionResult denied(String state) {
+        return new CampaignTransitionResult(false, state, state);
+    }
+}
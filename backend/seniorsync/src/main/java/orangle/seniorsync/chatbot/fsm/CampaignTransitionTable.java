@@ -0,0 +1,92 @@
+package orangle.seniorsync.chatbot.fsm;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.chatbot.model.FsmTransition;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.guard.Guard;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable transition table of one campaign, compiled from its {@code fsm_transitions} rows.
+ * <p>
+ * States and events are numbered once at compile time, so a lookup is two map reads and an array access.
+ * Tables hold no per-conversation state and are shared by all conversations of the campaign.
+ */
+@Slf4j
+public final class CampaignTransitionTable {
+    public static final String INITIAL_STATE = "INIT";
+
+    @Getter
+    private final String campaignName;
+    private final Map<String, Integer> stateIds;
+    private final Map<String, Integer> eventIds;
+    private final Transition[][] transitions; // [state][event], null where the event is not accepted
+
+    private CampaignTransitionTable(String campaignName, Map<String, Integer> stateIds, Map<String, Integer> eventIds,
+                                    Transition[][] transitions) {
+        this.campaignName = campaignName;
+        this.stateIds = stateIds;
+        this.eventIds = eventIds;
+        this.transitions = transitions;
+    }
+
+    public static CampaignTransitionTable compile(String campaignName, List<FsmTransition> rows,
+                                                  Function<String, Guard<String, String>> guards,
+                                                  Function<String, Action<String, String>> actions) {
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("No transitions found for campaign: " + campaignName);
+        }
+
+        Map<String, Integer> stateIds = new HashMap<>();
+        Map<String, Integer> eventIds = new HashMap<>();
+        stateIds.put(INITIAL_STATE, 0);
+        for (FsmTransition row : rows) {
+            stateIds.putIfAbsent(row.getSourceState(), stateIds.size());
+            stateIds.putIfAbsent(row.getDestState(), stateIds.size());
+            eventIds.putIfAbsent(row.getTrigger(), eventIds.size());
+        }
+
+        Transition[][] transitions = new Transition[stateIds.size()][eventIds.size()];
+        for (FsmTransition row : rows) {
+            int state = stateIds.get(row.getSourceState());
+            int event = eventIds.get(row.getTrigger());
+            if (transitions[state][event] != null) {
+                log.warn("Campaign {} has more than one transition {} --[{}]-->, keeping the one to {}",
+                        campaignName, row.getSourceState(), row.getTrigger(), transitions[state][event].target());
+                continue;
+            }
+            transitions[state][event] = new Transition(row.getSourceState(), row.getTrigger(), row.getDestState(),
+                    guards.apply(row.getGuardName()), actions.apply(row.getActionName()));
+        }
+
+        log.info("Compiled campaign {}: {} states, {} events, {} transitions",
+                campaignName, stateIds.size(), eventIds.size(), rows.size());
+        return new CampaignTransitionTable(campaignName, Map.copyOf(stateIds), Map.copyOf(eventIds), transitions);
+    }
+
+    /**
+     * @return the transition taken by {@code event} in {@code state}, or null if the event is not accepted there
+     */
+    public Transition find(String state, String event) {
+        Integer stateId = stateIds.get(state);
+        Integer eventId = eventIds.get(event);
+        if (stateId == null || eventId == null) {
+            return null;
+        }
+        return transitions[stateId][eventId];
+    }
+
+    public Set<String> getStates() {
+        return stateIds.keySet();
+    }
+
+    public record Transition(String source, String event, String target,
+                             Guard<String, String> guard, Action<String, String> action) {
+    }
+}
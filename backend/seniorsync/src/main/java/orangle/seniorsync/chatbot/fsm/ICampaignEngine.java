@@ -0,0 +1,13 @@
+package orangle.seniorsync.chatbot.fsm;
+
+import java.util.Map;
+
+public interface ICampaignEngine {
+    /**
+     * @return the latest published version of the campaign, new flows should be pinned to it
+     */
+    int currentVersion(String campaignName);
+
+    CampaignTransitionResult fire(String campaignName, int campaignVersion, String currentState, String event,
+                                  Map<Object, Object> extendedState, Map<String, Object> headers);
+}
@@ -1,8 +1,6 @@
 package orangle.seniorsync.chatbot.fsm.requestcreation.action;
 
-import orangle.seniorsync.chatbot.fsm.requestcreation.util.ContextExtractor;
-import orangle.seniorsync.crm.requestmanagement.model.SeniorRequestDraft;
-import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestDraftRepository;
+import orangle.seniorsync.chatbot.fsm.requestcreation.util.DraftVariables;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.action.Action;
 import org.springframework.stereotype.Component;
@@ -10,21 +8,12 @@ import org.springframework.stereotype.Component;
 @Component("capturePriorityAction")
 public class CapturePriorityAction implements Action<String, String> {
 
-    private final SeniorRequestDraftRepository seniorRequestDraftRepository;
-
-    public CapturePriorityAction(SeniorRequestDraftRepository seniorRequestDraftRepository) {
-        this.seniorRequestDraftRepository = seniorRequestDraftRepository;
-    }
-
     @Override
     public void execute(StateContext<String, String> context) {
-        SeniorRequestDraft draftRequest = ContextExtractor.getSeniorRequestDraft(context, seniorRequestDraftRepository);
-
         String event = context.getEvent();
         Short priority = mapEventToPriority(event);
 
-        draftRequest.setPriority(priority);
-        seniorRequestDraftRepository.save(draftRequest);
+        context.getExtendedState().getVariables().put(DraftVariables.PRIORITY, priority);
     }
 
     private Short mapEventToPriority(String event) {
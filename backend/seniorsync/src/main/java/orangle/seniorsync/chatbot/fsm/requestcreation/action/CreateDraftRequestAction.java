@@ -1,6 +1,7 @@
 package orangle.seniorsync.chatbot.fsm.requestcreation.action;
 
-import orangle.seniorsync.crm.requestmanagement.model.SeniorRequestDraft;
+import orangle.seniorsync.chatbot.fsm.requestcreation.util.ContextExtractor;
+import orangle.seniorsync.chatbot.fsm.requestcreation.util.DraftVariables;
 import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestDraftRepository;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.action.Action;
@@ -22,13 +23,8 @@ public class CreateDraftRequestAction implements Action<String, String> {
             throw new IllegalArgumentException("Senior ID is required");
         }
 
-        SeniorRequestDraft draft = new SeniorRequestDraft();
-        draft.setSeniorId(seniorId);
-        draft = seniorRequestDraftRepository.save(draft);
-
-        // Store draft ID for subsequent steps
-        context.getExtendedState()
-                .getVariables()
-                .put("draftId", draft.getId());
+        // Start from an empty draft, the subsequent steps fill it in the extended state
+        ContextExtractor.discardLegacySeniorRequestDraft(context, seniorRequestDraftRepository);
+        DraftVariables.ALL.forEach(context.getExtendedState().getVariables()::remove);
     }
 }
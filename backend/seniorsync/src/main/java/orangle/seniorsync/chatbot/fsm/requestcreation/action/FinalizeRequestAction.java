@@ -1,6 +1,7 @@
 package orangle.seniorsync.chatbot.fsm.requestcreation.action;
 
 import orangle.seniorsync.chatbot.fsm.requestcreation.util.ContextExtractor;
+import orangle.seniorsync.chatbot.fsm.requestcreation.util.DraftVariables;
 import orangle.seniorsync.crm.requestmanagement.dto.CreateSeniorRequestDto;
 import orangle.seniorsync.crm.requestmanagement.model.SeniorRequestDraft;
 import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestDraftRepository;
@@ -9,6 +10,8 @@ import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.action.Action;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component("finalizeRequestAction")
 public class FinalizeRequestAction implements Action<String, String> {
 
@@ -23,40 +26,59 @@ public class FinalizeRequestAction implements Action<String, String> {
 
     @Override
     public void execute(StateContext<String, String> context) {
-        SeniorRequestDraft draftRequest = ContextExtractor.getSeniorRequestDraft(context, seniorRequestDraftRepository);
+        // Conversations started before drafts moved into the extended state still have their earlier answers in a row
+        SeniorRequestDraft legacyDraft = ContextExtractor.getLegacySeniorRequestDraft(context, seniorRequestDraftRepository);
+
+        Long seniorId = (Long) context.getMessageHeader("seniorId");
+        Long requestTypeId = firstNonNull(ContextExtractor.getOptionalLong(context, DraftVariables.REQUEST_TYPE_ID),
+                legacyDraft != null ? legacyDraft.getRequestTypeId() : null);
+        String title = firstNonNull(ContextExtractor.getOptionalString(context, DraftVariables.TITLE),
+                legacyDraft != null ? legacyDraft.getTitle() : null);
+        String description = firstNonNull(ContextExtractor.getOptionalString(context, DraftVariables.DESCRIPTION),
+                legacyDraft != null ? legacyDraft.getDescription() : null);
+        Long priority = firstNonNull(ContextExtractor.getOptionalLong(context, DraftVariables.PRIORITY),
+                legacyDraft != null && legacyDraft.getPriority() != null ? legacyDraft.getPriority().longValue() : null);
 
         // Validate that all required fields are filled
-        if (draftRequest.getRequestTypeId() == null) {
+        if (seniorId == null) {
+            throw new IllegalArgumentException("Senior ID is required");
+        }
+        if (requestTypeId == null) {
             throw new IllegalArgumentException("Request type is required");
         }
-        if (draftRequest.getTitle() == null || draftRequest.getTitle().trim().isEmpty()) {
+        if (title == null || title.trim().isEmpty()) {
             throw new IllegalArgumentException("Title is required");
         }
-        if (draftRequest.getDescription() == null || draftRequest.getDescription().trim().isEmpty()) {
+        if (description == null || description.trim().isEmpty()) {
             throw new IllegalArgumentException("Description is required");
         }
-        if (draftRequest.getPriority() == null) {
+        if (priority == null) {
             throw new IllegalArgumentException("Priority is required");
         }
 
         // Create the final request using the existing service
         CreateSeniorRequestDto createDto = new CreateSeniorRequestDto(
-                draftRequest.getSeniorId(),
-                draftRequest.getRequestTypeId(),
-                draftRequest.getTitle(),
-                draftRequest.getDescription(),
-                draftRequest.getPriority(),
+                seniorId,
+                requestTypeId,
+                title,
+                description,
+                priority.shortValue(),
                 null
         );
 
         var finalRequest = requestManagementService.createRequest(createDto);
 
-        // Store the final request ID in context for potential future use
-        context.getExtendedState()
-                .getVariables()
-                .put("finalRequestId", finalRequest.id());
+        // The draft is done, only the final request ID stays in context for potential future use
+        Map<Object, Object> variables = context.getExtendedState().getVariables();
+        DraftVariables.ALL.forEach(variables::remove);
+        variables.put("finalRequestId", finalRequest.id());
+
+        if (legacyDraft != null) {
+            seniorRequestDraftRepository.delete(legacyDraft);
+        }
+    }
 
-        // Clean up the draftRequest after successful creation
-        seniorRequestDraftRepository.delete(draftRequest);
+    private static <T> T firstNonNull(T value, T fallback) {
+        return value != null ? value : fallback;
     }
 }
@@ -26,11 +26,39 @@ public class ContextExtractor {
         return id;
     }
 
-    public static SeniorRequestDraft getSeniorRequestDraft(
+    /**
+     * @return the draft row of a conversation started before drafts moved into the extended state, or null
+     */
+    public static SeniorRequestDraft getLegacySeniorRequestDraft(
             StateContext<String, String> context,
             SeniorRequestDraftRepository repository) {
-        Long draftRequestId = getLongIdFromContext(context, "draftId", "DraftRequest ID");
-        return repository.findById(draftRequestId)
-                .orElseThrow(() -> new IllegalArgumentException("DraftRequest not found with ID: " + draftRequestId));
+        if (!context.getExtendedState().getVariables().containsKey(DraftVariables.LEGACY_DRAFT_ID)) {
+            return null;
+        }
+        Long draftRequestId = getLongIdFromContext(context, DraftVariables.LEGACY_DRAFT_ID, "DraftRequest ID");
+        return repository.findById(draftRequestId).orElse(null);
+    }
+
+    /**
+     * Deletes the draft row of a conversation started before drafts moved into the extended state, for a flow that
+     * starts over without finalizing it. Rows of conversations that never come back were removed by migration.
+     */
+    public static void discardLegacySeniorRequestDraft(
+            StateContext<String, String> context,
+            SeniorRequestDraftRepository repository) {
+        if (context.getExtendedState().getVariables().containsKey(DraftVariables.LEGACY_DRAFT_ID)) {
+            repository.deleteById(getLongIdFromContext(context, DraftVariables.LEGACY_DRAFT_ID, "DraftRequest ID"));
+        }
+    }
+
+    public static Long getOptionalLong(StateContext<String, String> context, String key) {
+        // JSONB round trips turn Long values into Integer when they fit
+        Object value = context.getExtendedState().getVariables().get(key);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    public static String getOptionalString(StateContext<String, String> context, String key) {
+        Object value = context.getExtendedState().getVariables().get(key);
+        return value != null ? value.toString() : null;
     }
 }
\ No newline at end of file
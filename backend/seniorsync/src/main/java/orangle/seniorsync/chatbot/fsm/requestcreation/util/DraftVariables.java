@@ -0,0 +1,22 @@
+package orangle.seniorsync.chatbot.fsm.requestcreation.util;
+
+import java.util.List;
+
+/**
+ * Extended state keys holding the request being drafted by the lodging_request campaign. The conversation persists
+ * them with its state, the request itself is only written once the senior confirms it.
+ */
+public final class DraftVariables {
+    public static final String REQUEST_TYPE_ID = "draftRequestTypeId";
+    public static final String TITLE = "draftTitle";
+    public static final String DESCRIPTION = "draftDescription";
+    public static final String PRIORITY = "draftPriority";
+
+    // Id of a senior_request_drafts row, only set by conversations started before drafts moved into the extended state
+    public static final String LEGACY_DRAFT_ID = "draftId";
+
+    public static final List<String> ALL = List.of(REQUEST_TYPE_ID, TITLE, DESCRIPTION, PRIORITY, LEGACY_DRAFT_ID);
+
+    private DraftVariables() {
+    }
+}
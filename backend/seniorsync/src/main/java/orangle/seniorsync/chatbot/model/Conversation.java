@@ -39,6 +39,9 @@ public class Conversation {
     @Column(name = "current_state", nullable = false, length = 100)
     private String currentState;
 
+    @Column(name = "campaign_version")
+    private Integer campaignVersion;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "extended_state", nullable = false, columnDefinition = "jsonb")
     private Map<Object, Object> extendedState;
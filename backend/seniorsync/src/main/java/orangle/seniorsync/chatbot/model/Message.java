@@ -37,6 +37,10 @@ public class Message {
     @Column(name = "event", length = 100)
     private String event;
 
+    @Size(max = 100)
+    @Column(name = "client_message_id", length = 100)
+    private String clientMessageId;
+
     @ColumnDefault("now()")
     @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
     private OffsetDateTime createdAt;
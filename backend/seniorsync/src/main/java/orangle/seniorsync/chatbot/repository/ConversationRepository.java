@@ -1,10 +1,40 @@
 package orangle.seniorsync.chatbot.repository;
 
+import jakarta.persistence.LockModeType;
 import orangle.seniorsync.chatbot.model.Conversation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+    /**
+     * @param previousReplyId id of the reply a turn with the same client message id already produced, null if none
+     */
+    record LockedConversation(Conversation conversation, Long previousReplyId) {
+    }
+
     Optional<Conversation> findByCampaignNameAndSeniorId(String campaignName, Long seniorId);
+
+    /**
+     * Same lookup with a row lock held until the transaction ends, so turns of one conversation on different instances
+     * run one after the other. The same statement finds the reply already stored for {@code clientMessageId}, so the
+     * replay check of a turn costs no extra round trip.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new orangle.seniorsync.chatbot.repository.ConversationRepository$LockedConversation(c, " +
+            "(SELECT m.id FROM Message m WHERE m.conversationId = c.id AND m.direction = 'OUT' AND m.clientMessageId = ?3)) " +
+            "FROM Conversation c WHERE c.campaignName = ?1 AND c.seniorId = ?2")
+    Optional<LockedConversation> findForTurn(String campaignName, Long seniorId, String clientMessageId);
+
+    /**
+     * Starts a conversation in {@code initialState} unless the senior already has one for the campaign. A concurrent
+     * first turn waits for the other insert to commit and then inserts nothing, instead of creating a second conversation.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO senior_sync.conversations (campaign_name, senior_id, current_state) VALUES (?1, ?2, ?3) " +
+            "ON CONFLICT (campaign_name, senior_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(String campaignName, Long seniorId, String initialState);
 }
@@ -0,0 +1,108 @@
+package orangle.seniorsync.chatbot.repository;
+
+import lombok.RequiredArgsConstructor;
+import orangle.seniorsync.chatbot.model.FsmTransition;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Published versions of campaign graphs in {@code fsm_campaign_versions}. A version is a snapshot of the campaign's
+ * {@code fsm_transitions} rows, identified by their fingerprint, so publishing an unchanged graph is a no-op and every
+ * instance agrees on the version number.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FsmCampaignVersionRepository {
+    // Guard and action are coalesced, concat_ws would otherwise skip a NULL and shift the remaining fields
+    private static final String FINGERPRINT_SQL = "md5(string_agg(concat_ws('|', trigger, source_state, dest_state, " +
+            "COALESCE(guard_name, ''), COALESCE(action_name, '')), ',' ORDER BY id))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record PublishedVersion(int version, String fingerprint) {
+    }
+
+    /**
+     * @return the current fingerprint of every campaign's transitions
+     */
+    public Map<String, String> findTransitionFingerprints() {
+        Map<String, String> fingerprints = new HashMap<>();
+        jdbcTemplate.query("SELECT campaign_name, " + FINGERPRINT_SQL + " AS fingerprint " +
+                        "FROM senior_sync.fsm_transitions GROUP BY campaign_name",
+                rs -> {
+                    fingerprints.put(rs.getString("campaign_name"), rs.getString("fingerprint"));
+                });
+        return fingerprints;
+    }
+
+    /**
+     * Snapshots the campaign's current transitions as a new version, unless a version with the same content exists.
+     * Fingerprint and snapshot are taken from the same rows in one statement.
+     *
+     * Publishers of one campaign take turns on an advisory lock, so each sees the version the previous one published.
+     *
+     * @return the version holding the current transitions, empty if the campaign has none
+     */
+    // Own transaction, a version handed out must stay published even if the chatbot turn that asked for it rolls back
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<PublishedVersion> publish(String campaignName) {
+        // Without it, two instances publishing the same graph would both miss the other's uncommitted version, and the
+        // one losing the insert would get no row back
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtextextended(?, 0))", rs -> {
+        }, "fsm_campaign_versions:" + campaignName);
+        List<PublishedVersion> published = jdbcTemplate.query(
+                "WITH current_graph AS (" +
+                        "  SELECT " + FINGERPRINT_SQL + " AS fingerprint, " +
+                        "         jsonb_agg(jsonb_build_object('trigger', trigger, 'source_state', source_state, " +
+                        "             'dest_state', dest_state, 'guard_name', guard_name, 'action_name', action_name) ORDER BY id) AS transitions " +
+                        "  FROM senior_sync.fsm_transitions WHERE campaign_name = ?), " +
+                        "existing AS (" +
+                        "  SELECT v.version, v.fingerprint FROM senior_sync.fsm_campaign_versions v " +
+                        "  JOIN current_graph c ON v.fingerprint = c.fingerprint WHERE v.campaign_name = ?), " +
+                        "inserted AS (" +
+                        "  INSERT INTO senior_sync.fsm_campaign_versions (campaign_name, version, fingerprint, transitions) " +
+                        "  SELECT ?, COALESCE((SELECT MAX(version) FROM senior_sync.fsm_campaign_versions WHERE campaign_name = ?), 0) + 1, " +
+                        "         c.fingerprint, c.transitions " +
+                        "  FROM current_graph c WHERE c.fingerprint IS NOT NULL AND NOT EXISTS (SELECT 1 FROM existing) " +
+                        "  ON CONFLICT DO NOTHING " +
+                        "  RETURNING version, fingerprint) " +
+                        "SELECT version, fingerprint FROM existing UNION ALL SELECT version, fingerprint FROM inserted",
+                (rs, rowNum) -> new PublishedVersion(rs.getInt("version"), rs.getString("fingerprint")),
+                campaignName, campaignName, campaignName, campaignName);
+        return published.stream().findFirst();
+    }
+
+    /**
+     * @return the transitions of a published version as detached entities, in their original order, empty if the
+     * version does not exist
+     */
+    public List<FsmTransition> findTransitions(String campaignName, int version) {
+        return jdbcTemplate.query(
+                "SELECT e.t ->> 'trigger' AS trigger, e.t ->> 'source_state' AS source_state, e.t ->> 'dest_state' AS dest_state, " +
+                        "e.t ->> 'guard_name' AS guard_name, e.t ->> 'action_name' AS action_name " +
+                        "FROM senior_sync.fsm_campaign_versions v " +
+                        "CROSS JOIN LATERAL jsonb_array_elements(v.transitions) WITH ORDINALITY AS e(t, ord) " +
+                        "WHERE v.campaign_name = ? AND v.version = ? ORDER BY e.ord",
+                (rs, rowNum) -> mapRow(rs, campaignName), campaignName, version);
+    }
+
+    private FsmTransition mapRow(ResultSet rs, String campaignName) throws SQLException {
+        FsmTransition transition = new FsmTransition();
+        transition.setCampaignName(campaignName);
+        transition.setTrigger(rs.getString("trigger"));
+        transition.setSourceState(rs.getString("source_state"));
+        transition.setDestState(rs.getString("dest_state"));
+        transition.setGuardName(rs.getString("guard_name"));
+        transition.setActionName(rs.getString("action_name"));
+        return transition;
+    }
+}
@@ -2,9 +2,18 @@ package orangle.seniorsync.chatbot.repository;
 
 import orangle.seniorsync.chatbot.model.FsmStatePrompt;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface FsmStatePromptRepository extends JpaRepository<FsmStatePrompt, Long> {
     Optional<FsmStatePrompt> findByCampaignNameAndStateAndLanguageCode(String campaignName, String state, String languageCode);
-}
\ No newline at end of file
+
+    // Content hash of everything the chatbot catalog is built from, the tables are small enough to hash in full
+    @Query(value = "SELECT md5(" +
+            "(SELECT COALESCE(string_agg(p::text, ',' ORDER BY p.id), '') FROM senior_sync.fsm_state_prompts p) || '|' || " +
+            "(SELECT COALESCE(string_agg(o::text, ',' ORDER BY o.id), '') FROM senior_sync.fsm_state_reply_option o) || '|' || " +
+            "(SELECT COALESCE(string_agg(t.id || ':' || t.name, ',' ORDER BY t.id), '') FROM senior_sync.request_types t))",
+            nativeQuery = true)
+    String findCatalogFingerprint();
+}
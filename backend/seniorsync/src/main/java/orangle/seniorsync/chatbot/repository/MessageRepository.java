@@ -1,16 +1,26 @@
 package orangle.seniorsync.chatbot.repository;
 
 import orangle.seniorsync.chatbot.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
-public interface MessageRepository extends JpaRepository<Message, Long> {
+public interface MessageRepository extends JpaRepository<Message, Long>, MessageRepositoryCustom {
     List<Message> findByConversationIdOrderByCreatedAtAsc(Long conversationId);
 
+    /**
+     * Keyset page of a senior's messages older than {@code beforeId}, newest first. Ids grow with insertion order, so
+     * they make a stable cursor that does not shift when new messages arrive.
+     */
     @Query("SELECT m FROM Message m WHERE m.conversationId IN " +
             "(SELECT c.id FROM Conversation c WHERE c.seniorId = ?1 AND c.campaignName = ?2) " +
-            "ORDER BY m.createdAt ASC")
-    List<Message> findBySeniorIdAndCampaignNameOrderByCreatedAtAsc(Long seniorId, String campaignName);
+            "AND m.id < ?3 ORDER BY m.id DESC")
+    List<Message> findHistoryPage(Long seniorId, String campaignName, Long beforeId, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.conversationId = ?1")
+    int deleteByConversationId(Long conversationId);
 }
@@ -0,0 +1,14 @@
+package orangle.seniorsync.chatbot.repository;
+
+import orangle.seniorsync.chatbot.model.Message;
+
+import java.util.List;
+
+public interface MessageRepositoryCustom {
+
+    /**
+     * Insert all messages with a single multi-row INSERT and return them, in order, with their generated ids and timestamps.
+     * IDENTITY keys stop Hibernate from batching inserts, so {@code saveAll} would issue one statement per message.
+     */
+    List<Message> insertAll(List<Message> messages);
+}
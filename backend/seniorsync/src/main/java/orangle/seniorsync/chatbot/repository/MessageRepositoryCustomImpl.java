@@ -0,0 +1,52 @@
+package orangle.seniorsync.chatbot.repository;
+
+import lombok.RequiredArgsConstructor;
+import orangle.seniorsync.chatbot.model.Message;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Message> insertAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO senior_sync.messages (conversation_id, direction, content, event, client_message_id) VALUES ");
+        Object[] args = new Object[messages.size() * 5];
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+            args[i * 5] = message.getConversationId();
+            args[i * 5 + 1] = message.getDirection();
+            args[i * 5 + 2] = message.getContent();
+            args[i * 5 + 3] = message.getEvent();
+            args[i * 5 + 4] = message.getClientMessageId();
+        }
+        // Identity values follow the VALUES order, so sorting on id keeps the caller's order
+        String query = "WITH inserted AS (" + sql + " RETURNING id, conversation_id, direction, content, event, client_message_id, created_at) " +
+                "SELECT * FROM inserted ORDER BY id";
+
+        return jdbcTemplate.query(query, this::mapRow, args);
+    }
+
+    private Message mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return Message.builder()
+                .id(rs.getLong("id"))
+                .conversationId(rs.getLong("conversation_id"))
+                .direction(rs.getString("direction"))
+                .content(rs.getString("content"))
+                .event(rs.getString("event"))
+                .clientMessageId(rs.getString("client_message_id"))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package orangle.seniorsync.chatbot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes chatbot turns per conversation, keyed by (campaign, senior), while turns of different conversations run
+ * in parallel.
+ * <p>
+ * Keys are hashed onto a fixed set of fair locks ({@code seniorsync.chatbot.turn-dispatcher.stripes}), so memory stays
+ * bounded no matter how many seniors are chatting; two conversations sharing a stripe only wait on each other's turn.
+ * The lock is held around the whole turn transaction, so a double tap or a retried webhook sees the committed state
+ * of the turn before it. Across instances the conversation row lock taken by the turn does the same job.
+ */
+@Slf4j
+@Component
+public class ConversationTurnDispatcher {
+    private final ReentrantLock[] stripes;
+    private final long waitTimeoutMs;
+
+    public ConversationTurnDispatcher(
+            @Value("${seniorsync.chatbot.turn-dispatcher.stripes:256}") int stripeCount,
+            @Value("${seniorsync.chatbot.turn-dispatcher.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount) * 2 - 1); // Round up to a power of two
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock(true); // Fair, so turns of a conversation run in arrival order
+        }
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    public <T> T dispatch(String campaignName, Long seniorId, Supplier<T> turn) {
+        ReentrantLock lock = stripeFor(campaignName, seniorId);
+        try {
+            if (!lock.tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for the previous turn of senior {} in campaign {}", seniorId, campaignName);
+                throw new IllegalStateException("Another message of this conversation is still being processed, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the conversation lock", e);
+        }
+        try {
+            return turn.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(String campaignName, Long seniorId) {
+        int h = Objects.hash(campaignName, seniorId);
+        h ^= h >>> 16; // Spread the high bits, the mask only keeps the low ones
+        return stripes[h & (stripes.length - 1)];
+    }
+}
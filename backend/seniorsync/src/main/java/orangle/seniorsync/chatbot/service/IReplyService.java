@@ -6,6 +6,6 @@ import orangle.seniorsync.chatbot.dto.ReplyDto;
 import java.util.List;
 
 public interface IReplyService {
-    ReplyDto replyMessage(String campaignName, Long seniorId, ReplyOption replyOption, String languageCode);
+    ReplyDto replyMessage(String campaignName, Long seniorId, ReplyOption replyOption, String clientMessageId, String languageCode);
     ReplyDto getCurrentReplyResponse(String campaignName, Long seniorId, String languageCode);
 }
@@ -2,18 +2,24 @@ package orangle.seniorsync.chatbot.service;
 
 import orangle.seniorsync.chatbot.dto.ConversationDto;
 import orangle.seniorsync.chatbot.dto.MessageDto;
+import orangle.seniorsync.chatbot.dto.MessageHistoryPageDto;
 import orangle.seniorsync.chatbot.mapper.ConversationMapper;
 import orangle.seniorsync.chatbot.mapper.MessageMapper;
 import orangle.seniorsync.chatbot.model.Conversation;
+import orangle.seniorsync.chatbot.model.Message;
 import orangle.seniorsync.chatbot.repository.ConversationRepository;
 import orangle.seniorsync.chatbot.repository.MessageRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class MessageService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     
     private final MessageRepository messageRepository;
     private final ConversationRepository conversationRepository;
@@ -38,20 +44,43 @@ public class MessageService {
                 .toList();
     }
     
+    /**
+     * The newest {@value #MAX_HISTORY_PAGE_SIZE} messages of the senior in the campaign, oldest first.
+     *
+     * @deprecated for clients that have not moved to {@link #getMessageHistory}, which pages through older messages
+     */
+    @Deprecated
     public List<MessageDto> getMessagesBySeniorAndCampaign(Long seniorId, String campaignName) {
-        return messageRepository.findBySeniorIdAndCampaignNameOrderByCreatedAtAsc(seniorId, campaignName)
-                .stream()
+        return getMessageHistory(seniorId, campaignName, null, MAX_HISTORY_PAGE_SIZE).messages().reversed();
+    }
+    
+    /**
+     * @param before id of a message; the page holds the messages older than it (smaller ids), or the newest ones if null
+     * @param limit page size, clamped to 1-{@value #MAX_HISTORY_PAGE_SIZE}
+     */
+    public MessageHistoryPageDto getMessageHistory(Long seniorId, String campaignName, Long before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        // One extra row tells whether an older page exists without a count query
+        List<Message> page = messageRepository.findHistoryPage(seniorId, campaignName,
+                before != null ? before : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = page.size() > pageSize;
+        List<MessageDto> messages = page.stream()
+                .limit(pageSize)
                 .map(messageMapper::toDto)
                 .toList();
+        Long nextBefore = hasMore ? messages.getLast().id() : null;
+        return new MessageHistoryPageDto(messages, nextBefore, hasMore);
     }
-    
+
     public Optional<ConversationDto> getActiveConversation(Long seniorId, String campaignName) {
         return conversationRepository.findByCampaignNameAndSeniorId(campaignName, seniorId)
                 .filter(conv -> !"COMPLETED".equals(conv.getCurrentState()))
                 .map(conversationMapper::toDto);
     }
     
-    public void clearConversationMessages(Long conversationId) {
-        messageRepository.deleteAll(messageRepository.findByConversationIdOrderByCreatedAtAsc(conversationId));
+    @Transactional
+    public int clearConversationMessages(Long conversationId) {
+        return messageRepository.deleteByConversationId(conversationId);
     }
 }
\ No newline at end of file
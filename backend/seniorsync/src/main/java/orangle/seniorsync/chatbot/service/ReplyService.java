@@ -3,81 +3,98 @@ package orangle.seniorsync.chatbot.service;
 import lombok.extern.slf4j.Slf4j;
 import orangle.seniorsync.chatbot.dto.ReplyOption;
 import orangle.seniorsync.chatbot.dto.ReplyDto;
-import orangle.seniorsync.chatbot.fsm.ConversationStateMachinePersister;
-import orangle.seniorsync.chatbot.fsm.ICampaignStateMachineFactory;
+import orangle.seniorsync.chatbot.fsm.CampaignTransitionResult;
+import orangle.seniorsync.chatbot.fsm.CampaignTransitionTable;
+import orangle.seniorsync.chatbot.fsm.ICampaignEngine;
 import orangle.seniorsync.chatbot.model.Conversation;
 import orangle.seniorsync.chatbot.model.Message;
 import orangle.seniorsync.chatbot.repository.ConversationRepository;
+import orangle.seniorsync.chatbot.repository.ConversationRepository.LockedConversation;
 import orangle.seniorsync.chatbot.repository.FsmStateReplyOptionsRepository;
 import orangle.seniorsync.chatbot.repository.MessageRepository;
 import orangle.seniorsync.chatbot.service.replyoption.IReplyOptionStrategyContext;
 import orangle.seniorsync.chatbot.service.replyprompt.IReplyPromptService;
-import org.springframework.messaging.support.MessageBuilder;
-import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.StateMachineEventResult;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class ReplyService implements IReplyService {
+    private static final Set<String> FLOW_BOUNDARY_STATES = Set.of(CampaignTransitionTable.INITIAL_STATE, "COMPLETED");
 
-    private final ICampaignStateMachineFactory campaignStateMachineFactory;
+    private final ICampaignEngine campaignEngine;
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
-    private final ConversationStateMachinePersister conversationStateMachinePersister;
     private final IReplyOptionStrategyContext replyOptionStrategyContext;
     private final IReplyPromptService replyPromptService;
 
-    public ReplyService(ICampaignStateMachineFactory campaignStateMachineFactory,
+    public ReplyService(ICampaignEngine campaignEngine,
                         ConversationRepository conversationRepository,
                         MessageRepository messageRepository,
                         FsmStateReplyOptionsRepository fsmStateReplyOptionsRepository,
-                        ConversationStateMachinePersister conversationStateMachinePersister,
                         IReplyOptionStrategyContext replyOptionStrategyContext,
                         IReplyPromptService replyPromptService) {
-        this.campaignStateMachineFactory = campaignStateMachineFactory;
+        this.campaignEngine = campaignEngine;
         this.conversationRepository = conversationRepository;
         this.messageRepository = messageRepository;
-        this.conversationStateMachinePersister = conversationStateMachinePersister;
         this.replyOptionStrategyContext = replyOptionStrategyContext;
         this.replyPromptService = replyPromptService;
     }
 
-    public ReplyDto replyMessage(String campaignName, Long seniorId, ReplyOption replyOption, String languageCode) {
+    /**
+     * Runs one chatbot turn in a single transaction: the conversation is loaded once and stays managed, the engine
+     * transitions it in memory, and the new state, extended state and both messages are written at the end. An
+     * ongoing conversation costs three statements per turn (locking select, one multi-row message insert, update), a
+     * new one an insert and a second select on top. Prompts and reply options come from the in-memory catalog.
+     * <p>
+     * The conversation row is locked for the turn. The locking select also looks up the reply a {@code clientMessageId}
+     * already produced; such a turn returns the stored reply, with the options of the conversation's current state,
+     * instead of firing the event again.
+     */
+    @Override
+    @Transactional
+    public ReplyDto replyMessage(String campaignName, Long seniorId, ReplyOption replyOption, String clientMessageId, String languageCode) {
         String fsmEvent = replyOption.fsmEvent();
         String replyDisplayText = replyOption.displayText();
         String replyValue = replyOption.value();
 
         // Assuming one senior can only have one open request at a time
-        Conversation conversation = loadExistingOrCreateNewConversation(campaignName, seniorId);
+        LockedConversation locked = loadExistingOrCreateNewConversation(campaignName, seniorId, clientMessageId);
+        Conversation conversation = locked.conversation();
         log.info("Conversation loaded or created of id: {}", conversation.getId());
 
-        Message incomingMessage = persistMessage(conversation.getId(), replyDisplayText, "IN"); // use enum for direction
-        log.info("Incoming message persisted with id: {}", incomingMessage.getId());
-
-        // Restore and start conversation fsm
-        StateMachine<String, String> stateMachine = campaignStateMachineFactory.getStateMachine(campaignName, conversation.getId().toString());
-        conversationStateMachinePersister.restore(stateMachine, conversation.getId());
-        stateMachine.startReactively().block();
-
-        String currentState = stateMachine.getState().getId();
+        if (locked.previousReplyId() != null) {
+            // Only a retried turn reads the reply's content
+            Message previousReply = messageRepository.findById(locked.previousReplyId())
+                    .orElseThrow(() -> new IllegalStateException("Reply " + locked.previousReplyId() + " vanished while locked"));
+            log.info("Message {} was already handled, replaying reply {}", clientMessageId, previousReply.getId());
+            return new ReplyDto(
+                    previousReply.getId(),
+                    seniorId,
+                    previousReply.getContent(),
+                    replyOptionStrategyContext.getReplyOptionContents(campaignName, conversation.getCurrentState(), languageCode)
+            );
+        }
 
-        // Trigger fsm transition with the event
-        StateMachineEventResult<String, String> stateTransitionResult = stateMachine.sendEvent(Mono.just(MessageBuilder.withPayload(fsmEvent)
-                .setHeader("conversationId", conversation.getId())
-                .setHeader("seniorId", seniorId)
-                .setHeader("text", replyValue)
-                .build())).blockLast();
+        // Run the transition on the campaign's compiled table, actions update the extended state in place
+        String currentState = conversation.getCurrentState();
+        Map<Object, Object> extendedState = new HashMap<>(conversation.getExtendedState());
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("conversationId", conversation.getId());
+        headers.put("seniorId", seniorId);
+        headers.put("text", replyValue);
+        CampaignTransitionResult stateTransitionResult = campaignEngine.fire(
+                campaignName, pinCampaignVersion(conversation), currentState, fsmEvent, extendedState, headers);
 
         verifyFsmStateEventAccepted(stateTransitionResult);
 
         // Verify that the state machine transitioned to a new state
-        String newState = stateMachine.getState().getId();
+        String newState = stateTransitionResult.targetState();
         boolean isTransitioned = newState != null && !newState.equals(currentState);
         if (!isTransitioned) {
             log.error("State machine did not transition from '{}' with event '{}'. Current state remains '{}'", currentState, fsmEvent, newState);
@@ -86,18 +103,20 @@ public class ReplyService implements IReplyService {
 
         log.info("Fsm transitioned successfully from: {} -> {}", currentState, newState);
 
-        // Persist new FSM state after processing the event
-        conversationStateMachinePersister.persist(stateMachine, conversation.getId());
+        // The conversation is managed, the new FSM state is flushed as one UPDATE on commit
         conversation.setCurrentState(newState);
-
-        stateMachine.stopReactively().block();
+        conversation.setExtendedState(extendedState);
 
         // Prepare outbound reply - get reply prompt and options for the NEW state
         String replyMessagePrompt = replyPromptService.getReplyPrompt(campaignName, newState, languageCode);
         List<ReplyOption> replyOptions = replyOptionStrategyContext.getReplyOptionContents(campaignName, newState, languageCode);
 
-        // Persist outbound message
-        Message savedOut = persistMessage(conversation.getId(), replyMessagePrompt, "OUT");
+        // Persist inbound and outbound messages together
+        List<Message> savedMessages = messageRepository.insertAll(List.of(
+                buildMessage(conversation.getId(), replyDisplayText, "IN", clientMessageId), // use enum for direction
+                buildMessage(conversation.getId(), replyMessagePrompt, "OUT", clientMessageId)));
+        Message savedOut = savedMessages.get(1);
+        log.info("Messages persisted with ids: {} (in), {} (out)", savedMessages.get(0).getId(), savedOut.getId());
 
         return new ReplyDto(
                 savedOut.getId(),
@@ -133,46 +152,43 @@ public class ReplyService implements IReplyService {
                 });
     }
 
-    private Conversation loadExistingOrCreateNewConversation(String campaignName, Long seniorId) {
-        Conversation conversation = conversationRepository.findByCampaignNameAndSeniorId(campaignName, seniorId)
-                .orElseGet(() -> Conversation.builder()
-                        .campaignName(campaignName)
-                        .seniorId(seniorId)
-                        .currentState("INIT")
-                        .extendedState(new HashMap<>())
-                        .build());
-        return conversationRepository.save(conversation);
+    private LockedConversation loadExistingOrCreateNewConversation(String campaignName, Long seniorId, String clientMessageId) {
+        // The conversation is returned managed and locked. A first turn inserts it, or finds the one a concurrent
+        // first turn inserted, and loads it the same way
+        return conversationRepository.findForTurn(campaignName, seniorId, clientMessageId)
+                .orElseGet(() -> {
+                    conversationRepository.insertIfAbsent(campaignName, seniorId, CampaignTransitionTable.INITIAL_STATE);
+                    return conversationRepository.findForTurn(campaignName, seniorId, clientMessageId)
+                            .orElseThrow(() -> new IllegalStateException("Conversation of senior " + seniorId + " vanished after insert"));
+                });
+    }
+
+    /**
+     * A conversation runs a flow on the campaign version it started it with, edits to the campaign only reach it once
+     * it is back at the start (or done) and begins the next flow.
+     */
+    private int pinCampaignVersion(Conversation conversation) {
+        if (conversation.getCampaignVersion() == null || FLOW_BOUNDARY_STATES.contains(conversation.getCurrentState())) {
+            conversation.setCampaignVersion(campaignEngine.currentVersion(conversation.getCampaignName()));
+        }
+        return conversation.getCampaignVersion();
     }
 
-    private Message persistMessage(Long conversationId, String messageText, String direction) {
-        Message newMessage = Message.builder()
+    private Message buildMessage(Long conversationId, String messageText, String direction, String clientMessageId) {
+        return Message.builder()
                 .conversationId(conversationId)
                 .content(messageText)
                 .direction(direction)
+                .clientMessageId(clientMessageId)
                 .build();
-        return messageRepository.save(newMessage);
     }
 
-    private void verifyFsmStateEventAccepted(StateMachineEventResult<String, String> stateMachineEventResult) {
-        if (stateMachineEventResult == null) {
-            log.error("State machine event result is null");
-            throw new IllegalStateException("State machine event result is null");
-        }
-
-        StateMachineEventResult.ResultType resultType = stateMachineEventResult.getResultType();
-        switch (resultType) {
-            case ACCEPTED:
-                log.info("Event was accepted and processed successfully");
-                break;
-            case DENIED:
-                log.error("Event was denied by the state machine");
-                throw new IllegalStateException("State machine denied the event, see above logs for state machine errors (if any)");
-            case DEFERRED:
-                log.warn("Event was deferred");
-                break;
-            default:
-                log.error("Unexpected result type: {}", resultType);
-                throw new IllegalStateException("Unexpected state machine result: " + resultType);
+    private void verifyFsmStateEventAccepted(CampaignTransitionResult stateTransitionResult) {
+        if (stateTransitionResult.accepted()) {
+            log.info("Event was accepted and processed successfully");
+            return;
         }
+        log.error("Event was denied by the state machine");
+        throw new IllegalStateException("State machine denied the event, see above logs for state machine errors (if any)");
     }
 }
@@ -0,0 +1,132 @@
+package orangle.seniorsync.chatbot.service.catalog;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.chatbot.dto.ReplyOption;
+import orangle.seniorsync.chatbot.model.FsmStatePrompt;
+import orangle.seniorsync.chatbot.model.FsmStateReplyOption;
+import orangle.seniorsync.crm.requestmanagement.model.RequestType;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of everything needed to render chatbot replies: prompts and reply options per
+ * (campaign, state, language), and the request types with their translated names.
+ * <p>
+ * Snapshots are built in one go and replaced as a whole, so a reader always sees one consistent version.
+ */
+@Slf4j
+public final class ChatbotCatalog {
+    public static final String REQUEST_TYPE_EVENT = "TYPE_SUBMITTED";
+
+    private final Map<StateKey, String> prompts;
+    private final Map<StateKey, List<ReplyOption>> replyOptions;
+    private final List<RequestType> requestTypes;
+    private final Map<String, Long> requestTypeIds;
+    private final Map<String, List<ReplyOption>> requestTypeOptions; // By language code
+    @Getter
+    private final String fingerprint;
+    @Getter
+    private final OffsetDateTime loadedAt;
+
+    private ChatbotCatalog(Map<StateKey, String> prompts, Map<StateKey, List<ReplyOption>> replyOptions,
+                           List<RequestType> requestTypes, Map<String, List<ReplyOption>> requestTypeOptions,
+                           String fingerprint) {
+        this.prompts = prompts;
+        this.replyOptions = replyOptions;
+        this.requestTypes = requestTypes;
+        this.requestTypeOptions = requestTypeOptions;
+        this.fingerprint = fingerprint;
+        this.loadedAt = OffsetDateTime.now();
+
+        Map<String, Long> ids = new HashMap<>();
+        requestTypes.forEach(requestType -> ids.putIfAbsent(requestType.getName(), requestType.getId()));
+        this.requestTypeIds = Map.copyOf(ids);
+    }
+
+    /**
+     * @param replyOptionRows reply options in display order
+     */
+    public static ChatbotCatalog build(List<FsmStatePrompt> promptRows, List<FsmStateReplyOption> replyOptionRows,
+                                       List<RequestType> requestTypes, String fingerprint) {
+        Set<String> languageCodes = new HashSet<>();
+
+        Map<StateKey, String> prompts = new HashMap<>();
+        for (FsmStatePrompt row : promptRows) {
+            prompts.put(new StateKey(row.getCampaignName(), row.getState(), row.getLanguageCode()), row.getPrompt());
+            languageCodes.add(row.getLanguageCode());
+        }
+
+        Map<StateKey, List<ReplyOption>> replyOptions = new HashMap<>();
+        for (FsmStateReplyOption row : replyOptionRows) {
+            replyOptions.computeIfAbsent(new StateKey(row.getCampaignName(), row.getState(), row.getLanguageCode()), key -> new ArrayList<>())
+                    .add(new ReplyOption(row.getContent(), row.getContent(), row.getEvent()));
+            languageCodes.add(row.getLanguageCode());
+        }
+        replyOptions.replaceAll((key, options) -> List.copyOf(options));
+
+        List<RequestType> types = List.copyOf(requestTypes);
+        Map<String, List<ReplyOption>> requestTypeOptions = new HashMap<>();
+        for (String languageCode : languageCodes) {
+            requestTypeOptions.put(languageCode, translateRequestTypes(types, languageCode, true));
+        }
+
+        log.info("Loaded chatbot catalog: {} prompts, {} reply option sets, {} request types, languages {}",
+                prompts.size(), replyOptions.size(), types.size(), languageCodes);
+        return new ChatbotCatalog(Map.copyOf(prompts), Map.copyOf(replyOptions), types, Map.copyOf(requestTypeOptions), fingerprint);
+    }
+
+    public Optional<String> getPrompt(String campaignName, String state, String languageCode) {
+        return Optional.ofNullable(prompts.get(new StateKey(campaignName, state, languageCode)));
+    }
+
+    public List<ReplyOption> getReplyOptions(String campaignName, String state, String languageCode) {
+        return replyOptions.getOrDefault(new StateKey(campaignName, state, languageCode), List.of());
+    }
+
+    /**
+     * Request types as reply options, named in the given language where a translation exists.
+     */
+    public List<ReplyOption> getRequestTypeOptions(String languageCode) {
+        List<ReplyOption> options = requestTypeOptions.get(languageCode);
+        return options != null ? options : translateRequestTypes(requestTypes, languageCode, false);
+    }
+
+    public Optional<Long> getRequestTypeId(String name) {
+        return Optional.ofNullable(requestTypeIds.get(name));
+    }
+
+    public int getPromptCount() {
+        return prompts.size();
+    }
+
+    public int getReplyOptionSetCount() {
+        return replyOptions.size();
+    }
+
+    public int getRequestTypeCount() {
+        return requestTypes.size();
+    }
+
+    private static List<ReplyOption> translateRequestTypes(List<RequestType> requestTypes, String languageCode, boolean warnMissing) {
+        return requestTypes.stream()
+                .map(requestType -> {
+                    String translated = RequestTypeTranslations.translate(requestType.getName(), languageCode);
+                    if (translated == null && warnMissing) {
+                        log.warn("No translation found for request type '{}' in language '{}', using original name", requestType.getName(), languageCode);
+                    }
+                    return new ReplyOption(translated != null ? translated : requestType.getName(), requestType.getName(), REQUEST_TYPE_EVENT);
+                })
+                .toList();
+    }
+
+    private record StateKey(String campaignName, String state, String languageCode) {
+    }
+}
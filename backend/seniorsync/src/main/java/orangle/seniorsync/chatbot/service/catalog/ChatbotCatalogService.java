@@ -0,0 +1,81 @@
+package orangle.seniorsync.chatbot.service.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.chatbot.repository.FsmStatePromptRepository;
+import orangle.seniorsync.chatbot.repository.FsmStateReplyOptionsRepository;
+import orangle.seniorsync.crm.requestmanagement.repository.RequestTypeRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link ChatbotCatalog}, so rendering a reply needs no database access.
+ * <p>
+ * The catalog is loaded at startup and swapped atomically on reload. Reloads happen on demand (the admin endpoint) and
+ * when the content fingerprint of the underlying tables changes, which is polled every
+ * {@code seniorsync.chatbot.catalog.refresh-interval-ms} so every instance picks up edits made through another one.
+ */
+@Slf4j
+@Service
+public class ChatbotCatalogService implements IChatbotCatalogService {
+    private final FsmStatePromptRepository fsmStatePromptRepository;
+    private final FsmStateReplyOptionsRepository fsmStateReplyOptionsRepository;
+    private final RequestTypeRepository requestTypeRepository;
+    private final AtomicReference<ChatbotCatalog> catalog;
+    // A lock rather than synchronized: the reload queries the database, which would pin a virtual thread's carrier
+    private final Lock reloadLock = new ReentrantLock();
+
+    public ChatbotCatalogService(FsmStatePromptRepository fsmStatePromptRepository,
+                                 FsmStateReplyOptionsRepository fsmStateReplyOptionsRepository,
+                                 RequestTypeRepository requestTypeRepository) {
+        this.fsmStatePromptRepository = fsmStatePromptRepository;
+        this.fsmStateReplyOptionsRepository = fsmStateReplyOptionsRepository;
+        this.requestTypeRepository = requestTypeRepository;
+        this.catalog = new AtomicReference<>(load());
+    }
+
+    @Override
+    public ChatbotCatalog getCatalog() {
+        return catalog.get();
+    }
+
+    @Override
+    public ChatbotCatalog reload() {
+        reloadLock.lock();
+        try {
+            ChatbotCatalog loaded = load();
+            catalog.set(loaded);
+            return loaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${seniorsync.chatbot.catalog.refresh-interval-ms:60000}")
+    public void reloadIfChanged() {
+        try {
+            String fingerprint = fsmStatePromptRepository.findCatalogFingerprint();
+            if (!fingerprint.equals(catalog.get().getFingerprint())) {
+                log.info("Chatbot catalog changed, reloading");
+                reload();
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current catalog, the next poll retries
+            log.warn("Failed to refresh chatbot catalog: {}", e.getMessage());
+        }
+    }
+
+    private ChatbotCatalog load() {
+        // Fingerprint first, so a change made while loading triggers another reload on the next poll
+        String fingerprint = fsmStatePromptRepository.findCatalogFingerprint();
+        return ChatbotCatalog.build(
+                fsmStatePromptRepository.findAll(),
+                fsmStateReplyOptionsRepository.findAll(Sort.by("id")),
+                requestTypeRepository.findAll(),
+                fingerprint);
+    }
+}
@@ -0,0 +1,6 @@
+package orangle.seniorsync.chatbot.service.catalog;
+
+public interface IChatbotCatalogService {
+    ChatbotCatalog getCatalog();
+    ChatbotCatalog reload();
+}
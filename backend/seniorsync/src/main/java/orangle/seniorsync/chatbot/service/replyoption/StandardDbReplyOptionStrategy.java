@@ -2,8 +2,7 @@ package orangle.seniorsync.chatbot.service.replyoption;
 
 import lombok.extern.slf4j.Slf4j;
 import orangle.seniorsync.chatbot.dto.ReplyOption;
-import orangle.seniorsync.chatbot.model.FsmStateReplyOption;
-import orangle.seniorsync.chatbot.repository.FsmStateReplyOptionsRepository;
+import orangle.seniorsync.chatbot.service.catalog.IChatbotCatalogService;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
@@ -14,10 +13,10 @@ import java.util.List;
 @Order // This is the default strategy, it by default have the lowest precedence if not specified.
 public class StandardDbReplyOptionStrategy implements IReplyOptionStrategy {
 
-    private final FsmStateReplyOptionsRepository fsmStateReplyOptionsRepository;
+    private final IChatbotCatalogService chatbotCatalogService;
 
-    public StandardDbReplyOptionStrategy(FsmStateReplyOptionsRepository fsmStateReplyOptionsRepository) {
-        this.fsmStateReplyOptionsRepository = fsmStateReplyOptionsRepository;
+    public StandardDbReplyOptionStrategy(IChatbotCatalogService chatbotCatalogService) {
+        this.chatbotCatalogService = chatbotCatalogService;
     }
 
     @Override
@@ -29,16 +28,11 @@ public class StandardDbReplyOptionStrategy implements IReplyOptionStrategy {
 
     @Override
     public List<ReplyOption> getReplyOptions(String campaignName, String state, String languageCode) {
-        List<FsmStateReplyOption> fsmStateReplyOptions = fsmStateReplyOptionsRepository.findByCampaignNameAndStateAndLanguageCode(campaignName, state, languageCode);
-        if (fsmStateReplyOptions.isEmpty()) {
+        // Served from the preloaded catalog of fsm_state_reply_option rows
+        List<ReplyOption> replyOptions = chatbotCatalogService.getCatalog().getReplyOptions(campaignName, state, languageCode);
+        if (replyOptions.isEmpty()) {
             log.warn("No standard reply options found for campaign: {} and state: {} and language_code {}", campaignName, state, languageCode);
         }
-        return fsmStateReplyOptions.stream()
-                .map(fsmStateReplyOption -> new ReplyOption(
-                        fsmStateReplyOption.getContent(),
-                        fsmStateReplyOption.getContent(),
-                        fsmStateReplyOption.getEvent()
-                ))
-                .toList();
+        return replyOptions;
     }
 }
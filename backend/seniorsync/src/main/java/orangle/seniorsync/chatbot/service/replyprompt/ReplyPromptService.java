@@ -1,22 +1,21 @@
 package orangle.seniorsync.chatbot.service.replyprompt;
 
-import orangle.seniorsync.chatbot.repository.FsmStatePromptRepository;
+import orangle.seniorsync.chatbot.service.catalog.IChatbotCatalogService;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ReplyPromptService implements IReplyPromptService {
 
-    private final FsmStatePromptRepository fsmStatePromptRepository;
+    private final IChatbotCatalogService chatbotCatalogService;
 
-    public ReplyPromptService(FsmStatePromptRepository fsmStatePromptRepository) {
-        this.fsmStatePromptRepository = fsmStatePromptRepository;
+    public ReplyPromptService(IChatbotCatalogService chatbotCatalogService) {
+        this.chatbotCatalogService = chatbotCatalogService;
     }
 
     @Override
     public String getReplyPrompt(String campaignName, String state, String languageCode) {
-        return fsmStatePromptRepository
-                .findByCampaignNameAndStateAndLanguageCode(campaignName, state, languageCode)
-                .orElseThrow(() -> new IllegalArgumentException("Prompt not found for campaign: " + campaignName + ", state: " + state + ", language: " + languageCode))
-                .getPrompt();
+        return chatbotCatalogService.getCatalog()
+                .getPrompt(campaignName, state, languageCode)
+                .orElseThrow(() -> new IllegalArgumentException("Prompt not found for campaign: " + campaignName + ", state: " + state + ", language: " + languageCode));
     }
 }
@@ -1,22 +1,181 @@
 package orangle.seniorsync.common.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Workload-isolated executors (bulkheads).
+ * <p>
+ * Each workload gets its own pool so that one slow dependency cannot starve the others:
+ * <ul>
+ *   <li><strong>llmExecutor:</strong> LLM calls (spam checks, rankings). Slow and expensive, so the queue is bounded and
+ *   overflow is rejected straight away (fail fast) rather than piling up behind the Anthropic API.</li>
+ *   <li><strong>mailExecutor:</strong> SMTP notifications. Overflow runs on the caller thread, we prefer back-pressure over dropping emails.</li>
+ *   <li><strong>backgroundExecutor:</strong> light-weight fan-out work. Also the default for a plain {@code @Async}.</li>
+ *   <li><strong>quartzExecutor:</strong> Quartz reminder jobs. Kept apart from background work so a burst of due reminders
+ *   cannot fill the background queue, and a backlog of fan-out work cannot delay reminders. Overflow runs on the Quartz
+ *   scheduler thread, which holds back further triggers until a worker frees up.</li>
+ * </ul>
+ * Pool utilisation and queue depth are published by actuator under {@code executor.*} (tagged with the bean name);
+ * rejected tasks are counted under {@code seniorsync.executor.rejected}.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true} the LLM, background and Quartz executors start one virtual thread per
+ * task instead of using a pool, so blocked JDBC/HTTP calls cost no platform thread. The bulkheads stay in place: each
+ * executor caps concurrent tasks at its {@code max-size} and further submitters wait for a free slot, and the active and
+ * maximum task counts are published as {@code executor.active} and {@code executor.pool.max}. The mail executor always
+ * stays on platform threads because Jakarta Mail sends inside {@code synchronized} blocks, which would pin the carrier
+ * thread for the whole SMTP exchange.
+ */
+@Slf4j
 @Configuration
 @EnableAsync
-public class AsyncConfig {
-    @Bean
-    public TaskExecutor taskExecutor() {
+public class AsyncConfig implements AsyncConfigurer {
+    public static final String LLM_EXECUTOR = "llmExecutor";
+    public static final String MAIL_EXECUTOR = "mailExecutor";
+    public static final String BACKGROUND_EXECUTOR = "backgroundExecutor";
+    public static final String QUARTZ_EXECUTOR = "quartzExecutor";
+
+    private final MeterRegistry meterRegistry;
+    private final BeanFactory beanFactory;
+    private final boolean virtualThreadsEnabled;
+
+    public AsyncConfig(MeterRegistry meterRegistry,
+                       BeanFactory beanFactory,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.beanFactory = beanFactory;
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    @Bean(name = LLM_EXECUTOR)
+    public AsyncTaskExecutor llmExecutor(
+            @Value("${seniorsync.executor.llm.core-size:5}") int coreSize,
+            @Value("${seniorsync.executor.llm.max-size:10}") int maxSize,
+            @Value("${seniorsync.executor.llm.queue-capacity:100}") int queueCapacity) {
+        if (virtualThreadsEnabled) {
+            return buildVirtualThreadExecutor(LLM_EXECUTOR, "llm-", maxSize);
+        }
+        return buildExecutor(LLM_EXECUTOR, "llm-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Bean(name = MAIL_EXECUTOR)
+    public AsyncTaskExecutor mailExecutor(
+            @Value("${seniorsync.executor.mail.core-size:2}") int coreSize,
+            @Value("${seniorsync.executor.mail.max-size:4}") int maxSize,
+            @Value("${seniorsync.executor.mail.queue-capacity:500}") int queueCapacity) {
+        return buildExecutor(MAIL_EXECUTOR, "mail-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean(name = BACKGROUND_EXECUTOR)
+    public AsyncTaskExecutor backgroundExecutor(
+            @Value("${seniorsync.executor.background.core-size:2}") int coreSize,
+            @Value("${seniorsync.executor.background.max-size:4}") int maxSize,
+            @Value("${seniorsync.executor.background.queue-capacity:1000}") int queueCapacity) {
+        if (virtualThreadsEnabled) {
+            return buildVirtualThreadExecutor(BACKGROUND_EXECUTOR, "background-", maxSize);
+        }
+        return buildExecutor(BACKGROUND_EXECUTOR, "background-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Bean(name = QUARTZ_EXECUTOR)
+    public AsyncTaskExecutor quartzExecutor(
+            @Value("${seniorsync.executor.quartz.core-size:2}") int coreSize,
+            @Value("${seniorsync.executor.quartz.max-size:4}") int maxSize,
+            @Value("${seniorsync.executor.quartz.queue-capacity:100}") int queueCapacity) {
+        if (virtualThreadsEnabled) {
+            return buildVirtualThreadExecutor(QUARTZ_EXECUTOR, "quartz-", maxSize);
+        }
+        return buildExecutor(QUARTZ_EXECUTOR, "quartz-", coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Executor used by {@code @Async} methods that do not name one explicitly.
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        return beanFactory.getBean(BACKGROUND_EXECUTOR, Executor.class);
+    }
+
+    private ThreadPoolTaskExecutor buildExecutor(String name, String threadNamePrefix, int coreSize, int maxSize,
+                                                 int queueCapacity, RejectedExecutionHandler saturationPolicy) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("spam-filter-");
-        executor.initialize();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(name, saturationPolicy, meterRegistry));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
         return executor;
     }
+
+    private AsyncTaskExecutor buildVirtualThreadExecutor(String name, String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        // Same bulkhead as the pooled mode: submitters block once max-size tasks are running
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskTerminationTimeout(30_000);
+
+        // Actuator only binds pool metrics for ThreadPoolTaskExecutor, so publish the equivalents ourselves
+        AtomicInteger activeTasks = new AtomicInteger();
+        executor.setTaskDecorator(task -> () -> {
+            activeTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeTasks.decrementAndGet();
+            }
+        });
+        Gauge.builder("executor.active", activeTasks, AtomicInteger::get)
+                .description("Tasks currently running on a virtual-thread executor")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("executor.pool.max", executor, SimpleAsyncTaskExecutor::getConcurrencyLimit)
+                .description("Concurrency limit of a virtual-thread executor")
+                .tag("name", name)
+                .register(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Records every saturation event before applying the executor's own policy.
+     */
+    private static class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final String executorName;
+        private final RejectedExecutionHandler delegate;
+        private final Counter rejectedCounter;
+
+        private CountingRejectedExecutionHandler(String executorName, RejectedExecutionHandler delegate, MeterRegistry meterRegistry) {
+            this.executorName = executorName;
+            this.delegate = delegate;
+            this.rejectedCounter = Counter.builder("seniorsync.executor.rejected")
+                    .description("Tasks that hit the saturation policy of a bounded executor")
+                    .tag("executor", executorName)
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            rejectedCounter.increment();
+            log.warn("Executor {} saturated (active: {}, queued: {}), applying {}",
+                    executorName, executor.getActiveCount(), executor.getQueue().size(), delegate.getClass().getSimpleName());
+            delegate.rejectedExecution(task, executor);
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package orangle.seniorsync.common.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+
+/**
+ * Leases on {@code scheduler_leases}. Taking or renewing a lease is a single upsert, so two instances racing for an
+ * expired lease are serialized by the row itself and exactly one of them gets it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SchedulerLeaseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Renews the lease when the owner already holds it, or takes it over when it is free or expired.
+     *
+     * @return whether the owner holds the lease afterwards
+     */
+    public boolean tryAcquire(String name, String owner, Duration lease) {
+        return !jdbcTemplate.queryForList("INSERT INTO senior_sync.scheduler_leases (name, owner, lease_expires_at) " +
+                        "VALUES (?, ?, NOW() + make_interval(secs => ?)) " +
+                        "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, " +
+                        "lease_expires_at = EXCLUDED.lease_expires_at, updated_at = NOW() " +
+                        "WHERE scheduler_leases.owner = EXCLUDED.owner OR scheduler_leases.lease_expires_at < NOW() " +
+                        "RETURNING owner",
+                String.class, name, owner, (double) lease.toSeconds()).isEmpty();
+    }
+
+    public int release(String name, String owner) {
+        return jdbcTemplate.update("DELETE FROM senior_sync.scheduler_leases WHERE name = ? AND owner = ?", name, owner);
+    }
+}
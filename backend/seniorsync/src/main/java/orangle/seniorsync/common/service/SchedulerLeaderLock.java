@@ -0,0 +1,83 @@
+package orangle.seniorsync.common.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.common.repository.SchedulerLeaseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks one instance to run a scheduled pass when several instances run the same {@code @Scheduled} methods.
+ * <p>
+ * Each pass calls {@link #tryAcquire} on every run; the leader renews its lease that way and the others skip the run.
+ * When the leader stops (or stops renewing), another instance takes over once the lease expires. The lease must be
+ * longer than the interval of the passes that share it.
+ */
+@Slf4j
+@Component
+public class SchedulerLeaderLock {
+    private final SchedulerLeaseRepository repository;
+    private final boolean enabled;
+    private final Duration lease;
+
+    // Identifies this instance as the owner of its leases
+    private final String owner;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    public SchedulerLeaderLock(
+            SchedulerLeaseRepository repository,
+            @Value("${seniorsync.scheduling.leader-lock.enabled:true}") boolean enabled,
+            @Value("${seniorsync.scheduling.leader-lock.lease:300s}") Duration lease) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.lease = lease;
+        String host = System.getenv().getOrDefault("HOSTNAME", "local");
+        this.owner = (host.length() > 50 ? host.substring(0, 50) : host) + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Takes or renews the named lease.
+     *
+     * @return whether this instance should run the pass; always {@code true} when the lock is disabled
+     */
+    public boolean tryAcquire(String name) {
+        if (!enabled) {
+            return true;
+        }
+        boolean leader;
+        try {
+            leader = repository.tryAcquire(name, owner, lease);
+        } catch (DataAccessException e) {
+            // Without the database nobody can tell who leads, so skip rather than risk running the pass twice
+            log.warn("Could not acquire leader lease '{}', skipping this run: {}", name, e.getMessage());
+            leader = false;
+        }
+        if (leader && held.add(name)) {
+            log.info("This instance now leads '{}'", name);
+        } else if (!leader && held.remove(name)) {
+            log.info("This instance no longer leads '{}'", name);
+        }
+        return leader;
+    }
+
+    /**
+     * Hands the leases back on shutdown, so another instance can take over without waiting for them to expire.
+     */
+    @PreDestroy
+    public void releaseAll() {
+        for (String name : held) {
+            try {
+                repository.release(name, owner);
+            } catch (DataAccessException e) {
+                log.warn("Could not release leader lease '{}': {}", name, e.getMessage());
+            }
+        }
+        held.clear();
+    }
+}
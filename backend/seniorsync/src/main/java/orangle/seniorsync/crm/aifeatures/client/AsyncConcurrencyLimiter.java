@@ -0,0 +1,91 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of asynchronous calls in flight without blocking callers.
+ * <p>
+ * A call that cannot get a permit is parked in a queue (not on a thread) and started by whichever call completes next.
+ * Calls beyond {@code maxQueued} are failed straight away so a slow provider cannot build up an unbounded backlog, and a
+ * queued call that has not started within its {@code maxWait} is failed instead of waiting indefinitely.
+ */
+public class AsyncConcurrencyLimiter {
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final Queue<Waiting> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public AsyncConcurrencyLimiter(int maxConcurrent, int maxQueued) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxQueued = maxQueued;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call, Duration maxWait) {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new LLMUnavailableException(LLMUnavailableException.Reason.OVERLOADED,
+                            "Too many pending LLM requests (limit " + maxQueued + ")"));
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // Claimed by whichever comes first: a free permit starting the call, or the wait timing out
+        AtomicBoolean claimed = new AtomicBoolean();
+        waiting.add(new Waiting(claimed, () -> start(call, result)));
+        CompletableFuture.delayedExecutor(maxWait.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (claimed.compareAndSet(false, true)) {
+                queued.decrementAndGet(); // Left in the queue, drain skips it
+                result.completeExceptionally(new LLMUnavailableException(LLMUnavailableException.Reason.OVERLOADED,
+                        "No free LLM slot within " + maxWait));
+            }
+        });
+        drain();
+        return result;
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            permits.release();
+            drain();
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    // Every submit and every completion drains, so a queued call can never be left behind with a free permit
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Waiting next = waiting.poll();
+            if (next == null || !next.claimed.compareAndSet(false, true)) {
+                permits.release(); // Queue emptied meanwhile, or the call already timed out
+                continue;
+            }
+            queued.decrementAndGet();
+            next.start.run();
+        }
+    }
+
+    private record Waiting(AtomicBoolean claimed, Runnable start) {
+    }
+}
@@ -0,0 +1,255 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.common.config.AsyncConfig;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
+import orangle.seniorsync.crm.aifeatures.repository.LLMResponseCacheRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Response cache in front of the provider client, keyed by a SHA-256 hash of model + max tokens + system prompt + prompt.
+ * Prompts should only carry the content being judged: anything that changes between otherwise identical calls (counts,
+ * timestamps) defeats the cache and serves stale verdicts when it does hit.
+ * <p>
+ * Lookups go through three tiers:
+ * <ul>
+ *   <li><strong>Memory:</strong> a bounded LRU with a TTL, checked on the caller thread.</li>
+ *   <li><strong>In flight:</strong> a second caller with the same prompt joins the call that is already running instead of
+ *   starting another one.</li>
+ *   <li><strong>Postgres</strong> (optional, {@code llm.cache.persistent.enabled}): survives restarts and is shared
+ *   across instances.</li>
+ * </ul>
+ * Only successful responses from the feature's own model are cached; a {@link LLMResponse#fallback() fallback} response
+ * is returned to its callers but would otherwise be served under the primary model's key. Hits and misses are published as {@code seniorsync.llm.cache.hits} (tagged with
+ * the tier) and {@code seniorsync.llm.cache.misses}, both tagged with the feature.
+ */
+@Slf4j
+@Component
+@Primary
+public class CachingLLMClient implements LLMClient {
+    private final LLMClient delegate;
+    private final LLMProperties properties;
+    private final LLMResponseCacheRepository cacheRepository;
+    private final Executor cacheExecutor;
+    private final MeterRegistry meterRegistry;
+    private final LruCache memoryCache;
+
+    // Calls currently running, keyed like the cache, so concurrent identical prompts share one provider call
+    private final Map<String, CompletableFuture<LLMResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public CachingLLMClient(@Qualifier("governed") LLMClient delegate,
+                            LLMProperties properties,
+                            LLMResponseCacheRepository cacheRepository,
+                            @Qualifier(AsyncConfig.BACKGROUND_EXECUTOR) Executor cacheExecutor,
+                            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.cacheRepository = cacheRepository;
+        this.cacheExecutor = cacheExecutor;
+        this.meterRegistry = meterRegistry;
+        this.memoryCache = new LruCache(properties.getCache().getMaxEntries());
+        Gauge.builder("seniorsync.llm.cache.size", memoryCache, LruCache::size)
+                .description("Entries in the in-memory LLM response cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<LLMResponse> callLLMAsync(LLMRequest request) {
+        if (!properties.getCache().isEnabled()) {
+            return delegate.callLLMAsync(request);
+        }
+
+        String key = cacheKey(properties.getModel(request.feature()), properties.getFeature(request.feature()).getMaxTokens(),
+                request.systemPrompt(), request.prompt());
+        LLMResponse cached = memoryCache.get(key);
+        if (cached != null) {
+            recordHit(request.feature(), "memory");
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<LLMResponse> created = new CompletableFuture<>();
+        CompletableFuture<LLMResponse> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            recordHit(request.feature(), "in-flight");
+            return running.copy(); // A copy so one caller cancelling does not cancel the shared call
+        }
+
+        // The previous identical call may have completed between the memory check and registering ours
+        cached = memoryCache.get(key);
+        if (cached != null) {
+            inFlight.remove(key, created);
+            created.complete(cached);
+            recordHit(request.feature(), "memory");
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        load(request, key).whenComplete((response, error) -> {
+            inFlight.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(response);
+            }
+        });
+        return created.copy();
+    }
+
+    /**
+     * Removes expired rows from the persistent tier.
+     */
+    @Scheduled(fixedDelayString = "${llm.cache.persistent.purge-interval-ms:3600000}")
+    public void purgeExpiredEntries() {
+        if (!properties.getCache().getPersistent().isEnabled()) {
+            return;
+        }
+        int purged = cacheRepository.deleteExpired(OffsetDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired LLM cache entries", purged);
+        }
+    }
+
+    public static String cacheKey(String model, int maxTokens, String systemPrompt, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0); // Separators so model/max tokens/system/prompt boundaries cannot collide
+            // A response cut off at a lower limit must not be served to a call that allows a longer one
+            digest.update(Integer.toString(maxTokens).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update((systemPrompt != null ? systemPrompt : "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private CompletableFuture<LLMResponse> load(LLMRequest request, String key) {
+        CompletableFuture<Optional<LLMResponse>> persisted = properties.getCache().getPersistent().isEnabled()
+                ? CompletableFuture.supplyAsync(() -> readPersistent(key), cacheExecutor)
+                : CompletableFuture.completedFuture(Optional.empty());
+
+        return persisted.thenCompose(hit -> {
+            if (hit.isPresent()) {
+                recordHit(request.feature(), "persistent");
+                memoryCache.put(key, hit.get(), properties.getCache().getTtl());
+                return CompletableFuture.completedFuture(hit.get());
+            }
+
+            meterRegistry.counter("seniorsync.llm.cache.misses", "feature", request.feature().getConfigKey()).increment();
+            return delegate.callLLMAsync(request).thenApply(response -> {
+                if (!response.fallback()) {
+                    memoryCache.put(key, response, properties.getCache().getTtl());
+                    writePersistent(key, request.feature(), response);
+                }
+                return response;
+            });
+        });
+    }
+
+    private Optional<LLMResponse> readPersistent(String key) {
+        try {
+            return cacheRepository.findByCacheKeyAndExpiresAtAfter(key, OffsetDateTime.now())
+                    .map(entry -> new LLMResponse(entry.getResponseText(), entry.getModel(),
+                            entry.getInputTokens(), entry.getOutputTokens(), 0, 0));
+        } catch (RuntimeException e) {
+            // The cache is an optimisation, a database hiccup should only cost us the provider call
+            log.warn("Failed to read LLM cache entry: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writePersistent(String key, LLMFeature feature, LLMResponse response) {
+        if (!properties.getCache().getPersistent().isEnabled()) {
+            return;
+        }
+        OffsetDateTime expiresAt = OffsetDateTime.now().plus(properties.getCache().getPersistent().getTtl());
+        CompletableFuture.runAsync(() -> cacheRepository.upsert(key, feature.name(), response.model(),
+                        response.text(), response.inputTokens(), response.outputTokens(), expiresAt), cacheExecutor)
+                .exceptionally(error -> {
+                    log.warn("Failed to write LLM cache entry: {}", error.getMessage());
+                    return null;
+                });
+    }
+
+    private void recordHit(LLMFeature feature, String tier) {
+        log.debug("LLM cache hit ({}) for {}", tier, feature);
+        meterRegistry.counter("seniorsync.llm.cache.hits", "feature", feature.getConfigKey(), "tier", tier).increment();
+    }
+
+    /**
+     * Access-ordered LRU with per-entry expiry. A plain lock is enough here, the critical sections are a map lookup.
+     */
+    private static final class LruCache {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Entry> entries;
+
+        private LruCache(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        private LLMResponse get(String key) {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (Instant.now().isAfter(entry.expiresAt)) {
+                    entries.remove(key);
+                    return null;
+                }
+                return entry.response;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(String key, LLMResponse response, Duration ttl) {
+            lock.lock();
+            try {
+                entries.put(key, new Entry(response, Instant.now().plus(ttl)));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private record Entry(LLMResponse response, Instant expiresAt) {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Consecutive-failure circuit breaker.
+ * <ul>
+ *   <li><strong>Closed:</strong> calls pass; {@code failureThreshold} failures in a row open the circuit.</li>
+ *   <li><strong>Open:</strong> calls are refused without touching the provider until {@code openDuration} has passed.</li>
+ *   <li><strong>Half open:</strong> a single probe call is let through; success closes the circuit, failure opens it again.</li>
+ * </ul>
+ * State changes hold a {@link ReentrantLock} rather than a monitor, so a virtual thread making an LLM call does not pin
+ * its carrier while it waits for the breaker.
+ */
+@Slf4j
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return whether a call may go ahead; every permitted call must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAt < openDurationNanos) {
+                        return false;
+                    }
+                    state = State.HALF_OPEN;
+                    log.info("Circuit {} half open, letting a probe call through", name);
+                    // Fall through to let this call be the probe
+                case HALF_OPEN:
+                default:
+                    if (probeInFlight) {
+                        return false;
+                    }
+                    probeInFlight = true;
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            if (state != State.CLOSED) {
+                log.info("Circuit {} closed", name);
+                state = State.CLOSED;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            probeInFlight = false;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                log.warn("Circuit {} opened after {} consecutive failure(s)", name, consecutiveFailures);
+                state = State.OPEN;
+                openedAt = System.nanoTime();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * For permitted calls that ended without reaching the provider (e.g. refused by a later limit).
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            probeInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,69 +1,189 @@
 package orangle.seniorsync.crm.aifeatures.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.apache.http.impl.client.CloseableHttpClient;
 
-import lombok.extern.slf4j.Slf4j;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+/**
+ * Anthropic Messages API client.
+ * <p>
+ * A single {@link HttpClient} is shared by all calls so connections are pooled and kept alive between requests
+ * instead of paying a TCP + TLS handshake every time. Every call is bounded by the connect timeout and the
+ * per-feature response timeout. Rate, concurrency and budget limits, as well as the fallback to a second model when a
+ * call exceeds its latency budget, are applied by {@link GovernedLLMClient}.
+ * <p>
+ * Each feature runs on its own model ({@code llm.features.<feature>.model}) unless the request names one. Latency is
+ * published per feature, model and outcome as {@code seniorsync.llm.latency} with p50/p99.
+ * <p>
+ * A static system prompt is marked with {@code cache_control} only once it reaches the model's minimum cacheable length
+ * (about 1024 tokens, 2048 for Haiku models). None of the current spam or ranking instructions come close, so today
+ * every prompt is sent unmarked and nothing is read from the provider's prompt cache.
+ * The base URL comes from configuration, so the client can be pointed at a local stub server.
+ */
 @Component
 @Qualifier("claude")
 @Slf4j
-public class ClaudeLLMClient implements LLMClient{
-    @Value("${llm.api.key}")
-    private String apiKey;
-
-    @Value("${llm.api.base-url}")
-    private String baseUrl;
-
-    @Value("${llm.api.model}")
-    private String model;
+public class ClaudeLLMClient implements LLMClient {
+    private static final String ANTHROPIC_VERSION = "2023-06-01";
+    // Provider minimums for a cacheable prefix
+    private static final int MIN_CACHEABLE_TOKENS = 1024;
+    private static final int MIN_CACHEABLE_TOKENS_HAIKU = 2048;
 
+    private final LLMProperties properties;
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    public ClaudeLLMClient(LLMProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(properties.getApi().getConnectTimeout())
+                .build();
+    }
+
     @Override
-    public String callLLM(String prompt) {
-        try(CloseableHttpClient client = HttpClients.createDefault()) {
-            log.info("Calling claude LLM");
-            HttpPost post = new HttpPost(baseUrl);
-            post.setHeader("x-api-key", apiKey);
-            post.setHeader("Content-Type", "application/json");
-            post.setHeader("anthropic-version", "2023-06-01");
-
-            // Create a JSON request body
-            ObjectNode requestBody = objectMapper.createObjectNode();
-            requestBody.put("max_tokens", 1024);
-            requestBody.put("model", model);
-            requestBody.putArray("messages")
-                    .addObject()
-                    .put("role", "user")
-                    .put("content", prompt);
-
-            String body = objectMapper.writeValueAsString(requestBody);
-            post.setEntity(new StringEntity(body));
-
-            try (CloseableHttpResponse response = client.execute(post)) {
-                String responseBody = EntityUtils.toString(response.getEntity());
-                // Parse response and extract content
-                ObjectNode responseJson = (ObjectNode) objectMapper.readTree(responseBody);
-                log.info("Response body:" + responseJson.toString());
-                return responseJson.path("content").path(0).path("text").asText();
-            } catch (Exception e) {
-                log.error(e.getMessage(), e);
-                return null;
+    public CompletableFuture<LLMResponse> callLLMAsync(LLMRequest request) {
+        String model = request.model() != null ? request.model() : properties.getModel(request.feature());
+        Duration timeout = request.timeout() != null ? request.timeout() : properties.getFeature(request.feature()).getTimeout();
+        return send(request, model, timeout);
+    }
+
+    private CompletableFuture<LLMResponse> send(LLMRequest request, String model, Duration timeout) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = buildHttpRequest(request, model, timeout);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new LLMClientException("Failed to serialise LLM request", e));
+        }
+
+        log.info("Calling claude LLM ({}) for {}", model, request.feature());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    try {
+                        if (error != null) {
+                            throw translateError(request.feature(), error);
+                        }
+                        LLMResponse llmResponse = parseResponse(request.feature(), model, response);
+                        recordLatency(sample, request.feature(), model, "success");
+                        return llmResponse;
+                    } catch (LLMClientException e) {
+                        recordLatency(sample, request.feature(), model, isTimeout(e) ? "timeout" : "failure");
+                        throw e;
+                    }
+                });
+    }
+
+    private void recordLatency(Timer.Sample sample, LLMFeature feature, String model, String outcome) {
+        Duration latencyBudget = properties.getFeature(feature).getLatencyBudget();
+        Timer.Builder timer = Timer.builder("seniorsync.llm.latency")
+                .description("Time until the full LLM response has been received")
+                .tag("feature", feature.getConfigKey())
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99);
+        if (latencyBudget != null) {
+            timer.serviceLevelObjectives(latencyBudget); // Share of calls within budget
+        }
+        sample.stop(timer.register(meterRegistry));
+    }
+
+    static boolean isTimeout(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof HttpTimeoutException || cause.getCause() instanceof HttpTimeoutException;
+    }
+
+    private HttpRequest buildHttpRequest(LLMRequest request, String model, Duration timeout) throws JsonProcessingException {
+        LLMProperties.Feature featureSettings = properties.getFeature(request.feature());
+
+        ObjectNode requestBody = objectMapper.createObjectNode();
+        requestBody.put("max_tokens", featureSettings.getMaxTokens());
+        requestBody.put("model", model);
+        if (request.systemPrompt() != null && !request.systemPrompt().isBlank()) {
+            ObjectNode system = requestBody.putArray("system").addObject()
+                    .put("type", "text")
+                    .put("text", request.systemPrompt());
+            if (properties.getApi().isPromptCaching() && isCacheable(model, request.systemPrompt())) {
+                // Everything up to this block is cached by the provider and billed at a fraction on later calls
+                system.putObject("cache_control").put("type", "ephemeral");
             }
+        }
+        requestBody.putArray("messages")
+                .addObject()
+                .put("role", "user")
+                .put("content", request.prompt());
+
+        return HttpRequest.newBuilder(URI.create(properties.getApi().getBaseUrl()))
+                .timeout(timeout)
+                .header("x-api-key", properties.getApi().getKey())
+                .header("Content-Type", "application/json")
+                .header("anthropic-version", ANTHROPIC_VERSION)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(requestBody)))
+                .build();
+    }
+
+    static boolean isCacheable(String model, String systemPrompt) {
+        int minimum = model.contains("haiku") ? MIN_CACHEABLE_TOKENS_HAIKU : MIN_CACHEABLE_TOKENS;
+        // Rough estimate of about 4 characters per token, as for request digests
+        return systemPrompt.length() / 4 >= minimum;
+    }
+
+    private LLMResponse parseResponse(LLMFeature feature, String model, HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            log.error("LLM call for {} failed with status {}: {}", feature, response.statusCode(), response.body());
+            throw new LLMClientException("LLM call failed with status " + response.statusCode());
+        }
+
+        JsonNode responseJson;
+        try {
+            responseJson = objectMapper.readTree(response.body());
+        } catch (JsonProcessingException e) {
+            throw new LLMClientException("LLM returned a response that is not valid JSON", e);
+        }
+        log.debug("Response body: {}", responseJson);
+
+        JsonNode text = responseJson.path("content").path(0).path("text");
+        if (text.isMissingNode() || text.asText().isBlank()) {
+            throw new LLMClientException("LLM returned empty response");
+        }
+
+        JsonNode usage = responseJson.path("usage");
+        return new LLMResponse(
+                text.asText(),
+                responseJson.path("model").asText(model),
+                usage.path("input_tokens").asLong(),
+                usage.path("output_tokens").asLong(),
+                usage.path("cache_creation_input_tokens").asLong(),
+                usage.path("cache_read_input_tokens").asLong());
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to call LLM", e);
+    private LLMClientException translateError(LLMFeature feature, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof LLMClientException llmClientException) {
+            return llmClientException;
+        }
+        if (cause instanceof HttpTimeoutException) {
+            log.warn("LLM call for {} timed out: {}", feature, cause.getMessage());
+            return new LLMClientException("LLM call timed out", cause);
         }
+        log.error("LLM call for {} failed: {}", feature, cause.getMessage(), cause);
+        return new LLMClientException("Failed to call LLM", cause);
     }
 }
@@ -0,0 +1,191 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Governs every call that reaches the provider, so a slow or failing API degrades the AI features instead of piling up work.
+ * <p>
+ * A call has to pass, in order:
+ * <ul>
+ *   <li>the calling center's daily token and cost budget ({@code llm.governor.budget.*}),</li>
+ *   <li>a token-bucket rate limit ({@code llm.governor.rate-limit.*}),</li>
+ *   <li>a circuit breaker that fails fast while the provider keeps failing ({@code llm.governor.circuit-breaker.*}),</li>
+ *   <li>and a concurrency cap, calls beyond it wait in a bounded queue without holding a thread
+ *   ({@code llm.api.max-concurrent-requests}, {@code llm.api.max-queued-requests}), for at most the feature's timeout.</li>
+ * </ul>
+ * Refused calls fail with {@link LLMUnavailableException} without touching the provider. Cache hits are served by
+ * {@link CachingLLMClient} before they get here, so cached results stay available while the circuit is open.
+ * <p>
+ * With a latency budget and a fallback model configured for the feature, the primary model only gets the budget as its
+ * timeout and a call that exceeds it is retried once on the fallback model with the feature's timeout. The retry is a
+ * call of its own: it passes the budget, rate limit, breaker and concurrency cap again, and its response is marked as
+ * {@link LLMResponse#fallback()} so it is not cached under the primary model's key.
+ * <p>
+ * Metrics: {@code seniorsync.llm.calls} (outcome), {@code seniorsync.llm.rejected} (reason), {@code seniorsync.llm.fallbacks},
+ * {@code seniorsync.llm.tokens} (input/output/cache-write/cache-read), {@code seniorsync.llm.cost} and
+ * {@code seniorsync.llm.prompt.cache.savings} (zero until a system prompt is long enough to be cached),
+ * all tagged with the feature, plus the gauges
+ * {@code seniorsync.llm.circuit.state} (0 closed, 1 half open, 2 open) and {@code seniorsync.llm.queued}.
+ */
+@Slf4j
+@Component
+@Qualifier("governed")
+public class GovernedLLMClient implements LLMClient {
+    private final LLMClient delegate;
+    private final LLMProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucket rateLimiter;
+    private final AsyncConcurrencyLimiter concurrencyLimiter;
+    private final LLMUsageBudget usageBudget;
+
+    public GovernedLLMClient(@Qualifier("claude") LLMClient delegate,
+                             LLMProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+
+        LLMProperties.Governor governor = properties.getGovernor();
+        this.circuitBreaker = new CircuitBreaker("llm",
+                governor.getCircuitBreaker().getFailureThreshold(),
+                governor.getCircuitBreaker().getOpenDuration());
+        this.rateLimiter = new TokenBucket(
+                governor.getRateLimit().getRequestsPerSecond(),
+                governor.getRateLimit().getBurst());
+        this.concurrencyLimiter = new AsyncConcurrencyLimiter(
+                properties.getApi().getMaxConcurrentRequests(),
+                properties.getApi().getMaxQueuedRequests());
+        this.usageBudget = new LLMUsageBudget(
+                governor.getBudget().getDailyTokensPerCenter(),
+                governor.getBudget().getDailyCostPerCenter(),
+                governor.getBudget().getInputCostPerMillionTokens(),
+                governor.getBudget().getOutputCostPerMillionTokens());
+
+        Gauge.builder("seniorsync.llm.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("LLM circuit breaker state: 0 closed, 1 half open, 2 open")
+                .register(meterRegistry);
+        Gauge.builder("seniorsync.llm.queued", concurrencyLimiter, AsyncConcurrencyLimiter::getQueued)
+                .description("LLM calls waiting for a free concurrency slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<LLMResponse> callLLMAsync(LLMRequest request) {
+        LLMProperties.Feature featureSettings = properties.getFeature(request.feature());
+        String fallbackModel = featureSettings.getFallbackModel();
+        Duration latencyBudget = featureSettings.getLatencyBudget();
+        if (fallbackModel == null || fallbackModel.isBlank() || latencyBudget == null) {
+            return govern(request);
+        }
+
+        String model = properties.getModel(request.feature());
+        return govern(request.toBuilder().model(model).timeout(latencyBudget).build()).exceptionallyCompose(error -> {
+            if (!ClaudeLLMClient.isTimeout(error)) {
+                return CompletableFuture.failedFuture(error);
+            }
+            log.warn("{} exceeded its latency budget of {} on {}, retrying on {}", request.feature(), latencyBudget, model, fallbackModel);
+            meterRegistry.counter("seniorsync.llm.fallbacks", "feature", request.feature().getConfigKey()).increment();
+            return govern(request.toBuilder().model(fallbackModel).build()).thenApply(LLMResponse::asFallback);
+        });
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    public LLMUsageBudget.DailyUsage getUsage(Long centerId) {
+        return usageBudget.currentUsage(centerId);
+    }
+
+    private CompletableFuture<LLMResponse> govern(LLMRequest request) {
+        if (!usageBudget.hasRemaining(request.centerId())) {
+            return reject(request, LLMUnavailableException.Reason.BUDGET_EXHAUSTED,
+                    "Daily LLM budget exhausted for center " + request.centerId());
+        }
+        if (!rateLimiter.tryAcquire()) {
+            return reject(request, LLMUnavailableException.Reason.RATE_LIMITED, "LLM rate limit exceeded");
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return reject(request, LLMUnavailableException.Reason.CIRCUIT_OPEN, "LLM circuit breaker is open");
+        }
+
+        // A call still waiting for a slot after the feature's timeout would time out anyway, so give up on it
+        return concurrencyLimiter.submit(() -> delegate.callLLMAsync(request), properties.getFeature(request.feature()).getTimeout())
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                        recordSuccess(request, response);
+                        return;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause instanceof LLMUnavailableException unavailable) {
+                        circuitBreaker.onIgnored(); // Queue overflow, the provider was never called
+                        countRejection(request, unavailable.getReason());
+                    } else {
+                        circuitBreaker.onFailure();
+                        countCall(request, "failure");
+                    }
+                });
+    }
+
+    private void recordSuccess(LLMRequest request, LLMResponse response) {
+        countCall(request, "success");
+        String feature = request.feature().getConfigKey();
+        Counter.builder("seniorsync.llm.tokens").tag("feature", feature).tag("type", "input")
+                .register(meterRegistry).increment(response.inputTokens());
+        Counter.builder("seniorsync.llm.tokens").tag("feature", feature).tag("type", "output")
+                .register(meterRegistry).increment(response.outputTokens());
+        Counter.builder("seniorsync.llm.tokens").tag("feature", feature).tag("type", "cache-write")
+                .register(meterRegistry).increment(response.cacheCreationInputTokens());
+        Counter.builder("seniorsync.llm.tokens").tag("feature", feature).tag("type", "cache-read")
+                .register(meterRegistry).increment(response.cacheReadInputTokens());
+        Counter.builder("seniorsync.llm.prompt.cache.savings")
+                .description("Estimated USD saved by prompt cache reads")
+                .baseUnit("usd")
+                .tag("feature", feature)
+                .register(meterRegistry)
+                .increment(usageBudget.cacheSavings(response));
+
+        double cost = usageBudget.charge(request.centerId(), response);
+        DistributionSummary.builder("seniorsync.llm.cost")
+                .description("Estimated cost of LLM calls in USD")
+                .baseUnit("usd")
+                .tag("feature", feature)
+                .register(meterRegistry)
+                .record(cost);
+    }
+
+    private <T> CompletableFuture<T> reject(LLMRequest request, LLMUnavailableException.Reason reason, String message) {
+        log.warn("Refusing LLM call for {}: {}", request.feature(), message);
+        countRejection(request, reason);
+        return CompletableFuture.failedFuture(new LLMUnavailableException(reason, message));
+    }
+
+    private void countCall(LLMRequest request, String outcome) {
+        Counter.builder("seniorsync.llm.calls")
+                .tag("feature", request.feature().getConfigKey())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void countRejection(LLMRequest request, LLMUnavailableException.Reason reason) {
+        Counter.builder("seniorsync.llm.rejected")
+                .tag("feature", request.feature().getConfigKey())
+                .tag("reason", reason.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,5 +1,26 @@
 package orangle.seniorsync.crm.aifeatures.client;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 public interface LLMClient {
-    String callLLM(String prompt);
+    /**
+     * Calls the LLM without blocking the caller. The future completes exceptionally with an {@link LLMClientException}
+     * on failures and timeouts.
+     */
+    CompletableFuture<LLMResponse> callLLMAsync(LLMRequest request);
+
+    /**
+     * Blocking convenience for callers that already run on a worker thread.
+     */
+    default String callLLM(LLMRequest request) {
+        try {
+            return callLLMAsync(request).join().text();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof LLMClientException llmClientException) {
+                throw llmClientException;
+            }
+            throw new LLMClientException("Failed to call LLM", e.getCause());
+        }
+    }
 }
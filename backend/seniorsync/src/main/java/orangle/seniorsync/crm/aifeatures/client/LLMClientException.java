@@ -0,0 +1,14 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+/**
+ * Thrown when an LLM call fails (transport error, timeout, non-2xx status or unusable response body).
+ */
+public class LLMClientException extends RuntimeException {
+    public LLMClientException(String message) {
+        super(message);
+    }
+
+    public LLMClientException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
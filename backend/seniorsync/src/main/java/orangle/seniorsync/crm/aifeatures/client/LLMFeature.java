@@ -0,0 +1,21 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+/**
+ * AI features that call the LLM. Each feature has its own settings under {@code llm.features.<config-key>}.
+ */
+public enum LLMFeature {
+    SPAM_DETECTION("spam-detection"),
+    // Several requests per call, so it needs a longer timeout and a larger output limit than a single check
+    SPAM_DETECTION_BATCH("spam-detection-batch"),
+    REQUEST_RANKING("request-ranking");
+
+    private final String configKey;
+
+    LLMFeature(String configKey) {
+        this.configKey = configKey;
+    }
+
+    public String getConfigKey() {
+        return configKey;
+    }
+}
@@ -0,0 +1,24 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import lombok.Builder;
+
+import java.time.Duration;
+
+/**
+ * @param systemPrompt static instructions that are the same for every call of a feature; sent as a cacheable prefix once
+ *                     long enough, so the provider does not process them again on each call. Optional.
+ * @param prompt the part that changes per call
+ * @param centerId the center the call is made for, used for per-center budgets; {@code null} when not attributable
+ * @param model the model to call instead of the feature's own; set by {@link GovernedLLMClient} for fallback calls
+ * @param timeout the response timeout instead of the feature's own; set by {@link GovernedLLMClient} for the latency budget
+ */
+@Builder(toBuilder = true)
+public record LLMRequest(
+        LLMFeature feature,
+        String systemPrompt,
+        String prompt,
+        Long centerId,
+        String model,
+        Duration timeout
+) {
+}
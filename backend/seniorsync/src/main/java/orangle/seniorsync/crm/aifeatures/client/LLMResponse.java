@@ -0,0 +1,27 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+/**
+ * @param inputTokens uncached input tokens
+ * @param cacheCreationInputTokens input tokens written to the provider's prompt cache
+ * @param cacheReadInputTokens input tokens served from the provider's prompt cache
+ * @param fallback whether the response came from the feature's fallback model after the primary exceeded its latency
+ *                 budget; such responses are not cached under the primary model's key
+ */
+public record LLMResponse(
+        String text,
+        String model,
+        long inputTokens,
+        long outputTokens,
+        long cacheCreationInputTokens,
+        long cacheReadInputTokens,
+        boolean fallback
+) {
+    public LLMResponse(String text, String model, long inputTokens, long outputTokens,
+                       long cacheCreationInputTokens, long cacheReadInputTokens) {
+        this(text, model, inputTokens, outputTokens, cacheCreationInputTokens, cacheReadInputTokens, false);
+    }
+
+    public LLMResponse asFallback() {
+        return new LLMResponse(text, model, inputTokens, outputTokens, cacheCreationInputTokens, cacheReadInputTokens, true);
+    }
+}
@@ -0,0 +1,24 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import lombok.Getter;
+
+/**
+ * Thrown without calling the provider when the call is refused by the {@link GovernedLLMClient}. Callers should degrade
+ * to cached or local results rather than retry straight away.
+ */
+@Getter
+public class LLMUnavailableException extends LLMClientException {
+    public enum Reason {
+        CIRCUIT_OPEN,
+        RATE_LIMITED,
+        OVERLOADED,
+        BUDGET_EXHAUSTED
+    }
+
+    private final Reason reason;
+
+    public LLMUnavailableException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+}
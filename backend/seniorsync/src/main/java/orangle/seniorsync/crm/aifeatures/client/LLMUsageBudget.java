@@ -0,0 +1,77 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-center daily token and cost budgets, fed from the usage the provider reports on each response.
+ * <p>
+ * Usage is counted per instance and resets at midnight (server time). A limit of zero or less means unlimited. The
+ * budget is checked before a call and charged after it, so concurrent calls can overshoot by at most the calls in flight.
+ */
+public class LLMUsageBudget {
+    // Prompt cache pricing relative to the base input price
+    private static final double CACHE_WRITE_PRICE_FACTOR = 1.25;
+    private static final double CACHE_READ_PRICE_FACTOR = 0.1;
+
+    private final long dailyTokenLimit;
+    private final long dailyCostLimitMicros;
+    private final double inputCostPerToken;
+    private final double outputCostPerToken;
+    private final Map<Long, DailyUsage> usageByCenter = new ConcurrentHashMap<>();
+
+    public LLMUsageBudget(long dailyTokenLimit, double dailyCostLimit,
+                          double inputCostPerMillionTokens, double outputCostPerMillionTokens) {
+        this.dailyTokenLimit = dailyTokenLimit;
+        this.dailyCostLimitMicros = Math.round(dailyCostLimit * 1_000_000);
+        this.inputCostPerToken = inputCostPerMillionTokens / 1_000_000;
+        this.outputCostPerToken = outputCostPerMillionTokens / 1_000_000;
+    }
+
+    public boolean hasRemaining(Long centerId) {
+        if (centerId == null) {
+            return true;
+        }
+        DailyUsage usage = currentUsage(centerId);
+        return (dailyTokenLimit <= 0 || usage.tokens() < dailyTokenLimit)
+                && (dailyCostLimitMicros <= 0 || usage.costMicros() < dailyCostLimitMicros);
+    }
+
+    /**
+     * Charges a completed call to the center and returns its cost in USD.
+     */
+    public double charge(Long centerId, LLMResponse response) {
+        double cost = response.inputTokens() * inputCostPerToken
+                + response.cacheCreationInputTokens() * inputCostPerToken * CACHE_WRITE_PRICE_FACTOR
+                + response.cacheReadInputTokens() * inputCostPerToken * CACHE_READ_PRICE_FACTOR
+                + response.outputTokens() * outputCostPerToken;
+        if (centerId != null) {
+            long tokens = response.inputTokens() + response.cacheCreationInputTokens()
+                    + response.cacheReadInputTokens() + response.outputTokens();
+            LocalDate today = LocalDate.now();
+            usageByCenter.merge(centerId, new DailyUsage(today, tokens, Math.round(cost * 1_000_000)),
+                    (current, call) -> current.day().equals(today) ? current.plus(call) : call);
+        }
+        return cost;
+    }
+
+    /**
+     * What the prompt cache reads of a call saved compared to sending those tokens uncached, in USD.
+     */
+    public double cacheSavings(LLMResponse response) {
+        return response.cacheReadInputTokens() * inputCostPerToken * (1 - CACHE_READ_PRICE_FACTOR);
+    }
+
+    public DailyUsage currentUsage(Long centerId) {
+        DailyUsage usage = usageByCenter.get(centerId);
+        LocalDate today = LocalDate.now();
+        return usage != null && usage.day().equals(today) ? usage : new DailyUsage(today, 0, 0);
+    }
+
+    public record DailyUsage(LocalDate day, long tokens, long costMicros) {
+        DailyUsage plus(DailyUsage other) {
+            return new DailyUsage(day, tokens + other.tokens, costMicros + other.costMicros);
+        }
+    }
+}
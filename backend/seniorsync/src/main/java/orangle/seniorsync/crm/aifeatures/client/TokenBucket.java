@@ -0,0 +1,41 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-blocking token bucket: refills at {@code permitsPerSecond} up to {@code burst} permits. A rate of zero or less
+ * disables the limit.
+ */
+public class TokenBucket {
+    private final double permitsPerNano;
+    private final double burst;
+    private final ReentrantLock lock = new ReentrantLock();
+    private double available;
+    private long lastRefill;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = Math.max(1, burst);
+        this.available = this.burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public boolean tryAcquire() {
+        if (permitsPerNano <= 0) {
+            return true;
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            available = Math.min(burst, available + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            if (available < 1) {
+                return false;
+            }
+            available -= 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package orangle.seniorsync.crm.aifeatures.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LLMProperties.class)
+public class LLMClientConfig {
+}
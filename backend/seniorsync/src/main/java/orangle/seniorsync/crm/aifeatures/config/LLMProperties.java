@@ -0,0 +1,129 @@
+package orangle.seniorsync.crm.aifeatures.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import orangle.seniorsync.crm.aifeatures.client.LLMFeature;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LLM client settings bound from {@code llm.*}.
+ * <p>
+ * Per-feature settings live under {@code llm.features.<feature>} (e.g. {@code llm.features.spam-detection.timeout=20s})
+ * and fall back to the defaults below when a feature is not configured.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "llm")
+public class LLMProperties {
+    private Api api = new Api();
+    private Cache cache = new Cache();
+    private Governor governor = new Governor();
+    private Map<String, @Valid Feature> features = new HashMap<>();
+
+    public Feature getFeature(LLMFeature feature) {
+        return features.getOrDefault(feature.getConfigKey(), new Feature());
+    }
+
+    /**
+     * The feature's own model, or {@code llm.api.model} when it does not set one.
+     */
+    public String getModel(LLMFeature feature) {
+        String model = getFeature(feature).getModel();
+        return model != null && !model.isBlank() ? model : api.getModel();
+    }
+
+    @Getter
+    @Setter
+    public static class Api {
+        private String key;
+        private String baseUrl;
+        private String model;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        // Mark static system prompts for the provider's prompt cache when they reach its minimum cacheable length
+        private boolean promptCaching = true;
+        // Requests in flight against the provider at once; further calls wait in a queue without holding a thread
+        private int maxConcurrentRequests = 8;
+        // Calls waiting for a slot beyond this are failed immediately
+        private int maxQueuedRequests = 200;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        private boolean enabled = true;
+        private int maxEntries = 1000;
+        private Duration ttl = Duration.ofHours(24);
+        private Persistent persistent = new Persistent();
+
+        @Getter
+        @Setter
+        public static class Persistent {
+            // Survives restarts and is shared across instances, at the cost of a database round-trip on memory misses
+            private boolean enabled = false;
+            private Duration ttl = Duration.ofDays(7);
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Governor {
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private RateLimit rateLimit = new RateLimit();
+        private Budget budget = new Budget();
+
+        @Getter
+        @Setter
+        public static class CircuitBreaker {
+            // Consecutive failed calls that open the circuit
+            private int failureThreshold = 5;
+            // How long calls are refused before a probe call is let through
+            private Duration openDuration = Duration.ofSeconds(30);
+        }
+
+        @Getter
+        @Setter
+        public static class RateLimit {
+            // Sustained calls per second across all features; 0 disables the limit
+            private double requestsPerSecond = 5;
+            private int burst = 10;
+        }
+
+        @Getter
+        @Setter
+        public static class Budget {
+            // Per center per day, 0 means unlimited
+            private long dailyTokensPerCenter = 0;
+            private double dailyCostPerCenter = 0;
+            // USD prices used to estimate the cost from the usage reported by the provider
+            private double inputCostPerMillionTokens = 3.0;
+            private double outputCostPerMillionTokens = 15.0;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Feature {
+        // Defaults to llm.api.model, so cheap features can run on a smaller, faster model
+        private String model;
+        // Time from sending the request until the full response has been received
+        private Duration timeout = Duration.ofSeconds(60);
+        // Time the primary model gets when a fallback model is set; a slower call is retried on the fallback model
+        private Duration latencyBudget;
+        private String fallbackModel;
+        @Min(1)
+        private int maxTokens = 1024;
+        // Items packed into a single prompt by features that classify several items at once
+        @Min(1)
+        private int batchSize = 20;
+        // Estimated prompt tokens per call for features that pack several items into one prompt, 0 for no limit
+        private int maxPromptTokens = 0;
+    }
+}
@@ -2,15 +2,24 @@ package orangle.seniorsync.crm.aifeatures.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.aifeatures.dto.AIBatchJobDto;
 import orangle.seniorsync.crm.aifeatures.dto.BatchSpamFilterRequestDto;
 import orangle.seniorsync.crm.aifeatures.dto.BatchSpamFilterResultDto;
 import orangle.seniorsync.crm.aifeatures.dto.SpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.dto.SpamPreFilterEvaluationDto;
+import orangle.seniorsync.crm.aifeatures.service.IAIBatchJobService;
 import orangle.seniorsync.crm.aifeatures.service.IAISpamFilterService;
+import orangle.seniorsync.crm.aifeatures.service.ISpamPreFilterEvaluationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 @RestController
@@ -21,6 +30,12 @@ import java.util.concurrent.CompletableFuture;
 public class AIFilterRequestsController {
 
     private final IAISpamFilterService spamFilterService;
+    private final ISpamPreFilterEvaluationService spamPreFilterEvaluationService;
+    private final IAIBatchJobService batchJobService;
+
+    // Larger batches have to go through the job API instead of holding the request open
+    @Value("${seniorsync.ai.jobs.sync-batch-max-size:50}")
+    private int syncBatchMaxSize;
 
     @PostMapping("/check/{requestId}")
     public CompletableFuture<ResponseEntity<SpamFilterResultDto>> checkRequestAsync(@PathVariable Long requestId) {
@@ -31,15 +46,50 @@ public class AIFilterRequestsController {
 
     @PostMapping("/check-batch")
     public CompletableFuture<ResponseEntity<BatchSpamFilterResultDto>> checkBatchRequestsAsync(@RequestBody List<Long> requestIds) {
+        if (requestIds.size() > syncBatchMaxSize) {
+            log.info("Rejecting synchronous spam check of {} requests, limit is {}", requestIds.size(), syncBatchMaxSize);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
         return spamFilterService.checkBatchRequestsAsync(requestIds)
                 .thenApply(result -> ResponseEntity.ok(result))
                 .exceptionally(ex -> ResponseEntity.badRequest().build());
     }
 
+    @PostMapping("/jobs")
+    public ResponseEntity<AIBatchJobDto> submitBatchJob(@RequestBody List<Long> requestIds) {
+        if (requestIds == null || requestIds.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(batchJobService.submitSpamCheck(requestIds));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<AIBatchJobDto> getBatchJob(@PathVariable UUID jobId,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "100") int size) {
+        return batchJobService.getJob(jobId, Math.max(0, page), Math.max(1, Math.min(size, 500)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBatchJob(@PathVariable UUID jobId) {
+        return batchJobService.subscribe(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/history")
     public ResponseEntity<List<SpamFilterResultDto>> getSpamDetectionHistory() {
         log.info("Retrieving spam detection history");
         List<SpamFilterResultDto> history = spamFilterService.getSpamDetectionHistory();
         return ResponseEntity.ok(history);
     }
+
+    @GetMapping("/prefilter/evaluation")
+    @PreAuthorize("hasRole('ADMIN')") // Overrides class level - replays the classifier over stored verdicts
+    public ResponseEntity<SpamPreFilterEvaluationDto> evaluatePreFilter(@RequestParam(defaultValue = "1000") int limit) {
+        log.info("Evaluating spam pre-filter against the latest {} LLM verdicts", limit);
+        return ResponseEntity.ok(spamPreFilterEvaluationService.evaluate(Math.max(1, Math.min(limit, 10_000))));
+    }
 }
@@ -0,0 +1,26 @@
+package orangle.seniorsync.crm.aifeatures.dto;
+
+import orangle.seniorsync.crm.aifeatures.enums.AIBatchJobStatus;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Job status and progress. {@code results} holds the stored results so far for the requested page of the job's
+ * (sorted) request ids and is only filled when polling a job, not in streamed progress events.
+ */
+public record AIBatchJobDto(
+        UUID id,
+        String jobType,
+        AIBatchJobStatus status,
+        int totalCount,
+        int processedCount,
+        int failedCount,
+        int spamCount,
+        String errorMessage,
+        OffsetDateTime createdAt,
+        OffsetDateTime completedAt,
+        List<SpamFilterResultDto> results
+) {
+}
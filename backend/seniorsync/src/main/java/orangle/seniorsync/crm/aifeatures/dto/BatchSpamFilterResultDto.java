@@ -8,4 +8,5 @@ public class BatchSpamFilterResultDto {
     private List<SpamFilterResultDto> results;
     private int totalProcessed;
     private int spamDetected;
+    private int failed;
 }
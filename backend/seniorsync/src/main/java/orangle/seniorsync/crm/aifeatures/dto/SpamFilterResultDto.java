@@ -1,6 +1,7 @@
 package orangle.seniorsync.crm.aifeatures.dto;
 
 import lombok.Data;
+import orangle.seniorsync.crm.aifeatures.enums.SpamDetectionSource;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -12,4 +13,11 @@ public class SpamFilterResultDto {
     private BigDecimal confidenceScore;
     private String detectionReason;
     private OffsetDateTime detectedAt;
+    private SpamDetectionSource source;
+    // Pre-filter leaning returned while the LLM is unavailable; not stored, the request is checked again later
+    private boolean provisional;
+    // Another instance is still checking the request; also provisional, nothing is stored for it yet
+    private boolean pending;
+    // The request could not be checked; detectionReason holds the error
+    private boolean failed;
 }
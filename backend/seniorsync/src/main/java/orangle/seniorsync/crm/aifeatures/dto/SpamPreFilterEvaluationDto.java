@@ -0,0 +1,23 @@
+package orangle.seniorsync.crm.aifeatures.dto;
+
+import lombok.Data;
+
+/**
+ * How the local spam pre-filter compares with the stored LLM verdicts. Precision and recall treat spam as the positive
+ * class and only consider the requests the pre-filter decided; they are null when undefined.
+ */
+@Data
+public class SpamPreFilterEvaluationDto {
+    private int sampleSize;
+    private int decidedLocally;
+    private double coverage;
+    private Double agreement;
+    private Double precision;
+    private Double recall;
+    private int truePositives;
+    private int falsePositives;
+    private int trueNegatives;
+    private int falseNegatives;
+    private double meanLatencyMicros;
+    private double p99LatencyMicros;
+}
@@ -0,0 +1,12 @@
+package orangle.seniorsync.crm.aifeatures.enums;
+
+public enum AIBatchJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isActive() {
+        return this == QUEUED || this == RUNNING;
+    }
+}
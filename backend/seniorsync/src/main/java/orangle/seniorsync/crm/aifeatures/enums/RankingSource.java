@@ -0,0 +1,11 @@
+package orangle.seniorsync.crm.aifeatures.enums;
+
+/**
+ * Where a stored ranking score came from.
+ */
+public enum RankingSource {
+    // Local urgency score; it depends on the current time, so readers recompute it instead of trusting the stored value
+    LOCAL,
+    // LLM refinement of the local score for the most urgent requests
+    LLM
+}
@@ -0,0 +1,11 @@
+package orangle.seniorsync.crm.aifeatures.enums;
+
+/**
+ * Where a spam verdict came from. Only {@link #LLM} verdicts are used to evaluate the pre-filter.
+ */
+public enum SpamDetectionSource {
+    LLM,
+    PRE_FILTER,
+    // The LLM answered but its response could not be read, stored as not spam
+    PARSE_FAILURE
+}
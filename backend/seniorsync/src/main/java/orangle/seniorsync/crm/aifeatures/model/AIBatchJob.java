@@ -0,0 +1,79 @@
+package orangle.seniorsync.crm.aifeatures.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import orangle.seniorsync.crm.aifeatures.enums.AIBatchJobStatus;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "ai_batch_jobs", schema = "senior_sync")
+public class AIBatchJob {
+    public static final String SPAM_CHECK = "SPAM_CHECK";
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    @NotNull
+    @Column(name = "job_type", nullable = false, length = 50)
+    private String jobType;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private AIBatchJobStatus status;
+
+    @NotNull
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "request_ids", nullable = false)
+    private List<Long> requestIds;
+
+    @NotNull
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "processed_count", nullable = false)
+    private int processedCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private int failedCount;
+
+    @Column(name = "spam_count", nullable = false)
+    private int spamCount;
+
+    @Column(name = "next_offset", nullable = false)
+    private int nextOffset;
+
+    @Column(name = "owner", length = 100)
+    private String owner;
+
+    @Column(name = "lease_expires_at")
+    private OffsetDateTime leaseExpiresAt;
+
+    @Column(name = "error_message", length = Integer.MAX_VALUE)
+    private String errorMessage;
+
+    @ColumnDefault("now()")
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @ColumnDefault("now()")
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private OffsetDateTime completedAt;
+}
@@ -0,0 +1,45 @@
+package orangle.seniorsync.crm.aifeatures.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "llm_response_cache", schema = "senior_sync")
+public class LLMResponseCacheEntry {
+    @Id
+    @Column(name = "cache_key", nullable = false, length = 64)
+    private String cacheKey;
+
+    @NotNull
+    @Column(name = "feature", nullable = false, length = 50)
+    private String feature;
+
+    @NotNull
+    @Column(name = "model", nullable = false, length = 100)
+    private String model;
+
+    @NotNull
+    @Column(name = "response_text", nullable = false, length = Integer.MAX_VALUE)
+    private String responseText;
+
+    @Column(name = "input_tokens", nullable = false)
+    private long inputTokens;
+
+    @Column(name = "output_tokens", nullable = false)
+    private long outputTokens;
+
+    @ColumnDefault("now()")
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+}
@@ -0,0 +1,18 @@
+package orangle.seniorsync.crm.aifeatures.model;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Bounded, prompt-ready summary of a request, built once per request version by the digest cache.
+ *
+ * @param sourceUpdatedAt updated_at of the request version the digest was built from
+ * @param text one prompt line with the type name, priority, due date, status and a compacted description
+ */
+public record RequestDigest(Long requestId, Long centerId, OffsetDateTime sourceUpdatedAt, String text) {
+    /**
+     * Rough token count (about 4 characters per token), good enough to keep prompts within a budget.
+     */
+    public int estimatedTokens() {
+        return text.length() / 4 + 1;
+    }
+}
@@ -0,0 +1,16 @@
+package orangle.seniorsync.crm.aifeatures.model;
+
+import orangle.seniorsync.crm.aifeatures.enums.RankingSource;
+import java.time.OffsetDateTime;
+
+/**
+ * A freshly computed ranking score, written to {@code requests_ranking} by the scoring pass.
+ *
+ * @param requestId the scored request
+ * @param score urgency from 1 to 100
+ * @param sourceUpdatedAt updated_at of the request version that was scored
+ * @param rankingFactors JSON describing how the score was obtained
+ * @param source whether the score is local or refined by the LLM
+ */
+public record RequestScore(Long requestId, int score, OffsetDateTime sourceUpdatedAt, String rankingFactors, RankingSource source) {
+}
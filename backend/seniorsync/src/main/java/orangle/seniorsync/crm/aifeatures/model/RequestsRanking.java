@@ -4,6 +4,12 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import orangle.seniorsync.crm.aifeatures.enums.RankingSource;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.OffsetDateTime;
 
 @Getter
 @Setter
@@ -21,9 +27,24 @@ public class RequestsRanking {
     @Column(name = "request_id", nullable = false)
     private Long requestId;
 
+    // Absolute urgency from 1 (can wait) to 100 (needs attention now), comparable across scoring passes
     @Column(name = "priority_score")
     private Integer priorityScore;
 
+    @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "ranking_factors")
     private String rankingFactors;
-}
\ No newline at end of file
+
+    @ColumnDefault("now()")
+    @Column(name = "scored_at", nullable = false, insertable = false, updatable = false)
+    private OffsetDateTime scoredAt;
+
+    // updated_at of the request when it was scored, the score is stale once the request changes again
+    @Column(name = "source_updated_at")
+    private OffsetDateTime sourceUpdatedAt;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source", nullable = false, length = 10)
+    private RankingSource source = RankingSource.LOCAL;
+}
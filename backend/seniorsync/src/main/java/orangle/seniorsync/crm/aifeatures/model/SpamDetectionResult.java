@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
+import orangle.seniorsync.crm.aifeatures.enums.SpamDetectionSource;
 import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
@@ -33,6 +34,14 @@ public class SpamDetectionResult {
     @Column(name = "detection_reason", length = Integer.MAX_VALUE)
     private String detectionReason;
 
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source", nullable = false, length = 20)
+    private SpamDetectionSource source = SpamDetectionSource.LLM;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @ColumnDefault("now()")
     @Column(name = "detected_at", nullable = false, insertable = false, updatable = false)
     private OffsetDateTime detectedAt;
@@ -0,0 +1,56 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import orangle.seniorsync.crm.aifeatures.enums.AIBatchJobStatus;
+import orangle.seniorsync.crm.aifeatures.model.AIBatchJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AIBatchJobRepository extends JpaRepository<AIBatchJob, UUID>, AIBatchJobRepositoryCustom {
+
+    Optional<AIBatchJob> findFirstByJobTypeAndRequestHashAndStatusIn(String jobType, String requestHash, Collection<AIBatchJobStatus> statuses);
+
+    /**
+     * Active jobs nobody holds a live lease on: just submitted, or left behind by an instance that stopped.
+     */
+    @Query(value = "SELECT id FROM senior_sync.ai_batch_jobs WHERE status IN ('QUEUED', 'RUNNING') " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at < NOW())", nativeQuery = true)
+    List<UUID> findClaimableIds();
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE senior_sync.ai_batch_jobs SET lease_expires_at = NOW() + make_interval(secs => :leaseSeconds), " +
+            "updated_at = NOW() WHERE id IN (:ids) AND owner = :owner AND status = 'RUNNING'", nativeQuery = true)
+    int renewLeases(@Param("ids") Collection<UUID> ids, @Param("owner") String owner, @Param("leaseSeconds") double leaseSeconds);
+
+    /**
+     * Records a finished chunk and renews the lease, only while the owner still holds the job.
+     *
+     * @return 0 when another instance has taken the job over
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE senior_sync.ai_batch_jobs SET processed_count = processed_count + :processed, " +
+            "failed_count = failed_count + :failed, spam_count = spam_count + :spam, next_offset = :nextOffset, " +
+            "lease_expires_at = NOW() + make_interval(secs => :leaseSeconds), updated_at = NOW() " +
+            "WHERE id = :id AND owner = :owner AND status = 'RUNNING'", nativeQuery = true)
+    int addProgress(@Param("id") UUID id, @Param("owner") String owner, @Param("processed") int processed,
+                    @Param("failed") int failed, @Param("spam") int spam, @Param("nextOffset") int nextOffset,
+                    @Param("leaseSeconds") double leaseSeconds);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE senior_sync.ai_batch_jobs SET status = :status, error_message = :errorMessage, " +
+            "completed_at = :completedAt, lease_expires_at = NULL, updated_at = NOW() " +
+            "WHERE id = :id AND owner = :owner AND status = 'RUNNING'", nativeQuery = true)
+    int finish(@Param("id") UUID id, @Param("owner") String owner, @Param("status") String status,
+               @Param("errorMessage") String errorMessage, @Param("completedAt") OffsetDateTime completedAt);
+}
@@ -0,0 +1,16 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+public interface AIBatchJobRepositoryCustom {
+
+    /**
+     * Claims an active job for the owner when nobody else holds an unexpired lease on it, and marks it running.
+     * Progress is left as it is, so a job taken over from another instance continues where that one stopped.
+     *
+     * @return the offset to continue from, empty when the job is finished or another instance holds it
+     */
+    OptionalInt claim(UUID id, String owner, Duration lease);
+}
@@ -0,0 +1,27 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class AIBatchJobRepositoryCustomImpl implements AIBatchJobRepositoryCustom {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public OptionalInt claim(UUID id, String owner, Duration lease) {
+        // A single conditional UPDATE, so two instances racing for the same job are serialized by the row
+        List<Integer> offsets = jdbcTemplate.queryForList("UPDATE senior_sync.ai_batch_jobs SET status = 'RUNNING', " +
+                        "owner = ?, lease_expires_at = NOW() + make_interval(secs => ?), updated_at = NOW() " +
+                        "WHERE id = ? AND status IN ('QUEUED', 'RUNNING') " +
+                        "AND (owner IS NULL OR owner = ? OR lease_expires_at IS NULL OR lease_expires_at < NOW()) " +
+                        "RETURNING next_offset",
+                Integer.class, owner, (double) lease.toSeconds(), id, owner);
+        return offsets.isEmpty() ? OptionalInt.empty() : OptionalInt.of(offsets.get(0));
+    }
+}
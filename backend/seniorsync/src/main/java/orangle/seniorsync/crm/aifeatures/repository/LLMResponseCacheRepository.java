@@ -0,0 +1,47 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import orangle.seniorsync.crm.aifeatures.model.LLMResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+@Repository
+public interface LLMResponseCacheRepository extends JpaRepository<LLMResponseCacheEntry, String> {
+
+    Optional<LLMResponseCacheEntry> findByCacheKeyAndExpiresAtAfter(String cacheKey, OffsetDateTime now);
+
+    /**
+     * Insert or refresh an entry. Another instance may have cached the same prompt concurrently, last write wins.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO senior_sync.llm_response_cache
+                (cache_key, feature, model, response_text, input_tokens, output_tokens, expires_at)
+            VALUES (:cacheKey, :feature, :model, :responseText, :inputTokens, :outputTokens, :expiresAt)
+            ON CONFLICT (cache_key) DO UPDATE SET
+                response_text = EXCLUDED.response_text,
+                input_tokens = EXCLUDED.input_tokens,
+                output_tokens = EXCLUDED.output_tokens,
+                created_at = NOW(),
+                expires_at = EXCLUDED.expires_at
+            """, nativeQuery = true)
+    void upsert(@Param("cacheKey") String cacheKey,
+                @Param("feature") String feature,
+                @Param("model") String model,
+                @Param("responseText") String responseText,
+                @Param("inputTokens") long inputTokens,
+                @Param("outputTokens") long outputTokens,
+                @Param("expiresAt") OffsetDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM LLMResponseCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,118 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Claims on {@code llm_single_flight}. Every state change of a flight happens in a short transaction that holds the
+ * flight's transaction-scoped advisory lock, so two instances claiming the same requests are serialized and a claim never
+ * interleaves with the owner releasing it. No connection is held while the LLM call itself runs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LLMSingleFlightRepository {
+    // Keeps each statement well below Postgres' 65535 bind parameter limit
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    // Locks in key order so concurrent claims of overlapping batches cannot deadlock
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtextextended(k, 0)) " +
+            "FROM (SELECT k FROM unnest(?::text[]) AS k ORDER BY k) AS sorted";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static String flightKey(String feature, long requestId, String promptHash) {
+        return feature + ":" + requestId + ":" + promptHash;
+    }
+
+    /**
+     * Claims the flights nobody is running, or whose owner's lease expired.
+     *
+     * @return ids of the requests this owner now leads
+     */
+    @Transactional
+    public Set<Long> claim(String feature, Map<Long, String> promptHashes, String owner, Duration lease) {
+        List<Map.Entry<Long, String>> flights = new ArrayList<>(promptHashes.entrySet());
+        lock(flights.stream().map(flight -> flightKey(feature, flight.getKey(), flight.getValue())).toArray(String[]::new));
+
+        Set<Long> claimed = new HashSet<>();
+        for (int from = 0; from < flights.size(); from += MAX_ROWS_PER_STATEMENT) {
+            claimed.addAll(claimChunk(feature, flights.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, flights.size())),
+                    owner, lease));
+        }
+        return claimed;
+    }
+
+    /**
+     * Marks the owner's flights as done, their results are stored and followers can read them.
+     */
+    @Transactional
+    public int complete(String[] flightKeys, String owner) {
+        lock(flightKeys);
+        return jdbcTemplate.update("UPDATE senior_sync.llm_single_flight SET status = 'DONE', updated_at = NOW() " +
+                "WHERE flight_key = ANY(?::text[]) AND owner = ?", flightKeys, owner);
+    }
+
+    /**
+     * Gives up the owner's running flights without a result, so the next follower to poll takes over.
+     */
+    @Transactional
+    public int release(String[] flightKeys, String owner) {
+        lock(flightKeys);
+        return jdbcTemplate.update("DELETE FROM senior_sync.llm_single_flight " +
+                "WHERE flight_key = ANY(?::text[]) AND owner = ? AND status = 'RUNNING'", flightKeys, owner);
+    }
+
+    /**
+     * Removes finished flights whose results were discarded, so the same content can be claimed again. Without this a
+     * request edited back to content it had before would wait on the old flight until the purge.
+     */
+    @Transactional
+    public int forget(String[] flightKeys) {
+        lock(flightKeys);
+        return jdbcTemplate.update("DELETE FROM senior_sync.llm_single_flight " +
+                "WHERE flight_key = ANY(?::text[]) AND status = 'DONE'", (Object) flightKeys);
+    }
+
+    @Transactional
+    public int purge(Duration retention) {
+        return jdbcTemplate.update("DELETE FROM senior_sync.llm_single_flight " +
+                "WHERE updated_at < NOW() - make_interval(secs => ?) AND (status = 'DONE' OR lease_expires_at < NOW())",
+                (double) retention.toSeconds());
+    }
+
+    private void lock(String[] flightKeys) {
+        jdbcTemplate.query(LOCK_SQL, rs -> {
+        }, (Object) flightKeys);
+    }
+
+    private List<Long> claimChunk(String feature, List<Map.Entry<Long, String>> flights, String owner, Duration lease) {
+        StringBuilder sql = new StringBuilder("INSERT INTO senior_sync.llm_single_flight " +
+                "(flight_key, feature, request_id, prompt_hash, owner, status, lease_expires_at) VALUES ");
+        Object[] args = new Object[flights.size() * 6];
+        for (int i = 0; i < flights.size(); i++) {
+            Map.Entry<Long, String> flight = flights.get(i);
+            sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, 'RUNNING', NOW() + make_interval(secs => ?))");
+            args[i * 6] = flightKey(feature, flight.getKey(), flight.getValue());
+            args[i * 6 + 1] = feature;
+            args[i * 6 + 2] = flight.getKey();
+            args[i * 6 + 3] = flight.getValue();
+            args[i * 6 + 4] = owner;
+            args[i * 6 + 5] = (double) lease.toSeconds();
+        }
+        sql.append(" ON CONFLICT (flight_key) DO UPDATE SET owner = EXCLUDED.owner, status = 'RUNNING', " +
+                "lease_expires_at = EXCLUDED.lease_expires_at, updated_at = NOW() " +
+                "WHERE llm_single_flight.status = 'RUNNING' AND llm_single_flight.lease_expires_at < NOW() " +
+                "RETURNING request_id");
+
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args);
+    }
+}
@@ -2,7 +2,34 @@ package orangle.seniorsync.crm.aifeatures.repository;
 
 import orangle.seniorsync.crm.aifeatures.model.RequestsRanking;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface RequestsRankingRepository extends JpaRepository<RequestsRanking, Long> {
+import java.util.Collection;
+import java.util.List;
 
-}
\ No newline at end of file
+public interface RequestsRankingRepository extends JpaRepository<RequestsRanking, Long>, RequestsRankingRepositoryCustom {
+
+    List<RequestsRanking> findByRequestIdIn(Collection<Long> requestIds);
+
+    /**
+     * Incomplete requests that were never scored, changed since they were last scored, became overdue after they were
+     * scored, or were scored longer than {@code maxAgeSeconds} ago.
+     */
+    @Query(value = "SELECT r.id FROM senior_sync.senior_requests r " +
+            "LEFT JOIN senior_sync.requests_ranking k ON k.request_id = r.id " +
+            "WHERE r.status <> 'COMPLETED' " +
+            "AND (k.id IS NULL OR k.source_updated_at IS NULL OR k.source_updated_at < r.updated_at " +
+            "OR (r.due_date > k.scored_at AND r.due_date <= NOW()) " +
+            "OR k.scored_at < NOW() - make_interval(secs => :maxAgeSeconds))", nativeQuery = true)
+    List<Long> findRequestIdsNeedingScore(@Param("maxAgeSeconds") double maxAgeSeconds);
+
+    /**
+     * The {@code limit} incomplete requests with the highest stored scores, across all centers.
+     */
+    @Query(value = "SELECT k.request_id FROM senior_sync.requests_ranking k " +
+            "JOIN senior_sync.senior_requests r ON r.id = k.request_id " +
+            "WHERE r.status <> 'COMPLETED' " +
+            "ORDER BY k.priority_score DESC, k.request_id LIMIT :limit", nativeQuery = true)
+    List<Long> findTopScoredRequestIds(@Param("limit") int limit);
+}
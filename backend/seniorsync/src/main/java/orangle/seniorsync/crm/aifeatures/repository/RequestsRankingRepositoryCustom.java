@@ -0,0 +1,13 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import orangle.seniorsync.crm.aifeatures.model.RequestScore;
+
+import java.util.List;
+
+public interface RequestsRankingRepositoryCustom {
+
+    /**
+     * Insert or overwrite the ranking of each request in one JDBC batch.
+     */
+    void upsertScores(List<RequestScore> scores);
+}
@@ -0,0 +1,37 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import lombok.RequiredArgsConstructor;
+import orangle.seniorsync.crm.aifeatures.model.RequestScore;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RequestsRankingRepositoryCustomImpl implements RequestsRankingRepositoryCustom {
+    private static final String UPSERT_SQL = """
+            INSERT INTO senior_sync.requests_ranking (request_id, priority_score, ranking_factors, scored_at, source_updated_at, source)
+            VALUES (?, ?, CAST(? AS jsonb), NOW(), ?, ?)
+            ON CONFLICT (request_id) DO UPDATE SET
+                priority_score = EXCLUDED.priority_score,
+                ranking_factors = EXCLUDED.ranking_factors,
+                scored_at = EXCLUDED.scored_at,
+                source_updated_at = EXCLUDED.source_updated_at,
+                source = EXCLUDED.source
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertScores(List<RequestScore> scores) {
+        if (scores.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, scores, scores.size(), (ps, score) -> {
+            ps.setLong(1, score.requestId());
+            ps.setInt(2, score.score());
+            ps.setString(3, score.rankingFactors());
+            ps.setObject(4, score.sourceUpdatedAt());
+            ps.setString(5, score.source().name());
+        });
+    }
+}
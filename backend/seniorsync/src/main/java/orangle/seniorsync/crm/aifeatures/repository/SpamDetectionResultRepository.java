@@ -1,6 +1,8 @@
 package orangle.seniorsync.crm.aifeatures.repository;
 
+import orangle.seniorsync.crm.aifeatures.enums.SpamDetectionSource;
 import orangle.seniorsync.crm.aifeatures.model.SpamDetectionResult;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -9,17 +11,21 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SpamDetectionResultRepository extends JpaRepository<SpamDetectionResult, Long> {
+public interface SpamDetectionResultRepository extends JpaRepository<SpamDetectionResult, Long>, SpamDetectionResultRepositoryCustom {
 
     Optional<SpamDetectionResult> findTopByRequestIdOrderByDetectedAtDesc(Long requestId);
 
-    Optional<SpamDetectionResult> findByRequestId(Long requestId);
-
     List<SpamDetectionResult> findByRequestIdIn(List<Long> requestIds);
 
     @Query("SELECT s FROM SpamDetectionResult s WHERE s.isSpam = true ORDER BY s.detectedAt DESC")
     List<SpamDetectionResult> findAllSpamResults();
 
+    /**
+     * Most recent verdicts from the given source, e.g. {@link SpamDetectionSource#LLM} to leave out pre-filter
+     * decisions and parse-failure fallbacks.
+     */
+    List<SpamDetectionResult> findBySourceOrderByDetectedAtDesc(SpamDetectionSource source, Pageable pageable);
+
     @Query("SELECT COUNT(s) FROM SpamDetectionResult s WHERE s.isSpam = true")
     Long countSpamDetections();
 }
@@ -0,0 +1,14 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import orangle.seniorsync.crm.aifeatures.model.SpamDetectionResult;
+
+import java.util.List;
+
+public interface SpamDetectionResultRepositoryCustom {
+
+    /**
+     * Insert all results with multi-row INSERT statements and return them with their generated ids and timestamps.
+     * IDENTITY keys stop Hibernate from batching inserts, so {@code saveAll} would issue one statement per row.
+     */
+    List<SpamDetectionResult> insertAll(List<SpamDetectionResult> results);
+}
@@ -0,0 +1,63 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import lombok.RequiredArgsConstructor;
+import orangle.seniorsync.crm.aifeatures.enums.SpamDetectionSource;
+import orangle.seniorsync.crm.aifeatures.model.SpamDetectionResult;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class SpamDetectionResultRepositoryCustomImpl implements SpamDetectionResultRepositoryCustom {
+    // Keeps each statement well below Postgres' 65535 bind parameter limit
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<SpamDetectionResult> insertAll(List<SpamDetectionResult> results) {
+        List<SpamDetectionResult> inserted = new ArrayList<>(results.size());
+        for (int from = 0; from < results.size(); from += MAX_ROWS_PER_STATEMENT) {
+            inserted.addAll(insertChunk(results.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, results.size()))));
+        }
+        return inserted;
+    }
+
+    private List<SpamDetectionResult> insertChunk(List<SpamDetectionResult> chunk) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO senior_sync.spam_detection_results (request_id, is_spam, confidence_score, detection_reason, source, content_hash) VALUES ");
+        Object[] args = new Object[chunk.size() * 6];
+        for (int i = 0; i < chunk.size(); i++) {
+            SpamDetectionResult result = chunk.get(i);
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+            args[i * 6] = result.getRequestId();
+            args[i * 6 + 1] = result.getIsSpam();
+            args[i * 6 + 2] = result.getConfidenceScore();
+            args[i * 6 + 3] = result.getDetectionReason();
+            args[i * 6 + 4] = result.getSource().name();
+            args[i * 6 + 5] = result.getContentHash();
+        }
+        sql.append(" RETURNING id, request_id, is_spam, confidence_score, detection_reason, source, content_hash, detected_at, created_at, updated_at");
+
+        return jdbcTemplate.query(sql.toString(), this::mapRow, args);
+    }
+
+    private SpamDetectionResult mapRow(ResultSet rs, int rowNum) throws SQLException {
+        SpamDetectionResult result = new SpamDetectionResult();
+        result.setId(rs.getLong("id"));
+        result.setRequestId(rs.getLong("request_id"));
+        result.setIsSpam(rs.getBoolean("is_spam"));
+        result.setConfidenceScore(rs.getBigDecimal("confidence_score"));
+        result.setDetectionReason(rs.getString("detection_reason"));
+        result.setSource(SpamDetectionSource.valueOf(rs.getString("source")));
+        result.setContentHash(rs.getString("content_hash"));
+        result.setDetectedAt(rs.getObject("detected_at", OffsetDateTime.class));
+        result.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+        result.setUpdatedAt(rs.getObject("updated_at", OffsetDateTime.class));
+        return result;
+    }
+}
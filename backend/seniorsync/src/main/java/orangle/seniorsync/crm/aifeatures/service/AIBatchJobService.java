@@ -0,0 +1,333 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.common.config.AsyncConfig;
+import orangle.seniorsync.crm.aifeatures.dto.AIBatchJobDto;
+import orangle.seniorsync.crm.aifeatures.dto.BatchSpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.dto.SpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.enums.AIBatchJobStatus;
+import orangle.seniorsync.crm.aifeatures.model.AIBatchJob;
+import orangle.seniorsync.crm.aifeatures.repository.AIBatchJobRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs long AI batch operations as jobs, so callers get a job id straight away instead of holding a request open.
+ * <p>
+ * A job works through its requests in chunks of {@code seniorsync.ai.jobs.chunk-size}, one chunk at a time, and records
+ * progress after each chunk. A chunk that fails is counted as failed and the job moves on to the next one. Only
+ * requests with a stored verdict count as processed; errors and provisional pre-filter leanings count as failed and
+ * are checked again by a later submission. Clients poll {@link #getJob} or subscribe to server-sent events with
+ * {@link #subscribe}.
+ * <p>
+ * A job is worked on by the instance holding its lease ({@code seniorsync.ai.jobs.lease}), renewed with every chunk and
+ * every {@code seniorsync.ai.jobs.heartbeat-interval-ms}. Each instance regularly claims active jobs whose lease has
+ * expired, so a job interrupted by a restart or a crashed instance is continued from its last recorded chunk. Results
+ * are stored per request by the feature itself (e.g. {@code spam_detection_results}), so repeated work costs no LLM
+ * calls. Submitting the same set of requests while a job for it is still active returns that job instead of starting
+ * another.
+ */
+@Slf4j
+@Service
+public class AIBatchJobService implements IAIBatchJobService {
+    private static final Set<AIBatchJobStatus> ACTIVE_STATUSES = Set.of(AIBatchJobStatus.QUEUED, AIBatchJobStatus.RUNNING);
+
+    private final AIBatchJobRepository jobRepository;
+    private final IAISpamFilterService spamFilterService;
+    private final Executor backgroundExecutor;
+    private final int chunkSize;
+    private final long emitterTimeoutMs;
+    private final Duration lease;
+
+    // Identifies this instance as the owner of its job leases
+    private final String owner;
+    // Jobs running in this instance, guards against running a job twice
+    private final Set<UUID> runningJobs = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<UUID, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    public AIBatchJobService(
+            AIBatchJobRepository jobRepository,
+            IAISpamFilterService spamFilterService,
+            @Qualifier(AsyncConfig.BACKGROUND_EXECUTOR) Executor backgroundExecutor,
+            @Value("${seniorsync.ai.jobs.chunk-size:100}") int chunkSize,
+            @Value("${seniorsync.ai.jobs.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${seniorsync.ai.jobs.lease:120s}") Duration lease) {
+        this.jobRepository = jobRepository;
+        this.spamFilterService = spamFilterService;
+        this.backgroundExecutor = backgroundExecutor;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.lease = lease;
+        String host = System.getenv().getOrDefault("HOSTNAME", "local");
+        this.owner = (host.length() > 50 ? host.substring(0, 50) : host) + "/" + UUID.randomUUID();
+    }
+
+    @Override
+    public AIBatchJobDto submitSpamCheck(List<Long> requestIds) {
+        if (requestIds == null || requestIds.isEmpty()) {
+            throw new IllegalArgumentException("Request ids must not be empty");
+        }
+        List<Long> ids = requestIds.stream().distinct().sorted().toList();
+        String requestHash = hash(ids);
+
+        Optional<AIBatchJob> active = jobRepository.findFirstByJobTypeAndRequestHashAndStatusIn(
+                AIBatchJob.SPAM_CHECK, requestHash, ACTIVE_STATUSES);
+        if (active.isPresent()) {
+            log.info("Reusing active job {} for {} requests", active.get().getId(), ids.size());
+            return toDto(active.get(), List.of());
+        }
+
+        AIBatchJob job = new AIBatchJob();
+        job.setId(UUID.randomUUID());
+        job.setJobType(AIBatchJob.SPAM_CHECK);
+        job.setStatus(AIBatchJobStatus.QUEUED);
+        job.setRequestIds(ids);
+        job.setRequestHash(requestHash);
+        job.setTotalCount(ids.size());
+        try {
+            job = jobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent submission of the same requests won the race, hand out its job
+            return jobRepository.findFirstByJobTypeAndRequestHashAndStatusIn(AIBatchJob.SPAM_CHECK, requestHash, ACTIVE_STATUSES)
+                    .map(existing -> toDto(existing, List.of()))
+                    .orElseThrow(() -> e);
+        }
+
+        log.info("Submitted spam check job {} for {} requests", job.getId(), ids.size());
+        UUID jobId = job.getId();
+        backgroundExecutor.execute(() -> run(jobId));
+        return toDto(job, List.of());
+    }
+
+    /**
+     * @param page page of the job's (sorted) request ids whose stored results are returned
+     * @param size request ids per page
+     */
+    @Override
+    public Optional<AIBatchJobDto> getJob(UUID jobId, int page, int size) {
+        return jobRepository.findById(jobId).map(job -> {
+            List<Long> ids = job.getRequestIds();
+            int from = (int) Math.min((long) page * size, ids.size());
+            int to = Math.min(from + size, ids.size());
+            return toDto(job, spamFilterService.getStoredResults(ids.subList(from, to)));
+        });
+    }
+
+    @Override
+    public Optional<SseEmitter> subscribe(UUID jobId) {
+        Optional<AIBatchJob> job = jobRepository.findById(jobId);
+        if (job.isEmpty()) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        AIBatchJobDto snapshot = toDto(job.get(), List.of());
+        if (!snapshot.status().isActive()) {
+            send(emitter, "completed", snapshot);
+            emitter.complete();
+            return Optional.of(emitter);
+        }
+
+        List<SseEmitter> subscribers = emitters.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(error -> subscribers.remove(emitter));
+
+        // The job may have finished (and completed its subscribers) between the snapshot and registering; the final
+        // status is stored before subscribers are completed, so reading it again tells us whether we missed it
+        AIBatchJobDto current = jobRepository.findById(jobId).map(latest -> toDto(latest, List.of())).orElse(snapshot);
+        if (!current.status().isActive()) {
+            subscribers.remove(emitter);
+            emitters.remove(jobId, List.of());
+            send(emitter, "completed", current);
+            emitter.complete();
+            return Optional.of(emitter);
+        }
+        send(emitter, "progress", current);
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Renews the leases of the jobs running here and picks up active jobs nobody holds, which includes jobs that were
+     * running when this or another instance stopped.
+     */
+    @Scheduled(fixedDelayString = "${seniorsync.ai.jobs.heartbeat-interval-ms:30000}")
+    public void maintainJobs() {
+        if (!runningJobs.isEmpty()) {
+            jobRepository.renewLeases(Set.copyOf(runningJobs), owner, lease.toSeconds());
+        }
+        List<UUID> claimable = jobRepository.findClaimableIds();
+        if (!claimable.isEmpty()) {
+            log.info("Picking up {} unclaimed AI batch jobs", claimable.size());
+        }
+        claimable.forEach(jobId -> backgroundExecutor.execute(() -> run(jobId)));
+    }
+
+    private void run(UUID jobId) {
+        if (!runningJobs.add(jobId)) {
+            return;
+        }
+        try {
+            OptionalInt claimedOffset = jobRepository.claim(jobId, owner, lease);
+            AIBatchJob job = claimedOffset.isPresent() ? jobRepository.findById(jobId).orElse(null) : null;
+            if (job == null) {
+                runningJobs.remove(jobId);
+                return;
+            }
+
+            List<Long> ids = job.getRequestIds();
+            AtomicReference<String> lastChunkError = new AtomicReference<>();
+            // Completes with whether this instance still holds the job
+            CompletableFuture<Boolean> chain = CompletableFuture.completedFuture(true);
+            for (int start = claimedOffset.getAsInt(); start < ids.size(); start += chunkSize) {
+                int end = Math.min(start + chunkSize, ids.size());
+                List<Long> chunk = ids.subList(start, end);
+                chain = chain.thenCompose(held -> !held ? CompletableFuture.completedFuture(false) : checkChunk(chunk)
+                        .handleAsync((result, error) -> recordProgress(jobId, chunk, end, result, error, lastChunkError),
+                                backgroundExecutor));
+            }
+            chain.whenComplete((held, error) -> {
+                if (Boolean.FALSE.equals(held)) {
+                    log.warn("AI batch job {} was taken over by another instance, stopping here", jobId);
+                    runningJobs.remove(jobId);
+                    completeSubscribers(jobId);
+                } else {
+                    finish(jobId, error, lastChunkError.get());
+                }
+            });
+        } catch (RuntimeException e) {
+            finish(jobId, e, null);
+        }
+    }
+
+    private CompletableFuture<BatchSpamFilterResultDto> checkChunk(List<Long> chunk) {
+        try {
+            return spamFilterService.checkBatchRequestsAsync(chunk);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean recordProgress(UUID jobId, List<Long> chunk, int nextOffset, BatchSpamFilterResultDto result,
+                                   Throwable error, AtomicReference<String> lastChunkError) {
+        int stored = 0;
+        int failed = 0;
+        int spam = 0;
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.warn("Chunk of {} requests in AI batch job {} failed, continuing: {}", chunk.size(), jobId, cause.getMessage());
+            lastChunkError.set(cause.getMessage());
+            failed = chunk.size();
+        } else {
+            for (SpamFilterResultDto dto : result.getResults()) {
+                if (dto.isFailed() || dto.isProvisional()) {
+                    failed++;
+                } else {
+                    stored++;
+                    spam += Boolean.TRUE.equals(dto.getIsSpam()) ? 1 : 0;
+                }
+            }
+        }
+
+        if (jobRepository.addProgress(jobId, owner, stored, failed, spam, nextOffset, lease.toSeconds()) == 0) {
+            return false;
+        }
+        jobRepository.findById(jobId).ifPresent(job -> publish(jobId, "progress", toDto(job, List.of())));
+        return true;
+    }
+
+    private void finish(UUID jobId, Throwable error, String lastChunkError) {
+        try {
+            AIBatchJob job = jobRepository.findById(jobId).orElse(null);
+            if (error != null) {
+                log.error("AI batch job {} failed: {}", jobId, error.getMessage());
+                jobRepository.finish(jobId, owner, AIBatchJobStatus.FAILED.name(), error.getMessage(), OffsetDateTime.now());
+            } else if (job != null && job.getTotalCount() > 0 && job.getFailedCount() == job.getTotalCount()) {
+                log.error("AI batch job {} failed for all {} requests", jobId, job.getTotalCount());
+                jobRepository.finish(jobId, owner, AIBatchJobStatus.FAILED.name(), lastChunkError, OffsetDateTime.now());
+            } else {
+                log.info("AI batch job {} completed", jobId);
+                jobRepository.finish(jobId, owner, AIBatchJobStatus.COMPLETED.name(), lastChunkError, OffsetDateTime.now());
+            }
+            jobRepository.findById(jobId).ifPresent(finished -> publish(jobId, "completed", toDto(finished, List.of())));
+        } finally {
+            runningJobs.remove(jobId);
+            completeSubscribers(jobId);
+        }
+    }
+
+    private void completeSubscribers(UUID jobId) {
+        List<SseEmitter> subscribers = emitters.remove(jobId);
+        if (subscribers != null) {
+            subscribers.forEach(SseEmitter::complete);
+        }
+    }
+
+    private void publish(UUID jobId, String eventName, AIBatchJobDto dto) {
+        List<SseEmitter> subscribers = emitters.get(jobId);
+        if (subscribers != null) {
+            subscribers.forEach(emitter -> send(emitter, eventName, dto));
+        }
+    }
+
+    private static void send(SseEmitter emitter, String eventName, AIBatchJobDto dto) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(dto));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, the emitter callbacks drop it
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static String hash(List<Long> sortedIds) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Long id : sortedIds) {
+                digest.update(id.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) ',');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static AIBatchJobDto toDto(AIBatchJob job, List<SpamFilterResultDto> results) {
+        return new AIBatchJobDto(
+                job.getId(),
+                job.getJobType(),
+                job.getStatus(),
+                job.getTotalCount(),
+                job.getProcessedCount(),
+                job.getFailedCount(),
+                job.getSpamCount(),
+                job.getErrorMessage(),
+                job.getCreatedAt(),
+                job.getCompletedAt(),
+                results);
+    }
+}
@@ -1,47 +1,140 @@
 package orangle.seniorsync.crm.aifeatures.service;
 
+import orangle.seniorsync.common.config.AsyncConfig;
 import orangle.seniorsync.common.service.AbstractCenterFilteredService;
 import orangle.seniorsync.common.service.IUserContextService;
+import orangle.seniorsync.common.service.SchedulerLeaderLock;
 import orangle.seniorsync.common.util.SecurityContextUtil;
 import orangle.seniorsync.crm.aifeatures.client.LLMClient;
+import orangle.seniorsync.crm.aifeatures.client.LLMFeature;
+import orangle.seniorsync.crm.aifeatures.client.LLMRequest;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
 import orangle.seniorsync.crm.aifeatures.dto.AIRecommendedRequestDto;
+import orangle.seniorsync.crm.aifeatures.enums.RankingSource;
+import orangle.seniorsync.crm.aifeatures.model.RequestDigest;
+import orangle.seniorsync.crm.aifeatures.model.RequestScore;
+import orangle.seniorsync.crm.aifeatures.model.RequestsRanking;
 import orangle.seniorsync.crm.requestmanagement.dto.SeniorRequestDto;
 import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+import orangle.seniorsync.crm.requestmanagement.event.SeniorRequestChangedEvent;
 import orangle.seniorsync.crm.requestmanagement.mapper.SeniorRequestMapper;
 import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
 import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import orangle.seniorsync.crm.requestmanagement.spec.SeniorRequestSpecs;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import lombok.extern.slf4j.Slf4j;
 import orangle.seniorsync.crm.aifeatures.repository.RequestsRankingRepository;
 
+/**
+ * Serves AI recommended requests from stored ranking scores.
+ * <p>
+ * Recommendations used to send the whole incomplete backlog to the LLM on every call. Instead, each request now gets an
+ * absolute urgency score (1-100) that is persisted in {@code requests_ranking}, so a page load is two queries and a sort:
+ * <ul>
+ *   <li>Request writes mark the request dirty ({@link SeniorRequestChangedEvent}).</li>
+ *   <li>A debounced background pass scores the dirty requests with the {@link RequestUrgencyScorer} and upserts the
+ *   scores, then asks the LLM to refine the scores of the most urgent ones.</li>
+ *   <li>A periodic reconciliation re-marks requests whose score is missing or older than the request itself, which
+ *   covers restarts and writes handled by other instances.</li>
+ * </ul>
+ * Local scores depend on the time (due dates draw closer, requests age), so reads recompute them and only LLM scores
+ * are served as stored; the reconciliation also expires scores that a passed due date or
+ * {@code seniorsync.ranking.max-score-age} made stale. Requests that have not been scored yet are ranked by their local
+ * urgency score on the spot. When the LLM is unavailable the local scores simply stay in place.
+ * <p>
+ * Both passes run on one instance at a time, the holder of the {@value #RANKING_LEASE} lease. The other instances
+ * drop their marks; the leader's reconciliation finds those requests from their {@code updated_at}.
+ */
 @Service
 @Slf4j
 public class AIRecommendedRequestService extends AbstractCenterFilteredService<SeniorRequest, Long> implements IAIRecommendedRequestService {
     private final SeniorRequestRepository seniorRequestRepository;
     private final SeniorRequestMapper seniorRequestMapper;
     private final LLMClient llmClient;
+    private final RequestsRankingRepository requestsRankingRepository;
+    private final LLMProperties llmProperties;
+    private final Executor backgroundExecutor;
+    private final RequestUrgencyScorer urgencyScorer;
+    private final RequestDigestCache requestDigestCache;
+    private final SchedulerLeaderLock leaderLock;
+    private final int maxRequestsPerPass;
+    private final int llmRefineTopN;
+    private final Duration maxScoreAge;
+
+    static final String RANKING_LEASE = "ai-ranking";
+    private static final int MIN_SCORE = 1;
+    private static final int MAX_SCORE = 100;
+    private static final String LLM_RANKING_FACTORS = "{\"source\":\"llm\"}";
+    // Sent as the system prompt, the user message only carries the requests. Too short for the provider's prompt cache
+    private static final String RANKING_INSTRUCTIONS =
+            "Please score the senior care requests in the user message by priority based on urgency, severity, due date, status and impact. " +
+            "Give each request a score from 1 (can wait) to 100 (needs attention immediately). " +
+            "Scores are compared with requests scored in other batches, so score each request on its own merits " +
+            "rather than relative to the others in the list. Use this scale:\n" +
+            "- 90-100: health or safety is at risk, or the request is overdue\n" +
+            "- 70-89: due within a day, or a senior cannot manage without it\n" +
+            "- 40-69: due within the week\n" +
+            "- 1-39: routine, no due date or can wait longer than a week\n\n" +
+            "Return one id:score pair per request in comma-separated format. Do not omit any IDs.\n" +
+            "Example: 3:85,1:60,5:12\n" +
+            "Do not include any text, explanations, or formatting. Just the pairs and commas.\n";
+
+    // Requests waiting for the next scoring pass
+    private final Set<Long> dirtyRequestIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scoringInProgress = new AtomicBoolean();
 
     public AIRecommendedRequestService(
             SeniorRequestRepository seniorRequestRepository,
             SeniorRequestMapper seniorRequestMapper,
-            @Qualifier("claude") LLMClient llmClient,
-            IUserContextService userContextService
+            LLMClient llmClient,
+            IUserContextService userContextService,
+            RequestsRankingRepository requestsRankingRepository,
+            LLMProperties llmProperties,
+            @Qualifier(AsyncConfig.BACKGROUND_EXECUTOR) Executor backgroundExecutor,
+            RequestUrgencyScorer urgencyScorer,
+            RequestDigestCache requestDigestCache,
+            SchedulerLeaderLock leaderLock,
+            @Value("${seniorsync.ranking.max-requests-per-pass:500}") int maxRequestsPerPass,
+            @Value("${seniorsync.ranking.llm-refine-top-n:100}") int llmRefineTopN,
+            @Value("${seniorsync.ranking.max-score-age:24h}") Duration maxScoreAge
     ) {
         super(userContextService);
         this.seniorRequestRepository = seniorRequestRepository;
         this.seniorRequestMapper = seniorRequestMapper;
         this.llmClient = llmClient;
+        this.requestsRankingRepository = requestsRankingRepository;
+        this.llmProperties = llmProperties;
+        this.backgroundExecutor = backgroundExecutor;
+        this.urgencyScorer = urgencyScorer;
+        this.requestDigestCache = requestDigestCache;
+        this.leaderLock = leaderLock;
+        this.maxRequestsPerPass = maxRequestsPerPass;
+        this.llmRefineTopN = llmRefineTopN;
+        this.maxScoreAge = maxScoreAge;
     }
 
     @Override
@@ -56,85 +149,278 @@ public class AIRecommendedRequestService extends AbstractCenterFilteredService<S
         return new AIRecommendedRequestDto(rankedRequests);
     }
 
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestChanged(SeniorRequestChangedEvent event) {
+        SeniorRequest request = event.request();
+        if (event.changeType() == SeniorRequestChangedEvent.ChangeType.DELETED || request.getStatus() == RequestStatus.COMPLETED) {
+            dirtyRequestIds.remove(request.getId()); // Completed requests are never recommended, no need to score them
+            return;
+        }
+        dirtyRequestIds.add(request.getId());
+    }
+
+    /**
+     * Marks requests whose stored score is missing or stale, including scores that no longer reflect the request's due
+     * date or that are older than {@code seniorsync.ranking.max-score-age}. Runs once at startup and then periodically.
+     */
+    @Scheduled(fixedDelayString = "${seniorsync.ranking.reconcile-interval-ms:120000}")
+    public void reconcileStaleScores() {
+        if (!leaderLock.tryAcquire(RANKING_LEASE)) {
+            return;
+        }
+        List<Long> staleIds = requestsRankingRepository.findRequestIdsNeedingScore(maxScoreAge.toSeconds());
+        if (!staleIds.isEmpty()) {
+            log.info("Found {} requests with a missing or stale ranking score", staleIds.size());
+            dirtyRequestIds.addAll(staleIds);
+        }
+    }
+
+    /**
+     * Scores the dirty requests. Writes in between passes are coalesced, so a burst of edits costs one LLM call.
+     * <p>
+     * Every request first gets its local urgency score, stored right away. Those of them that are among the
+     * {@code seniorsync.ranking.llm-refine-top-n} highest stored scores overall are then re-scored by the LLM from their
+     * cached {@link RequestDigest}s, split into
+     * chunks of at most {@code llm.features.request-ranking.batch-size} requests and
+     * {@code llm.features.request-ranking.max-prompt-tokens} tokens that are scored in parallel, so no prompt outgrows
+     * its budget and the pass takes as long as its slowest chunk. The scores of every chunk are stored as returned:
+     * the prompt asks for an absolute score per request rather than a relative order, and readers sort the stored
+     * scores themselves, so there is nothing to merge.
+     * The LLM calls do not block the scheduler thread; a new pass only starts once the previous one has finished.
+     */
+    @Scheduled(fixedDelayString = "${seniorsync.ranking.rescore-interval-ms:30000}")
+    public void rescoreDirtyRequests() {
+        // Also renews the lease, so this runs before the cheaper checks below
+        if (!leaderLock.tryAcquire(RANKING_LEASE)) {
+            dirtyRequestIds.clear();
+            return;
+        }
+        if (dirtyRequestIds.isEmpty() || !scoringInProgress.compareAndSet(false, true)) {
+            return;
+        }
+
+        List<Long> passIds = drainDirtyRequestIds(maxRequestsPerPass);
+        List<RequestDigest> digests;
+        try {
+            List<RequestScore> localScores = urgencyScorer.scoreAll(seniorRequestRepository.findUrgencyViewsByIdIn(passIds).stream()
+                    .filter(view -> view.getStatus() != RequestStatus.COMPLETED)
+                    .toList());
+            requestsRankingRepository.upsertScores(localScores);
+            log.info("Stored local urgency scores for {} requests ({} still queued)", localScores.size(), dirtyRequestIds.size());
+
+            // The cut-off is global, a pass of low-urgency requests refines nothing however few it holds
+            Set<Long> topIds = llmRefineTopN > 0 ? new HashSet<>(requestsRankingRepository.findTopScoredRequestIds(llmRefineTopN)) : Set.of();
+            List<Long> refineIds = localScores.stream().map(RequestScore::requestId).filter(topIds::contains).toList();
+            digests = refineIds.isEmpty() ? List.of() : requestDigestCache.digestsFor(refineIds).stream()
+                    // Deterministic chunks for the same backlog; chunks never mix centers so each call is charged to one center
+                    .sorted(Comparator.comparing(RequestDigest::centerId).thenComparing(RequestDigest::requestId))
+                    .toList();
+        } catch (RuntimeException e) {
+            dirtyRequestIds.addAll(passIds);
+            scoringInProgress.set(false);
+            throw e;
+        }
+        if (digests.isEmpty()) {
+            scoringInProgress.set(false);
+            return;
+        }
+
+        List<CompletableFuture<List<RequestScore>>> chunkFutures = chunk(digests).stream().map(this::scoreChunk).toList();
+        log.info("Refining the scores of the {} most urgent requests in {} parallel chunk(s)", digests.size(), chunkFutures.size());
+
+        CompletableFuture.allOf(chunkFutures.toArray(new CompletableFuture[0]))
+                .thenApplyAsync(v -> chunkFutures.stream().flatMap(future -> future.join().stream()).toList(), backgroundExecutor)
+                .thenAccept(scores -> saveScores(scores, digests.size()))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("Refining scores failed, keeping the local scores of {} requests: {}", digests.size(), error.getMessage());
+                    }
+                    scoringInProgress.set(false);
+                });
+    }
+
+    /**
+     * Splits the digests (sorted by center) into chunks of one center each, bounded by the batch size and the prompt
+     * token budget. A single digest above the budget still gets a chunk of its own.
+     */
+    private List<List<RequestDigest>> chunk(List<RequestDigest> digests) {
+        LLMProperties.Feature settings = llmProperties.getFeature(LLMFeature.REQUEST_RANKING);
+        int batchSize = Math.max(1, settings.getBatchSize());
+        int maxPromptTokens = settings.getMaxPromptTokens() > 0 ? settings.getMaxPromptTokens() : Integer.MAX_VALUE;
+
+        List<List<RequestDigest>> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        int chunkTokens = 0;
+        for (int i = 0; i < digests.size(); i++) {
+            RequestDigest digest = digests.get(i);
+            boolean full = i - chunkStart == batchSize
+                    || chunkTokens + digest.estimatedTokens() > maxPromptTokens
+                    || !digest.centerId().equals(digests.get(chunkStart).centerId());
+            if (i > chunkStart && full) {
+                chunks.add(digests.subList(chunkStart, i));
+                chunkStart = i;
+                chunkTokens = 0;
+            }
+            chunkTokens += digest.estimatedTokens();
+        }
+        chunks.add(digests.subList(chunkStart, digests.size()));
+        return chunks;
+    }
+
+    /**
+     * Scores one chunk. A failed chunk yields no scores, its requests keep their local score while the other chunks
+     * of the pass are still stored.
+     */
+    private CompletableFuture<List<RequestScore>> scoreChunk(List<RequestDigest> chunk) {
+        LLMRequest llmRequest = LLMRequest.builder()
+                .feature(LLMFeature.REQUEST_RANKING)
+                .systemPrompt(RANKING_INSTRUCTIONS)
+                .prompt(buildPrompt(chunk))
+                .centerId(chunk.get(0).centerId())
+                .build();
+
+        return llmClient.callLLMAsync(llmRequest)
+                .thenApply(response -> parseAndRankRequests(response.text(), chunk))
+                .exceptionally(error -> {
+                    log.warn("Scoring chunk of {} requests failed: {}", chunk.size(), error.getMessage());
+                    return List.of();
+                });
+    }
+
     private List<SeniorRequestDto> getAllSeniorRequests() {
         Specification<SeniorRequest> incompleteSpec = (root, query, cb) ->
                 cb.notEqual(root.get("status"), RequestStatus.COMPLETED);
         List<SeniorRequest> seniorRequests = findAllWithCenterFilter(incompleteSpec);
-        String prompt = buildPrompt(seniorRequests);
-        String response = getRankedResponse(prompt);
-        return parseAndRankRequests(response, seniorRequests);
+        return rankByStoredScores(seniorRequests);
     }
 
     private List<SeniorRequestDto> getMyIncompletedSeniorRequests() {
         // Use Cognito sub directly as the user identifier
         UUID currentUserCognitoSub = SecurityContextUtil.requireCurrentCognitoSubUUID();
         List<SeniorRequest> mySeniorRequests = seniorRequestRepository.findIncompleteRequestsByAssignedStaffCognitoSub(currentUserCognitoSub);
-        String prompt = buildPrompt(mySeniorRequests);
-        String response = getRankedResponse(prompt);
-        return parseAndRankRequests(response, mySeniorRequests);
+        return rankByStoredScores(mySeniorRequests);
+    }
+
+    /**
+     * Sorts by LLM score where the LLM refined one, and by the local urgency score computed now everywhere else, so
+     * due dates and age count as of this read rather than as of the last scoring pass.
+     */
+    private List<SeniorRequestDto> rankByStoredScores(List<SeniorRequest> seniorRequests) {
+        Map<Long, Integer> scores = new HashMap<>();
+        Set<Long> storedIds = new HashSet<>();
+        for (RequestsRanking ranking : requestsRankingRepository.findByRequestIdIn(seniorRequests.stream().map(SeniorRequest::getId).toList())) {
+            storedIds.add(ranking.getRequestId());
+            if (ranking.getSource() == RankingSource.LLM) {
+                scores.putIfAbsent(ranking.getRequestId(), ranking.getPriorityScore());
+            }
+        }
+
+        List<Long> localIds = seniorRequests.stream()
+                .map(SeniorRequest::getId)
+                .filter(id -> !scores.containsKey(id))
+                .toList();
+        if (!localIds.isEmpty()) {
+            urgencyScorer.scoreAll(seniorRequestRepository.findUrgencyViewsByIdIn(localIds))
+                    .forEach(score -> scores.putIfAbsent(score.requestId(), score.score()));
+        }
+        List<Long> unscoredIds = localIds.stream().filter(id -> !storedIds.contains(id)).toList();
+        if (!unscoredIds.isEmpty()) {
+            log.info("{} of {} requests are not scored yet, ranking them by local urgency", unscoredIds.size(), seniorRequests.size());
+            dirtyRequestIds.addAll(unscoredIds); // Stored (and refined) by the next scoring pass
+        }
+
+        Comparator<SeniorRequest> byStoredScore = Comparator.comparingInt(request -> scores.getOrDefault(request.getId(), 0));
+        return seniorRequests.stream()
+                .sorted(byStoredScore.reversed()
+                        .thenComparing(SeniorRequest::getPriority, Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(SeniorRequest::getId))
+                .map(seniorRequestMapper::toDto)
+                .toList();
+    }
+
+    private List<Long> drainDirtyRequestIds(int limit) {
+        List<Long> drained = new ArrayList<>(Math.min(limit, dirtyRequestIds.size()));
+        Iterator<Long> iterator = dirtyRequestIds.iterator();
+        while (iterator.hasNext() && drained.size() < limit) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
     }
 
+    private void saveScores(List<RequestScore> scores, int requestCount) {
+        requestsRankingRepository.upsertScores(scores);
+        log.info("Stored LLM scores for {} requests", scores.size());
 
-    private String buildPrompt(List<SeniorRequest> seniorRequests) {
+        if (scores.size() < requestCount) {
+            log.warn("LLM returned no usable score for {} of {} requests, they keep their local score",
+                    requestCount - scores.size(), requestCount);
+        }
+    }
+
+    private String buildPrompt(List<RequestDigest> digests) {
         log.info("Building prompt for AI recommendations");
 
         StringBuilder prompt = new StringBuilder();
-        prompt.append("Please rank the following senior care requests by priority based on urgency, severity, due date, status and impact. ");
-        prompt.append("Return the IDs in order of highest to lowest priority:\n\n");
-        for(SeniorRequest request : seniorRequests) {
-            prompt.append(String.format("ID: %d, Type: %s, Description: %s, Due date: %s, Status: %s\n",
-                    request.getId(),
-                    request.getRequestTypeId(),
-                    request.getDescription(),
-                    request.getDueDate(),
-                    request.getStatus()));
-        }
-
-        prompt.append("\nReturn only the IDs in comma-separated format, ordered by priority. Do not omit any IDs.\n");
-        prompt.append("Example: 3,1,5,2,4\n");
-        prompt.append("Do not include any text, explanations, or formatting. Just the numbers and commas.\n");
-        log.info("Prompt: {}", prompt);
-        log.info("Returning ranked ids");
+        for (RequestDigest digest : digests) {
+            prompt.append(digest.text()).append('\n');
+        }
+        log.debug("Prompt: {}", prompt);
         return prompt.toString();
     }
 
-    private String getRankedResponse(String prompt) {
-        return llmClient.callLLM(prompt);
-    }
+    /**
+     * Returns the scores the llm gave, highest first; equal scores keep the order the llm listed them in.
+     * <p>
+     * Ids that are not in the chunk (hallucinated), repeated ids (the first score wins) and malformed or out of range
+     * pairs are dropped and counted.
+     */
+    private List<RequestScore> parseAndRankRequests(String llmResponse, List<RequestDigest> originalRequests) {
+        log.debug("LLM Response: {}", llmResponse);
+        Map<Long, RequestDigest> requestsById = new HashMap<>();
+        originalRequests.forEach(request -> requestsById.putIfAbsent(request.requestId(), request));
 
-    // Returns a list of Senior Requests ranked by the llm
-    private List<SeniorRequestDto> parseAndRankRequests(String llmResponse, List<SeniorRequest> originalRequests) {
-        try {
-            log.info("LLM Response: {}", llmResponse);
-            log.info("Original requests: {}", originalRequests);
-            String[] rankedIds = llmResponse.trim().split(",");
-            log.info("Ranked Ids: {}", java.util.Arrays.toString(rankedIds));
-            List<SeniorRequestDto> rankedRequests = new ArrayList<>();
-            List<Long> processedIds = new ArrayList<>();
-
-            for(String idStr : rankedIds) {
-                Long id = Long.parseLong(idStr.trim());
-                originalRequests.stream()
-                        .filter(request -> request.getId().equals(id))
-                        .findFirst()
-                        .ifPresent(request -> {
-                            rankedRequests.add(seniorRequestMapper.toDto(request));
-                            processedIds.add(id);
-                        });
+        // Insertion ordered so equal scores keep the order the llm listed them in
+        Map<Long, RequestScore> scores = new LinkedHashMap<>();
+        int hallucinated = 0;
+        int duplicates = 0;
+        int malformed = 0;
+        for (String pair : llmResponse.split(",")) {
+            if (pair.isBlank()) {
+                continue; // An empty segment (e.g. the end of "1:50,") is not worth a warning
             }
-
-            originalRequests.stream()
-                    .filter(request -> !processedIds.contains(request.getId()))
-                    .forEach(request -> rankedRequests.add(seniorRequestMapper.toDto(request)));
-
-            return rankedRequests;
-        } catch (Exception e) {
-            // Fallback to original order if parsing fails
-            log.info("Fallback to original order. Error: " + e.getMessage());
-            return originalRequests.stream()
-                    .map(seniorRequestMapper::toDto)
-                    .collect(Collectors.toList());
+            String[] parts = pair.split(":");
+            long id;
+            int score;
+            try {
+                if (parts.length != 2) {
+                    throw new NumberFormatException(pair);
+                }
+                id = Long.parseLong(parts[0].trim());
+                score = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                malformed++;
+                continue;
+            }
+            RequestDigest request = requestsById.get(id);
+            if (score < MIN_SCORE || score > MAX_SCORE) {
+                malformed++;
+            } else if (request == null) {
+                hallucinated++;
+            } else if (scores.containsKey(id)) {
+                duplicates++;
+            } else {
+                scores.put(id, new RequestScore(id, score, request.sourceUpdatedAt(), LLM_RANKING_FACTORS, RankingSource.LLM));
+            }
+        }
+        if (hallucinated + duplicates + malformed > 0 || scores.size() < originalRequests.size()) {
+            log.warn("Ranking response: {} of {} requests scored, {} unknown ids, {} duplicates, {} malformed pairs",
+                    scores.size(), originalRequests.size(), hallucinated, duplicates, malformed);
         }
+
+        return scores.values().stream()
+                .sorted(Comparator.comparingInt(RequestScore::score).reversed())
+                .toList();
     }
 
     @Override
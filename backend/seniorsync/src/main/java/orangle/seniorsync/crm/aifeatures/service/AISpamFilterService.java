@@ -2,11 +2,18 @@ package orangle.seniorsync.crm.aifeatures.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.common.config.AsyncConfig;
 import orangle.seniorsync.crm.aifeatures.client.LLMClient;
+import orangle.seniorsync.crm.aifeatures.client.LLMFeature;
+import orangle.seniorsync.crm.aifeatures.client.LLMRequest;
+import orangle.seniorsync.crm.aifeatures.client.LLMUnavailableException;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
 import orangle.seniorsync.crm.aifeatures.dto.BatchSpamFilterResultDto;
 import orangle.seniorsync.crm.aifeatures.dto.SpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.enums.SpamDetectionSource;
 import orangle.seniorsync.crm.aifeatures.model.SpamDetectionResult;
 import orangle.seniorsync.crm.aifeatures.repository.SpamDetectionResultRepository;
 import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
@@ -18,35 +25,95 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AISpamFilterService implements IAISpamFilterService {
+    // Shared by the single and batch instructions, so both judge requests by the same rules
+    private static final String SPAM_INDICATORS = """
+            Consider the following as potential spam indicators:
+            - Irrelevant content not related to senior care
+            - Promotional or commercial content
+            - Suspicious patterns or unusual language
+            - Requests that seem automated or bot-generated
+            """;
+
+    // Static instructions are sent as the system prompt and only the request data varies. They are well below the
+    // provider's minimum cacheable length, so ClaudeLLMClient does not mark them for the prompt cache
+    private static final String SPAM_DETECTION_INSTRUCTIONS = """
+            You are a spam detection system for senior care requests. Analyze the request in the user message and determine if it's spam.
+            
+            Please respond with a JSON object in the following format:
+            {
+                "is_spam": true/false,
+                "confidence": 0.95,
+                "reason": "Brief explanation of why this is/isn't spam"
+            }
+            
+            %s
+            Respond only with the JSON object, no additional text.
+            """.formatted(SPAM_INDICATORS);
+
+    private static final String BATCH_SPAM_DETECTION_INSTRUCTIONS = """
+            You are a spam detection system for senior care requests. Analyze each of the requests in the user message and determine if it's spam.
+            
+            Please respond with a JSON array containing exactly one object per request, in the following format:
+            [
+                {
+                    "id": 123,
+                    "is_spam": true/false,
+                    "confidence": 0.95,
+                    "reason": "Brief explanation of why this is/isn't spam"
+                }
+            ]
+            
+            %s
+            Respond only with the JSON array, no additional text.
+            """.formatted(SPAM_INDICATORS);
 
     private final SeniorRequestRepository seniorRequestRepository;
     private final SpamDetectionResultRepository spamDetectionResultRepository;
 
-    @Qualifier("claude")
-    private final LLMClient llmClient;
+    private final LLMClient llmClient; // Primary client, responses are cached
+    private final LLMProperties llmProperties;
+    private final SpamPreFilter spamPreFilter;
+    private final LLMSingleFlight singleFlight;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    // Track ongoing processing to prevent duplicate LLM calls
+    // Track ongoing processing to prevent duplicate LLM calls in this instance, LLMSingleFlight covers the other instances
     private final ConcurrentHashMap<Long, CompletableFuture<SpamFilterResultDto>> processingRequests = new ConcurrentHashMap<>();
 
     @Autowired
-    @Qualifier("taskExecutor") // Use Spring's configured async executor
+    @Qualifier(AsyncConfig.LLM_EXECUTOR) // Dedicated bulkhead so slow LLM calls cannot delay emails or background jobs
     private Executor asyncExecutor;
 
+    // Handles LLM responses. The bulkhead rejects work when full, and a response that was already paid for must not be
+    // dropped, so this runs on the background executor, which falls back to the calling thread
+    @Autowired
+    @Qualifier(AsyncConfig.BACKGROUND_EXECUTOR)
+    private Executor responseExecutor;
+
     @Override
-    @Async
+    @Async(AsyncConfig.BACKGROUND_EXECUTOR)
     @Transactional
     public CompletableFuture<SpamFilterResultDto> checkSingleRequestAsync(Long requestId) {
         log.info("Checking request {} for spam asynchronously", requestId);
@@ -54,42 +121,68 @@ public class AISpamFilterService implements IAISpamFilterService {
     }
 
     @Override
-    @Async
+    @Async(AsyncConfig.BACKGROUND_EXECUTOR)
     public CompletableFuture<BatchSpamFilterResultDto> checkBatchRequestsAsync(List<Long> requestIds) {
-        log.info("Checking {} requests for spam with fan-out", requestIds.size());
+        int batchSize = llmProperties.getFeature(LLMFeature.SPAM_DETECTION_BATCH).getBatchSize();
+        log.info("Checking {} requests for spam in batches of {}", requestIds.size(), batchSize);
+
+        // Register a future per distinct id, reusing the one already running when another check owns the id
+        Map<Long, CompletableFuture<SpamFilterResultDto>> futuresById = new LinkedHashMap<>();
+        Map<Long, CompletableFuture<SpamFilterResultDto>> ownedFutures = new LinkedHashMap<>();
+        for (Long requestId : requestIds) {
+            if (futuresById.containsKey(requestId)) {
+                continue;
+            }
+            CompletableFuture<SpamFilterResultDto> created = new CompletableFuture<>();
+            CompletableFuture<SpamFilterResultDto> running = processingRequests.putIfAbsent(requestId, created);
+            if (running != null) {
+                log.info("Request {} already being processed, reusing future", requestId);
+                futuresById.put(requestId, running);
+                continue;
+            }
+            created.whenComplete((result, throwable) -> processingRequests.remove(requestId, created));
+            futuresById.put(requestId, created);
+            ownedFutures.put(requestId, created);
+        }
+
+        if (!ownedFutures.isEmpty()) {
+            try {
+                CompletableFuture.runAsync(() -> processBatch(ownedFutures, batchSize), asyncExecutor)
+                        .exceptionally(error -> failAll(ownedFutures.values(), error));
+            } catch (RejectedExecutionException e) {
+                // LLM executor is saturated, fail fast instead of queueing unbounded work
+                log.warn("LLM executor saturated, rejecting spam check for {} requests", ownedFutures.size());
+                failAll(ownedFutures.values(), e);
+            }
+        }
 
-        // Fan out - each request gets its own future (reuses existing if already processing)
         List<CompletableFuture<SpamFilterResultDto>> futures = requestIds.stream()
-                .map(this::getOrCreateProcessingFuture)
+                .map(futuresById::get)
                 .toList();
 
         // Combine all results
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> {
-                    List<SpamFilterResultDto> results = futures.stream()
-                            .map(future -> {
-                                try {
-                                    return future.join();
-                                } catch (Exception e) {
-                                    log.error("Error processing request: {}", e.getMessage());
-                                    // Return error result
-                                    SpamFilterResultDto errorResult = new SpamFilterResultDto();
-                                    errorResult.setIsSpam(false);
-                                    errorResult.setDetectionReason("Error: " + e.getMessage());
-                                    return errorResult;
-                                }
-                            })
-                            .toList();
-
-                    int spamCount = (int) results.stream()
-                            .mapToInt(result -> result.getIsSpam() ? 1 : 0)
-                            .sum();
+                .handle((v, ignored) -> {
+                    List<SpamFilterResultDto> results = new ArrayList<>(futures.size());
+                    for (int i = 0; i < futures.size(); i++) {
+                        try {
+                            results.add(futures.get(i).join());
+                        } catch (Exception e) {
+                            log.error("Error processing request {}: {}", requestIds.get(i), e.getMessage());
+                            SpamFilterResultDto errorResult = new SpamFilterResultDto();
+                            errorResult.setRequestId(requestIds.get(i));
+                            errorResult.setIsSpam(false);
+                            errorResult.setDetectionReason("Error: " + e.getMessage());
+                            errorResult.setFailed(true);
+                            results.add(errorResult);
+                        }
+                    }
 
                     BatchSpamFilterResultDto batchResult = new BatchSpamFilterResultDto();
                     batchResult.setResults(results);
                     batchResult.setTotalProcessed(results.size());
-                    batchResult.setSpamDetected(spamCount);
-
+                    batchResult.setSpamDetected((int) results.stream().filter(result -> result.getIsSpam()).count());
+                    batchResult.setFailed((int) results.stream().filter(SpamFilterResultDto::isFailed).count());
                     return batchResult;
                 });
     }
@@ -102,6 +195,16 @@ public class AISpamFilterService implements IAISpamFilterService {
                 .toList();
     }
 
+    @Override
+    public List<SpamFilterResultDto> getStoredResults(List<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return List.of();
+        }
+        return spamDetectionResultRepository.findByRequestIdIn(requestIds).stream()
+                .map(this::mapToDto)
+                .toList();
+    }
+
 
     private CompletableFuture<SpamFilterResultDto> getOrCreateProcessingFuture(Long requestId) {
         // Check if already processing
@@ -111,84 +214,354 @@ public class AISpamFilterService implements IAISpamFilterService {
             return existingFuture;
         }
 
-        // Create new processing future
-        CompletableFuture<SpamFilterResultDto> newFuture = CompletableFuture
-                .supplyAsync(() -> processRequest(requestId), asyncExecutor)
-                .whenComplete((result, throwable) -> {
-                    // Clean up when done
-                    processingRequests.remove(requestId);
-                });
-
-        // Try to register atomically
+        CompletableFuture<SpamFilterResultDto> newFuture = new CompletableFuture<>();
         CompletableFuture<SpamFilterResultDto> registeredFuture = processingRequests.putIfAbsent(requestId, newFuture);
-
         if (registeredFuture != null) {
             log.info("Another thread registered request {}, using that future", requestId);
             return registeredFuture;
         }
+        newFuture.whenComplete((result, throwable) -> processingRequests.remove(requestId, newFuture));
 
+        // A single check takes the batch path with one request, so it gets the same cluster-wide single-flight.
+        // The lookup runs on the LLM bulkhead, the LLM call itself holds no thread while waiting
+        try {
+            CompletableFuture.runAsync(() -> processBatch(Map.of(requestId, newFuture), 1), asyncExecutor)
+                    .exceptionally(error -> failAll(List.of(newFuture), error));
+        } catch (RejectedExecutionException e) {
+            // LLM executor is saturated, fail fast instead of queueing unbounded work
+            log.warn("LLM executor saturated, rejecting spam check for request {}", requestId);
+            newFuture.completeExceptionally(e);
+        }
         return newFuture;
     }
 
-    @Transactional
-    private SpamFilterResultDto processRequest(Long requestId) {
-        Optional<SeniorRequest> requestOpt = seniorRequestRepository.findById(requestId);
-        if (requestOpt.isEmpty()) {
-            throw new IllegalArgumentException("Request not found with ID: " + requestId);
+    /**
+     * Sends one request to the LLM. Only reached from {@link #processBatch}, which already served stored verdicts and
+     * pre-filter decisions, so neither is looked up again here.
+     */
+    private CompletableFuture<SpamFilterResultDto> performSpamDetection(SeniorRequest request) {
+        LLMRequest llmRequest = LLMRequest.builder()
+                .feature(LLMFeature.SPAM_DETECTION)
+                .systemPrompt(SPAM_DETECTION_INSTRUCTIONS)
+                .prompt(buildSpamDetectionPrompt(request))
+                .centerId(request.getCenterId())
+                .build();
+
+        // Parsing saves the result, so hop off the HTTP client's thread
+        return llmClient.callLLMAsync(llmRequest)
+                .thenApplyAsync(response -> parseSpamDetectionResponse(request, response.text()), responseExecutor)
+                .exceptionally(error -> {
+                    SpamPreFilter.Result preFilterResult = spamPreFilter.classify(request.getTitle(), request.getDescription());
+                    SpamFilterResultDto provisional = provisionalResult(request, preFilterResult, error);
+                    if (provisional == null) {
+                        throw error instanceof CompletionException completionException ? completionException : new CompletionException(error);
+                    }
+                    return provisional;
+                });
+    }
+
+    /**
+     * Serves stored results, then classifies the rest with one LLM call per chunk of {@code batchSize} requests.
+     * Chunks run concurrently, bounded by the LLM client's concurrency limit. Requests another instance is already
+     * classifying are not sent again, their results are read once that instance has stored them.
+     * <p>
+     * A stored result only counts when it was made for the request's current content; results of requests edited
+     * since are deleted and the requests are classified again.
+     */
+    private void processBatch(Map<Long, CompletableFuture<SpamFilterResultDto>> ownedFutures, int batchSize) {
+        List<Long> ids = new ArrayList<>(ownedFutures.keySet());
+
+        Map<Long, SeniorRequest> requestsById = new HashMap<>();
+        for (SeniorRequest request : seniorRequestRepository.findAllById(ids)) {
+            requestsById.put(request.getId(), request);
+        }
+        Map<Long, SpamDetectionResult> existingResults = new HashMap<>();
+        List<Long> staleResultIds = new ArrayList<>();
+        Map<Long, Set<String>> staleHashes = new HashMap<>();
+        for (SpamDetectionResult result : spamDetectionResultRepository.findByRequestIdIn(ids)) {
+            SeniorRequest request = requestsById.get(result.getRequestId());
+            if (request != null && !isCurrent(result, request)) {
+                staleResultIds.add(result.getId());
+                staleHashes.computeIfAbsent(result.getRequestId(), id -> new HashSet<>()).add(result.getContentHash());
+            } else {
+                existingResults.putIfAbsent(result.getRequestId(), result);
+            }
+        }
+        if (!staleResultIds.isEmpty()) {
+            log.info("Discarding {} spam verdicts for requests edited since they were checked", staleResultIds.size());
+            spamDetectionResultRepository.deleteAllByIdInBatch(staleResultIds);
+            // Their finished flights go too, or a request edited back to that content could never be claimed again
+            singleFlight.forget(LLMFeature.SPAM_DETECTION, staleHashes);
+        }
+
+        List<SeniorRequest> pending = new ArrayList<>();
+        List<SpamDetectionResult> preFilterResults = new ArrayList<>();
+        for (Long id : ids) {
+            if (existingResults.containsKey(id)) {
+                ownedFutures.get(id).complete(mapToDto(existingResults.get(id)));
+            } else if (!requestsById.containsKey(id)) {
+                ownedFutures.get(id).completeExceptionally(new IllegalArgumentException("Request not found with ID: " + id));
+            } else {
+                SeniorRequest request = requestsById.get(id);
+                SpamPreFilter.Result preFilterResult = spamPreFilter.classify(request.getTitle(), request.getDescription());
+                if (preFilterResult.isDecided()) {
+                    preFilterResults.add(toPreFilterResult(request, preFilterResult));
+                } else {
+                    pending.add(request);
+                }
+            }
+        }
+        for (SpamDetectionResult saved : spamDetectionResultRepository.insertAll(preFilterResults)) {
+            ownedFutures.get(saved.getRequestId()).complete(mapToDto(saved));
+        }
+        log.info("{} of {} requests already checked, {} decided by pre-filter, classifying {} in {} batch(es)",
+                existingResults.size(), ids.size(), preFilterResults.size(), pending.size(),
+                (pending.size() + batchSize - 1) / Math.max(batchSize, 1));
+
+        Map<Long, String> promptHashes = contentHashes(pending);
+        Set<Long> led = singleFlight.claim(LLMFeature.SPAM_DETECTION, promptHashes);
+        List<SeniorRequest> leading = pending.stream().filter(request -> led.contains(request.getId())).toList();
+        List<SeniorRequest> following = pending.stream().filter(request -> !led.contains(request.getId())).toList();
+
+        lead(leading, promptHashes, ownedFutures, batchSize);
+        if (!following.isEmpty()) {
+            awaitLeaders(following, ownedFutures, batchSize, Instant.now().plus(singleFlight.getMaxWait()));
         }
-        return performSpamDetection(requestOpt.get());
     }
 
-    private SpamFilterResultDto performSpamDetection(SeniorRequest request) {
-        // Check if spam detection already exists for this request
-        Optional<SpamDetectionResult> existingResult = spamDetectionResultRepository
-                .findByRequestId(request.getId());
+    /**
+     * Classifies requests this instance has claimed, and ends the claims once every verdict is in.
+     */
+    private void lead(List<SeniorRequest> requests, Map<Long, String> promptHashes,
+                      Map<Long, CompletableFuture<SpamFilterResultDto>> ownedFutures, int batchSize) {
+        if (requests.isEmpty()) {
+            return;
+        }
 
-        if (existingResult.isPresent()) {
-            log.info("Using existing spam detection result for request {}", request.getId());
-            return mapToDto(existingResult.get());
+        // Chunks never mix centers, so every LLM call is charged to the right center's budget
+        Map<Long, List<SeniorRequest>> pendingByCenter = new LinkedHashMap<>();
+        requests.forEach(request -> pendingByCenter.computeIfAbsent(request.getCenterId(), id -> new ArrayList<>()).add(request));
+        for (List<SeniorRequest> centerRequests : pendingByCenter.values()) {
+            for (int from = 0; from < centerRequests.size(); from += batchSize) {
+                classifyChunk(centerRequests.subList(from, Math.min(from + batchSize, centerRequests.size())), ownedFutures);
+            }
         }
 
-        String prompt = buildSpamDetectionPrompt(request);
-        String llmResponse = llmClient.callLLM(prompt);
+        Map<Long, String> ledHashes = new HashMap<>();
+        requests.forEach(request -> ledHashes.put(request.getId(), promptHashes.get(request.getId())));
+        CompletableFuture<?>[] futures = requests.stream().map(request -> ownedFutures.get(request.getId())).toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).handleAsync((v, error) -> {
+            // Stored verdicts complete the flight, failed and provisional ones are released for a follower to retry
+            List<Long> stored = requests.stream()
+                    .map(request -> ownedFutures.get(request.getId()))
+                    .filter(future -> !future.isCompletedExceptionally())
+                    .map(CompletableFuture::join)
+                    .filter(result -> !result.isProvisional())
+                    .map(SpamFilterResultDto::getRequestId)
+                    .toList();
+            singleFlight.finish(LLMFeature.SPAM_DETECTION, ledHashes, stored);
+            return null;
+        }, responseExecutor);
+    }
+
+    /**
+     * Polls for the results of requests another instance is classifying. Requests whose leader gave up or let its lease
+     * expire are claimed and classified here. Requests still being classified elsewhere at {@code giveUpAt} are answered
+     * with a pending result instead of holding the caller any longer.
+     */
+    private void awaitLeaders(List<SeniorRequest> followers, Map<Long, CompletableFuture<SpamFilterResultDto>> ownedFutures,
+                              int batchSize, Instant giveUpAt) {
+        Executor delayed = CompletableFuture.delayedExecutor(singleFlight.getPollInterval().toMillis(), TimeUnit.MILLISECONDS, asyncExecutor);
+        CompletableFuture.runAsync(() -> {
+            Map<Long, SeniorRequest> followersById = new HashMap<>();
+            followers.forEach(request -> followersById.put(request.getId(), request));
+            for (SpamDetectionResult result : spamDetectionResultRepository.findByRequestIdIn(new ArrayList<>(followersById.keySet()))) {
+                if (isCurrent(result, followersById.get(result.getRequestId()))) {
+                    ownedFutures.get(result.getRequestId()).complete(mapToDto(result));
+                }
+            }
+            List<SeniorRequest> waiting = followers.stream()
+                    .filter(request -> !ownedFutures.get(request.getId()).isDone())
+                    .toList();
+            if (waiting.isEmpty()) {
+                return;
+            }
+
+            if (Instant.now().isAfter(giveUpAt)) {
+                log.info("{} requests are still being classified by another instance, answering with pending results", waiting.size());
+                waiting.forEach(request -> ownedFutures.get(request.getId()).complete(pendingResult(request)));
+                return;
+            }
+            Map<Long, String> promptHashes = contentHashes(waiting);
+            Set<Long> led = singleFlight.claim(LLMFeature.SPAM_DETECTION, promptHashes);
+            lead(waiting.stream().filter(request -> led.contains(request.getId())).toList(), promptHashes, ownedFutures, batchSize);
+            List<SeniorRequest> stillFollowing = waiting.stream().filter(request -> !led.contains(request.getId())).toList();
+            if (!stillFollowing.isEmpty()) {
+                awaitLeaders(stillFollowing, ownedFutures, batchSize, giveUpAt);
+            }
+        }, delayed).exceptionally(error -> failAll(followers.stream().map(request -> ownedFutures.get(request.getId())).toList(), error));
+    }
+
+    private Map<Long, String> contentHashes(List<SeniorRequest> requests) {
+        Map<Long, String> hashes = new LinkedHashMap<>();
+        requests.forEach(request -> hashes.put(request.getId(), contentHash(request)));
+        return hashes;
+    }
+
+    // Only the request's own content goes into the hash, the shared instructions are the same for every request
+    private static String contentHash(SeniorRequest request) {
+        return LLMSingleFlight.contentHash(request.getTitle(), request.getDescription(), String.valueOf(request.getPriority()));
+    }
 
-        if (llmResponse == null || llmResponse.trim().isEmpty()) {
-            throw new RuntimeException("LLM returned empty response");
+    // Results stored before content hashes were recorded have none and are kept
+    private static boolean isCurrent(SpamDetectionResult result, SeniorRequest request) {
+        return result.getContentHash() == null || result.getContentHash().equals(contentHash(request));
+    }
+
+    private void classifyChunk(List<SeniorRequest> chunk, Map<Long, CompletableFuture<SpamFilterResultDto>> ownedFutures) {
+        if (chunk.size() == 1) {
+            SeniorRequest request = chunk.get(0);
+            classifySingle(request, ownedFutures.get(request.getId()));
+            return;
+        }
+
+        LLMRequest llmRequest = LLMRequest.builder()
+                .feature(LLMFeature.SPAM_DETECTION_BATCH)
+                .systemPrompt(BATCH_SPAM_DETECTION_INSTRUCTIONS)
+                .prompt(buildBatchSpamDetectionPrompt(chunk))
+                .centerId(chunk.get(0).getCenterId())
+                .build();
+
+        llmClient.callLLMAsync(llmRequest)
+                .thenAcceptAsync(response -> applyBatchResponse(chunk, response.text(), ownedFutures), responseExecutor)
+                .exceptionally(error -> {
+                    log.error("Batch spam check for {} requests failed: {}", chunk.size(), error.getMessage());
+                    for (SeniorRequest request : chunk) {
+                        SpamPreFilter.Result preFilterResult = spamPreFilter.classify(request.getTitle(), request.getDescription());
+                        SpamFilterResultDto provisional = provisionalResult(request, preFilterResult, error);
+                        if (provisional != null) {
+                            ownedFutures.get(request.getId()).complete(provisional);
+                        } else {
+                            ownedFutures.get(request.getId()).completeExceptionally(error);
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    private void applyBatchResponse(List<SeniorRequest> chunk, String llmResponse,
+                                    Map<Long, CompletableFuture<SpamFilterResultDto>> ownedFutures) {
+        Map<Long, SpamDetectionResult> verdicts = parseBatchSpamDetectionResponse(chunk, llmResponse);
+
+        for (SpamDetectionResult saved : spamDetectionResultRepository.insertAll(new ArrayList<>(verdicts.values()))) {
+            ownedFutures.get(saved.getRequestId()).complete(mapToDto(saved));
+        }
+
+        List<SeniorRequest> unparsed = chunk.stream()
+                .filter(request -> !verdicts.containsKey(request.getId()))
+                .toList();
+        if (!unparsed.isEmpty()) {
+            log.warn("{} of {} verdicts missing or malformed in batch response, falling back to single checks",
+                    unparsed.size(), chunk.size());
+            log.debug("LLM Response was: {}", llmResponse);
+            unparsed.forEach(request -> classifySingle(request, ownedFutures.get(request.getId())));
+        }
+    }
+
+    private void classifySingle(SeniorRequest request, CompletableFuture<SpamFilterResultDto> target) {
+        try {
+            performSpamDetection(request).whenComplete((result, error) -> {
+                if (error != null) {
+                    target.completeExceptionally(error);
+                } else {
+                    target.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            target.completeExceptionally(e);
+        }
+    }
+
+    private Void failAll(Collection<CompletableFuture<SpamFilterResultDto>> futures, Throwable error) {
+        futures.forEach(future -> future.completeExceptionally(error));
+        return null;
+    }
+
+    private String buildBatchSpamDetectionPrompt(List<SeniorRequest> requests) {
+        ArrayNode items = objectMapper.createArrayNode();
+        for (SeniorRequest request : requests) {
+            items.addObject()
+                    .put("id", request.getId())
+                    .put("title", request.getTitle())
+                    .put("description", request.getDescription())
+                    .put("priority", request.getPriority());
+        }
+
+        return String.format("""
+            Requests (JSON):
+            %s
+            """,
+            items.toString());
+    }
+
+    /**
+     * Returns a verdict per request id that could be read from the response. Ids that are missing, unknown, repeated or
+     * malformed are left out so the caller can retry them individually.
+     */
+    private Map<Long, SpamDetectionResult> parseBatchSpamDetectionResponse(List<SeniorRequest> chunk, String llmResponse) {
+        Map<Long, SeniorRequest> expected = new HashMap<>();
+        chunk.forEach(request -> expected.put(request.getId(), request));
+
+        JsonNode responseJson;
+        try {
+            responseJson = objectMapper.readTree(llmResponse);
+        } catch (Exception e) {
+            log.error("Error parsing batch LLM response: {}", e.getMessage());
+            return Map.of();
+        }
+        if (!responseJson.isArray()) {
+            log.error("Batch LLM response is not a JSON array");
+            return Map.of();
         }
 
-        return parseSpamDetectionResponse(request.getId(), llmResponse);
+        Map<Long, SpamDetectionResult> verdicts = new LinkedHashMap<>();
+        for (JsonNode item : responseJson) {
+            JsonNode id = item.path("id");
+            JsonNode isSpam = item.path("is_spam");
+            JsonNode confidence = item.path("confidence");
+            if (!id.canConvertToLong() || !isSpam.isBoolean() || !confidence.isNumber()
+                    || confidence.asDouble() < 0 || confidence.asDouble() > 1) {
+                continue;
+            }
+            long requestId = id.asLong();
+            if (!expected.containsKey(requestId) || verdicts.containsKey(requestId)) {
+                continue;
+            }
+
+            SpamDetectionResult entity = new SpamDetectionResult();
+            entity.setRequestId(requestId);
+            entity.setIsSpam(isSpam.asBoolean());
+            entity.setConfidenceScore(BigDecimal.valueOf(confidence.asDouble()).setScale(4, RoundingMode.HALF_UP));
+            entity.setDetectionReason(item.path("reason").asText());
+            entity.setContentHash(contentHash(expected.get(requestId)));
+            verdicts.put(requestId, entity);
+        }
+        return verdicts;
     }
 
     private String buildSpamDetectionPrompt(SeniorRequest request) {
         return String.format("""
-            You are a spam detection system for senior care requests. Analyze the following request and determine if it's spam.
-            
             Title: %s
             Description: %s
             Priority: %d
-            
-            Please respond with a JSON object in the following format:
-            {
-                "is_spam": true/false,
-                "confidence": 0.95,
-                "reason": "Brief explanation of why this is/isn't spam"
-            }
-            
-            Consider the following as potential spam indicators:
-            - Irrelevant content not related to senior care
-            - Promotional or commercial content
-            - Repeated identical requests
-            - Suspicious patterns or unusual language
-            - Requests that seem automated or bot-generated
-            
-            Respond only with the JSON object, no additional text.
             """,
             request.getTitle(),
             request.getDescription(),
             request.getPriority());
     }
 
-    private SpamFilterResultDto parseSpamDetectionResponse(Long requestId, String llmResponse) {
+    private SpamFilterResultDto parseSpamDetectionResponse(SeniorRequest request, String llmResponse) {
+        Long requestId = request.getId();
         try {
             JsonNode responseJson = objectMapper.readTree(llmResponse);
 
@@ -202,6 +575,7 @@ public class AISpamFilterService implements IAISpamFilterService {
             entity.setIsSpam(isSpam);
             entity.setConfidenceScore(BigDecimal.valueOf(confidence));
             entity.setDetectionReason(reason);
+            entity.setContentHash(contentHash(request));
 
             SpamDetectionResult saved = spamDetectionResultRepository.save(entity);
 
@@ -216,12 +590,63 @@ public class AISpamFilterService implements IAISpamFilterService {
             fallback.setRequestId(requestId);
             fallback.setIsSpam(false);
             fallback.setDetectionReason("Failed to parse LLM response: " + e.getMessage());
+            fallback.setSource(SpamDetectionSource.PARSE_FAILURE);
+            fallback.setContentHash(contentHash(request));
 
             SpamDetectionResult saved = spamDetectionResultRepository.save(fallback);
             return mapToDto(saved);
         }
     }
 
+    /**
+     * While the LLM is unavailable (circuit open, rate or budget limit) answers with the pre-filter's leaning instead of
+     * failing. The result is not stored, so the request is checked properly once the LLM is back.
+     *
+     * @return {@code null} when the failure is not an availability problem or the pre-filter is disabled
+     */
+    private SpamFilterResultDto provisionalResult(SeniorRequest request, SpamPreFilter.Result preFilterResult, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (!(cause instanceof LLMUnavailableException unavailable) || Double.isNaN(preFilterResult.spamProbability())) {
+            return null;
+        }
+        double spamProbability = preFilterResult.spamProbability();
+        log.info("LLM unavailable ({}), returning provisional pre-filter verdict for request {}", unavailable.getReason(), request.getId());
+
+        SpamFilterResultDto dto = new SpamFilterResultDto();
+        dto.setRequestId(request.getId());
+        dto.setIsSpam(spamProbability >= 0.5);
+        dto.setConfidenceScore(BigDecimal.valueOf(Math.abs(spamProbability - 0.5) * 2).setScale(4, RoundingMode.HALF_UP));
+        dto.setDetectionReason(String.format("LLM unavailable. Local classifier spam probability %.4f", spamProbability));
+        dto.setDetectedAt(OffsetDateTime.now());
+        dto.setSource(SpamDetectionSource.PRE_FILTER);
+        dto.setProvisional(true);
+        return dto;
+    }
+
+    /**
+     * Answer for a request another instance is still classifying. Not stored; the caller checks again later.
+     */
+    private static SpamFilterResultDto pendingResult(SeniorRequest request) {
+        SpamFilterResultDto dto = new SpamFilterResultDto();
+        dto.setRequestId(request.getId());
+        dto.setIsSpam(false);
+        dto.setDetectionReason("Being checked by another instance");
+        dto.setProvisional(true);
+        dto.setPending(true);
+        return dto;
+    }
+
+    private SpamDetectionResult toPreFilterResult(SeniorRequest request, SpamPreFilter.Result preFilterResult) {
+        SpamDetectionResult entity = new SpamDetectionResult();
+        entity.setRequestId(request.getId());
+        entity.setContentHash(contentHash(request));
+        entity.setIsSpam(preFilterResult.decision() == SpamPreFilter.Decision.SPAM);
+        entity.setConfidenceScore(BigDecimal.valueOf(preFilterResult.confidence()).setScale(4, RoundingMode.HALF_UP));
+        entity.setDetectionReason(String.format("Local classifier spam probability %.4f", preFilterResult.spamProbability()));
+        entity.setSource(SpamDetectionSource.PRE_FILTER);
+        return entity;
+    }
+
     private SpamFilterResultDto mapToDto(SpamDetectionResult entity) {
         SpamFilterResultDto dto = new SpamFilterResultDto();
         dto.setRequestId(entity.getRequestId());
@@ -229,6 +654,7 @@ public class AISpamFilterService implements IAISpamFilterService {
         dto.setConfidenceScore(entity.getConfidenceScore());
         dto.setDetectionReason(entity.getDetectionReason());
         dto.setDetectedAt(entity.getDetectedAt());
+        dto.setSource(entity.getSource());
         return dto;
     }
 }
@@ -0,0 +1,14 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import orangle.seniorsync.crm.aifeatures.dto.AIBatchJobDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IAIBatchJobService {
+    AIBatchJobDto submitSpamCheck(List<Long> requestIds);
+    Optional<AIBatchJobDto> getJob(UUID jobId, int page, int size);
+    Optional<SseEmitter> subscribe(UUID jobId);
+}
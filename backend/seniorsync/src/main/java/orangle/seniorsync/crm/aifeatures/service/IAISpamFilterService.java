@@ -10,4 +10,5 @@ public interface IAISpamFilterService {
     CompletableFuture<SpamFilterResultDto> checkSingleRequestAsync(Long requestId);
     CompletableFuture<BatchSpamFilterResultDto> checkBatchRequestsAsync(List<Long> requestIds);
     List<SpamFilterResultDto> getSpamDetectionHistory();
+    List<SpamFilterResultDto> getStoredResults(List<Long> requestIds);
 }
@@ -0,0 +1,11 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import orangle.seniorsync.crm.aifeatures.dto.SpamPreFilterEvaluationDto;
+
+public interface ISpamPreFilterEvaluationService {
+    /**
+     * Replay the pre-filter over the most recent LLM verdicts and report agreement, coverage and latency.
+     * @param limit Maximum number of stored verdicts to evaluate against
+     */
+    SpamPreFilterEvaluationDto evaluate(int limit);
+}
@@ -0,0 +1,168 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.aifeatures.client.LLMFeature;
+import orangle.seniorsync.crm.aifeatures.repository.LLMSingleFlightRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Cluster-wide single-flight for per-request LLM calls, the multi-instance counterpart of the in-memory
+ * deduplication in the feature services.
+ * <p>
+ * A flight is keyed by feature, request id and a hash of the request's content, so an edited request is a new flight.
+ * The instance that claims a flight calls the LLM and stores the result in the feature's own table; the others are
+ * followers and read that result once it shows up instead of paying for the same call. A leader holds its claim for
+ * {@code seniorsync.ai.single-flight.lease}, after which a follower takes over, so a crashed instance does not block a
+ * request for long. Followers only wait {@code seniorsync.ai.single-flight.max-wait} before answering with a pending
+ * result, so a slow leader does not hold their callers.
+ * <p>
+ * The claim table is an optimisation: if it cannot be reached every caller leads, as before.
+ */
+@Slf4j
+@Component
+public class LLMSingleFlight {
+    private final LLMSingleFlightRepository repository;
+    private final boolean enabled;
+    private final Duration lease;
+    @Getter
+    private final Duration pollInterval;
+    @Getter
+    private final Duration maxWait;
+    private final Duration retention;
+
+    // Identifies this instance as the owner of its claims
+    private final String owner;
+
+    public LLMSingleFlight(
+            LLMSingleFlightRepository repository,
+            @Value("${seniorsync.ai.single-flight.enabled:true}") boolean enabled,
+            @Value("${seniorsync.ai.single-flight.lease:120s}") Duration lease,
+            @Value("${seniorsync.ai.single-flight.poll-interval:500ms}") Duration pollInterval,
+            @Value("${seniorsync.ai.single-flight.max-wait:5s}") Duration maxWait,
+            @Value("${seniorsync.ai.single-flight.retention:1h}") Duration retention) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.lease = lease;
+        this.pollInterval = pollInterval;
+        this.maxWait = maxWait;
+        this.retention = retention;
+        String host = System.getenv().getOrDefault("HOSTNAME", "local");
+        this.owner = (host.length() > 50 ? host.substring(0, 50) : host) + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Claims the given requests for this instance.
+     *
+     * @param promptHashes content hash by request id, see {@link #contentHash}
+     * @return ids of the requests this instance should call the LLM for; the rest are led elsewhere or already done
+     */
+    public Set<Long> claim(LLMFeature feature, Map<Long, String> promptHashes) {
+        if (!enabled || promptHashes.isEmpty()) {
+            return promptHashes.keySet();
+        }
+        try {
+            Set<Long> led = repository.claim(feature.name(), promptHashes, owner, lease);
+            if (led.size() < promptHashes.size()) {
+                log.info("{} of {} {} requests are being handled by another instance",
+                        promptHashes.size() - led.size(), promptHashes.size(), feature);
+            }
+            return led;
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim LLM single-flight for {} requests, calling the LLM anyway: {}", promptHashes.size(), e.getMessage());
+            return promptHashes.keySet();
+        }
+    }
+
+    /**
+     * Ends this instance's flights: the ones in {@code stored} have their result stored, the rest are released so a
+     * follower can retry them.
+     */
+    public void finish(LLMFeature feature, Map<Long, String> promptHashes, Collection<Long> stored) {
+        if (!enabled || promptHashes.isEmpty()) {
+            return;
+        }
+        Set<Long> storedIds = new HashSet<>(stored);
+        String[] done = promptHashes.entrySet().stream()
+                .filter(flight -> storedIds.contains(flight.getKey()))
+                .map(flight -> LLMSingleFlightRepository.flightKey(feature.name(), flight.getKey(), flight.getValue()))
+                .toArray(String[]::new);
+        String[] failed = promptHashes.entrySet().stream()
+                .filter(flight -> !storedIds.contains(flight.getKey()))
+                .map(flight -> LLMSingleFlightRepository.flightKey(feature.name(), flight.getKey(), flight.getValue()))
+                .toArray(String[]::new);
+        try {
+            if (done.length > 0) {
+                repository.complete(done, owner);
+            }
+            if (failed.length > 0) {
+                repository.release(failed, owner);
+            }
+        } catch (RuntimeException e) {
+            // Followers take over once the lease expires
+            log.warn("Failed to finish LLM single-flight for {} requests: {}", promptHashes.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the finished flights of results that were discarded as stale.
+     *
+     * @param promptHashes content hashes of the discarded results by request id
+     */
+    public void forget(LLMFeature feature, Map<Long, Set<String>> promptHashes) {
+        if (!enabled || promptHashes.isEmpty()) {
+            return;
+        }
+        String[] flightKeys = promptHashes.entrySet().stream()
+                .flatMap(flight -> flight.getValue().stream()
+                        .map(hash -> LLMSingleFlightRepository.flightKey(feature.name(), flight.getKey(), hash)))
+                .toArray(String[]::new);
+        try {
+            repository.forget(flightKeys);
+        } catch (RuntimeException e) {
+            // The purge removes them later, until then the content is answered as pending
+            log.warn("Failed to forget LLM single-flight for {} requests: {}", promptHashes.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${seniorsync.ai.single-flight.purge-interval-ms:600000}")
+    public void purgeFinishedFlights() {
+        if (!enabled) {
+            return;
+        }
+        int purged = repository.purge(retention);
+        if (purged > 0) {
+            log.debug("Purged {} finished LLM single-flight claims", purged);
+        }
+    }
+
+    /**
+     * Hex SHA-256 of the request-specific parts of the prompt. Stored with the result as well, so a result can be told
+     * apart from one for an older version of the request.
+     */
+    public static String contentHash(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0); // Separators so part boundaries cannot collide
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.aifeatures.model.RequestDigest;
+import orangle.seniorsync.crm.requestmanagement.event.SeniorRequestChangedEvent;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestDigestView;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestVersionView;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caches a {@link RequestDigest} per request so ranking prompts are not rebuilt from full descriptions on every pass.
+ * <p>
+ * Free-text descriptions can run to thousands of characters (e.g. pasted medical notes). The digest keeps the request
+ * type name instead of its id, priority, due date, status and the description compacted to
+ * {@code seniorsync.ranking.digest.max-description-chars}, cut at a sentence or word boundary.
+ * <p>
+ * A lookup first reads only the ids and {@code updated_at} of the requests; digests built from the same version are
+ * reused and only the others are rebuilt, from a projection that never loads the entities. At most
+ * {@code seniorsync.ranking.digest.max-entries} digests are kept, the least recently used are dropped first.
+ */
+@Slf4j
+@Component
+public class RequestDigestCache {
+    private final SeniorRequestRepository seniorRequestRepository;
+    private final int maxDescriptionChars;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, RequestDigest> digests;
+
+    public RequestDigestCache(SeniorRequestRepository seniorRequestRepository,
+                              @Value("${seniorsync.ranking.digest.max-description-chars:400}") int maxDescriptionChars,
+                              @Value("${seniorsync.ranking.digest.max-entries:5000}") int maxEntries) {
+        this.seniorRequestRepository = seniorRequestRepository;
+        this.maxDescriptionChars = maxDescriptionChars;
+        this.digests = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RequestDigest> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Digests of the given requests that still exist, in no particular order.
+     */
+    public List<RequestDigest> digestsFor(Collection<Long> requestIds) {
+        List<RequestDigest> result = new ArrayList<>(requestIds.size());
+        List<Long> stale = new ArrayList<>();
+        for (RequestVersionView version : seniorRequestRepository.findVersionViewsByIdIn(requestIds)) {
+            RequestDigest cached = get(version.getId());
+            if (cached != null && Objects.equals(cached.sourceUpdatedAt(), version.getUpdatedAt())) {
+                result.add(cached);
+            } else {
+                stale.add(version.getId());
+            }
+        }
+        if (!stale.isEmpty()) {
+            for (RequestDigestView view : seniorRequestRepository.findDigestViewsByIdIn(stale)) {
+                RequestDigest digest = digestFor(view);
+                put(digest);
+                result.add(digest);
+            }
+            log.debug("Reused {} request digests, rebuilt {}", result.size() - stale.size(), stale.size());
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestChanged(SeniorRequestChangedEvent event) {
+        lock.lock();
+        try {
+            digests.remove(event.request().getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Request types are renamed rarely and without touching their requests; dropping the digests now and then is enough.
+     */
+    @Scheduled(fixedDelayString = "${seniorsync.ranking.digest.refresh-interval-ms:3600000}")
+    public void clear() {
+        lock.lock();
+        try {
+            digests.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return digests.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RequestDigest get(Long requestId) {
+        lock.lock();
+        try {
+            return digests.get(requestId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(RequestDigest digest) {
+        lock.lock();
+        try {
+            digests.put(digest.requestId(), digest);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RequestDigest digestFor(RequestDigestView request) {
+        String typeName = request.getRequestTypeId() == null ? "None"
+                : request.getRequestTypeName() != null ? request.getRequestTypeName() : "Unknown";
+        String text = String.format("ID: %d, Type: %s, Priority: %s, Due date: %s, Status: %s, Description: %s",
+                request.getId(),
+                typeName,
+                request.getPriority(),
+                request.getDueDate() != null ? request.getDueDate().toLocalDate() : "none",
+                request.getStatus(),
+                compact(request.getDescription(), maxDescriptionChars));
+        return new RequestDigest(request.getId(), request.getCenterId(), request.getUpdatedAt(), text);
+    }
+
+    /**
+     * Collapses whitespace and shortens the text to at most {@code maxChars}, preferring to end on a full sentence.
+     */
+    static String compact(String text, int maxChars) {
+        if (text == null) {
+            return "";
+        }
+        String collapsed = text.replaceAll("\\s+", " ").trim();
+        if (collapsed.length() <= maxChars) {
+            return collapsed;
+        }
+
+        String head = collapsed.substring(0, maxChars);
+        int sentenceEnd = Math.max(head.lastIndexOf(". "), Math.max(head.lastIndexOf("! "), head.lastIndexOf("? ")));
+        if (sentenceEnd >= maxChars / 2) {
+            return head.substring(0, sentenceEnd + 1) + " …";
+        }
+        int wordEnd = head.lastIndexOf(' ');
+        return (wordEnd > 0 ? head.substring(0, wordEnd) : head) + " …";
+    }
+}
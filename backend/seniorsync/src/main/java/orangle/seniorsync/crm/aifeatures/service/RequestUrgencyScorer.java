@@ -0,0 +1,116 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.aifeatures.enums.RankingSource;
+import orangle.seniorsync.crm.aifeatures.model.RequestScore;
+import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestUrgencyView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Deterministic urgency scoring from request fields, without any LLM call.
+ * <p>
+ * The score (1-100) is the sum of:
+ * <ul>
+ *   <li><strong>priority:</strong> 8 points per priority level (up to 40).</li>
+ *   <li><strong>due date:</strong> 30 when overdue, then 25/15/8 when due within 1/3/7 days.</li>
+ *   <li><strong>age:</strong> 1 point per day since creation (up to 10), so old requests do not sink forever.</li>
+ *   <li><strong>status:</strong> 5 for requests nobody has started on yet.</li>
+ *   <li><strong>request type</strong> and the senior's <strong>care level</strong>: configurable weights by name.</li>
+ * </ul>
+ * It is the first ranking tier (requests are ranked by it straight away) and the fallback while the LLM is unavailable.
+ * Scores are on the same scale as the LLM scores so both can be stored and sorted together. The due date and age terms
+ * change with time, so a stored local score is only a snapshot; rankings recompute it when they are read.
+ */
+@Slf4j
+@Component
+public class RequestUrgencyScorer {
+    public static final String SOURCE = "local";
+
+    private final Map<String, Integer> requestTypeWeights;
+    private final Map<String, Integer> careLevelWeights;
+
+    public RequestUrgencyScorer(
+            @Value("${seniorsync.ranking.local.request-type-weights:Medication Reminders:10,Transportation:5}") String requestTypeWeights,
+            @Value("${seniorsync.ranking.local.care-level-weights:CRITICAL:15,HIGH:10,MEDIUM:5,LOW:0}") String careLevelWeights) {
+        this.requestTypeWeights = parseWeights(requestTypeWeights);
+        this.careLevelWeights = parseWeights(careLevelWeights);
+    }
+
+    /**
+     * Scores the given requests, highest first. Ties are broken by id so the order is stable.
+     */
+    public List<RequestScore> scoreAll(Collection<RequestUrgencyView> requests) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return requests.stream()
+                .map(request -> score(request, now))
+                .sorted(Comparator.comparingInt(RequestScore::score).reversed().thenComparing(RequestScore::requestId))
+                .toList();
+    }
+
+    public RequestScore score(RequestUrgencyView request, OffsetDateTime now) {
+        int priority = request.getPriority() != null ? Math.min(40, Math.max(0, request.getPriority() * 8)) : 0;
+        int due = dueDateScore(request.getDueDate(), now);
+        int age = request.getCreatedAt() != null
+                ? (int) Math.min(10, Math.max(0, Duration.between(request.getCreatedAt(), now).toDays()))
+                : 0;
+        int status = request.getStatus() == RequestStatus.TODO ? 5 : 0;
+        int requestType = weightOf(requestTypeWeights, request.getRequestTypeName());
+        int careLevel = weightOf(careLevelWeights, request.getCareLevel());
+
+        int score = Math.max(1, Math.min(100, priority + due + age + status + requestType + careLevel));
+        String factors = String.format(
+                "{\"source\":\"%s\",\"priority\":%d,\"dueDate\":%d,\"age\":%d,\"status\":%d,\"requestType\":%d,\"careLevel\":%d}",
+                SOURCE, priority, due, age, status, requestType, careLevel);
+        return new RequestScore(request.getId(), score, request.getUpdatedAt(), factors, RankingSource.LOCAL);
+    }
+
+    private static int dueDateScore(OffsetDateTime dueDate, OffsetDateTime now) {
+        if (dueDate == null) {
+            return 0;
+        }
+        Duration untilDue = Duration.between(now, dueDate);
+        if (untilDue.isNegative()) {
+            return 30;
+        }
+        if (untilDue.compareTo(Duration.ofDays(1)) <= 0) {
+            return 25;
+        }
+        if (untilDue.compareTo(Duration.ofDays(3)) <= 0) {
+            return 15;
+        }
+        return untilDue.compareTo(Duration.ofDays(7)) <= 0 ? 8 : 0;
+    }
+
+    private static int weightOf(Map<String, Integer> weights, String name) {
+        return name != null ? weights.getOrDefault(name.trim().toLowerCase(Locale.ROOT), 0) : 0;
+    }
+
+    // Parses "name:weight,name:weight", names are matched case-insensitively
+    private static Map<String, Integer> parseWeights(String spec) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                weights.put(entry.substring(0, separator).trim().toLowerCase(Locale.ROOT),
+                        Integer.parseInt(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid urgency weight '{}'", entry);
+            }
+        }
+        return weights;
+    }
+}
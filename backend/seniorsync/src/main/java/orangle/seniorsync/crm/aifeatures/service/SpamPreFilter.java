@@ -0,0 +1,244 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * In-process linear spam classifier that decides the obvious cases before a request reaches the LLM.
+ * <p>
+ * Scoring is a single pass over title and description that hashes tokens in place (no substrings, no regex), looks
+ * token weights up in a sorted {@code long[]} and adds a handful of dense features (links, shouting, repetition).
+ * The logistic of the sum is the spam probability; only probabilities beyond the model's spam/ham thresholds are
+ * decided locally, everything in between is escalated to the LLM.
+ * <p>
+ * Weights and thresholds are loaded from {@code seniorsync.spam.prefilter.model} so they can be retrained without a
+ * code change. Use the pre-filter evaluation endpoint to compare a model against the stored LLM verdicts. The filter is
+ * off by default ({@code seniorsync.spam.prefilter.enabled}); turn it on once that comparison holds up for a deployment.
+ */
+@Slf4j
+@Component
+public class SpamPreFilter {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int MAX_TRACKED_TOKENS = 128;
+
+    public enum Decision {
+        SPAM,
+        HAM,
+        UNCERTAIN
+    }
+
+    public record Result(Decision decision, double spamProbability) {
+        public boolean isDecided() {
+            return decision != Decision.UNCERTAIN;
+        }
+
+        /**
+         * Confidence in the decision itself, matching the meaning of the LLM's confidence score.
+         */
+        public double confidence() {
+            return decision == Decision.SPAM ? spamProbability : 1 - spamProbability;
+        }
+    }
+
+    private final boolean enabled;
+    private final double bias;
+    private final double spamThreshold;
+    private final double hamThreshold;
+    private final double urlWeight;
+    private final double exclamationWeight;
+    private final double uppercaseRatioWeight;
+    private final double repeatedRunWeight;
+    private final double repeatedTokenRatioWeight;
+    private final double digitRatioWeight;
+    private final double shortTextWeight;
+    // Sorted token hashes with their weights at the same index, searched with a binary search
+    private final long[] tokenHashes;
+    private final double[] tokenWeights;
+
+    public SpamPreFilter(@Value("${seniorsync.spam.prefilter.enabled:false}") boolean enabled,
+                         @Value("${seniorsync.spam.prefilter.model:classpath:spam-prefilter-model.properties}") Resource model)
+            throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = model.getInputStream()) {
+            properties.load(in);
+        }
+
+        this.enabled = enabled;
+        this.bias = weight(properties, "bias");
+        this.spamThreshold = weight(properties, "threshold.spam");
+        this.hamThreshold = weight(properties, "threshold.ham");
+        this.urlWeight = weight(properties, "feature.url");
+        this.exclamationWeight = weight(properties, "feature.exclamation");
+        this.uppercaseRatioWeight = weight(properties, "feature.uppercase-ratio");
+        this.repeatedRunWeight = weight(properties, "feature.repeated-run");
+        this.repeatedTokenRatioWeight = weight(properties, "feature.repeated-token-ratio");
+        this.digitRatioWeight = weight(properties, "feature.digit-ratio");
+        this.shortTextWeight = weight(properties, "feature.short-text");
+
+        Map<Long, Double> tokens = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("token.")) {
+                tokens.put(hash(key.substring("token.".length())), weight(properties, key));
+            }
+        }
+        this.tokenHashes = new long[tokens.size()];
+        this.tokenWeights = new double[tokens.size()];
+        int i = 0;
+        for (Map.Entry<Long, Double> entry : tokens.entrySet()) {
+            tokenHashes[i] = entry.getKey();
+            tokenWeights[i] = entry.getValue();
+            i++;
+        }
+        log.info("Spam pre-filter {} with {} token weights (spam >= {}, ham <= {})",
+                enabled ? "enabled" : "disabled", tokenHashes.length, spamThreshold, hamThreshold);
+    }
+
+    public Result classify(String title, String description) {
+        if (!enabled) {
+            return new Result(Decision.UNCERTAIN, Double.NaN);
+        }
+
+        double probability = spamProbability(title, description);
+        Decision decision = probability >= spamThreshold ? Decision.SPAM
+                : probability <= hamThreshold ? Decision.HAM
+                : Decision.UNCERTAIN;
+        return new Result(decision, probability);
+    }
+
+    double spamProbability(String title, String description) {
+        TextStats stats = new TextStats();
+        scan(title, stats);
+        scan(description, stats);
+
+        double z = bias + stats.tokenWeightSum;
+        z += urlWeight * Math.min(stats.urls, 3);
+        z += exclamationWeight * Math.min(stats.exclamations, 5);
+        if (stats.letters >= 10) {
+            z += uppercaseRatioWeight * stats.uppercase / stats.letters;
+        }
+        if (stats.longestRun >= 5) {
+            z += repeatedRunWeight;
+        }
+        if (stats.tokens >= 6) {
+            z += repeatedTokenRatioWeight * stats.repeatedTokens / stats.tokens;
+        }
+        if (stats.letters + stats.digits > 0) {
+            z += digitRatioWeight * stats.digits / (stats.letters + stats.digits);
+        }
+        if (stats.tokens < 3) {
+            z += shortTextWeight;
+        }
+        return 1 / (1 + Math.exp(-z));
+    }
+
+    private void scan(String text, TextStats stats) {
+        if (text == null) {
+            return;
+        }
+
+        long tokenHash = FNV_OFFSET_BASIS;
+        boolean inToken = false;
+        char previous = 0;
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            run = c == previous ? run + 1 : 1;
+            stats.longestRun = Math.max(stats.longestRun, run);
+            previous = c;
+
+            if (c == '!') {
+                stats.exclamations++;
+            } else if ((c == 'h' || c == 'H') && (text.regionMatches(true, i, "http://", 0, 7)
+                    || text.regionMatches(true, i, "https://", 0, 8))) {
+                stats.urls++;
+            } else if ((c == 'w' || c == 'W') && text.regionMatches(true, i, "www.", 0, 4)
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))) {
+                stats.urls++;
+            }
+
+            if (Character.isLetterOrDigit(c)) {
+                if (Character.isDigit(c)) {
+                    stats.digits++;
+                } else {
+                    stats.letters++;
+                    if (Character.isUpperCase(c)) {
+                        stats.uppercase++;
+                    }
+                }
+                tokenHash = (tokenHash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inToken = true;
+            } else if (inToken) {
+                stats.addToken(tokenHash, this);
+                tokenHash = FNV_OFFSET_BASIS;
+                inToken = false;
+            }
+        }
+        if (inToken) {
+            stats.addToken(tokenHash, this);
+        }
+    }
+
+    private double tokenWeight(long tokenHash) {
+        int index = Arrays.binarySearch(tokenHashes, tokenHash);
+        return index >= 0 ? tokenWeights[index] : 0;
+    }
+
+    private static long hash(String token) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < token.length(); i++) {
+            h = (h ^ Character.toLowerCase(token.charAt(i))) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    private static double weight(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Spam pre-filter model is missing '" + key + "'");
+        }
+        return Double.parseDouble(value.trim());
+    }
+
+    /**
+     * Counters for one classification. The only allocation per call besides this object is the small table used to
+     * spot repeated tokens.
+     */
+    private static final class TextStats {
+        private final long[] seenTokens = new long[MAX_TRACKED_TOKENS];
+        private int seenCount;
+        private int tokens;
+        private int repeatedTokens;
+        private int letters;
+        private int uppercase;
+        private int digits;
+        private int exclamations;
+        private int urls;
+        private int longestRun;
+        private double tokenWeightSum;
+
+        private void addToken(long tokenHash, SpamPreFilter model) {
+            tokens++;
+            tokenWeightSum += model.tokenWeight(tokenHash);
+            for (int i = 0; i < seenCount; i++) {
+                if (seenTokens[i] == tokenHash) {
+                    repeatedTokens++;
+                    return;
+                }
+            }
+            if (seenCount < MAX_TRACKED_TOKENS) {
+                seenTokens[seenCount++] = tokenHash;
+            }
+        }
+    }
+}
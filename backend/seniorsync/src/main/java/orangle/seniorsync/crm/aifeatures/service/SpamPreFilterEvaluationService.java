@@ -0,0 +1,102 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.aifeatures.dto.SpamPreFilterEvaluationDto;
+import orangle.seniorsync.crm.aifeatures.enums.SpamDetectionSource;
+import orangle.seniorsync.crm.aifeatures.model.SpamDetectionResult;
+import orangle.seniorsync.crm.aifeatures.repository.SpamDetectionResultRepository;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpamPreFilterEvaluationService implements ISpamPreFilterEvaluationService {
+
+    private final SpamDetectionResultRepository spamDetectionResultRepository;
+    private final SeniorRequestRepository seniorRequestRepository;
+    private final SpamPreFilter spamPreFilter;
+
+    @Override
+    public SpamPreFilterEvaluationDto evaluate(int limit) {
+        List<SpamDetectionResult> verdicts = spamDetectionResultRepository.findBySourceOrderByDetectedAtDesc(
+                SpamDetectionSource.LLM, PageRequest.of(0, limit));
+        Map<Long, SeniorRequest> requestsById = new HashMap<>();
+        for (SeniorRequest request : seniorRequestRepository.findAllById(verdicts.stream().map(SpamDetectionResult::getRequestId).toList())) {
+            requestsById.put(request.getId(), request);
+        }
+
+        List<SeniorRequest> samples = new ArrayList<>();
+        List<Boolean> llmIsSpam = new ArrayList<>();
+        for (SpamDetectionResult verdict : verdicts) {
+            SeniorRequest request = requestsById.get(verdict.getRequestId());
+            if (request != null) {
+                samples.add(request);
+                llmIsSpam.add(verdict.getIsSpam());
+            }
+        }
+
+        // Warm-up pass so the latency figures reflect JIT-compiled code rather than the interpreter
+        samples.forEach(request -> spamPreFilter.classify(request.getTitle(), request.getDescription()));
+
+        SpamPreFilterEvaluationDto evaluation = new SpamPreFilterEvaluationDto();
+        long[] latencies = new long[samples.size()];
+        for (int i = 0; i < samples.size(); i++) {
+            SeniorRequest request = samples.get(i);
+            long start = System.nanoTime();
+            SpamPreFilter.Result result = spamPreFilter.classify(request.getTitle(), request.getDescription());
+            latencies[i] = System.nanoTime() - start;
+
+            if (!result.isDecided()) {
+                continue;
+            }
+            boolean predictedSpam = result.decision() == SpamPreFilter.Decision.SPAM;
+            boolean actualSpam = llmIsSpam.get(i);
+            if (predictedSpam && actualSpam) {
+                evaluation.setTruePositives(evaluation.getTruePositives() + 1);
+            } else if (predictedSpam) {
+                evaluation.setFalsePositives(evaluation.getFalsePositives() + 1);
+            } else if (actualSpam) {
+                evaluation.setFalseNegatives(evaluation.getFalseNegatives() + 1);
+            } else {
+                evaluation.setTrueNegatives(evaluation.getTrueNegatives() + 1);
+            }
+        }
+
+        int tp = evaluation.getTruePositives();
+        int fp = evaluation.getFalsePositives();
+        int tn = evaluation.getTrueNegatives();
+        int fn = evaluation.getFalseNegatives();
+        int decided = tp + fp + tn + fn;
+
+        evaluation.setSampleSize(samples.size());
+        evaluation.setDecidedLocally(decided);
+        evaluation.setCoverage(samples.isEmpty() ? 0 : (double) decided / samples.size());
+        evaluation.setAgreement(ratio(tp + tn, decided));
+        evaluation.setPrecision(ratio(tp, tp + fp));
+        evaluation.setRecall(ratio(tp, tp + fn));
+
+        if (latencies.length > 0) {
+            Arrays.sort(latencies);
+            evaluation.setMeanLatencyMicros(Arrays.stream(latencies).average().orElse(0) / 1_000);
+            evaluation.setP99LatencyMicros(latencies[Math.min(latencies.length - 1, (int) Math.ceil(latencies.length * 0.99) - 1)] / 1_000.0);
+        }
+
+        log.info("Evaluated spam pre-filter on {} LLM verdicts: coverage {}, agreement {}",
+                samples.size(), evaluation.getCoverage(), evaluation.getAgreement());
+        return evaluation;
+    }
+
+    private static Double ratio(int numerator, int denominator) {
+        return denominator == 0 ? null : (double) numerator / denominator;
+    }
+}
@@ -2,6 +2,7 @@ package orangle.seniorsync.crm.notification.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.common.config.AsyncConfig;
 import orangle.seniorsync.crm.notification.dto.MentionNotificationRequest;
 import orangle.seniorsync.crm.notification.dto.NotificationResponse;
 import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
@@ -31,7 +32,7 @@ public class MentionNotificationService implements IMentionNotificationService {
     private String appBaseUrl;
     
     @Override
-    @Async
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public CompletableFuture<NotificationResponse> sendMentionNotificationsAsync(MentionNotificationRequest mentionRequest) {
         log.info("Processing mention notifications asynchronously for comment {} with {} mentioned staff", 
                 mentionRequest.getCommentId(), mentionRequest.getMentionedStaffIds().size());
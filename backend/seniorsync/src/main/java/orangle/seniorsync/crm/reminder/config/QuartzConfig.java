@@ -1,17 +1,23 @@
 package orangle.seniorsync.crm.reminder.config;
 
+import orangle.seniorsync.common.config.AsyncConfig;
 import org.quartz.Scheduler;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.quartz.SchedulerFactoryBean;
 
+import java.util.concurrent.Executor;
+
 @Configuration
 public class QuartzConfig {
 
     @Bean
-    public SchedulerFactoryBean schedulerFactoryBean() {
+    public SchedulerFactoryBean schedulerFactoryBean(@Qualifier(AsyncConfig.QUARTZ_EXECUTOR) Executor quartzExecutor) {
         SchedulerFactoryBean schedulerFactoryBean = new SchedulerFactoryBean();
         schedulerFactoryBean.setJobFactory(new AutowiringSpringBeanJobFactory());
+        // Run jobs on their own bounded bulkhead (with pool metrics) instead of Quartz's own fixed thread pool
+        schedulerFactoryBean.setTaskExecutor(quartzExecutor);
         return schedulerFactoryBean;
     }
 
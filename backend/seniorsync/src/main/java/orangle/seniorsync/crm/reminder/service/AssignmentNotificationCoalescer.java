@@ -0,0 +1,176 @@
+package orangle.seniorsync.crm.reminder.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buffers assignment/unassignment notifications per recipient and sends them as a single digest
+ * once the recipient's window closes.
+ * <p>
+ * When a coordinator reshuffles assignments, the same staff member can be assigned and unassigned
+ * the same request several times within a few seconds. Instead of sending one email per change we:
+ * <ul>
+ *   <li>Open a window on the first event for a recipient and collect every change until it closes.</li>
+ *   <li>Cancel out opposite changes for the same request (assign then unassign, or unassign then assign).</li>
+ *   <li>Send the regular single email when one change survives, or one digest email when several do.</li>
+ * </ul>
+ * A window of 0 disables coalescing and notifications are sent straight away, as before.
+ */
+@Slf4j
+@Service
+public class AssignmentNotificationCoalescer implements IAssignmentNotificationCoalescer {
+
+    private final INotificationService notificationService;
+    private final Duration window;
+
+    // Keyed by recipient staff id; each digest is only mutated inside ConcurrentHashMap.compute so updates per recipient are atomic
+    private final Map<Long, PendingDigest> pendingDigests = new ConcurrentHashMap<>();
+
+    public AssignmentNotificationCoalescer(
+            INotificationService notificationService,
+            @Value("${seniorsync.notification.digest.window-ms:60000}") long windowMs) {
+        this.notificationService = notificationService;
+        this.window = Duration.ofMillis(windowMs);
+    }
+
+    @Override
+    public void enqueueAssignment(SeniorRequest request, Long assignedStaffId) {
+        if (window.isZero()) {
+            notificationService.notifyRequestAssignmentAsync(request, assignedStaffId);
+            return;
+        }
+        enqueue(assignedStaffId, request, ChangeType.ASSIGNED);
+    }
+
+    @Override
+    public void enqueueUnassignment(SeniorRequest request, Long previousAssigneeId) {
+        if (window.isZero()) {
+            notificationService.notifyRequestUnassignmentAsync(request, previousAssigneeId);
+            return;
+        }
+        enqueue(previousAssigneeId, request, ChangeType.UNASSIGNED);
+    }
+
+    /**
+     * Sends every digest whose window has closed.
+     */
+    @Scheduled(fixedDelayString = "${seniorsync.notification.digest.flush-interval-ms:5000}")
+    public void flushDueDigests() {
+        flush(Instant.now(), false);
+    }
+
+    /**
+     * Sends whatever is still buffered so pending notifications are not lost on shutdown.
+     * Mail is sent on the calling thread because the mail executor may already be shutting down.
+     */
+    @PreDestroy
+    public void flushAllDigests() {
+        flush(Instant.MAX, true);
+    }
+
+    private void enqueue(Long staffId, SeniorRequest request, ChangeType changeType) {
+        pendingDigests.compute(staffId, (id, digest) -> {
+            PendingDigest current = digest != null ? digest : new PendingDigest(Instant.now());
+            current.record(request, changeType);
+            return current;
+        });
+        log.debug("Buffered {} notification for request {} to staff {}", changeType, request.getId(), staffId);
+    }
+
+    private void flush(Instant now, boolean synchronous) {
+        for (Long staffId : pendingDigests.keySet()) {
+            List<PendingChange> dueChanges = new ArrayList<>();
+            pendingDigests.computeIfPresent(staffId, (id, digest) -> {
+                if (now.isBefore(digest.openedAt.plus(window))) {
+                    return digest;
+                }
+                dueChanges.addAll(digest.changes.values());
+                return null; // Removes the digest, the next event for this recipient opens a new window
+            });
+            try {
+                send(staffId, dueChanges, synchronous);
+            } catch (Exception e) {
+                // Keep flushing the other recipients, one failed send must not drop the rest
+                log.error("Failed to send pending assignment notifications to staff {}: {}", staffId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void send(Long staffId, List<PendingChange> changes, boolean synchronous) {
+        if (changes.isEmpty()) {
+            return; // Either not due yet or every change cancelled out
+        }
+
+        if (changes.size() == 1) {
+            PendingChange change = changes.get(0);
+            if (change.type == ChangeType.ASSIGNED && synchronous) {
+                notificationService.notifyRequestAssignment(change.request, staffId);
+            } else if (change.type == ChangeType.ASSIGNED) {
+                notificationService.notifyRequestAssignmentAsync(change.request, staffId);
+            } else if (synchronous) {
+                notificationService.notifyRequestUnassignment(change.request, staffId);
+            } else {
+                notificationService.notifyRequestUnassignmentAsync(change.request, staffId);
+            }
+            return;
+        }
+
+        List<SeniorRequest> assigned = changes.stream()
+                .filter(change -> change.type == ChangeType.ASSIGNED)
+                .map(change -> change.request)
+                .toList();
+        List<SeniorRequest> unassigned = changes.stream()
+                .filter(change -> change.type == ChangeType.UNASSIGNED)
+                .map(change -> change.request)
+                .toList();
+
+        log.info("Sending assignment digest to staff {} with {} assigned and {} unassigned requests",
+                staffId, assigned.size(), unassigned.size());
+        if (synchronous) {
+            notificationService.notifyAssignmentDigest(staffId, assigned, unassigned);
+        } else {
+            notificationService.notifyAssignmentDigestAsync(staffId, assigned, unassigned);
+        }
+    }
+
+    private enum ChangeType {
+        ASSIGNED,
+        UNASSIGNED
+    }
+
+    private record PendingChange(SeniorRequest request, ChangeType type) {
+    }
+
+    private static final class PendingDigest {
+        private final Instant openedAt;
+        // Insertion ordered so the digest lists requests in the order they were changed
+        private final Map<Long, PendingChange> changes = new LinkedHashMap<>();
+
+        private PendingDigest(Instant openedAt) {
+            this.openedAt = openedAt;
+        }
+
+        private void record(SeniorRequest request, ChangeType changeType) {
+            PendingChange existing = changes.get(request.getId());
+            if (existing != null && existing.type != changeType) {
+                // Opposite changes for the same request cancel out, the recipient ends up where they started
+                changes.remove(request.getId());
+                return;
+            }
+            // Keep the latest snapshot of the request so the email reflects its current title and status
+            changes.put(request.getId(), new PendingChange(request, changeType));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package orangle.seniorsync.crm.reminder.service;
+
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+
+public interface IAssignmentNotificationCoalescer {
+
+    /**
+     * Buffer an assignment notification for the given staff member.
+     * The notification is sent when the recipient's digest window closes, unless it is cancelled
+     * by an unassignment of the same request within the window.
+     * @param request The request that was assigned
+     * @param assignedStaffId The staff member who was assigned
+     */
+    void enqueueAssignment(SeniorRequest request, Long assignedStaffId);
+
+    /**
+     * Buffer an unassignment notification for the given staff member.
+     * The notification is sent when the recipient's digest window closes, unless it is cancelled
+     * by an assignment of the same request within the window.
+     * @param request The request that was unassigned
+     * @param previousAssigneeId The staff member who was previously assigned
+     */
+    void enqueueUnassignment(SeniorRequest request, Long previousAssigneeId);
+}
@@ -2,6 +2,7 @@ package orangle.seniorsync.crm.reminder.service;
 
 import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
 import orangle.seniorsync.crm.reminder.model.Reminder;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface INotificationService {
@@ -29,6 +30,15 @@ public interface INotificationService {
      */
     CompletableFuture<Void> notifyRequestUnassignmentAsync(SeniorRequest request, Long previousAssigneeId);
     
+    /**
+     * Send a single digest email summarising several assignment changes for one staff member (async)
+     * @param staffId The staff member receiving the digest
+     * @param assignedRequests The requests newly assigned to the staff member
+     * @param unassignedRequests The requests no longer assigned to the staff member
+     * @return CompletableFuture that completes when notification is sent
+     */
+    CompletableFuture<Void> notifyAssignmentDigestAsync(Long staffId, List<SeniorRequest> assignedRequests, List<SeniorRequest> unassignedRequests);
+    
     // Keep synchronous methods for backwards compatibility
     /**
      * Send assignment notification when a request is assigned to a staff member
@@ -50,6 +60,14 @@ public interface INotificationService {
      */
     void notifyRequestUnassignment(SeniorRequest request, Long previousStaffId);
     
+    /**
+     * Send a single digest email summarising several assignment changes for one staff member
+     * @param staffId The staff member receiving the digest
+     * @param assignedRequests The requests newly assigned to the staff member
+     * @param unassignedRequests The requests no longer assigned to the staff member
+     */
+    void notifyAssignmentDigest(Long staffId, List<SeniorRequest> assignedRequests, List<SeniorRequest> unassignedRequests);
+    
     /**
      * Send reminder notification when a scheduled reminder is triggered
      * @param reminder The reminder to send notification for
@@ -6,6 +6,7 @@ import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
 import orangle.seniorsync.crm.reminder.model.Reminder;
 import orangle.seniorsync.crm.staffmanagement.model.Staff;
 import orangle.seniorsync.crm.staffmanagement.repository.StaffRepository;
+import orangle.seniorsync.common.config.AsyncConfig;
 import orangle.seniorsync.common.model.Senior;
 import orangle.seniorsync.crm.seniormanagement.repository.SeniorRepository;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -137,6 +139,37 @@ public class NotificationService implements INotificationService {
         }
     }
     
+    @Override
+    public void notifyAssignmentDigest(Long staffId, List<SeniorRequest> assignedRequests, List<SeniorRequest> unassignedRequests) {
+        log.info("Sending assignment digest to staff {} ({} assigned, {} unassigned)",
+                staffId, assignedRequests.size(), unassignedRequests.size());
+        
+        Optional<Staff> staffOpt = staffRepository.findById(staffId);
+        if (staffOpt.isEmpty()) {
+            log.warn("Staff member with ID {} not found. Cannot send assignment digest.", staffId);
+            return;
+        }
+        
+        Staff staff = staffOpt.get();
+        String email = staff.getContactEmail();
+        
+        if (email == null || email.trim().isEmpty()) {
+            log.warn("No email address found for staff member {}. Cannot send assignment digest.", staffId);
+            return;
+        }
+        
+        String subject = String.format("Request Assignment Updates: %d assigned, %d unassigned",
+                assignedRequests.size(), unassignedRequests.size());
+        String htmlBody = buildAssignmentDigestHtml(staff.getFullName(), assignedRequests, unassignedRequests, staff);
+        
+        try {
+            emailService.sendHtmlEmail(email, subject, htmlBody);
+            log.info("Assignment digest sent successfully to {}", email);
+        } catch (Exception e) {
+            log.error("Failed to send assignment digest to {}: {}", email, e.getMessage(), e);
+        }
+    }
+    
     private String buildRequestAssignmentHtml(String staffName, SeniorRequest request, String seniorName, Staff staff) {
         String rolePath = determineRolePath(staff);
         String requestUrl = appBaseUrl + rolePath + "/requests/" + request.getId();
@@ -314,6 +347,87 @@ public class NotificationService implements INotificationService {
         );
     }
     
+    private String buildAssignmentDigestHtml(String staffName, List<SeniorRequest> assignedRequests,
+                                             List<SeniorRequest> unassignedRequests, Staff staff) {
+        String rolePath = determineRolePath(staff);
+        
+        StringBuilder assignedRows = new StringBuilder();
+        for (SeniorRequest request : assignedRequests) {
+            String requestUrl = appBaseUrl + rolePath + "/requests/" + request.getId();
+            assignedRows.append(String.format(
+                    "<li><a href=\"%s\">#%d %s</a> <span class=\"badge priority-%s\">%s</span></li>",
+                    requestUrl,
+                    request.getId(),
+                    escapeHtml(request.getTitle()),
+                    getPriorityClass(request.getPriority()),
+                    getPriorityLabel(request.getPriority())));
+        }
+        
+        StringBuilder unassignedRows = new StringBuilder();
+        for (SeniorRequest request : unassignedRequests) {
+            unassignedRows.append(String.format("<li>#%d %s</li>", request.getId(), escapeHtml(request.getTitle())));
+        }
+        
+        String assignedSection = assignedRequests.isEmpty() ? "" : String.format("""
+                    <div class="info-box">
+                        <h3>🎯 Assigned to you</h3>
+                        <ul>%s</ul>
+                    </div>
+                """, assignedRows);
+        String unassignedSection = unassignedRequests.isEmpty() ? "" : String.format("""
+                    <div class="info-box unassigned">
+                        <h3>❌ No longer assigned to you</h3>
+                        <ul>%s</ul>
+                    </div>
+                """, unassignedRows);
+        
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8">
+                <title>Request Assignment Updates</title>
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; margin: 0; padding: 20px; background-color: #f4f4f4; }
+                    .container { max-width: 600px; margin: 0 auto; background: white; padding: 20px; border-radius: 8px; box-shadow: 0 2px 10px rgba(0,0,0,0.1); }
+                    .header { background-color: #2563eb; color: white; padding: 20px; border-radius: 8px 8px 0 0; margin: -20px -20px 20px -20px; }
+                    .badge { background-color: #dc2626; color: white; padding: 4px 8px; border-radius: 4px; font-size: 12px; }
+                    .priority-high { background-color: #dc2626; }
+                    .priority-medium { background-color: #f59e0b; }
+                    .priority-low { background-color: #16a34a; }
+                    .info-box { background-color: #f8fafc; padding: 15px; border-radius: 6px; margin: 15px 0; border-left: 4px solid #2563eb; }
+                    .unassigned { background-color: #fef2f2; border-left-color: #dc2626; }
+                    .button { display: inline-block; background-color: #2563eb; color: white; padding: 12px 24px; text-decoration: none; border-radius: 6px; margin: 15px 0; }
+                    .footer { margin-top: 30px; padding-top: 20px; border-top: 1px solid #e5e7eb; color: #6b7280; font-size: 14px; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="header">
+                        <h1>📋 Request Assignment Updates</h1>
+                        <p>Your request assignments in SeniorSync have changed</p>
+                    </div>
+                    
+                    <h2>Hello %s,</h2>
+                    <p>The following assignment changes were made in the last few minutes:</p>
+                    %s%s
+                    <a href="%s" class="button">📱 Open SeniorSync Dashboard</a>
+                    
+                    <div class="footer">
+                        <p>This is an automated notification from SeniorSync.</p>
+                        <p>If you believe this email was sent in error, please contact your administrator.</p>
+                    </div>
+                </div>
+            </body>
+            </html>
+            """,
+            staffName,
+            assignedSection,
+            unassignedSection,
+            appBaseUrl + rolePath + "/dashboard"
+        );
+    }
+    
     private String buildReminderTriggeredHtml(String staffName, Reminder reminder, Staff staff) {
         String reminderDate = reminder.getReminderDate()
                 .withOffsetSameInstant(utcPlus8Offset)
@@ -416,7 +530,7 @@ public class NotificationService implements INotificationService {
     // Async implementations
     
     @Override
-    @Async
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public CompletableFuture<Void> notifyRequestAssignmentAsync(SeniorRequest request, Long assignedStaffId) {
         try {
             notifyRequestAssignment(request, assignedStaffId);
@@ -428,7 +542,7 @@ public class NotificationService implements INotificationService {
     }
     
     @Override
-    @Async
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public CompletableFuture<Void> notifyReminderCreationAsync(Reminder reminder) {
         try {
             notifyReminderCreation(reminder);
@@ -440,7 +554,7 @@ public class NotificationService implements INotificationService {
     }
     
     @Override
-    @Async
+    @Async(AsyncConfig.MAIL_EXECUTOR)
     public CompletableFuture<Void> notifyRequestUnassignmentAsync(SeniorRequest request, Long previousAssigneeId) {
         try {
             notifyRequestUnassignment(request, previousAssigneeId);
@@ -451,6 +565,17 @@ public class NotificationService implements INotificationService {
         return CompletableFuture.completedFuture(null);
     }
     
+    @Override
+    @Async(AsyncConfig.MAIL_EXECUTOR)
+    public CompletableFuture<Void> notifyAssignmentDigestAsync(Long staffId, List<SeniorRequest> assignedRequests, List<SeniorRequest> unassignedRequests) {
+        try {
+            notifyAssignmentDigest(staffId, assignedRequests, unassignedRequests);
+        } catch (Exception e) {
+            log.error("Failed to send async assignment digest to staff {}: {}", staffId, e.getMessage(), e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+    
     @Override
     public void notifyReminderTriggered(Reminder reminder) {
         log.info("Sending reminder notification for reminder {} to staff {}", 
@@ -1,6 +1,8 @@
 package orangle.seniorsync.crm.requestmanagement.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import orangle.seniorsync.crm.requestmanagement.dto.*;
@@ -113,6 +115,21 @@ public class RequestManagementController {
         return ResponseEntity.ok().body(seniorRequest);
     }
 
+    /**
+     * Near-duplicates of a request within the same center, e.g. the same need lodged twice by staff and the chatbot.
+     *
+     * @param id the request to compare
+     * @param days how far back to look (default 7); 400 if outside 1-30, the index only retains 30 days
+     * @return similar requests, most similar first
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarRequestDto>> getSimilarRequests(@PathVariable long id,
+                                                                      @RequestParam(defaultValue = "7") @Min(1) @Max(30) int days) {
+        List<SimilarRequestDto> similarRequests = requestManagementService.findSimilarRequests(id, days);
+        log.info("Found {} similar requests for request ID: {}", similarRequests.size(), id);
+        return ResponseEntity.ok().body(similarRequests);
+    }
+
     @GetMapping("/filter-options")
     public ResponseEntity<RequestFilterOptionsDto> getFilterOptions() {
         RequestFilterOptionsDto options = requestManagementService.getFilterOptions();
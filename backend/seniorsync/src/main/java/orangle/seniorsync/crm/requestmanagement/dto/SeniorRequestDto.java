@@ -4,6 +4,7 @@ import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.List;
 
 public record SeniorRequestDto(
         Long id,
@@ -24,6 +25,13 @@ public record SeniorRequestDto(
         Boolean isSpam,
         BigDecimal spamConfidenceScore,
         String spamDetectionReason,
-        OffsetDateTime spamDetectedAt
+        OffsetDateTime spamDetectedAt,
+        // Only filled in on create: near-duplicates in the same center, most similar first
+        List<SimilarRequestDto> possibleDuplicates
 ) {
+    public SeniorRequestDto withPossibleDuplicates(List<SimilarRequestDto> possibleDuplicates) {
+        return new SeniorRequestDto(id, seniorId, assignedStaffId, requestTypeId, title, description, priority, createdAt,
+                updatedAt, completedAt, dueDate, status, assignedStaffName, requestTypeName, isSpam, spamConfidenceScore,
+                spamDetectionReason, spamDetectedAt, possibleDuplicates);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package orangle.seniorsync.crm.requestmanagement.dto;
+
+import java.time.OffsetDateTime;
+
+public record SimilarRequestDto(
+        Long requestId,
+        Long seniorId,
+        // 1.0 for identical normalised text, based on the Hamming distance between SimHash fingerprints
+        double similarity,
+        OffsetDateTime createdAt
+) {
+}
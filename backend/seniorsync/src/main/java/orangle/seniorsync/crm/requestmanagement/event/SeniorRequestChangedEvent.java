@@ -0,0 +1,19 @@
+package orangle.seniorsync.crm.requestmanagement.event;
+
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+
+/**
+ * Published by the request management service after a senior request is created, updated or deleted.
+ * Listeners should use {@code @TransactionalEventListener(fallbackExecution = true)} so they only see committed changes.
+ *
+ * @param request snapshot of the request after the change (before deletion for {@link ChangeType#DELETED})
+ * @param changeType what happened to the request
+ */
+public record SeniorRequestChangedEvent(SeniorRequest request, ChangeType changeType) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
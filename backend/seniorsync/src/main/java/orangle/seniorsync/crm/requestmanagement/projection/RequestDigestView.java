@@ -0,0 +1,21 @@
+package orangle.seniorsync.crm.requestmanagement.projection;
+
+import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The fields of a request (plus its type name) that a ranking prompt digest is built from, fetched in a single query
+ * without loading the entities.
+ */
+public interface RequestDigestView {
+    Long getId();
+    Long getCenterId();
+    OffsetDateTime getUpdatedAt();
+    Long getRequestTypeId();
+    String getRequestTypeName();
+    Short getPriority();
+    OffsetDateTime getDueDate();
+    RequestStatus getStatus();
+    String getDescription();
+}
@@ -0,0 +1,20 @@
+package orangle.seniorsync.crm.requestmanagement.projection;
+
+import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The fields of a request (plus its type name and the senior's care level) that local urgency scoring needs,
+ * fetched in a single query without loading the entities.
+ */
+public interface RequestUrgencyView {
+    Long getId();
+    Short getPriority();
+    OffsetDateTime getDueDate();
+    OffsetDateTime getCreatedAt();
+    OffsetDateTime getUpdatedAt();
+    RequestStatus getStatus();
+    String getRequestTypeName();
+    String getCareLevel();
+}
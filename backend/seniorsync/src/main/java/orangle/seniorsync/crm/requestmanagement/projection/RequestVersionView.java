@@ -0,0 +1,11 @@
+package orangle.seniorsync.crm.requestmanagement.projection;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The id and last update of a request, enough to tell whether something derived from it is still current.
+ */
+public interface RequestVersionView {
+    Long getId();
+    OffsetDateTime getUpdatedAt();
+}
@@ -3,13 +3,18 @@ package orangle.seniorsync.crm.requestmanagement.repository;
 import orangle.seniorsync.crm.requestmanagement.dto.*;
 import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
 import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestDigestView;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestVersionView;
 import orangle.seniorsync.crm.requestmanagement.projection.SeniorRequestView;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestUrgencyView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -25,6 +30,31 @@ public interface SeniorRequestRepository extends JpaRepository<SeniorRequest, Lo
            "FROM SeniorRequest r WHERE r.status = :status AND r.centerId = :centerId")
     List<SeniorRequestView> findByStatusAndCenterId(@Param("status") RequestStatus status, @Param("centerId") Long centerId);
 
+    List<SeniorRequest> findByCreatedAtAfter(OffsetDateTime createdAfter);
+
+    // Projection for local urgency scoring, joins the request type and the senior's care level in one query
+    @Query("SELECT r.id as id, r.priority as priority, r.dueDate as dueDate, r.createdAt as createdAt, " +
+           "r.updatedAt as updatedAt, r.status as status, rt.name as requestTypeName, cl.careLevel as careLevel " +
+           "FROM SeniorRequest r " +
+           "LEFT JOIN RequestType rt ON rt.id = r.requestTypeId " +
+           "LEFT JOIN Senior s ON s.id = r.seniorId " +
+           "LEFT JOIN s.careLevel cl " +
+           "WHERE r.id IN :ids")
+    List<RequestUrgencyView> findUrgencyViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Versions only, so cached ranking digests that are still current are reused without reading the descriptions
+    @Query("SELECT r.id as id, r.updatedAt as updatedAt FROM SeniorRequest r WHERE r.id IN :ids")
+    List<RequestVersionView> findVersionViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Projection for ranking prompt digests, joins the request type name
+    @Query("SELECT r.id as id, r.centerId as centerId, r.updatedAt as updatedAt, r.requestTypeId as requestTypeId, " +
+           "rt.name as requestTypeName, r.priority as priority, r.dueDate as dueDate, r.status as status, " +
+           "r.description as description " +
+           "FROM SeniorRequest r " +
+           "LEFT JOIN RequestType rt ON rt.id = r.requestTypeId " +
+           "WHERE r.id IN :ids")
+    List<RequestDigestView> findDigestViewsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT r FROM SeniorRequest r WHERE r.seniorId = ?1")
     List<SeniorRequest> findRequestsBySenior(long seniorId);
 
@@ -14,6 +14,7 @@ public interface IRequestManagementService {
     SeniorRequestDto updateRequest(UpdateSeniorRequestDto updateSeniorRequestDto);
     List<SeniorRequestDto> findRequestsBySenior(long id);
     void deleteRequest(long id);
+    List<SimilarRequestDto> findSimilarRequests(long id, int days);
 
     DashboardDto getDashboard();
     
@@ -0,0 +1,19 @@
+package orangle.seniorsync.crm.requestmanagement.service;
+
+import orangle.seniorsync.crm.requestmanagement.dto.SimilarRequestDto;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface IRequestSimilarityIndex {
+
+    /**
+     * Find near-duplicates of the given text among the center's requests created within the window, most similar first.
+     * @param centerId The center to search in, requests of other centers are never returned
+     * @param title Title of the request to compare
+     * @param description Description of the request to compare
+     * @param window How far back to look
+     * @param excludeRequestId Request to leave out of the results (usually the request itself), may be null
+     */
+    List<SimilarRequestDto> findSimilar(Long centerId, String title, String description, Duration window, Long excludeRequestId);
+}
@@ -6,6 +6,7 @@ import orangle.seniorsync.common.util.SecurityContextUtil;
 import orangle.seniorsync.common.util.TimeUtils;
 import orangle.seniorsync.crm.requestmanagement.dto.*;
 import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+import orangle.seniorsync.crm.requestmanagement.event.SeniorRequestChangedEvent;
 import orangle.seniorsync.crm.requestmanagement.mapper.CreateSeniorRequestMapper;
 import orangle.seniorsync.crm.requestmanagement.mapper.SeniorRequestMapper;
 import orangle.seniorsync.crm.requestmanagement.mapper.UpdateSeniorRequestMapper;
@@ -16,12 +17,15 @@ import orangle.seniorsync.crm.requestmanagement.repository.RequestTypeRepository
 import orangle.seniorsync.crm.requestmanagement.spec.SeniorRequestSpecs;
 import orangle.seniorsync.crm.staffmanagement.repository.StaffRepository;
 import orangle.seniorsync.crm.staffmanagement.model.Staff;
-import orangle.seniorsync.crm.reminder.service.INotificationService;
+import orangle.seniorsync.crm.reminder.service.IAssignmentNotificationCoalescer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,7 +43,10 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
     private final StaffRepository staffRepository;
     private final RequestTypeRepository requestTypeRepository;
     private final IUserContextService userContextService;
-    private final INotificationService notificationService;
+    private final IAssignmentNotificationCoalescer assignmentNotificationCoalescer;
+    private final IRequestSimilarityIndex requestSimilarityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration similarityWindow;
 
     public RequestManagementService(
             SeniorRequestRepository seniorRequestRepository,
@@ -49,7 +56,10 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
             StaffRepository staffRepository,
             RequestTypeRepository requestTypeRepository,
             IUserContextService userContextService,
-            INotificationService notificationService) {
+            IAssignmentNotificationCoalescer assignmentNotificationCoalescer,
+            IRequestSimilarityIndex requestSimilarityIndex,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${seniorsync.similarity.default-window-days:7}") int similarityWindowDays) {
         super(userContextService);
         this.seniorRequestRepository = seniorRequestRepository;
         this.createSeniorRequestMapper = createSeniorRequestMapper;
@@ -58,7 +68,10 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
         this.staffRepository = staffRepository;
         this.requestTypeRepository = requestTypeRepository;
         this.userContextService = userContextService;
-        this.notificationService = notificationService;
+        this.assignmentNotificationCoalescer = assignmentNotificationCoalescer;
+        this.requestSimilarityIndex = requestSimilarityIndex;
+        this.eventPublisher = eventPublisher;
+        this.similarityWindow = Duration.ofDays(similarityWindowDays);
     }
 
     /**
@@ -80,6 +93,7 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
     /**
      * Creates a new senior request based on the provided DTO.
      * Maps the DTO to an entity, saves it to the repository, and returns the created request as a DTO.
+     * Near-duplicates in the same center are returned in {@code possibleDuplicates} so the UI can warn about them.
      *
      * @param createSeniorRequestDto the DTO containing the details of the senior request to be created
      * @return the created SeniorRequestDto
@@ -92,7 +106,18 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
         seniorRequestToCreate.setCenterId(currentCenterId);
         
         SeniorRequest createdSeniorRequest = seniorRequestRepository.save(seniorRequestToCreate);
-        return seniorRequestMapper.toDto(createdSeniorRequest);
+
+        // Flag likely duplicates, e.g. the same need lodged by staff and through the chatbot, so the creator can review them
+        List<SimilarRequestDto> similarRequests = requestSimilarityIndex.findSimilar(currentCenterId,
+                createdSeniorRequest.getTitle(), createdSeniorRequest.getDescription(), similarityWindow, createdSeniorRequest.getId());
+        if (!similarRequests.isEmpty()) {
+            log.warn("Request {} looks like a near-duplicate of {} request(s) created in the last {} days, most similar: request {} ({}%)",
+                    createdSeniorRequest.getId(), similarRequests.size(), similarityWindow.toDays(),
+                    similarRequests.get(0).requestId(), Math.round(similarRequests.get(0).similarity() * 100));
+        }
+
+        eventPublisher.publishEvent(new SeniorRequestChangedEvent(createdSeniorRequest, SeniorRequestChangedEvent.ChangeType.CREATED));
+        return seniorRequestMapper.toDto(createdSeniorRequest).withPossibleDuplicates(similarRequests);
     }
 
     /**
@@ -184,6 +209,7 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
             existingSeniorRequest.setCompletedAt(TimeUtils.getUtcTimeNow());
         }
         seniorRequestRepository.save(existingSeniorRequest);
+        eventPublisher.publishEvent(new SeniorRequestChangedEvent(existingSeniorRequest, SeniorRequestChangedEvent.ChangeType.UPDATED));
         
         // Handle assignment/unassignment notifications
         handleAssignmentNotifications(existingSeniorRequest, previousAssigneeId, newAssigneeId);
@@ -193,7 +219,7 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
 
     /**
      * Handle assignment and unassignment notifications when assignedStaffId changes
-     * Notifications are sent asynchronously to avoid impacting API response time
+     * Notifications are buffered per recipient and sent as a digest, so a burst of reassignments results in one email
      * @param request the request being updated
      * @param previousAssigneeId the previous assignee ID (can be null)
      * @param newAssigneeId the new assignee ID (can be null)
@@ -204,16 +230,16 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
             return;
         }
         
-        // Send unassignment notification to previous assignee (async)
+        // Queue unassignment notification to previous assignee (coalesced)
         if (previousAssigneeId != null) {
-            notificationService.notifyRequestUnassignmentAsync(request, previousAssigneeId);
+            assignmentNotificationCoalescer.enqueueUnassignment(request, previousAssigneeId);
             log.debug("Queued unassignment notification for request {} to previous staff {}", 
                 request.getId(), previousAssigneeId);
         }
         
-        // Send assignment notification to new assignee (async)
+        // Queue assignment notification to new assignee (coalesced)
         if (newAssigneeId != null) {
-            notificationService.notifyRequestAssignmentAsync(request, newAssigneeId);
+            assignmentNotificationCoalescer.enqueueAssignment(request, newAssigneeId);
             log.debug("Queued assignment notification for request {} to staff {}", 
                 request.getId(), newAssigneeId);
         }
@@ -231,7 +257,8 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
 
     /**
      * Deletes a senior request by its ID.
-     * If the request does not exist or doesn't belong to the current user's center, an IllegalArgumentException is thrown.
+     * If the request does not exist or doesn't belong to the current user's center, or {@code days} is below 1, an
+     * IllegalArgumentException is thrown.
      *
      * @param id the ID of the senior request to delete
      */
@@ -248,6 +275,32 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
         
         SeniorRequest existingSeniorRequest = requests.get(0);
         seniorRequestRepository.delete(existingSeniorRequest);
+        eventPublisher.publishEvent(new SeniorRequestChangedEvent(existingSeniorRequest, SeniorRequestChangedEvent.ChangeType.DELETED));
+    }
+
+    /**
+     * Finds near-duplicates of a request among requests of the same center created in the last {@code days} days.
+     * If the request does not exist or doesn't belong to the current user's center, or {@code days} is below 1, an
+     * IllegalArgumentException is thrown.
+     *
+     * @param id the ID of the request to compare
+     * @param days how far back to look
+     * @return similar requests, most similar first
+     */
+    public List<SimilarRequestDto> findSimilarRequests(long id, int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("days must be at least 1, got " + days);
+        }
+        var spec = (Specification<SeniorRequest>) (root, query, cb) -> cb.equal(root.get("id"), id);
+        List<SeniorRequest> requests = findAllWithCenterFilter(spec);
+
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Request not found with ID: " + id + " in your center");
+        }
+
+        SeniorRequest request = requests.get(0);
+        return requestSimilarityIndex.findSimilar(request.getCenterId(), request.getTitle(), request.getDescription(),
+                Duration.ofDays(days), request.getId());
     }
 
     public SeniorRequestDto findRequestById(long id) {
@@ -437,10 +490,11 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
         // Perform assignment
         request.setAssignedStaffId(targetStaffId);
         seniorRequestRepository.save(request);
+        eventPublisher.publishEvent(new SeniorRequestChangedEvent(request, SeniorRequestChangedEvent.ChangeType.UPDATED));
 
-        // Send notification email to newly assigned staff member (async)
+        // Queue notification email to newly assigned staff member (coalesced)
         if (targetStaffId != null && !targetStaffId.equals(previousAssigneeId)) {
-            notificationService.notifyRequestAssignmentAsync(request, targetStaffId);
+            assignmentNotificationCoalescer.enqueueAssignment(request, targetStaffId);
             log.debug("Queued assignment notification for request {} to staff {}", requestId, targetStaffId);
         }
 
@@ -489,10 +543,11 @@ public class RequestManagementService extends AbstractCenterFilteredService<Seni
         // Perform unassignment
         request.setAssignedStaffId(null);
         seniorRequestRepository.save(request);
+        eventPublisher.publishEvent(new SeniorRequestChangedEvent(request, SeniorRequestChangedEvent.ChangeType.UPDATED));
 
-        // Send notification email to previously assigned staff member (async)
+        // Queue notification email to previously assigned staff member (coalesced)
         if (previousStaffId != null) {
-            notificationService.notifyRequestUnassignmentAsync(request, previousStaffId);
+            assignmentNotificationCoalescer.enqueueUnassignment(request, previousStaffId);
             log.debug("Queued unassignment notification for request {} to staff {}", requestId, previousStaffId);
         }
 
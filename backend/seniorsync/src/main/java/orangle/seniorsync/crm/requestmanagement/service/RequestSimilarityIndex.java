@@ -0,0 +1,320 @@
+package orangle.seniorsync.crm.requestmanagement.service;
+
+import lombok.extern.slf4j.Slf4j;
+import orangle.seniorsync.common.config.AsyncConfig;
+import orangle.seniorsync.crm.requestmanagement.dto.SimilarRequestDto;
+import orangle.seniorsync.crm.requestmanagement.event.SeniorRequestChangedEvent;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory near-duplicate index over request titles and descriptions, partitioned by center.
+ * <p>
+ * Each request is reduced to a 64-bit SimHash of its normalised tokens and token bigrams. Two requests are
+ * near-duplicates when their fingerprints differ in at most {@code seniorsync.similarity.max-distance} bits.
+ * Fingerprints are split into {@code max-distance + 1} bands; by the pigeonhole principle two fingerprints within that
+ * distance share at least one band exactly, so a lookup only compares against the few requests in matching buckets.
+ * <p>
+ * The index is filled from the database once the application is ready, kept current from
+ * {@link SeniorRequestChangedEvent}s and trimmed to {@code seniorsync.similarity.retention-days}.
+ */
+@Slf4j
+@Service
+public class RequestSimilarityIndex implements IRequestSimilarityIndex {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long[] STOP_WORDS = sortedHashes("a", "an", "the", "and", "or", "for", "to", "of", "in", "on",
+            "at", "with", "is", "are", "be", "please", "pls", "need", "needs", "help", "request");
+
+    private final SeniorRequestRepository seniorRequestRepository;
+    private final Executor backgroundExecutor;
+    private final int maxDistance;
+    private final int bandCount;
+    private final Duration retention;
+    private final Map<Long, CenterIndex> centers = new ConcurrentHashMap<>();
+
+    public RequestSimilarityIndex(SeniorRequestRepository seniorRequestRepository,
+                                  @Qualifier(AsyncConfig.BACKGROUND_EXECUTOR) Executor backgroundExecutor,
+                                  @Value("${seniorsync.similarity.max-distance:6}") int maxDistance,
+                                  @Value("${seniorsync.similarity.retention-days:30}") int retentionDays) {
+        this.seniorRequestRepository = seniorRequestRepository;
+        this.backgroundExecutor = backgroundExecutor;
+        this.maxDistance = maxDistance;
+        this.bandCount = Math.min(maxDistance + 1, 64);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Loads the retained window of requests. Runs in the background so it does not delay startup; lookups simply
+     * find fewer matches until it has finished.
+     * <p>
+     * The load is handed to the background executor directly rather than via {@code @Async}: an async method would make
+     * this bean a JDK proxy of {@link IRequestSimilarityIndex}, which hides the {@code @Scheduled} eviction method.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        backgroundExecutor.execute(this::loadRetainedWindow);
+    }
+
+    private void loadRetainedWindow() {
+        long start = System.nanoTime();
+        List<SeniorRequest> requests = seniorRequestRepository.findByCreatedAtAfter(OffsetDateTime.now().minus(retention));
+        requests.forEach(this::index);
+        log.info("Similarity index warmed with {} requests in {} ms", requests.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestChanged(SeniorRequestChangedEvent event) {
+        SeniorRequest request = event.request();
+        if (event.changeType() == SeniorRequestChangedEvent.ChangeType.DELETED) {
+            CenterIndex center = centers.get(request.getCenterId());
+            if (center != null) {
+                center.remove(request.getId());
+            }
+            return;
+        }
+        index(request);
+    }
+
+    @Scheduled(fixedDelayString = "${seniorsync.similarity.evict-interval-ms:3600000}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        centers.values().forEach(center -> center.evictOlderThan(cutoff));
+    }
+
+    @Override
+    public List<SimilarRequestDto> findSimilar(Long centerId, String title, String description, Duration window, Long excludeRequestId) {
+        CenterIndex center = centers.get(centerId);
+        long fingerprint = fingerprint(title, description);
+        if (center == null || fingerprint == 0) {
+            return List.of();
+        }
+
+        Instant createdAfter = Instant.now().minus(window);
+        List<SimilarRequestDto> matches = new ArrayList<>();
+        for (Entry entry : center.candidates(fingerprint)) {
+            int distance = Long.bitCount(entry.fingerprint ^ fingerprint);
+            if (distance > maxDistance || entry.createdAt.isBefore(createdAfter) || entry.requestId.equals(excludeRequestId)) {
+                continue;
+            }
+            matches.add(new SimilarRequestDto(entry.requestId, entry.seniorId, 1 - distance / 64.0,
+                    OffsetDateTime.ofInstant(entry.createdAt, ZoneOffset.UTC)));
+        }
+        matches.sort(Comparator.comparingDouble(SimilarRequestDto::similarity).reversed());
+        return matches;
+    }
+
+    private void index(SeniorRequest request) {
+        long fingerprint = fingerprint(request.getTitle(), request.getDescription());
+        CenterIndex center = centers.computeIfAbsent(request.getCenterId(), id -> new CenterIndex());
+        if (fingerprint == 0) {
+            center.remove(request.getId()); // Nothing left to compare after normalisation
+            return;
+        }
+        // createdAt is filled in by the database, a request saved in this instance may not have it loaded yet
+        Instant createdAt = request.getCreatedAt() != null ? request.getCreatedAt().toInstant() : Instant.now();
+        center.put(new Entry(request.getId(), request.getSeniorId(), fingerprint, createdAt));
+    }
+
+    /**
+     * SimHash over lower-cased alphanumeric tokens (stop words dropped) and adjacent token pairs. Returns 0 when the
+     * text has no tokens left.
+     */
+    static long fingerprint(String title, String description) {
+        int[] bitWeights = new int[64];
+        long[] previous = {0};
+        int tokens = addTokens(title, bitWeights, previous) + addTokens(description, bitWeights, previous);
+        if (tokens == 0) {
+            return 0;
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (bitWeights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    private static int addTokens(String text, int[] bitWeights, long[] previous) {
+        if (text == null) {
+            return 0;
+        }
+
+        int tokens = 0;
+        long hash = FNV_OFFSET_BASIS;
+        boolean inToken = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inToken = true;
+                continue;
+            }
+            if (!inToken) {
+                continue;
+            }
+            if (Arrays.binarySearch(STOP_WORDS, hash) < 0) {
+                addFeature(bitWeights, mix(hash));
+                if (previous[0] != 0) {
+                    addFeature(bitWeights, mix(previous[0] * 31 + hash));
+                }
+                previous[0] = hash;
+                tokens++;
+            }
+            hash = FNV_OFFSET_BASIS;
+            inToken = false;
+        }
+        return tokens;
+    }
+
+    private static void addFeature(int[] bitWeights, long featureHash) {
+        for (int bit = 0; bit < 64; bit++) {
+            bitWeights[bit] += ((featureHash >>> bit) & 1) == 1 ? 1 : -1;
+        }
+    }
+
+    // SplitMix64 finaliser, spreads FNV hashes of short tokens across all 64 bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long[] sortedHashes(String... words) {
+        long[] hashes = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            long hash = FNV_OFFSET_BASIS;
+            for (char c : words[i].toCharArray()) {
+                hash = (hash ^ c) * FNV_PRIME;
+            }
+            hashes[i] = hash;
+        }
+        Arrays.sort(hashes);
+        return hashes;
+    }
+
+    private record Entry(Long requestId, Long seniorId, long fingerprint, Instant createdAt) {
+    }
+
+    /**
+     * Fingerprints of one center, bucketed per band. Guarded by a read/write lock: lookups run concurrently, updates
+     * are rare.
+     */
+    private final class CenterIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, Entry> entriesById = new HashMap<>();
+        private final List<Map<Long, Set<Long>>> bands = new ArrayList<>();
+
+        private CenterIndex() {
+            for (int band = 0; band < bandCount; band++) {
+                bands.add(new HashMap<>());
+            }
+        }
+
+        private void put(Entry entry) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(entry.requestId);
+                entriesById.put(entry.requestId, entry);
+                for (int band = 0; band < bandCount; band++) {
+                    bands.get(band).computeIfAbsent(bandKey(entry.fingerprint, band), key -> new HashSet<>()).add(entry.requestId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(Long requestId) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(requestId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void evictOlderThan(Instant cutoff) {
+            lock.writeLock().lock();
+            try {
+                List<Long> expired = entriesById.values().stream()
+                        .filter(entry -> entry.createdAt.isBefore(cutoff))
+                        .map(Entry::requestId)
+                        .toList();
+                expired.forEach(this::removeUnlocked);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private List<Entry> candidates(long fingerprint) {
+            lock.readLock().lock();
+            try {
+                Set<Long> candidateIds = new HashSet<>();
+                for (int band = 0; band < bandCount; band++) {
+                    Set<Long> bucket = bands.get(band).get(bandKey(fingerprint, band));
+                    if (bucket != null) {
+                        candidateIds.addAll(bucket);
+                    }
+                }
+                List<Entry> candidates = new ArrayList<>(candidateIds.size());
+                candidateIds.forEach(id -> candidates.add(entriesById.get(id)));
+                return candidates;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void removeUnlocked(Long requestId) {
+            Entry existing = entriesById.remove(requestId);
+            if (existing == null) {
+                return;
+            }
+            for (int band = 0; band < bandCount; band++) {
+                Map<Long, Set<Long>> buckets = bands.get(band);
+                long key = bandKey(existing.fingerprint, band);
+                Set<Long> bucket = buckets.get(key);
+                if (bucket != null) {
+                    bucket.remove(requestId);
+                    if (bucket.isEmpty()) {
+                        buckets.remove(key);
+                    }
+                }
+            }
+        }
+
+        // Bits [band * width, (band + 1) * width) of the fingerprint, the last band takes any remainder
+        private long bandKey(long fingerprint, int band) {
+            int width = 64 / bandCount;
+            int from = band * width;
+            int to = band == bandCount - 1 ? 64 : from + width;
+            long mask = to - from == 64 ? -1L : (1L << (to - from)) - 1;
+            return (fingerprint >>> from) & mask;
+        }
+    }
+}
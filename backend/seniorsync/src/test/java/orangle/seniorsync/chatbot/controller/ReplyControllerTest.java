@@ -0,0 +1,79 @@
+package orangle.seniorsync.chatbot.controller;
+
+import orangle.seniorsync.chatbot.dto.ReplyDto;
+import orangle.seniorsync.chatbot.dto.ReplyOption;
+import orangle.seniorsync.chatbot.service.ConversationTurnDispatcher;
+import orangle.seniorsync.chatbot.service.IReplyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ReplyControllerTest {
+
+    @Mock
+    private IReplyService replyService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ReplyController(replyService, new ConversationTurnDispatcher(16, 1000))).build();
+    }
+
+    @Test
+    void firstTurnWithBlankOptionIsAccepted() throws Exception {
+        when(replyService.replyMessage("lodging_request", 1L, new ReplyOption("", "", "FIRSTCHATOPEN"), null, "en"))
+                .thenReturn(new ReplyDto(10L, 1L, "Hello", List.of()));
+
+        mockMvc.perform(post("/api/chatbot/reply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"campaignName": "lodging_request", "seniorId": 1,
+                                 "replyOption": {"displayText": "", "value": "", "fsmEvent": "FIRSTCHATOPEN"}}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message_id").value(10));
+    }
+
+    @Test
+    void oversizedClientMessageIdIsRejected() throws Exception {
+        mockMvc.perform(post("/api/chatbot/reply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"campaignName": "lodging_request", "seniorId": 1,
+                                 "replyOption": {"displayText": "Yes", "value": "yes", "fsmEvent": "CONFIRM"},
+                                 "clientMessageId": "%s"}
+                                """.formatted("x".repeat(101))))
+                .andExpect(status().isBadRequest());
+
+        verify(replyService, never()).replyMessage(anyString(), anyLong(), any(), any(), anyString());
+    }
+
+    @Test
+    void missingReplyOptionIsRejected() throws Exception {
+        mockMvc.perform(post("/api/chatbot/reply")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"campaignName\": \"lodging_request\", \"seniorId\": 1}"))
+                .andExpect(status().isBadRequest());
+
+        verify(replyService, never()).replyMessage(anyString(), anyLong(), any(), any(), anyString());
+    }
+}
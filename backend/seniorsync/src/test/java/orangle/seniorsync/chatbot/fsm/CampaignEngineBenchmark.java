@@ -0,0 +1,120 @@
+package orangle.seniorsync.chatbot.fsm;
+
+import orangle.seniorsync.chatbot.model.FsmTransition;
+import orangle.seniorsync.chatbot.repository.FsmCampaignVersionRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Throughput benchmark comparing {@link CampaignEngine#fire} with the per-message Spring StateMachine that ReplyService
+ * used before: get a machine from the campaign's factory, restore the state, start, send the event and stop.
+ * <p>
+ * Not a unit test (surefire does not pick it up). Both sides run the same five-transition campaign with a guard and an
+ * action on every transition; each round walks it from INIT to the end. The first {@code warmup} rounds are not
+ * measured. Run after {@code mvn test-compile} with the test classpath, e.g.
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) orangle.seniorsync.chatbot.fsm.CampaignEngineBenchmark [rounds] [warmup]
+ * </pre>
+ * where {@code cp.txt} comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+public class CampaignEngineBenchmark {
+    private static final String CAMPAIGN = "requestCreation";
+    private static final List<FsmTransition> ROWS = List.of(
+            CampaignEngineTest.row("START", "INIT", "ASK_TYPE", "textGuard", "captureAction"),
+            CampaignEngineTest.row("TEXT", "ASK_TYPE", "ASK_TITLE", "textGuard", "captureAction"),
+            CampaignEngineTest.row("TEXT", "ASK_TITLE", "ASK_DESCRIPTION", "textGuard", "captureAction"),
+            CampaignEngineTest.row("TEXT", "ASK_DESCRIPTION", "ASK_PRIORITY", "textGuard", "captureAction"),
+            CampaignEngineTest.row("TEXT", "ASK_PRIORITY", "CONFIRM", "textGuard", "captureAction"));
+
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int warmup = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+
+        Guard<String, String> guard = context -> context.getMessageHeader("text") != null;
+        // Like the capture actions: only the event, the headers and the extended state are used
+        Action<String, String> action = context ->
+                context.getExtendedState().getVariables().put(context.getEvent(), context.getMessageHeader("text"));
+        Map<String, Object> beans = Map.of("textGuard", guard, "captureAction", action);
+
+        System.out.printf("%d rounds of %d transitions, %d warm-up rounds%n", rounds, ROWS.size(), warmup);
+        System.out.printf("%-22s %14s %12s%n", "mode", "transitions/s", "us each");
+        report("per-message machine", stateMachineRounds(beans, warmup), stateMachineRounds(beans, rounds), rounds);
+        report("compiled table", engineRounds(beans, warmup), engineRounds(beans, rounds), rounds);
+    }
+
+    private static long stateMachineRounds(Map<String, Object> beans, int rounds) {
+        StateMachineFactory<String, String> factory = CampaignEngineTest.stateMachineFactory(ROWS, beans::get);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            Map<Object, Object> extendedState = new HashMap<>();
+            String state = CampaignTransitionTable.INITIAL_STATE;
+            for (FsmTransition row : ROWS) {
+                StateMachine<String, String> machine = factory.getStateMachine(UUID.randomUUID().toString());
+                DefaultExtendedState restored = new DefaultExtendedState(extendedState);
+                String current = state;
+                machine.getStateMachineAccessor().doWithAllRegions(access -> access.resetStateMachineReactively(
+                        new DefaultStateMachineContext<>(current, null, null, restored)).block());
+                machine.startReactively().block();
+                machine.sendEvent(Mono.just(MessageBuilder.withPayload(row.getTrigger()).setHeader("text", "reply").build()))
+                        .blockLast();
+                state = machine.getState().getId();
+                extendedState = machine.getExtendedState().getVariables();
+                machine.stopReactively().block();
+            }
+            requireEnd(state);
+        }
+        return System.nanoTime() - start;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long engineRounds(Map<String, Object> beans, int rounds) {
+        FsmCampaignVersionRepository versionRepo = mock(FsmCampaignVersionRepository.class);
+        ApplicationContext ctx = mock(ApplicationContext.class);
+        when(versionRepo.findTransitions(CAMPAIGN, 1)).thenReturn(ROWS);
+        when(ctx.containsBean(anyString())).thenAnswer(invocation -> beans.containsKey(invocation.<String>getArgument(0)));
+        when(ctx.getBean(anyString(), any(Class.class))).thenAnswer(invocation -> beans.get(invocation.<String>getArgument(0)));
+        CampaignEngine engine = new CampaignEngine(versionRepo, ctx, Duration.ofHours(1));
+
+        Map<String, Object> headers = Map.of("text", "reply");
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            Map<Object, Object> extendedState = new HashMap<>();
+            String state = CampaignTransitionTable.INITIAL_STATE;
+            for (FsmTransition row : ROWS) {
+                state = engine.fire(CAMPAIGN, 1, state, row.getTrigger(), extendedState, headers).targetState();
+            }
+            requireEnd(state);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void requireEnd(String state) {
+        if (!"CONFIRM".equals(state)) {
+            throw new IllegalStateException("Round ended in " + state + " instead of CONFIRM");
+        }
+    }
+
+    private static void report(String mode, long warmupNanos, long nanos, int rounds) {
+        long transitions = (long) rounds * ROWS.size();
+        System.out.printf("%-22s %14.0f %12.2f   (warm-up took %d ms)%n",
+                mode, transitions / (nanos / 1e9), nanos / 1e3 / transitions, warmupNanos / 1_000_000);
+    }
+}
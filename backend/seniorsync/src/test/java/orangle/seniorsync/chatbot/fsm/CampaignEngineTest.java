@@ -0,0 +1,291 @@
+package orangle.seniorsync.chatbot.fsm;
+
+import orangle.seniorsync.chatbot.fsm.common.action.FsmErrorHandlingAction;
+import orangle.seniorsync.chatbot.model.FsmTransition;
+import orangle.seniorsync.chatbot.repository.FsmCampaignVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.config.StateMachineBuilder;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.guard.Guard;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires the same events on {@link CampaignEngine} and on a Spring StateMachine built from the same rows, the way the
+ * per-message machines were built before, and checks both end in the same state.
+ */
+@ExtendWith(MockitoExtension.class)
+class CampaignEngineTest {
+    private static final String CAMPAIGN = "requestCreation";
+
+    @Mock
+    private FsmCampaignVersionRepository versionRepo;
+    @Mock
+    private ApplicationContext ctx;
+
+    private final Map<String, Object> beans = new HashMap<>();
+    private final List<FsmTransition> rows = List.of(
+            row("START", "INIT", "ASK_TITLE", null, "captureStart"),
+            row("TEXT", "ASK_TITLE", "ASK_DESCRIPTION", "titleGuard", "captureTitle"),
+            row("TEXT", "ASK_DESCRIPTION", "DONE", null, "failingAction"));
+    private CampaignEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        Guard<String, String> titleGuard = context -> !"".equals(context.getMessageHeader("text"));
+        Action<String, String> captureStart = context -> context.getExtendedState().getVariables().put("started", true);
+        Action<String, String> captureTitle = context ->
+                context.getExtendedState().getVariables().put("title", context.getMessageHeader("text"));
+        Action<String, String> failingAction = context -> {
+            throw new IllegalStateException("draft could not be saved");
+        };
+        beans.put("titleGuard", titleGuard);
+        beans.put("captureStart", captureStart);
+        beans.put("captureTitle", captureTitle);
+        beans.put("failingAction", failingAction);
+
+        lenient().when(ctx.containsBean(anyString())).thenAnswer(invocation -> beans.containsKey(invocation.<String>getArgument(0)));
+        lenient().when(ctx.getBean(anyString(), ArgumentMatchers.<Class<Object>>any()))
+                .thenAnswer(invocation -> beans.get(invocation.<String>getArgument(0)));
+        lenient().when(versionRepo.findTransitions(CAMPAIGN, 1)).thenReturn(rows);
+        engine = new CampaignEngine(versionRepo, ctx, Duration.ofHours(1));
+    }
+
+    @Test
+    void acceptedEventMovesToTheTargetAndRunsTheAction() {
+        Map<Object, Object> extendedState = new HashMap<>();
+
+        CampaignTransitionResult result = engine.fire(CAMPAIGN, 1, "ASK_TITLE", "TEXT", extendedState, Map.of("text", "Ride"));
+
+        assertThat(result).isEqualTo(CampaignTransitionResult.accepted("ASK_TITLE", "ASK_DESCRIPTION"));
+        assertThat(extendedState).containsEntry("title", "Ride");
+        assertMachineAgrees("ASK_TITLE", "TEXT", Map.of("text", "Ride"), result);
+    }
+
+    @Test
+    void guardDenialLeavesTheStateAndSkipsTheAction() {
+        Map<Object, Object> extendedState = new HashMap<>();
+
+        CampaignTransitionResult result = engine.fire(CAMPAIGN, 1, "ASK_TITLE", "TEXT", extendedState, Map.of("text", ""));
+
+        assertThat(result).isEqualTo(CampaignTransitionResult.denied("ASK_TITLE"));
+        assertThat(extendedState).doesNotContainKey("title");
+        assertMachineAgrees("ASK_TITLE", "TEXT", Map.of("text", ""), result);
+    }
+
+    @Test
+    void failingGuardDeniesTheEvent() {
+        beans.put("titleGuard", (Guard<String, String>) context -> {
+            throw new IllegalStateException("guard broke");
+        });
+
+        CampaignTransitionResult result = engine.fire(CAMPAIGN, 1, "ASK_TITLE", "TEXT", new HashMap<>(), Map.of("text", "Ride"));
+
+        assertThat(result.accepted()).isFalse();
+        assertMachineAgrees("ASK_TITLE", "TEXT", Map.of("text", "Ride"), result);
+    }
+
+    @Test
+    void failingActionDeniesTheEventAndLeavesTheState() {
+        CampaignTransitionResult result = engine.fire(CAMPAIGN, 1, "ASK_DESCRIPTION", "TEXT", new HashMap<>(), Map.of("text", "To the clinic"));
+
+        assertThat(result).isEqualTo(CampaignTransitionResult.denied("ASK_DESCRIPTION"));
+        assertMachineAgrees("ASK_DESCRIPTION", "TEXT", Map.of("text", "To the clinic"), result);
+    }
+
+    @Test
+    void unknownEventIsDenied() {
+        CampaignTransitionResult result = engine.fire(CAMPAIGN, 1, "ASK_TITLE", "NO_SUCH_EVENT", new HashMap<>(), Map.of());
+
+        assertThat(result).isEqualTo(CampaignTransitionResult.denied("ASK_TITLE"));
+        assertMachineAgrees("ASK_TITLE", "NO_SUCH_EVENT", Map.of(), result);
+    }
+
+    @Test
+    void eventNotAcceptedInTheCurrentStateIsDenied() {
+        CampaignTransitionResult result = engine.fire(CAMPAIGN, 1, "INIT", "TEXT", new HashMap<>(), Map.of("text", "Ride"));
+
+        assertThat(result).isEqualTo(CampaignTransitionResult.denied("INIT"));
+        assertMachineAgrees("INIT", "TEXT", Map.of("text", "Ride"), result);
+    }
+
+    @Test
+    void transitionsWithoutGuardOrActionBeanAreAlwaysTaken() {
+        beans.remove("captureStart");
+
+        CampaignTransitionResult result = engine.fire(CAMPAIGN, 1, "INIT", "START", new HashMap<>(), Map.of());
+
+        assertThat(result).isEqualTo(CampaignTransitionResult.accepted("INIT", "ASK_TITLE"));
+        assertMachineAgrees("INIT", "START", Map.of(), result);
+    }
+
+    @Test
+    void currentVersionIsPublishedOnFirstUseOnly() {
+        when(versionRepo.publish(CAMPAIGN)).thenReturn(Optional.of(new FsmCampaignVersionRepository.PublishedVersion(1, "f1")));
+
+        assertThat(engine.currentVersion(CAMPAIGN)).isEqualTo(1);
+        assertThat(engine.currentVersion(CAMPAIGN)).isEqualTo(1);
+
+        verify(versionRepo, times(1)).publish(CAMPAIGN);
+    }
+
+    @Test
+    void campaignWithoutTransitionsIsUnknown() {
+        when(versionRepo.publish("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> engine.currentVersion("missing"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown campaign: missing");
+    }
+
+    @Test
+    void changedCampaignIsCompiledBeforeItBecomesCurrentWhilePinnedConversationsKeepTheirVersion() {
+        when(versionRepo.publish(CAMPAIGN)).thenReturn(
+                Optional.of(new FsmCampaignVersionRepository.PublishedVersion(1, "f1")),
+                Optional.of(new FsmCampaignVersionRepository.PublishedVersion(2, "f2")));
+        // Version 2 sends a confirmed title straight to the end
+        when(versionRepo.findTransitions(CAMPAIGN, 2)).thenReturn(List.of(
+                row("START", "INIT", "ASK_TITLE", null, null),
+                row("TEXT", "ASK_TITLE", "DONE", null, null)));
+        assertThat(engine.currentVersion(CAMPAIGN)).isEqualTo(1);
+
+        when(versionRepo.findTransitionFingerprints()).thenReturn(Map.of(CAMPAIGN, "f1"));
+        engine.refreshIfChanged();
+        verify(versionRepo, times(1)).publish(CAMPAIGN); // Unchanged, nothing published
+
+        when(versionRepo.findTransitionFingerprints()).thenReturn(Map.of(CAMPAIGN, "f2"));
+        engine.refreshIfChanged();
+
+        verify(versionRepo).findTransitions(CAMPAIGN, 2); // Compiled during the refresh, not by a turn
+        assertThat(engine.currentVersion(CAMPAIGN)).isEqualTo(2);
+        assertThat(engine.fire(CAMPAIGN, 2, "ASK_TITLE", "TEXT", new HashMap<>(), Map.of("text", "Ride")).targetState())
+                .isEqualTo("DONE");
+        assertThat(engine.fire(CAMPAIGN, 1, "ASK_TITLE", "TEXT", new HashMap<>(), Map.of("text", "Ride")).targetState())
+                .isEqualTo("ASK_DESCRIPTION");
+    }
+
+    @Test
+    void failedRefreshKeepsTheCurrentVersion() {
+        when(versionRepo.publish(CAMPAIGN)).thenReturn(Optional.of(new FsmCampaignVersionRepository.PublishedVersion(1, "f1")));
+        engine.currentVersion(CAMPAIGN);
+        when(versionRepo.findTransitionFingerprints()).thenThrow(new IllegalStateException("database down"));
+
+        engine.refreshIfChanged();
+
+        assertThat(engine.currentVersion(CAMPAIGN)).isEqualTo(1);
+    }
+
+    @Test
+    void idleTablesOfEarlierVersionsAreEvictedAndCompiledAgainWhenNeeded() {
+        engine = new CampaignEngine(versionRepo, ctx, Duration.ZERO);
+        when(versionRepo.publish(CAMPAIGN)).thenReturn(Optional.of(new FsmCampaignVersionRepository.PublishedVersion(2, "f2")));
+        when(versionRepo.findTransitions(CAMPAIGN, 2)).thenReturn(rows);
+        engine.currentVersion(CAMPAIGN);
+        engine.fire(CAMPAIGN, 1, "INIT", "START", new HashMap<>(), Map.of()); // A conversation pinned to version 1
+        engine.fire(CAMPAIGN, 2, "INIT", "START", new HashMap<>(), Map.of());
+        assertThat(engine.loadedTableCount()).isEqualTo(2);
+
+        engine.evictIdleTables();
+
+        assertThat(engine.loadedTableCount()).isEqualTo(1); // The current version stays
+        assertThat(engine.fire(CAMPAIGN, 1, "INIT", "START", new HashMap<>(), Map.of()).accepted()).isTrue();
+        verify(versionRepo, times(2)).findTransitions(CAMPAIGN, 1);
+        verify(versionRepo, times(1)).findTransitions(CAMPAIGN, 2);
+    }
+
+    private void assertMachineAgrees(String state, String event, Map<String, Object> headers, CampaignTransitionResult engineResult) {
+        StateMachine<String, String> machine = stateMachineFactory(rows, this::bean).getStateMachine();
+        machine.getStateMachineAccessor().doWithAllRegions(access -> access.resetStateMachineReactively(
+                new DefaultStateMachineContext<>(state, null, null, new DefaultExtendedState())).block());
+        machine.startReactively().block();
+
+        machine.sendEvent(Mono.just(MessageBuilder.withPayload(event).copyHeaders(headers).build())).blockLast();
+
+        // The machine's result type is not compared: it reports a guard-rejected event as ACCEPTED while staying put,
+        // which ReplyService treated as a failed turn all the same
+        assertThat(machine.getState().getId()).as("state machine state").isEqualTo(engineResult.targetState());
+        machine.stopReactively().block();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T bean(String name) {
+        return (T) beans.get(name);
+    }
+
+    /**
+     * Builds a factory for machines like the per-message machines {@link CampaignEngine} replaced.
+     */
+    static StateMachineFactory<String, String> stateMachineFactory(List<FsmTransition> rows, Function<String, Object> beans) {
+        try {
+            Set<String> states = new HashSet<>();
+            rows.forEach(row -> {
+                states.add(row.getSourceState());
+                states.add(row.getDestState());
+            });
+            StateMachineBuilder.Builder<String, String> builder = StateMachineBuilder.builder();
+            builder.configureStates().withStates().initial(CampaignTransitionTable.INITIAL_STATE).states(states);
+            var transitions = builder.configureTransitions();
+            for (FsmTransition row : rows) {
+                Object guard = row.getGuardName() != null ? beans.apply(row.getGuardName()) : null;
+                Object action = row.getActionName() != null ? beans.apply(row.getActionName()) : null;
+                transitions.withExternal()
+                        .source(row.getSourceState())
+                        .target(row.getDestState())
+                        .event(row.getTrigger())
+                        .guard(guard != null ? castGuard(guard) : context -> true)
+                        .action(action != null ? castAction(action) : context -> {}, new FsmErrorHandlingAction());
+            }
+            return builder.createFactory();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Guard<String, String> castGuard(Object guard) {
+        return (Guard<String, String>) guard;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Action<String, String> castAction(Object action) {
+        return (Action<String, String>) action;
+    }
+
+    static FsmTransition row(String trigger, String source, String dest, String guard, String action) {
+        FsmTransition row = new FsmTransition();
+        row.setCampaignName(CAMPAIGN);
+        row.setTrigger(trigger);
+        row.setSourceState(source);
+        row.setDestState(dest);
+        row.setGuardName(guard);
+        row.setActionName(action);
+        return row;
+    }
+}
@@ -0,0 +1,31 @@
+package orangle.seniorsync.chatbot.fsm.requestcreation.action;
+
+import orangle.seniorsync.chatbot.fsm.requestcreation.util.DraftVariables;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestDraftRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AutoRestartActionTest {
+
+    @Mock
+    private SeniorRequestDraftRepository seniorRequestDraftRepository;
+
+    @Test
+    void restartDeletesTheDraftRowOfALegacyConversation() {
+        Map<Object, Object> variables = new HashMap<>(Map.of(DraftVariables.LEGACY_DRAFT_ID, 5, "finalRequestId", 42));
+
+        new AutoRestartAction(seniorRequestDraftRepository).execute(FinalizeRequestActionTest.context(variables));
+
+        verify(seniorRequestDraftRepository).deleteById(5L);
+        assertThat(variables).isEmpty();
+    }
+}
@@ -0,0 +1,42 @@
+package orangle.seniorsync.chatbot.fsm.requestcreation.action;
+
+import orangle.seniorsync.chatbot.fsm.requestcreation.util.DraftVariables;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestDraftRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CreateDraftRequestActionTest {
+
+    @Mock
+    private SeniorRequestDraftRepository seniorRequestDraftRepository;
+
+    @Test
+    void startingOverDeletesTheDraftRowOfALegacyConversation() {
+        Map<Object, Object> variables = new HashMap<>(Map.of(DraftVariables.LEGACY_DRAFT_ID, 5, DraftVariables.TITLE, "Ride"));
+
+        new CreateDraftRequestAction(seniorRequestDraftRepository).execute(FinalizeRequestActionTest.context(variables));
+
+        verify(seniorRequestDraftRepository).deleteById(5L);
+        assertThat(variables).isEmpty();
+    }
+
+    @Test
+    void conversationsWithoutADraftRowTouchNoTable() {
+        Map<Object, Object> variables = new HashMap<>(Map.of(DraftVariables.TITLE, "Ride"));
+
+        new CreateDraftRequestAction(seniorRequestDraftRepository).execute(FinalizeRequestActionTest.context(variables));
+
+        verifyNoInteractions(seniorRequestDraftRepository);
+        assertThat(variables).isEmpty();
+    }
+}
@@ -0,0 +1,129 @@
+package orangle.seniorsync.chatbot.fsm.requestcreation.action;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import orangle.seniorsync.chatbot.fsm.requestcreation.util.DraftVariables;
+import orangle.seniorsync.crm.requestmanagement.dto.CreateSeniorRequestDto;
+import orangle.seniorsync.crm.requestmanagement.dto.SeniorRequestDto;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequestDraft;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestDraftRepository;
+import orangle.seniorsync.crm.requestmanagement.service.IRequestManagementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FinalizeRequestActionTest {
+
+    @Mock
+    private SeniorRequestDraftRepository seniorRequestDraftRepository;
+    @Mock
+    private IRequestManagementService requestManagementService;
+
+    private FinalizeRequestAction action;
+
+    @BeforeEach
+    void setUp() {
+        action = new FinalizeRequestAction(seniorRequestDraftRepository, requestManagementService);
+        lenient().when(requestManagementService.createRequest(any())).thenReturn(created(42L));
+    }
+
+    @Test
+    void createsTheRequestFromTheExtendedStateAndClearsTheDraft() {
+        Map<Object, Object> variables = new HashMap<>(Map.of(
+                DraftVariables.REQUEST_TYPE_ID, 2L,
+                DraftVariables.TITLE, "Ride",
+                DraftVariables.DESCRIPTION, "To the clinic",
+                DraftVariables.PRIORITY, (short) 3));
+
+        action.execute(context(variables));
+
+        verify(requestManagementService).createRequest(new CreateSeniorRequestDto(1L, 2L, "Ride", "To the clinic", (short) 3, null));
+        assertThat(variables).containsOnlyKeys("finalRequestId");
+        verifyNoInteractions(seniorRequestDraftRepository);
+    }
+
+    @Test
+    void draftSurvivesTheJsonbRoundTripOfTheExtendedState() throws Exception {
+        Map<Object, Object> captured = new HashMap<>(Map.of(
+                DraftVariables.REQUEST_TYPE_ID, 2L,
+                DraftVariables.TITLE, "Ride",
+                DraftVariables.DESCRIPTION, "To the clinic",
+                DraftVariables.PRIORITY, (short) 3));
+        // Stored as JSONB between turns, small Long and Short values come back as Integer
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<Object, Object> restored = objectMapper.readValue(objectMapper.writeValueAsString(captured), new TypeReference<>() {});
+        assertThat(restored.get(DraftVariables.REQUEST_TYPE_ID)).isInstanceOf(Integer.class);
+        assertThat(restored.get(DraftVariables.PRIORITY)).isInstanceOf(Integer.class);
+
+        action.execute(context(restored));
+
+        verify(requestManagementService).createRequest(new CreateSeniorRequestDto(1L, 2L, "Ride", "To the clinic", (short) 3, null));
+    }
+
+    @Test
+    void midFlowLegacyConversationFillsMissingAnswersFromItsDraftRowAndDeletesIt() {
+        SeniorRequestDraft legacyDraft = new SeniorRequestDraft();
+        legacyDraft.setId(5L);
+        legacyDraft.setRequestTypeId(2L);
+        legacyDraft.setTitle("Old title");
+        legacyDraft.setDescription("To the clinic");
+        legacyDraft.setPriority((short) 1);
+        when(seniorRequestDraftRepository.findById(5L)).thenReturn(Optional.of(legacyDraft));
+        // Started before the change with a draft row, answered the later steps after it
+        Map<Object, Object> variables = new HashMap<>(Map.of(
+                DraftVariables.LEGACY_DRAFT_ID, 5, // Integer after the JSONB round trip
+                DraftVariables.TITLE, "Ride",
+                DraftVariables.PRIORITY, 3));
+
+        action.execute(context(variables));
+
+        verify(requestManagementService).createRequest(new CreateSeniorRequestDto(1L, 2L, "Ride", "To the clinic", (short) 3, null));
+        verify(seniorRequestDraftRepository).delete(legacyDraft);
+        assertThat(variables).containsOnlyKeys("finalRequestId");
+    }
+
+    @Test
+    void missingAnswerFailsWithoutCreatingTheRequest() {
+        Map<Object, Object> variables = new HashMap<>(Map.of(
+                DraftVariables.REQUEST_TYPE_ID, 2L,
+                DraftVariables.TITLE, "Ride",
+                DraftVariables.PRIORITY, (short) 3));
+
+        assertThatThrownBy(() -> action.execute(context(variables)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Description is required");
+        verify(requestManagementService, never()).createRequest(any());
+    }
+
+    static StateContext<String, String> context(Map<Object, Object> variables) {
+        Message<String> message = MessageBuilder.withPayload("CONFIRM").setHeader("seniorId", 1L).setHeader("text", "").build();
+        return new DefaultStateContext<>(StateContext.Stage.TRANSITION, message, message.getHeaders(),
+                new DefaultExtendedState(variables), null, null, null, null, null);
+    }
+
+    private static SeniorRequestDto created(Long id) {
+        return new SeniorRequestDto(id, 1L, null, 2L, "Ride", "To the clinic", (short) 3, null, null, null, null,
+                null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,97 @@
+package orangle.seniorsync.chatbot.repository;
+
+import orangle.seniorsync.chatbot.model.Conversation;
+import orangle.seniorsync.chatbot.model.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the turn lookup on the configured database, inside a test transaction that is rolled back afterwards.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ExtendWith(OutputCaptureExtension.class)
+class ConversationRepositoryTest {
+    private static final String CAMPAIGN = "repository_test";
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void turnLookupLocksTheConversationAndFindsTheStoredReplyInOneStatement(CapturedOutput output) {
+        Conversation conversation = conversation();
+        long replyId = message(conversation.getId(), "OUT", "c-1");
+        message(conversation.getId(), "IN", "c-1");
+        int statementsBefore = statements(output);
+
+        ConversationRepository.LockedConversation locked = conversationRepository.findForTurn(CAMPAIGN, -1L, "c-1").orElseThrow();
+
+        assertThat(locked.conversation().getId()).isEqualTo(conversation.getId());
+        assertThat(locked.previousReplyId()).isEqualTo(replyId);
+        assertThat(statements(output) - statementsBefore).isEqualTo(1);
+        assertThat(output.getOut().substring(output.getOut().lastIndexOf("Hibernate:"))).containsIgnoringCase("for no key update");
+    }
+
+    @Test
+    void newClientMessageIdHasNoStoredReply() {
+        Conversation conversation = conversation();
+        message(conversation.getId(), "OUT", "c-1");
+
+        assertThat(conversationRepository.findForTurn(CAMPAIGN, -1L, "c-2").orElseThrow().previousReplyId()).isNull();
+        assertThat(conversationRepository.findForTurn(CAMPAIGN, -1L, null).orElseThrow().previousReplyId()).isNull();
+    }
+
+    @Test
+    void lockedConversationIsManaged() {
+        Conversation conversation = conversation();
+
+        Conversation locked = conversationRepository.findForTurn(CAMPAIGN, -1L, null).orElseThrow().conversation();
+        locked.setCurrentState("ASK_TYPE");
+        conversationRepository.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT current_state FROM senior_sync.conversations WHERE id = ?",
+                String.class, conversation.getId())).isEqualTo("ASK_TYPE");
+    }
+
+    @Test
+    void missingConversationIsEmpty() {
+        assertThat(conversationRepository.findForTurn(CAMPAIGN, -2L, "c-1")).isEmpty();
+    }
+
+    private Conversation conversation() {
+        return conversationRepository.saveAndFlush(Conversation.builder()
+                .seniorId(-1L)
+                .campaignName(CAMPAIGN)
+                .currentState("INIT")
+                .extendedState(new HashMap<>())
+                .build());
+    }
+
+    private long message(long conversationId, String direction, String clientMessageId) {
+        return messageRepository.insertAll(List.of(Message.builder()
+                .conversationId(conversationId)
+                .direction(direction)
+                .content("Hello")
+                .clientMessageId(clientMessageId)
+                .build())).getFirst().getId();
+    }
+
+    private static int statements(CapturedOutput output) {
+        return output.getOut().split("Hibernate:", -1).length - 1;
+    }
+}
@@ -0,0 +1,94 @@
+package orangle.seniorsync.chatbot.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs V202610181750 against seeded duplicate conversations on the configured database. The schema is put back into
+ * its pre-migration shape inside the test transaction, which is rolled back afterwards.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ConversationUniquenessMigrationTest {
+    private static final Path MIGRATION =
+            Path.of("../database/migrations/V202610181750__make_conversations_unique_per_campaign_and_senior.sql");
+    private static final String CAMPAIGN = "migration_test";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void restorePreMigrationSchema() {
+        jdbcTemplate.execute("""
+                ALTER TABLE senior_sync.conversations DROP CONSTRAINT IF EXISTS uq_conversations_campaign_name_senior_id;
+                CREATE INDEX idx_conversations_campaign_name_senior_id ON senior_sync.conversations(campaign_name, senior_id);
+                DROP TRIGGER IF EXISTS messages_updated_at ON senior_sync.messages;
+                CREATE TRIGGER messages_updated_at BEFORE UPDATE ON senior_sync.messages
+                    FOR EACH ROW EXECUTE FUNCTION set_updated_at();
+                """);
+    }
+
+    @Test
+    void duplicateConversationsAreMergedIntoTheNewest() throws IOException {
+        long oldest = conversation(-1L);
+        long older = conversation(-1L);
+        long newest = conversation(-1L);
+        long otherSenior = conversation(-2L);
+        long oldestIn = message(oldest, "IN", "c-1");
+        long oldestOut = message(oldest, "OUT", "c-1");
+        long olderIn = message(older, "IN", "c-1");
+        long newestIn = message(newest, "IN", "c-2");
+        long otherIn = message(otherSenior, "IN", "c-1");
+
+        jdbcTemplate.execute(Files.readString(MIGRATION));
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT id FROM senior_sync.conversations WHERE campaign_name = ? ORDER BY id", Long.class, CAMPAIGN))
+                .containsExactly(newest, otherSenior);
+        assertThat(messages(newest)).containsExactly(
+                Map.of("id", oldestIn, "client_message_id", "-"),
+                Map.of("id", oldestOut, "client_message_id", "-"),
+                Map.of("id", olderIn, "client_message_id", "-"),
+                Map.of("id", newestIn, "client_message_id", "c-2"));
+        assertThat(messages(otherSenior)).containsExactly(Map.of("id", otherIn, "client_message_id", "c-1"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conname = 'uq_conversations_campaign_name_senior_id'", Long.class))
+                .isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_trigger WHERE tgname = 'messages_updated_at'", Long.class))
+                .isZero();
+    }
+
+    private long conversation(long seniorId) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO senior_sync.conversations (senior_id, campaign_name, current_state)
+                VALUES (?, ?, 'INIT') RETURNING id
+                """, Long.class, seniorId, CAMPAIGN);
+    }
+
+    private long message(long conversationId, String direction, String clientMessageId) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO senior_sync.messages (conversation_id, direction, content, client_message_id)
+                VALUES (?, ?, 'Hello', ?) RETURNING id
+                """, Long.class, conversationId, direction, clientMessageId);
+    }
+
+    private List<Map<String, Object>> messages(long conversationId) {
+        return jdbcTemplate.queryForList("""
+                SELECT id, COALESCE(client_message_id, '-') AS client_message_id
+                FROM senior_sync.messages WHERE conversation_id = ? ORDER BY id
+                """, conversationId);
+    }
+}
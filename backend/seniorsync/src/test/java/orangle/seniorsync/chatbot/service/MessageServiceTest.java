@@ -0,0 +1,113 @@
+package orangle.seniorsync.chatbot.service;
+
+import orangle.seniorsync.chatbot.dto.MessageDto;
+import orangle.seniorsync.chatbot.dto.MessageHistoryPageDto;
+import orangle.seniorsync.chatbot.mapper.ConversationMapper;
+import orangle.seniorsync.chatbot.mapper.MessageMapperImpl;
+import orangle.seniorsync.chatbot.model.Message;
+import orangle.seniorsync.chatbot.repository.ConversationRepository;
+import orangle.seniorsync.chatbot.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MessageServiceTest {
+    private static final String CAMPAIGN = "lodging_request";
+
+    @Mock
+    private MessageRepository messageRepository;
+    @Mock
+    private ConversationRepository conversationRepository;
+    @Mock
+    private ConversationMapper conversationMapper;
+
+    private MessageService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MessageService(messageRepository, conversationRepository, conversationMapper, new MessageMapperImpl());
+    }
+
+    @Test
+    void firstPageStartsAtTheNewestMessage() {
+        when(messageRepository.findHistoryPage(1L, CAMPAIGN, Long.MAX_VALUE, PageRequest.of(0, 4))).thenReturn(messages(10, 9, 8));
+
+        MessageHistoryPageDto page = service.getMessageHistory(1L, CAMPAIGN, null, 3);
+
+        assertThat(page.messages()).extracting(MessageDto::id).containsExactly(10L, 9L, 8L);
+    }
+
+    @Test
+    void extraRowMeansThereIsAnOlderPageStartingBelowTheLastMessageShown() {
+        when(messageRepository.findHistoryPage(1L, CAMPAIGN, 11L, PageRequest.of(0, 4))).thenReturn(messages(10, 9, 8, 7));
+
+        MessageHistoryPageDto page = service.getMessageHistory(1L, CAMPAIGN, 11L, 3);
+
+        assertThat(page.messages()).extracting(MessageDto::id).containsExactly(10L, 9L, 8L);
+        assertThat(page.hasMore()).isTrue();
+        assertThat(page.nextBefore()).isEqualTo(8L);
+    }
+
+    @Test
+    void pageThatExactlyReachesTheOldestMessageHasNoMore() {
+        when(messageRepository.findHistoryPage(1L, CAMPAIGN, 8L, PageRequest.of(0, 4))).thenReturn(messages(7, 6, 5));
+
+        MessageHistoryPageDto page = service.getMessageHistory(1L, CAMPAIGN, 8L, 3);
+
+        assertThat(page.messages()).hasSize(3);
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextBefore()).isNull();
+    }
+
+    @Test
+    void pagePastTheOldestMessageIsEmpty() {
+        when(messageRepository.findHistoryPage(1L, CAMPAIGN, 5L, PageRequest.of(0, 4))).thenReturn(List.of());
+
+        MessageHistoryPageDto page = service.getMessageHistory(1L, CAMPAIGN, 5L, 3);
+
+        assertThat(page.messages()).isEmpty();
+        assertThat(page.hasMore()).isFalse();
+        assertThat(page.nextBefore()).isNull();
+    }
+
+    @Test
+    void limitIsClampedToTheAllowedRange() {
+        when(messageRepository.findHistoryPage(eq(1L), eq(CAMPAIGN), anyLong(), any())).thenReturn(List.of());
+
+        service.getMessageHistory(1L, CAMPAIGN, null, 0);
+        service.getMessageHistory(1L, CAMPAIGN, null, 1000);
+
+        verify(messageRepository).findHistoryPage(1L, CAMPAIGN, Long.MAX_VALUE, PageRequest.of(0, 2));
+        verify(messageRepository).findHistoryPage(1L, CAMPAIGN, Long.MAX_VALUE, PageRequest.of(0, 201));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void fullHistoryIsCappedAtTheNewestPageInChronologicalOrder() {
+        when(messageRepository.findHistoryPage(1L, CAMPAIGN, Long.MAX_VALUE, PageRequest.of(0, 201))).thenReturn(messages(10, 9, 8));
+
+        List<MessageDto> messages = service.getMessagesBySeniorAndCampaign(1L, CAMPAIGN);
+
+        assertThat(messages).extracting(MessageDto::id).containsExactly(8L, 9L, 10L);
+    }
+
+    private static List<Message> messages(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(id -> Message.builder().id(id).conversationId(7L).direction("OUT").content("Message " + id).build())
+                .toList();
+    }
+}
@@ -0,0 +1,169 @@
+package orangle.seniorsync.chatbot.service;
+
+import orangle.seniorsync.chatbot.dto.ReplyDto;
+import orangle.seniorsync.chatbot.dto.ReplyOption;
+import orangle.seniorsync.chatbot.fsm.CampaignTransitionResult;
+import orangle.seniorsync.chatbot.fsm.ICampaignEngine;
+import orangle.seniorsync.chatbot.model.Conversation;
+import orangle.seniorsync.chatbot.model.Message;
+import orangle.seniorsync.chatbot.repository.ConversationRepository;
+import orangle.seniorsync.chatbot.repository.ConversationRepository.LockedConversation;
+import orangle.seniorsync.chatbot.repository.FsmStateReplyOptionsRepository;
+import orangle.seniorsync.chatbot.repository.MessageRepository;
+import orangle.seniorsync.chatbot.service.replyoption.IReplyOptionStrategyContext;
+import orangle.seniorsync.chatbot.service.replyprompt.IReplyPromptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplyServiceTest {
+    private static final String CAMPAIGN = "lodging_request";
+
+    @Mock
+    private ICampaignEngine campaignEngine;
+    @Mock
+    private ConversationRepository conversationRepository;
+    @Mock
+    private MessageRepository messageRepository;
+    @Mock
+    private FsmStateReplyOptionsRepository fsmStateReplyOptionsRepository;
+    @Mock
+    private IReplyOptionStrategyContext replyOptionStrategyContext;
+    @Mock
+    private IReplyPromptService replyPromptService;
+
+    private ReplyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReplyService(campaignEngine, conversationRepository, messageRepository,
+                fsmStateReplyOptionsRepository, replyOptionStrategyContext, replyPromptService);
+        lenient().when(replyPromptService.getReplyPrompt(eq(CAMPAIGN), anyString(), anyString()))
+                .thenAnswer(invocation -> "Prompt of " + invocation.getArgument(1));
+        lenient().when(replyOptionStrategyContext.getReplyOptionContents(eq(CAMPAIGN), anyString(), anyString())).thenReturn(List.of());
+        lenient().when(messageRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            for (int i = 0; i < messages.size(); i++) {
+                messages.get(i).setId(100L + i);
+            }
+            return messages;
+        });
+        lenient().when(campaignEngine.currentVersion(CAMPAIGN)).thenReturn(1);
+    }
+
+    @Test
+    void firstTurnInsertsTheConversationAndContinuesWithTheStoredRow() {
+        Conversation inserted = conversation("INIT");
+        when(conversationRepository.findForTurn(CAMPAIGN, 1L, null))
+                .thenReturn(Optional.empty(), Optional.of(new LockedConversation(inserted, null)));
+        when(campaignEngine.fire(eq(CAMPAIGN), eq(1), eq("INIT"), eq("FIRSTCHATOPEN"), anyMap(), anyMap()))
+                .thenReturn(CampaignTransitionResult.accepted("INIT", "ASK_TYPE"));
+
+        ReplyDto reply = service.replyMessage(CAMPAIGN, 1L, new ReplyOption("", "", "FIRSTCHATOPEN"), null, "en");
+
+        verify(conversationRepository).insertIfAbsent(CAMPAIGN, 1L, "INIT");
+        verify(conversationRepository, never()).save(any());
+        assertThat(inserted.getCurrentState()).isEqualTo("ASK_TYPE");
+        assertThat(reply.prompt()).isEqualTo("Prompt of ASK_TYPE");
+    }
+
+    @Test
+    void existingConversationIsNotInsertedAgain() {
+        when(conversationRepository.findForTurn(CAMPAIGN, 1L, "c-1")).thenReturn(locked(conversation("ASK_TYPE")));
+        when(campaignEngine.fire(eq(CAMPAIGN), eq(1), eq("ASK_TYPE"), eq("TYPE"), anyMap(), anyMap()))
+                .thenReturn(CampaignTransitionResult.accepted("ASK_TYPE", "ASK_TITLE"));
+
+        service.replyMessage(CAMPAIGN, 1L, new ReplyOption("Lodging", "1", "TYPE"), "c-1", "en");
+
+        verify(conversationRepository, never()).insertIfAbsent(anyString(), any(), anyString());
+    }
+
+    @Test
+    void repeatedClientMessageIdReplaysTheStoredReply() {
+        when(conversationRepository.findForTurn(CAMPAIGN, 1L, "c-1"))
+                .thenReturn(Optional.of(new LockedConversation(conversation("ASK_TITLE"), 55L)));
+        Message stored = Message.builder().id(55L).conversationId(7L).direction("OUT").content("Prompt of ASK_TITLE").build();
+        when(messageRepository.findById(55L)).thenReturn(Optional.of(stored));
+
+        ReplyDto reply = service.replyMessage(CAMPAIGN, 1L, new ReplyOption("Lodging", "1", "TYPE"), "c-1", "en");
+
+        assertThat(reply.message_id()).isEqualTo(55L);
+        assertThat(reply.prompt()).isEqualTo("Prompt of ASK_TITLE");
+        verifyNoInteractions(campaignEngine);
+        verify(messageRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void midFlowConversationStaysOnItsPinnedVersion() {
+        Conversation conversation = conversation("ASK_TITLE");
+        when(conversationRepository.findForTurn(CAMPAIGN, 1L, null)).thenReturn(locked(conversation));
+        lenient().when(campaignEngine.currentVersion(CAMPAIGN)).thenReturn(2);
+        when(campaignEngine.fire(eq(CAMPAIGN), eq(1), eq("ASK_TITLE"), eq("TEXT"), anyMap(), anyMap()))
+                .thenReturn(CampaignTransitionResult.accepted("ASK_TITLE", "ASK_DESCRIPTION"));
+
+        service.replyMessage(CAMPAIGN, 1L, new ReplyOption("Ride", "Ride", "TEXT"), null, "en");
+
+        assertThat(conversation.getCampaignVersion()).isEqualTo(1);
+        verify(campaignEngine, never()).currentVersion(anyString());
+    }
+
+    @Test
+    void flowStartingOverMovesToTheCurrentVersion() {
+        Conversation conversation = conversation("COMPLETED");
+        when(conversationRepository.findForTurn(CAMPAIGN, 1L, null)).thenReturn(locked(conversation));
+        when(campaignEngine.currentVersion(CAMPAIGN)).thenReturn(2);
+        when(campaignEngine.fire(eq(CAMPAIGN), eq(2), eq("COMPLETED"), eq("RESTART"), anyMap(), anyMap()))
+                .thenReturn(CampaignTransitionResult.accepted("COMPLETED", "ASK_TYPE"));
+
+        service.replyMessage(CAMPAIGN, 1L, new ReplyOption("Again", "again", "RESTART"), null, "en");
+
+        assertThat(conversation.getCampaignVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void newClientMessageIdRunsTheTurnWithoutReadingStoredMessages() {
+        when(conversationRepository.findForTurn(CAMPAIGN, 1L, "c-2")).thenReturn(locked(conversation("ASK_TYPE")));
+        when(campaignEngine.fire(eq(CAMPAIGN), eq(1), eq("ASK_TYPE"), eq("TYPE"), anyMap(), anyMap()))
+                .thenReturn(CampaignTransitionResult.accepted("ASK_TYPE", "ASK_TITLE"));
+
+        ReplyDto reply = service.replyMessage(CAMPAIGN, 1L, new ReplyOption("Lodging", "1", "TYPE"), "c-2", "en");
+
+        assertThat(reply.message_id()).isEqualTo(101L);
+        verify(messageRepository, never()).findById(any());
+    }
+
+    private static Optional<LockedConversation> locked(Conversation conversation) {
+        return Optional.of(new LockedConversation(conversation, null));
+    }
+
+    private static Conversation conversation(String state) {
+        return Conversation.builder()
+                .id(7L)
+                .campaignName(CAMPAIGN)
+                .seniorId(1L)
+                .currentState(state)
+                .campaignVersion(1)
+                .extendedState(new HashMap<>(Map.of()))
+                .build();
+    }
+}
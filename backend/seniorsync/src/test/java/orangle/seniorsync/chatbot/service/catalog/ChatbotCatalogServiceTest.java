@@ -0,0 +1,66 @@
+package orangle.seniorsync.chatbot.service.catalog;
+
+import orangle.seniorsync.chatbot.repository.FsmStatePromptRepository;
+import orangle.seniorsync.chatbot.repository.FsmStateReplyOptionsRepository;
+import orangle.seniorsync.crm.requestmanagement.repository.RequestTypeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatbotCatalogServiceTest {
+
+    @Mock
+    private FsmStatePromptRepository fsmStatePromptRepository;
+    @Mock
+    private FsmStateReplyOptionsRepository fsmStateReplyOptionsRepository;
+    @Mock
+    private RequestTypeRepository requestTypeRepository;
+
+    @Test
+    void reloadsOnlyWhenFingerprintChanges() {
+        when(fsmStatePromptRepository.findCatalogFingerprint()).thenReturn("v1", "v1", "v2", "v2");
+        when(fsmStatePromptRepository.findAll()).thenReturn(List.of());
+        when(fsmStateReplyOptionsRepository.findAll(any(Sort.class))).thenReturn(List.of());
+        when(requestTypeRepository.findAll()).thenReturn(List.of());
+        ChatbotCatalogService service = new ChatbotCatalogService(fsmStatePromptRepository, fsmStateReplyOptionsRepository, requestTypeRepository);
+
+        service.reloadIfChanged(); // Fingerprint unchanged
+        assertThat(service.getCatalog().getFingerprint()).isEqualTo("v1");
+        service.reloadIfChanged(); // Fingerprint changed, reload reads it again
+
+        assertThat(service.getCatalog().getFingerprint()).isEqualTo("v2");
+        verify(fsmStatePromptRepository, times(2)).findAll();
+    }
+
+    @Test
+    void concurrentReloadsFromVirtualThreadsAllComplete() {
+        when(fsmStatePromptRepository.findCatalogFingerprint()).thenReturn("v1");
+        when(fsmStatePromptRepository.findAll()).thenReturn(List.of());
+        when(fsmStateReplyOptionsRepository.findAll(any(Sort.class))).thenReturn(List.of());
+        when(requestTypeRepository.findAll()).thenReturn(List.of());
+        ChatbotCatalogService service = new ChatbotCatalogService(fsmStatePromptRepository, fsmStateReplyOptionsRepository, requestTypeRepository);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<?>[] reloads = new CompletableFuture<?>[20];
+            for (int i = 0; i < reloads.length; i++) {
+                reloads[i] = CompletableFuture.runAsync(service::reload, executor);
+            }
+            CompletableFuture.allOf(reloads).join();
+        }
+
+        verify(fsmStatePromptRepository, times(21)).findAll();
+    }
+}
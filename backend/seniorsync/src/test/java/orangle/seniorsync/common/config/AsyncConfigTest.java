@@ -0,0 +1,142 @@
+package orangle.seniorsync.common.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AsyncConfigTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AsyncConfig asyncConfig = new AsyncConfig(meterRegistry, mock(BeanFactory.class), false);
+    private final List<ThreadPoolTaskExecutor> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    @Test
+    void quartzJobsGetTheirOwnBoundedPool() {
+        AsyncTaskExecutor quartz = asyncConfig.quartzExecutor(2, 4, 100);
+        AsyncTaskExecutor background = asyncConfig.backgroundExecutor(2, 4, 1000);
+
+        assertThat(quartz).isNotSameAs(background).isInstanceOf(ThreadPoolTaskExecutor.class);
+        ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) quartz;
+        assertThat(pool.getCorePoolSize()).isEqualTo(2);
+        assertThat(pool.getMaxPoolSize()).isEqualTo(4);
+        assertThat(pool.getQueueCapacity()).isEqualTo(100);
+        assertThat(pool.getThreadNamePrefix()).isEqualTo("quartz-");
+    }
+
+    @Test
+    void llmExecutorRejectsOverflowAndCountsIt() {
+        ThreadPoolTaskExecutor llm = start(asyncConfig.llmExecutor(1, 1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        llm.execute(blocking); // Runs
+        llm.execute(blocking); // Queued
+        assertThatThrownBy(() -> llm.execute(blocking)).isInstanceOf(TaskRejectedException.class);
+        release.countDown();
+
+        assertThat(meterRegistry.get("seniorsync.executor.rejected").tag("executor", AsyncConfig.LLM_EXECUTOR).counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void quartzExecutorRunsOverflowOnTheSubmittingThread() {
+        ThreadPoolTaskExecutor quartz = start(asyncConfig.quartzExecutor(1, 1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocking = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        List<String> overflowThread = new ArrayList<>();
+
+        quartz.execute(blocking);
+        quartz.execute(blocking);
+        quartz.execute(() -> overflowThread.add(Thread.currentThread().getName()));
+        release.countDown();
+
+        assertThat(overflowThread).containsExactly(Thread.currentThread().getName());
+        assertThat(meterRegistry.get("seniorsync.executor.rejected").tag("executor", AsyncConfig.QUARTZ_EXECUTOR).counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void virtualThreadModeKeepsTheBulkheadLimitAndPublishesMetrics() throws Exception {
+        AsyncConfig virtualConfig = new AsyncConfig(meterRegistry, mock(BeanFactory.class), true);
+        AsyncTaskExecutor background = virtualConfig.backgroundExecutor(2, 2, 1000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            // Submitters beyond the limit block, so submit from separate threads like concurrent callers would
+            futures.add(CompletableFuture.runAsync(() -> background.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            })));
+        }
+        await(() -> meterRegistry.get("executor.active").tag("name", AsyncConfig.BACKGROUND_EXECUTOR).gauge().value() == 2.0);
+        Thread.sleep(100); // Give a broken limit the chance to start more tasks
+
+        assertThat(running.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("executor.pool.max").tag("name", AsyncConfig.BACKGROUND_EXECUTOR).gauge().value())
+                .isEqualTo(2.0);
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        await(() -> meterRegistry.get("executor.active").tag("name", AsyncConfig.BACKGROUND_EXECUTOR).gauge().value() == 0.0);
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private ThreadPoolTaskExecutor start(AsyncTaskExecutor executor) {
+        ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) executor;
+        pool.initialize();
+        started.add(pool);
+        return pool;
+    }
+}
@@ -0,0 +1,94 @@
+package orangle.seniorsync.common.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Load harness comparing the platform-thread and virtual-thread modes of the {@link AsyncConfig} executors.
+ * <p>
+ * Not a unit test (surefire does not pick it up). Each task blocks for {@code io-ms} like an LLM or JDBC call; the
+ * harness reports throughput, submit-to-completion latency and the peak number of live platform threads. Run after
+ * {@code mvn test-compile} with the test classpath, e.g.
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) orangle.seniorsync.common.config.ExecutorLoadHarness [tasks] [io-ms] [limit...]
+ * </pre>
+ * where {@code cp.txt} comes from {@code mvn dependency:build-classpath -Dmdep.outputFile=cp.txt}.
+ */
+public class ExecutorLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long ioMillis = args.length > 1 ? Long.parseLong(args[1]) : 50;
+        int[] limits = args.length > 2
+                ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10, 100, 500};
+
+        System.out.printf("%d tasks blocking %d ms each%n", tasks, ioMillis);
+        System.out.printf("%-9s %6s %10s %9s %9s %16s%n", "mode", "limit", "tasks/s", "p50 ms", "p99 ms", "peak OS threads");
+        for (int limit : limits) {
+            for (boolean virtual : new boolean[]{false, true}) {
+                run(virtual, limit, tasks, ioMillis);
+            }
+        }
+    }
+
+    private static void run(boolean virtual, int limit, int tasks, long ioMillis) throws Exception {
+        AsyncConfig asyncConfig = new AsyncConfig(new SimpleMeterRegistry(), mock(BeanFactory.class), virtual);
+        // Queue everything in pooled mode so both modes complete the same work; the limit is what differs
+        AsyncTaskExecutor executor = asyncConfig.backgroundExecutor(limit, limit, tasks);
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.initialize();
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        long[] latencies = new long[tasks];
+        CompletableFuture<?>[] done = new CompletableFuture<?>[tasks];
+        // Concurrent submitters, like request threads: with a virtual-thread executor they block on the limit
+        ExecutorService submitters = Executors.newVirtualThreadPerTaskExecutor();
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            done[i] = CompletableFuture.runAsync(() -> {
+                long submittedAt = System.nanoTime();
+                executor.submitCompletable(() -> {
+                    sleep(ioMillis);
+                    latencies[index] = System.nanoTime() - submittedAt;
+                }).join();
+            }, submitters);
+        }
+        CompletableFuture.allOf(done).join();
+        long elapsed = System.nanoTime() - start;
+        submitters.close();
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("%-9s %6d %10.0f %9.0f %9.0f %16d%n",
+                virtual ? "virtual" : "platform", limit,
+                tasks / (elapsed / 1e9),
+                latencies[tasks / 2] / 1e6,
+                latencies[(int) (tasks * 0.99)] / 1e6,
+                threads.getPeakThreadCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
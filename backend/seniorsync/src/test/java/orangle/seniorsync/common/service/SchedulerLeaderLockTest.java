@@ -0,0 +1,69 @@
+package orangle.seniorsync.common.service;
+
+import orangle.seniorsync.common.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLeaderLockTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(300);
+
+    @Mock
+    private SchedulerLeaseRepository repository;
+
+    @Test
+    void leadsWhileTheLeaseIsHeld() {
+        SchedulerLeaderLock lock = new SchedulerLeaderLock(repository, true, LEASE);
+        when(repository.tryAcquire(eq("pass"), anyString(), eq(LEASE))).thenReturn(true, true, false);
+
+        assertThat(lock.tryAcquire("pass")).isTrue();
+        assertThat(lock.tryAcquire("pass")).isTrue();
+        assertThat(lock.tryAcquire("pass")).isFalse();
+    }
+
+    @Test
+    void databaseErrorMeansNotLeader() {
+        SchedulerLeaderLock lock = new SchedulerLeaderLock(repository, true, LEASE);
+        when(repository.tryAcquire(any(), any(), any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertThat(lock.tryAcquire("pass")).isFalse();
+    }
+
+    @Test
+    void disabledLockAlwaysLeads() {
+        SchedulerLeaderLock lock = new SchedulerLeaderLock(repository, false, LEASE);
+
+        assertThat(lock.tryAcquire("pass")).isTrue();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shutdownReleasesOnlyHeldLeases() {
+        SchedulerLeaderLock lock = new SchedulerLeaderLock(repository, true, LEASE);
+        when(repository.tryAcquire(eq("held"), anyString(), eq(LEASE))).thenReturn(true);
+        when(repository.tryAcquire(eq("lost"), anyString(), eq(LEASE))).thenReturn(true, false);
+        lock.tryAcquire("held");
+        lock.tryAcquire("lost");
+        lock.tryAcquire("lost");
+
+        lock.releaseAll();
+
+        verify(repository).release(eq("held"), anyString());
+        verify(repository, never()).release(eq("lost"), anyString());
+    }
+}
@@ -0,0 +1,80 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncConcurrencyLimiterTest {
+
+    private static final Duration LONG_WAIT = Duration.ofSeconds(30);
+
+    @Test
+    void queuedCallStartsWhenARunningCallCompletes() {
+        AsyncConcurrencyLimiter limiter = new AsyncConcurrencyLimiter(1, 10);
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<String> firstResult = limiter.submit(() -> {
+            started.incrementAndGet();
+            return first;
+        }, LONG_WAIT);
+        CompletableFuture<String> secondResult = limiter.submit(() -> {
+            started.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        }, LONG_WAIT);
+
+        assertThat(started.get()).isEqualTo(1);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+        first.complete("first");
+
+        assertThat(firstResult.join()).isEqualTo("first");
+        assertThat(secondResult.join()).isEqualTo("second");
+        assertThat(limiter.getQueued()).isZero();
+    }
+
+    @Test
+    void callsBeyondTheQueueLimitFailStraightAway() {
+        AsyncConcurrencyLimiter limiter = new AsyncConcurrencyLimiter(1, 1);
+        limiter.submit(CompletableFuture::new, LONG_WAIT); // Running
+        limiter.submit(CompletableFuture::new, LONG_WAIT); // Queued
+
+        CompletableFuture<Object> overflow = limiter.submit(CompletableFuture::new, LONG_WAIT);
+
+        assertThat(overflow).isCompletedExceptionally();
+        assertThatThrownBy(overflow::join)
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(LLMUnavailableException.class,
+                        e -> assertThat(e.getMessage()).contains("Too many pending"));
+    }
+
+    @Test
+    void queuedCallGivesUpAfterMaxWaitAndNeverStarts() {
+        AsyncConcurrencyLimiter limiter = new AsyncConcurrencyLimiter(1, 10);
+        CompletableFuture<String> blocking = new CompletableFuture<>();
+        limiter.submit(() -> blocking, LONG_WAIT);
+        AtomicInteger lateStarts = new AtomicInteger();
+
+        CompletableFuture<String> waiting = limiter.submit(() -> {
+            lateStarts.incrementAndGet();
+            return CompletableFuture.completedFuture("late");
+        }, Duration.ofMillis(50));
+
+        assertThatThrownBy(waiting::join)
+                .cause()
+                .isInstanceOf(LLMUnavailableException.class)
+                .hasMessageContaining("No free LLM slot");
+        assertThat(limiter.getQueued()).isZero();
+
+        // The abandoned entry must not start, nor keep the permit from the next call
+        blocking.complete("done");
+        assertThat(limiter.submit(() -> CompletableFuture.completedFuture("next"), LONG_WAIT).join()).isEqualTo("next");
+        assertThat(lateStarts.get()).isZero();
+    }
+}
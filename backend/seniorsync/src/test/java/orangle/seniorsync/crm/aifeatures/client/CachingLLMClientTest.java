@@ -0,0 +1,133 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
+import orangle.seniorsync.crm.aifeatures.repository.LLMResponseCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingLLMClientTest {
+
+    @Mock
+    private LLMClient delegate;
+    @Mock
+    private LLMResponseCacheRepository cacheRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LLMProperties properties;
+    private CachingLLMClient client;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LLMProperties();
+        properties.getApi().setModel("default-model");
+        properties.setFeatures(Map.of(LLMFeature.SPAM_DETECTION.getConfigKey(), new LLMProperties.Feature()));
+        client = new CachingLLMClient(delegate, properties, cacheRepository, Runnable::run, meterRegistry);
+    }
+
+    @Test
+    void cacheKeyDependsOnEveryInputThatShapesTheResponse() {
+        String key = CachingLLMClient.cacheKey("model", 512, "system", "prompt");
+
+        assertThat(CachingLLMClient.cacheKey("model", 512, "system", "prompt")).isEqualTo(key);
+        assertThat(CachingLLMClient.cacheKey("model", 4096, "system", "prompt")).isNotEqualTo(key);
+        assertThat(CachingLLMClient.cacheKey("other", 512, "system", "prompt")).isNotEqualTo(key);
+        assertThat(CachingLLMClient.cacheKey("model", 512, "system2", "prompt")).isNotEqualTo(key);
+        assertThat(CachingLLMClient.cacheKey("model", 512, "system", "prompt2")).isNotEqualTo(key);
+        // Boundaries are separated, moving text between parts changes the key
+        assertThat(CachingLLMClient.cacheKey("model", 512, "systemp", "rompt")).isNotEqualTo(key);
+    }
+
+    @Test
+    void repeatedPromptIsServedFromMemory() {
+        when(delegate.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("verdict")));
+
+        assertThat(client.callLLMAsync(request("same")).join().text()).isEqualTo("verdict");
+        assertThat(client.callLLMAsync(request("same")).join().text()).isEqualTo("verdict");
+
+        verify(delegate, times(1)).callLLMAsync(any());
+    }
+
+    @Test
+    void hitsAndMissesAreTaggedLikeTheCallMetrics() {
+        when(delegate.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("verdict")));
+
+        client.callLLMAsync(request("same")).join();
+        client.callLLMAsync(request("same")).join();
+
+        assertThat(meterRegistry.counter("seniorsync.llm.cache.misses", "feature", "spam-detection").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("seniorsync.llm.cache.hits", "feature", "spam-detection", "tier", "memory").count()).isEqualTo(1);
+    }
+
+    @Test
+    void raisingMaxTokensMissesEntriesCachedUnderTheLowerLimit() {
+        when(delegate.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("verdict")));
+        client.callLLMAsync(request("same")).join();
+
+        properties.getFeature(LLMFeature.SPAM_DETECTION).setMaxTokens(4096);
+        client.callLLMAsync(request("same")).join();
+
+        verify(delegate, times(2)).callLLMAsync(any());
+    }
+
+    @Test
+    void concurrentIdenticalPromptsShareOneCall() {
+        CompletableFuture<LLMResponse> running = new CompletableFuture<>();
+        when(delegate.callLLMAsync(any())).thenReturn(running);
+
+        CompletableFuture<LLMResponse> first = client.callLLMAsync(request("same"));
+        CompletableFuture<LLMResponse> second = client.callLLMAsync(request("same"));
+        running.complete(response("verdict"));
+
+        assertThat(first.join().text()).isEqualTo("verdict");
+        assertThat(second.join().text()).isEqualTo("verdict");
+        verify(delegate, times(1)).callLLMAsync(any());
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        when(delegate.callLLMAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new LLMClientException("boom")))
+                .thenReturn(CompletableFuture.completedFuture(response("verdict")));
+
+        assertThatThrownBy(() -> client.callLLMAsync(request("same")).join()).hasCauseInstanceOf(LLMClientException.class);
+        assertThat(client.callLLMAsync(request("same")).join().text()).isEqualTo("verdict");
+        verifyNoInteractions(cacheRepository); // Persistent tier is off by default
+    }
+
+    @Test
+    void fallbackResponsesAreNotCachedUnderThePrimaryModel() {
+        when(delegate.callLLMAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(response("from fallback").asFallback()))
+                .thenReturn(CompletableFuture.completedFuture(response("from primary")));
+
+        assertThat(client.callLLMAsync(request("same")).join().text()).isEqualTo("from fallback");
+        assertThat(client.callLLMAsync(request("same")).join().text()).isEqualTo("from primary");
+        assertThat(client.callLLMAsync(request("same")).join().text()).isEqualTo("from primary");
+
+        verify(delegate, times(2)).callLLMAsync(any());
+    }
+
+    private static LLMRequest request(String prompt) {
+        return LLMRequest.builder().feature(LLMFeature.SPAM_DETECTION).systemPrompt("system").prompt(prompt).build();
+    }
+
+    private static LLMResponse response(String text) {
+        return new LLMResponse(text, "default-model", 10, 5, 0, 0);
+    }
+}
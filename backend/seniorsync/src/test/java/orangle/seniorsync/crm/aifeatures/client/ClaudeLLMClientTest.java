@@ -0,0 +1,142 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the real HTTP client against {@link StubAnthropicServer}.
+ */
+class ClaudeLLMClientTest {
+
+    // Comfortably above the 1024-token minimum at about 4 characters per token, below Haiku's 2048
+    private static final String LONG_INSTRUCTIONS = "static instructions ".repeat(250);
+
+    private StubAnthropicServer stub;
+    private LLMProperties properties;
+    private ClaudeLLMClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubAnthropicServer();
+        properties = new LLMProperties();
+        properties.getApi().setKey("test-key");
+        properties.getApi().setBaseUrl(stub.url());
+        properties.getApi().setModel("default-model");
+        LLMProperties.Feature spam = new LLMProperties.Feature();
+        spam.setModel("spam-model");
+        spam.setMaxTokens(256);
+        spam.setTimeout(Duration.ofSeconds(5));
+        properties.setFeatures(Map.of(LLMFeature.SPAM_DETECTION.getConfigKey(), spam));
+        client = new ClaudeLLMClient(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void sendsFeatureModelAndCacheableSystemPromptAndParsesUsage() {
+        stub.respondWith(body -> StubAnthropicServer.Reply.text("{\"isSpam\": false}"));
+
+        LLMResponse response = client.callLLMAsync(request(LONG_INSTRUCTIONS)).join();
+
+        assertThat(response.text()).isEqualTo("{\"isSpam\": false}");
+        assertThat(response.inputTokens()).isEqualTo(11);
+        assertThat(response.outputTokens()).isEqualTo(7);
+        assertThat(response.cacheCreationInputTokens()).isEqualTo(3);
+        assertThat(response.cacheReadInputTokens()).isEqualTo(5);
+
+        StubAnthropicServer.Received received = stub.received().get(0);
+        JsonNode body = received.body();
+        assertThat(body.path("model").asText()).isEqualTo("spam-model");
+        assertThat(body.path("max_tokens").asInt()).isEqualTo(256);
+        assertThat(body.path("system").path(0).path("text").asText()).isEqualTo(LONG_INSTRUCTIONS);
+        assertThat(body.path("system").path(0).path("cache_control").path("type").asText()).isEqualTo("ephemeral");
+        assertThat(body.path("messages").path(0).path("content").asText()).isEqualTo("classify this");
+        assertThat(received.headers()).containsEntry("x-api-key", "test-key").containsEntry("anthropic-version", "2023-06-01");
+    }
+
+    @Test
+    void omitsCacheControlWhenPromptCachingIsOff() {
+        properties.getApi().setPromptCaching(false);
+
+        client.callLLMAsync(request(LONG_INSTRUCTIONS)).join();
+
+        assertThat(stub.received().get(0).body().path("system").path(0).has("cache_control")).isFalse();
+    }
+
+    @Test
+    void omitsCacheControlForPromptsBelowTheMinimumCacheableLength() {
+        client.callLLMAsync(request("static instructions")).join();
+
+        JsonNode system = stub.received().get(0).body().path("system").path(0);
+        assertThat(system.path("text").asText()).isEqualTo("static instructions");
+        assertThat(system.has("cache_control")).isFalse();
+    }
+
+    @Test
+    void haikuModelsNeedTheLongerMinimum() {
+        properties.getFeature(LLMFeature.SPAM_DETECTION).setModel("claude-3-5-haiku-latest");
+
+        client.callLLMAsync(request(LONG_INSTRUCTIONS)).join();
+        client.callLLMAsync(request(LONG_INSTRUCTIONS.repeat(2))).join();
+
+        assertThat(stub.received().get(0).body().path("system").path(0).has("cache_control")).isFalse();
+        assertThat(stub.received().get(1).body().path("system").path(0).has("cache_control")).isTrue();
+    }
+
+    @Test
+    void requestModelAndTimeoutOverrideTheFeatureSettings() {
+        stub.respondWith(body -> StubAnthropicServer.Reply.text("late", 1_000));
+        LLMRequest fallback = request().toBuilder().model("fallback-model").timeout(Duration.ofMillis(200)).build();
+
+        assertThatThrownBy(() -> client.callLLM(fallback))
+                .isInstanceOf(LLMClientException.class)
+                .hasMessageContaining("timed out");
+        assertThat(stub.received().get(0).body().path("model").asText()).isEqualTo("fallback-model");
+    }
+
+    @Test
+    void nonSuccessStatusFailsWithClientException() {
+        stub.respondWith(body -> StubAnthropicServer.Reply.status(529));
+
+        assertThatThrownBy(() -> client.callLLM(request()))
+                .isInstanceOf(LLMClientException.class)
+                .hasMessageContaining("529");
+    }
+
+    @Test
+    void slowResponseFailsWithTimeout() {
+        properties.getFeature(LLMFeature.SPAM_DETECTION).setTimeout(Duration.ofMillis(200));
+        stub.respondWith(body -> StubAnthropicServer.Reply.text("late", 2_000));
+
+        assertThatThrownBy(() -> client.callLLM(request()))
+                .isInstanceOf(LLMClientException.class)
+                .hasMessageContaining("timed out");
+    }
+
+    private static LLMRequest request() {
+        return request("static instructions");
+    }
+
+    private static LLMRequest request(String systemPrompt) {
+        return LLMRequest.builder()
+                .feature(LLMFeature.SPAM_DETECTION)
+                .systemPrompt(systemPrompt)
+                .prompt("classify this")
+                .centerId(1L)
+                .build();
+    }
+}
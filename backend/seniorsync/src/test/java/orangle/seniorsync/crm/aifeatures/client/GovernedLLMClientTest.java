@@ -0,0 +1,120 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GovernedLLMClientTest {
+
+    @Mock
+    private LLMClient delegate;
+
+    private LLMProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LLMProperties();
+        properties.getApi().setModel("default-model");
+        LLMProperties.Feature spam = new LLMProperties.Feature();
+        spam.setModel("primary-model");
+        spam.setTimeout(Duration.ofSeconds(20));
+        spam.setLatencyBudget(Duration.ofSeconds(5));
+        spam.setFallbackModel("fallback-model");
+        properties.setFeatures(Map.of(LLMFeature.SPAM_DETECTION.getConfigKey(), spam));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void primaryGetsTheLatencyBudgetAndATimeoutIsRetriedOnTheFallbackModel() {
+        when(delegate.callLLMAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(timeout()))
+                .thenReturn(CompletableFuture.completedFuture(response()));
+
+        LLMResponse response = client().callLLMAsync(request()).join();
+
+        assertThat(response.fallback()).isTrue();
+        ArgumentCaptor<LLMRequest> sent = ArgumentCaptor.forClass(LLMRequest.class);
+        verify(delegate, times(2)).callLLMAsync(sent.capture());
+        List<LLMRequest> calls = sent.getAllValues();
+        assertThat(calls.get(0).model()).isEqualTo("primary-model");
+        assertThat(calls.get(0).timeout()).isEqualTo(Duration.ofSeconds(5));
+        assertThat(calls.get(1).model()).isEqualTo("fallback-model");
+        assertThat(calls.get(1).timeout()).isNull(); // The feature's full timeout
+        // Both attempts are seen by the governor
+        assertThat(meterRegistry.counter("seniorsync.llm.calls", "feature", "spam-detection", "outcome", "failure").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("seniorsync.llm.calls", "feature", "spam-detection", "outcome", "success").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("seniorsync.llm.fallbacks", "feature", "spam-detection").count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        when(delegate.callLLMAsync(any())).thenReturn(CompletableFuture.failedFuture(new LLMClientException("status 400")));
+
+        assertThatThrownBy(() -> client().callLLMAsync(request()).join()).hasCauseInstanceOf(LLMClientException.class);
+
+        verify(delegate, times(1)).callLLMAsync(any());
+    }
+
+    @Test
+    void fallbackCallIsRateLimitedLikeAnyOtherCall() {
+        properties.getGovernor().getRateLimit().setRequestsPerSecond(0.001);
+        properties.getGovernor().getRateLimit().setBurst(1);
+        when(delegate.callLLMAsync(any())).thenReturn(CompletableFuture.failedFuture(timeout()));
+
+        assertThatThrownBy(() -> client().callLLMAsync(request()).join())
+                .hasCauseInstanceOf(LLMUnavailableException.class);
+
+        verify(delegate, times(1)).callLLMAsync(any());
+        assertThat(meterRegistry.counter("seniorsync.llm.rejected", "feature", "spam-detection", "reason", "rate_limited").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void withoutAFallbackModelTheFeatureTimeoutApplies() {
+        properties.getFeature(LLMFeature.SPAM_DETECTION).setFallbackModel(null);
+        when(delegate.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response()));
+
+        assertThat(client().callLLMAsync(request()).join().fallback()).isFalse();
+
+        ArgumentCaptor<LLMRequest> sent = ArgumentCaptor.forClass(LLMRequest.class);
+        verify(delegate).callLLMAsync(sent.capture());
+        assertThat(sent.getValue().model()).isNull();
+        assertThat(sent.getValue().timeout()).isNull();
+    }
+
+    private GovernedLLMClient client() {
+        return new GovernedLLMClient(delegate, properties, meterRegistry);
+    }
+
+    private static LLMClientException timeout() {
+        return new LLMClientException("LLM call timed out", new HttpTimeoutException("request timed out"));
+    }
+
+    private static LLMRequest request() {
+        return LLMRequest.builder().feature(LLMFeature.SPAM_DETECTION).prompt("classify this").centerId(1L).build();
+    }
+
+    private static LLMResponse response() {
+        return new LLMResponse("verdict", "fallback-model", 10, 5, 0, 0);
+    }
+}
@@ -0,0 +1,104 @@
+package orangle.seniorsync.crm.aifeatures.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Minimal local stand-in for the Anthropic Messages API, so the real HTTP client can be exercised without network access.
+ * Every received request is recorded; the reply is produced by a function of the parsed request body.
+ */
+class StubAnthropicServer implements AutoCloseable {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private volatile Function<JsonNode, Reply> responder = body -> Reply.text("ok");
+
+    StubAnthropicServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/messages", this::handle);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/messages";
+    }
+
+    void respondWith(Function<JsonNode, Reply> responder) {
+        this.responder = responder;
+    }
+
+    List<Received> received() {
+        return received;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        JsonNode body = OBJECT_MAPPER.readTree(exchange.getRequestBody());
+        received.add(new Received(body, Map.of(
+                "x-api-key", String.valueOf(exchange.getRequestHeaders().getFirst("x-api-key")),
+                "anthropic-version", String.valueOf(exchange.getRequestHeaders().getFirst("anthropic-version")))));
+        Reply reply = responder.apply(body);
+        if (reply.delayMillis() > 0) {
+            try {
+                Thread.sleep(reply.delayMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = reply.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(reply.status(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // The client gave up (timeout) before the reply was written
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    record Received(JsonNode body, Map<String, String> headers) {
+    }
+
+    record Reply(int status, String body, long delayMillis) {
+        static Reply text(String text) {
+            return text(text, 0);
+        }
+
+        static Reply text(String text, long delayMillis) {
+            ObjectNode body = OBJECT_MAPPER.createObjectNode().put("model", "stub-model");
+            body.putArray("content").addObject().put("type", "text").put("text", text);
+            body.putObject("usage")
+                    .put("input_tokens", 11)
+                    .put("output_tokens", 7)
+                    .put("cache_creation_input_tokens", 3)
+                    .put("cache_read_input_tokens", 5);
+            return new Reply(200, body.toString(), delayMillis);
+        }
+
+        static Reply status(int status) {
+            return new Reply(status, "{\"type\":\"error\"}", 0);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package orangle.seniorsync.crm.aifeatures.config;
+
+import orangle.seniorsync.crm.aifeatures.client.LLMFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LLMPropertiesTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+            .withUserConfiguration(PropertiesConfig.class);
+
+    @Test
+    void batchFeatureIsConfiguredApartFromSingleChecks() {
+        contextRunner.withPropertyValues(
+                        "llm.features.spam-detection.timeout=20s",
+                        "llm.features.spam-detection.max-tokens=512",
+                        "llm.features.spam-detection-batch.timeout=60s",
+                        "llm.features.spam-detection-batch.max-tokens=4096",
+                        "llm.features.spam-detection-batch.batch-size=20")
+                .run(context -> {
+                    LLMProperties properties = context.getBean(LLMProperties.class);
+                    assertThat(properties.getFeature(LLMFeature.SPAM_DETECTION).getTimeout()).isEqualTo(Duration.ofSeconds(20));
+                    assertThat(properties.getFeature(LLMFeature.SPAM_DETECTION).getMaxTokens()).isEqualTo(512);
+                    assertThat(properties.getFeature(LLMFeature.SPAM_DETECTION_BATCH).getTimeout()).isEqualTo(Duration.ofSeconds(60));
+                    assertThat(properties.getFeature(LLMFeature.SPAM_DETECTION_BATCH).getMaxTokens()).isEqualTo(4096);
+                });
+    }
+
+    @Test
+    void nonPositiveBatchSizeFailsStartup() {
+        contextRunner.withPropertyValues("llm.features.spam-detection-batch.batch-size=0")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().rootCause().hasMessageContaining("batchSize"));
+    }
+
+    @Test
+    void nonPositiveMaxTokensFailsStartup() {
+        contextRunner.withPropertyValues("llm.features.spam-detection.max-tokens=-1")
+                .run(context -> assertThat(context).hasFailed());
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(LLMProperties.class)
+    static class PropertiesConfig {
+    }
+}
@@ -0,0 +1,54 @@
+package orangle.seniorsync.crm.aifeatures.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the claim statements on the configured database, inside a test transaction that is rolled back afterwards.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class LLMSingleFlightRepositoryTest {
+    private static final String FEATURE = "SPAM_DETECTION_TEST";
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LLMSingleFlightRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new LLMSingleFlightRepository(jdbcTemplate);
+    }
+
+    @Test
+    void finishedFlightBlocksClaimsOnItsContentUntilForgotten() {
+        String[] flightA = {LLMSingleFlightRepository.flightKey(FEATURE, -1L, "hash-a")};
+        assertThat(repository.claim(FEATURE, Map.of(-1L, "hash-a"), "owner-1", LEASE)).containsExactly(-1L);
+        repository.complete(flightA, "owner-1");
+
+        assertThat(repository.claim(FEATURE, Map.of(-1L, "hash-a"), "owner-2", LEASE)).isEmpty();
+        assertThat(repository.claim(FEATURE, Map.of(-1L, "hash-b"), "owner-2", LEASE)).containsExactly(-1L);
+
+        assertThat(repository.forget(flightA)).isEqualTo(1);
+        assertThat(repository.claim(FEATURE, Map.of(-1L, "hash-a"), "owner-2", LEASE)).containsExactly(-1L);
+    }
+
+    @Test
+    void runningFlightIsNotForgotten() {
+        repository.claim(FEATURE, Map.of(-1L, "hash-a"), "owner-1", LEASE);
+
+        assertThat(repository.forget(new String[]{LLMSingleFlightRepository.flightKey(FEATURE, -1L, "hash-a")})).isZero();
+        assertThat(repository.claim(FEATURE, Map.of(-1L, "hash-a"), "owner-2", LEASE)).isEmpty();
+    }
+}
@@ -0,0 +1,182 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import orangle.seniorsync.crm.aifeatures.dto.AIBatchJobDto;
+import orangle.seniorsync.crm.aifeatures.dto.BatchSpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.dto.SpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.enums.AIBatchJobStatus;
+import orangle.seniorsync.crm.aifeatures.model.AIBatchJob;
+import orangle.seniorsync.crm.aifeatures.repository.AIBatchJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AIBatchJobServiceTest {
+
+    private static final UUID JOB_ID = UUID.fromString("00000000-0000-0000-0000-000000000042");
+
+    @Mock
+    private AIBatchJobRepository jobRepository;
+    @Mock
+    private IAISpamFilterService spamFilterService;
+
+    private AIBatchJobService service;
+
+    @BeforeEach
+    void setUp() {
+        // Chunks of two, everything runs on the calling thread
+        service = new AIBatchJobService(jobRepository, spamFilterService, Runnable::run, 2, 60_000, Duration.ofSeconds(120));
+    }
+
+    @Test
+    void failedChunkIsCountedAndTheJobMovesOn() {
+        AIBatchJob job = job(AIBatchJobStatus.RUNNING, List.of(1L, 2L, 3L, 4L));
+        stubClaim(job, 0);
+        when(spamFilterService.checkBatchRequestsAsync(List.of(1L, 2L)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("LLM down")));
+        when(spamFilterService.checkBatchRequestsAsync(List.of(3L, 4L)))
+                .thenReturn(CompletableFuture.completedFuture(batch(stored(3L, true), stored(4L, false))));
+
+        service.maintainJobs();
+
+        verify(jobRepository).addProgress(eq(JOB_ID), anyString(), eq(0), eq(2), eq(0), eq(2), anyDouble());
+        verify(jobRepository).addProgress(eq(JOB_ID), anyString(), eq(2), eq(0), eq(1), eq(4), anyDouble());
+        verify(jobRepository).finish(eq(JOB_ID), anyString(), eq("COMPLETED"), eq("LLM down"), any());
+    }
+
+    @Test
+    void provisionalAndFailedVerdictsAreNotCountedAsProcessed() {
+        AIBatchJob job = job(AIBatchJobStatus.RUNNING, List.of(1L, 2L));
+        stubClaim(job, 0);
+        SpamFilterResultDto provisional = stored(1L, true);
+        provisional.setProvisional(true);
+        SpamFilterResultDto failed = stored(2L, false);
+        failed.setFailed(true);
+        when(spamFilterService.checkBatchRequestsAsync(List.of(1L, 2L)))
+                .thenReturn(CompletableFuture.completedFuture(batch(provisional, failed)));
+        job.setFailedCount(2); // As stored by addProgress
+
+        service.maintainJobs();
+
+        verify(jobRepository).addProgress(eq(JOB_ID), anyString(), eq(0), eq(2), eq(0), eq(2), anyDouble());
+        verify(jobRepository).finish(eq(JOB_ID), anyString(), eq("FAILED"), isNull(), any());
+    }
+
+    @Test
+    void takenOverJobContinuesFromItsRecordedOffset() {
+        AIBatchJob job = job(AIBatchJobStatus.RUNNING, List.of(1L, 2L, 3L, 4L));
+        stubClaim(job, 2);
+        when(spamFilterService.checkBatchRequestsAsync(List.of(3L, 4L)))
+                .thenReturn(CompletableFuture.completedFuture(batch(stored(3L, false), stored(4L, false))));
+
+        service.maintainJobs();
+
+        verify(spamFilterService, never()).checkBatchRequestsAsync(List.of(1L, 2L));
+        verify(jobRepository).addProgress(eq(JOB_ID), anyString(), eq(2), eq(0), eq(0), eq(4), anyDouble());
+    }
+
+    @Test
+    void jobHeldByAnotherInstanceIsLeftAlone() {
+        when(jobRepository.findClaimableIds()).thenReturn(List.of(JOB_ID));
+        when(jobRepository.claim(eq(JOB_ID), anyString(), any())).thenReturn(OptionalInt.empty());
+
+        service.maintainJobs();
+
+        verify(spamFilterService, never()).checkBatchRequestsAsync(any());
+        verify(jobRepository, never()).finish(any(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void losingTheLeaseStopsTheJobWithoutFinishingIt() {
+        AIBatchJob job = job(AIBatchJobStatus.RUNNING, List.of(1L, 2L, 3L, 4L));
+        when(jobRepository.findClaimableIds()).thenReturn(List.of(JOB_ID));
+        when(jobRepository.claim(eq(JOB_ID), anyString(), any())).thenReturn(OptionalInt.of(0));
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(jobRepository.addProgress(any(), anyString(), anyInt(), anyInt(), anyInt(), anyInt(), anyDouble())).thenReturn(0);
+        when(spamFilterService.checkBatchRequestsAsync(List.of(1L, 2L)))
+                .thenReturn(CompletableFuture.completedFuture(batch(stored(1L, false), stored(2L, false))));
+
+        service.maintainJobs();
+
+        verify(spamFilterService, never()).checkBatchRequestsAsync(List.of(3L, 4L));
+        verify(jobRepository, never()).finish(any(), anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void getJobReturnsOnePageOfResults() {
+        AIBatchJob job = job(AIBatchJobStatus.COMPLETED, List.of(1L, 2L, 3L, 4L, 5L));
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(spamFilterService.getStoredResults(List.of(3L, 4L))).thenReturn(List.of(stored(3L, false), stored(4L, true)));
+
+        AIBatchJobDto dto = service.getJob(JOB_ID, 1, 2).orElseThrow();
+
+        assertThat(dto.results()).extracting(SpamFilterResultDto::getRequestId).containsExactly(3L, 4L);
+        assertThat(service.getJob(JOB_ID, 9, 2).orElseThrow().results()).isEmpty();
+    }
+
+    @Test
+    void subscriberThatMissesTheFinishIsCompletedRightAway() {
+        // Active when first read, finished by the time the subscriber is registered
+        when(jobRepository.findById(JOB_ID))
+                .thenReturn(Optional.of(job(AIBatchJobStatus.RUNNING, List.of(1L))))
+                .thenReturn(Optional.of(job(AIBatchJobStatus.COMPLETED, List.of(1L))));
+
+        assertThat(service.subscribe(JOB_ID)).isPresent();
+
+        Map<?, ?> emitters = (Map<?, ?>) ReflectionTestUtils.getField(service, "emitters");
+        assertThat(emitters).isEmpty();
+    }
+
+    private void stubClaim(AIBatchJob job, int offset) {
+        when(jobRepository.findClaimableIds()).thenReturn(List.of(JOB_ID));
+        when(jobRepository.claim(eq(JOB_ID), anyString(), any())).thenReturn(OptionalInt.of(offset));
+        when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(jobRepository.addProgress(any(), anyString(), anyInt(), anyInt(), anyInt(), anyInt(), anyDouble())).thenReturn(1);
+    }
+
+    private static AIBatchJob job(AIBatchJobStatus status, List<Long> requestIds) {
+        AIBatchJob job = new AIBatchJob();
+        job.setId(JOB_ID);
+        job.setJobType(AIBatchJob.SPAM_CHECK);
+        job.setStatus(status);
+        job.setRequestIds(requestIds);
+        job.setTotalCount(requestIds.size());
+        return job;
+    }
+
+    private static BatchSpamFilterResultDto batch(SpamFilterResultDto... results) {
+        BatchSpamFilterResultDto batch = new BatchSpamFilterResultDto();
+        batch.setResults(List.of(results));
+        batch.setTotalProcessed(results.length);
+        return batch;
+    }
+
+    private static SpamFilterResultDto stored(long requestId, boolean spam) {
+        SpamFilterResultDto dto = new SpamFilterResultDto();
+        dto.setRequestId(requestId);
+        dto.setIsSpam(spam);
+        return dto;
+    }
+}
@@ -0,0 +1,247 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import orangle.seniorsync.common.service.IUserContextService;
+import orangle.seniorsync.common.service.SchedulerLeaderLock;
+import orangle.seniorsync.crm.aifeatures.client.LLMClient;
+import orangle.seniorsync.crm.aifeatures.client.LLMFeature;
+import orangle.seniorsync.crm.aifeatures.client.LLMRequest;
+import orangle.seniorsync.crm.aifeatures.client.LLMResponse;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
+import orangle.seniorsync.crm.aifeatures.enums.RankingSource;
+import orangle.seniorsync.crm.aifeatures.model.RequestDigest;
+import orangle.seniorsync.crm.aifeatures.model.RequestScore;
+import orangle.seniorsync.crm.aifeatures.model.RequestsRanking;
+import orangle.seniorsync.crm.aifeatures.repository.RequestsRankingRepository;
+import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+import orangle.seniorsync.crm.requestmanagement.event.SeniorRequestChangedEvent;
+import orangle.seniorsync.crm.requestmanagement.mapper.SeniorRequestMapper;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AIRecommendedRequestServiceTest {
+
+    @Mock
+    private SeniorRequestRepository seniorRequestRepository;
+    @Mock
+    private SeniorRequestMapper seniorRequestMapper;
+    @Mock
+    private LLMClient llmClient;
+    @Mock
+    private IUserContextService userContextService;
+    @Mock
+    private RequestsRankingRepository requestsRankingRepository;
+    @Mock
+    private RequestUrgencyScorer urgencyScorer;
+    @Mock
+    private RequestDigestCache requestDigestCache;
+    @Mock
+    private SchedulerLeaderLock leaderLock;
+
+    private AIRecommendedRequestService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AIRecommendedRequestService(seniorRequestRepository, seniorRequestMapper, llmClient, userContextService,
+                requestsRankingRepository, new LLMProperties(), Runnable::run, urgencyScorer, requestDigestCache, leaderLock,
+                500, 0, Duration.ofHours(24));
+    }
+
+    @Test
+    void followerSkipsReconciliation() {
+        when(leaderLock.tryAcquire(AIRecommendedRequestService.RANKING_LEASE)).thenReturn(false);
+
+        service.reconcileStaleScores();
+
+        verifyNoInteractions(requestsRankingRepository);
+    }
+
+    @Test
+    void followerDropsItsMarksInsteadOfScoring() {
+        when(leaderLock.tryAcquire(AIRecommendedRequestService.RANKING_LEASE)).thenReturn(false, true);
+        service.onRequestChanged(new SeniorRequestChangedEvent(request(1L), SeniorRequestChangedEvent.ChangeType.UPDATED));
+
+        service.rescoreDirtyRequests();
+        // Even once this instance leads, the dropped mark is left to the reconciliation
+        service.rescoreDirtyRequests();
+
+        verifyNoInteractions(seniorRequestRepository, urgencyScorer, llmClient);
+        verify(requestsRankingRepository, never()).upsertScores(any());
+    }
+
+    @Test
+    void leaderScoresWhatReconciliationFound() {
+        when(leaderLock.tryAcquire(AIRecommendedRequestService.RANKING_LEASE)).thenReturn(true);
+        when(requestsRankingRepository.findRequestIdsNeedingScore(86_400)).thenReturn(List.of(1L));
+        List<RequestScore> scores = List.of(new RequestScore(1L, 40, null, "{}", RankingSource.LOCAL));
+        when(urgencyScorer.scoreAll(anyCollection())).thenReturn(scores);
+
+        service.reconcileStaleScores();
+        service.rescoreDirtyRequests();
+
+        verify(seniorRequestRepository).findUrgencyViewsByIdIn(List.of(1L));
+        verify(requestsRankingRepository).upsertScores(scores);
+    }
+
+    @Test
+    void everyChunkIsStoredAsScoredWithoutMerging() {
+        service = refiningService(1);
+        stubLeaderPassFor(List.of(1L, 2L, 3L));
+        when(requestsRankingRepository.findTopScoredRequestIds(100)).thenReturn(List.of(1L, 2L, 3L));
+        when(llmClient.callLLMAsync(any())).thenAnswer(invocation -> {
+            LLMRequest sent = invocation.getArgument(0);
+            // One request per chunk; the second chunk fails
+            if (sent.prompt().contains("request 1")) {
+                return CompletableFuture.completedFuture(response("1:30"));
+            }
+            if (sent.prompt().contains("request 2")) {
+                return CompletableFuture.failedFuture(new IllegalStateException("boom"));
+            }
+            return CompletableFuture.completedFuture(response("3:90"));
+        });
+
+        service.rescoreDirtyRequests();
+
+        ArgumentCaptor<List<RequestScore>> stored = ArgumentCaptor.forClass(List.class);
+        verify(requestsRankingRepository, times(2)).upsertScores(stored.capture());
+        // Scores are absolute, so each chunk's scores are stored unchanged and request 2 keeps its local score
+        assertThat(stored.getAllValues().get(1))
+                .extracting(RequestScore::requestId, RequestScore::score)
+                .containsExactlyInAnyOrder(tuple(1L, 30), tuple(3L, 90));
+    }
+
+    @Test
+    void onlyRequestsAmongTheGlobalTopAreRefined() {
+        service = refiningService(50);
+        stubLeaderPassFor(List.of(1L, 2L));
+        // Request 2 is outranked by requests outside this pass
+        when(requestsRankingRepository.findTopScoredRequestIds(100)).thenReturn(List.of(7L, 1L, 8L));
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("1:80")));
+
+        service.rescoreDirtyRequests();
+
+        ArgumentCaptor<LLMRequest> sent = ArgumentCaptor.forClass(LLMRequest.class);
+        verify(llmClient).callLLMAsync(sent.capture());
+        assertThat(sent.getValue().prompt()).contains("request 1").doesNotContain("request 2");
+        ArgumentCaptor<List<RequestScore>> stored = ArgumentCaptor.forClass(List.class);
+        verify(requestsRankingRepository, times(2)).upsertScores(stored.capture());
+        assertThat(stored.getAllValues().get(1)).singleElement()
+                .extracting(RequestScore::requestId, RequestScore::source).containsExactly(1L, RankingSource.LLM);
+    }
+
+    @Test
+    void unusablePairsAreDroppedAndTheFirstScoreWins() {
+        service = refiningService(50);
+        stubLeaderPassFor(List.of(1L, 2L, 3L, 4L));
+        when(requestsRankingRepository.findTopScoredRequestIds(100)).thenReturn(List.of(1L, 2L, 3L, 4L));
+        // Unknown id 9, repeated id 1, malformed pair, score out of range, spaces and a trailing comma
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(
+                response("1:50, 9:70,1:80,x:1,2:500, 3 : 40 ,4:50,")));
+
+        service.rescoreDirtyRequests();
+
+        ArgumentCaptor<List<RequestScore>> stored = ArgumentCaptor.forClass(List.class);
+        verify(requestsRankingRepository, times(2)).upsertScores(stored.capture());
+        // Highest first, equal scores in response order; request 2 keeps its local score
+        assertThat(stored.getAllValues().get(1))
+                .extracting(RequestScore::requestId, RequestScore::score)
+                .containsExactly(tuple(1L, 50), tuple(4L, 50), tuple(3L, 40));
+    }
+
+    @Test
+    void readsRecomputeLocalScoresAndKeepLLMScores() {
+        SeniorRequest storedLocal = request(1L);
+        SeniorRequest refined = request(2L);
+        SeniorRequest unscored = request(3L);
+        when(userContextService.getRequestingUserCenterId()).thenReturn(1L);
+        when(seniorRequestRepository.findAll(any(Specification.class))).thenReturn(List.of(storedLocal, refined, unscored));
+        when(requestsRankingRepository.findByRequestIdIn(any())).thenReturn(List.of(
+                ranking(1L, 10, RankingSource.LOCAL), ranking(2L, 60, RankingSource.LLM)));
+        // Request 1 became urgent since its local score was stored
+        when(urgencyScorer.scoreAll(anyCollection())).thenReturn(List.of(
+                new RequestScore(1L, 90, null, "{}", RankingSource.LOCAL),
+                new RequestScore(3L, 20, null, "{}", RankingSource.LOCAL)));
+
+        service.getAllAIRecommendedRequests();
+
+        verify(seniorRequestRepository).findUrgencyViewsByIdIn(List.of(1L, 3L));
+        InOrder order = inOrder(seniorRequestMapper);
+        order.verify(seniorRequestMapper).toDto(storedLocal);
+        order.verify(seniorRequestMapper).toDto(refined);
+        order.verify(seniorRequestMapper).toDto(unscored);
+    }
+
+    private static RequestsRanking ranking(long requestId, int score, RankingSource source) {
+        RequestsRanking ranking = new RequestsRanking();
+        ranking.setRequestId(requestId);
+        ranking.setPriorityScore(score);
+        ranking.setSource(source);
+        return ranking;
+    }
+
+    private AIRecommendedRequestService refiningService(int batchSize) {
+        LLMProperties properties = new LLMProperties();
+        LLMProperties.Feature ranking = new LLMProperties.Feature();
+        ranking.setBatchSize(batchSize);
+        properties.setFeatures(Map.of(LLMFeature.REQUEST_RANKING.getConfigKey(), ranking));
+        return new AIRecommendedRequestService(seniorRequestRepository, seniorRequestMapper, llmClient, userContextService,
+                requestsRankingRepository, properties, Runnable::run, urgencyScorer, requestDigestCache, leaderLock,
+                500, 100, Duration.ofHours(24));
+    }
+
+    // Leader pass over the given requests, all of center 1, with a local score of 50 each
+    private void stubLeaderPassFor(List<Long> ids) {
+        when(leaderLock.tryAcquire(AIRecommendedRequestService.RANKING_LEASE)).thenReturn(true);
+        List<SeniorRequest> requests = ids.stream().map(AIRecommendedRequestServiceTest::request).toList();
+        requests.forEach(request -> service.onRequestChanged(
+                new SeniorRequestChangedEvent(request, SeniorRequestChangedEvent.ChangeType.UPDATED)));
+        when(urgencyScorer.scoreAll(anyCollection()))
+                .thenReturn(ids.stream().map(id -> new RequestScore(id, 50, null, "{}", RankingSource.LOCAL)).toList());
+        when(requestDigestCache.digestsFor(any())).thenAnswer(invocation -> {
+            Collection<Long> wanted = invocation.getArgument(0);
+            return requests.stream()
+                    .filter(request -> wanted.contains(request.getId()))
+                    .map(request -> new RequestDigest(request.getId(), request.getCenterId(), null, "request " + request.getId()))
+                    .toList();
+        });
+    }
+
+    private static LLMResponse response(String text) {
+        return new LLMResponse(text, "model", 100, 10, 0, 0);
+    }
+
+    private static SeniorRequest request(long id) {
+        SeniorRequest request = new SeniorRequest();
+        request.setId(id);
+        request.setStatus(RequestStatus.TODO);
+        request.setCenterId(1L);
+        return request;
+    }
+}
@@ -0,0 +1,396 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import orangle.seniorsync.crm.aifeatures.client.LLMClient;
+import orangle.seniorsync.crm.aifeatures.client.LLMFeature;
+import orangle.seniorsync.crm.aifeatures.client.LLMRequest;
+import orangle.seniorsync.crm.aifeatures.client.LLMResponse;
+import orangle.seniorsync.crm.aifeatures.client.LLMUnavailableException;
+import orangle.seniorsync.crm.aifeatures.config.LLMProperties;
+import orangle.seniorsync.crm.aifeatures.dto.BatchSpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.dto.SpamFilterResultDto;
+import orangle.seniorsync.crm.aifeatures.enums.SpamDetectionSource;
+import orangle.seniorsync.crm.aifeatures.model.SpamDetectionResult;
+import orangle.seniorsync.crm.aifeatures.repository.SpamDetectionResultRepository;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AISpamFilterServiceTest {
+
+    @Mock
+    private SeniorRequestRepository seniorRequestRepository;
+    @Mock
+    private SpamDetectionResultRepository spamDetectionResultRepository;
+    @Mock
+    private LLMClient llmClient;
+    @Mock
+    private LLMSingleFlight singleFlight;
+
+    private final Map<Long, SeniorRequest> requests = new HashMap<>();
+    private LLMProperties properties;
+    private AISpamFilterService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LLMProperties properties = new LLMProperties();
+        properties.getApi().setModel("default-model");
+        LLMProperties.Feature batch = new LLMProperties.Feature();
+        batch.setBatchSize(20);
+        properties.setFeatures(Map.of(LLMFeature.SPAM_DETECTION_BATCH.getConfigKey(), batch));
+
+        this.properties = properties;
+        service = createService(false);
+
+        lenient().when(seniorRequestRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<SeniorRequest> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                if (requests.containsKey(id)) {
+                    found.add(requests.get(id));
+                }
+            }
+            return found;
+        });
+        lenient().when(spamDetectionResultRepository.insertAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(spamDetectionResultRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(singleFlight.claim(any(), any())).thenAnswer(invocation -> ((Map<?, ?>) invocation.getArgument(1)).keySet());
+    }
+
+    @Test
+    void severalRequestsShareOneCallOnTheBatchFeature() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        addRequest(2L, "BUY CHEAP WATCHES", "Visit our store now");
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("""
+                [{"id": 1, "is_spam": false, "confidence": 0.9, "reason": "care request"},
+                 {"id": 2, "is_spam": true, "confidence": 0.95, "reason": "advertising"}]
+                """)));
+
+        BatchSpamFilterResultDto result = service.checkBatchRequestsAsync(List.of(1L, 2L)).join();
+
+        ArgumentCaptor<LLMRequest> sent = ArgumentCaptor.forClass(LLMRequest.class);
+        verify(llmClient).callLLMAsync(sent.capture());
+        assertThat(sent.getValue().feature()).isEqualTo(LLMFeature.SPAM_DETECTION_BATCH);
+        assertThat(sent.getValue().systemPrompt()).contains("JSON array");
+        assertThat(result.getTotalProcessed()).isEqualTo(2);
+        assertThat(result.getSpamDetected()).isEqualTo(1);
+    }
+
+    @Test
+    void requestsThatCannotBeCheckedAreReportedAsFailedWithTheirId() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("""
+                {"is_spam": false, "confidence": 0.9, "reason": "care request"}
+                """)));
+
+        BatchSpamFilterResultDto result = service.checkBatchRequestsAsync(List.of(1L, 99L)).join();
+
+        assertThat(result.getResults()).extracting(SpamFilterResultDto::getRequestId).containsExactly(1L, 99L);
+        assertThat(result.getResults()).extracting(SpamFilterResultDto::isFailed).containsExactly(false, true);
+        assertThat(result.getFailed()).isEqualTo(1);
+    }
+
+    @Test
+    void singleRequestUsesTheSingleCheckFeature() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("""
+                {"is_spam": false, "confidence": 0.9, "reason": "care request"}
+                """)));
+
+        assertThat(service.checkSingleRequestAsync(1L).join().getIsSpam()).isFalse();
+
+        ArgumentCaptor<LLMRequest> sent = ArgumentCaptor.forClass(LLMRequest.class);
+        verify(llmClient).callLLMAsync(sent.capture());
+        assertThat(sent.getValue().feature()).isEqualTo(LLMFeature.SPAM_DETECTION);
+        assertThat(sent.getValue().systemPrompt()).contains("JSON object").doesNotContain("JSON array");
+    }
+
+    @Test
+    void singleAndBatchInstructionsShareTheIndicatorList() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        addRequest(2L, "Groceries", "Weekly shopping help");
+        addRequest(3L, "Pharmacy", "Collect my prescription");
+        // The batch answer omits request 3, which is then checked on its own
+        when(llmClient.callLLMAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(response("""
+                        [{"id": 1, "is_spam": false, "confidence": 0.9, "reason": "ok"},
+                         {"id": 2, "is_spam": false, "confidence": 0.9, "reason": "ok"}]
+                        """)))
+                .thenReturn(CompletableFuture.completedFuture(response("""
+                        {"is_spam": false, "confidence": 0.9, "reason": "ok"}
+                        """)));
+
+        service.checkBatchRequestsAsync(List.of(1L, 2L, 3L)).join();
+
+        ArgumentCaptor<LLMRequest> sent = ArgumentCaptor.forClass(LLMRequest.class);
+        verify(llmClient, times(2)).callLLMAsync(sent.capture());
+        String batchInstructions = sent.getAllValues().get(0).systemPrompt();
+        String singleInstructions = sent.getAllValues().get(1).systemPrompt();
+        String indicators = indicatorList(singleInstructions);
+        assertThat(indicators).contains("Promotional or commercial content");
+        assertThat(indicatorList(batchInstructions)).isEqualTo(indicators);
+    }
+
+    @Test
+    void storedVerdictIsServedWithoutCallingTheLLM() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        SpamDetectionResult stored = new SpamDetectionResult();
+        stored.setRequestId(1L);
+        stored.setIsSpam(true);
+        when(spamDetectionResultRepository.findByRequestIdIn(List.of(1L))).thenReturn(List.of(stored));
+
+        assertThat(service.checkSingleRequestAsync(1L).join().getIsSpam()).isTrue();
+        verify(llmClient, times(0)).callLLMAsync(any());
+    }
+
+    @Test
+    void verdictForEarlierContentIsDiscardedAndTheRequestCheckedAgain() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        SpamDetectionResult stale = new SpamDetectionResult();
+        stale.setId(7L);
+        stale.setRequestId(1L);
+        stale.setIsSpam(true);
+        stale.setContentHash(LLMSingleFlight.contentHash("BUY CHEAP WATCHES", "Visit our store now", "3"));
+        when(spamDetectionResultRepository.findByRequestIdIn(List.of(1L))).thenReturn(List.of(stale));
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("""
+                {"is_spam": false, "confidence": 0.9, "reason": "care request"}
+                """)));
+
+        SpamFilterResultDto result = service.checkSingleRequestAsync(1L).join();
+
+        assertThat(result.getIsSpam()).isFalse();
+        verify(spamDetectionResultRepository).deleteAllByIdInBatch(List.of(7L));
+        ArgumentCaptor<SpamDetectionResult> saved = ArgumentCaptor.forClass(SpamDetectionResult.class);
+        verify(spamDetectionResultRepository).save(saved.capture());
+        assertThat(saved.getValue().getContentHash())
+                .isEqualTo(LLMSingleFlight.contentHash("Need a ride", "To the clinic on Monday", "3"));
+    }
+
+    @Test
+    void verdictForTheCurrentContentIsServedWithoutCallingTheLLM() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        SpamDetectionResult stored = new SpamDetectionResult();
+        stored.setRequestId(1L);
+        stored.setIsSpam(false);
+        stored.setContentHash(LLMSingleFlight.contentHash("Need a ride", "To the clinic on Monday", "3"));
+        when(spamDetectionResultRepository.findByRequestIdIn(List.of(1L))).thenReturn(List.of(stored));
+
+        assertThat(service.checkSingleRequestAsync(1L).join().getIsSpam()).isFalse();
+        verifyNoInteractions(llmClient);
+        verify(spamDetectionResultRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void requestStillBeingCheckedElsewhereIsAnsweredAsPendingAfterTheWait() throws Exception {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        doReturn(Set.of()).when(singleFlight).claim(any(), any());
+        when(singleFlight.getMaxWait()).thenReturn(Duration.ofMillis(50));
+        when(singleFlight.getPollInterval()).thenReturn(Duration.ofMillis(10));
+
+        SpamFilterResultDto result = service.checkSingleRequestAsync(1L).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.isPending()).isTrue();
+        assertThat(result.isProvisional()).isTrue();
+        assertThat(result.getRequestId()).isEqualTo(1L);
+        verifyNoInteractions(llmClient);
+        verify(spamDetectionResultRepository, never()).save(any());
+    }
+
+    @Test
+    void requestEditedBackToEarlierContentIsCheckedAgainRatherThanLeftPending() {
+        // Stateful stand-ins for the verdict table and the flight table: a finished flight blocks claims on its content
+        List<SpamDetectionResult> verdicts = new ArrayList<>();
+        Map<String, String> flights = new HashMap<>();
+        when(spamDetectionResultRepository.findByRequestIdIn(List.of(1L))).thenAnswer(invocation -> new ArrayList<>(verdicts));
+        when(spamDetectionResultRepository.save(any())).thenAnswer(invocation -> {
+            SpamDetectionResult saved = invocation.getArgument(0);
+            saved.setId((long) verdicts.size() + 1);
+            verdicts.add(saved);
+            return saved;
+        });
+        doAnswer(invocation -> {
+            verdicts.removeIf(verdict -> invocation.<List<Long>>getArgument(0).contains(verdict.getId()));
+            return null;
+        }).when(spamDetectionResultRepository).deleteAllByIdInBatch(any());
+        doAnswer(invocation -> {
+            Map<Long, String> hashes = invocation.getArgument(1);
+            return hashes.entrySet().stream()
+                    .filter(flight -> flights.putIfAbsent(flight.getKey() + ":" + flight.getValue(), "RUNNING") == null)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toSet());
+        }).when(singleFlight).claim(any(), any());
+        doAnswer(invocation -> {
+            Map<Long, String> hashes = invocation.getArgument(1);
+            hashes.forEach((id, hash) -> flights.put(id + ":" + hash, "DONE"));
+            return null;
+        }).when(singleFlight).finish(any(), any(), any());
+        doAnswer(invocation -> {
+            Map<Long, Set<String>> hashes = invocation.getArgument(1);
+            hashes.forEach((id, stale) -> stale.forEach(hash -> flights.remove(id + ":" + hash, "DONE")));
+            return null;
+        }).when(singleFlight).forget(any(), any());
+        lenient().when(singleFlight.getMaxWait()).thenReturn(Duration.ZERO);
+        lenient().when(singleFlight.getPollInterval()).thenReturn(Duration.ofMillis(1));
+        when(llmClient.callLLMAsync(any())).thenAnswer(invocation -> CompletableFuture.completedFuture(
+                invocation.<LLMRequest>getArgument(0).prompt().contains("WATCHES")
+                        ? response("{\"is_spam\": true, \"confidence\": 0.95, \"reason\": \"advertising\"}")
+                        : response("{\"is_spam\": false, \"confidence\": 0.9, \"reason\": \"care request\"}")));
+
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        assertThat(service.checkSingleRequestAsync(1L).join().getIsSpam()).isFalse();
+        addRequest(1L, "BUY CHEAP WATCHES", "Visit our store now");
+        assertThat(service.checkSingleRequestAsync(1L).join().getIsSpam()).isTrue();
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        SpamFilterResultDto result = service.checkSingleRequestAsync(1L).join();
+
+        assertThat(result.isPending()).isFalse();
+        assertThat(result.getIsSpam()).isFalse();
+        verify(llmClient, times(3)).callLLMAsync(any());
+        assertThat(verdicts).singleElement().extracting(SpamDetectionResult::getContentHash)
+                .isEqualTo(LLMSingleFlight.contentHash("Need a ride", "To the clinic on Monday", "3"));
+    }
+
+    @Test
+    void preFilterDecisionIsStoredWithItsSource() throws Exception {
+        service = createService(true);
+        addRequest(1L, "WIN A FREE PRIZE!!!", "Click http://win.example now to claim your cash bonus!!! Guaranteed winner!!!");
+
+        SpamFilterResultDto result = service.checkSingleRequestAsync(1L).join();
+
+        assertThat(result.getIsSpam()).isTrue();
+        assertThat(result.getSource()).isEqualTo(SpamDetectionSource.PRE_FILTER);
+        assertThat(result.getDetectionReason()).startsWith("Local classifier");
+        ArgumentCaptor<List<SpamDetectionResult>> stored = ArgumentCaptor.forClass(List.class);
+        verify(spamDetectionResultRepository).insertAll(stored.capture());
+        assertThat(stored.getValue()).singleElement()
+                .extracting(SpamDetectionResult::getSource).isEqualTo(SpamDetectionSource.PRE_FILTER);
+        verifyNoInteractions(llmClient);
+    }
+
+    @Test
+    void llmVerdictIsStoredAsLLM() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("""
+                {"is_spam": false, "confidence": 0.9, "reason": "care request"}
+                """)));
+
+        SpamFilterResultDto result = service.checkSingleRequestAsync(1L).join();
+
+        assertThat(result.getSource()).isEqualTo(SpamDetectionSource.LLM);
+        assertThat(result.isProvisional()).isFalse();
+    }
+
+    @Test
+    void requestSentToTheLLMIsLookedUpOnce() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("""
+                {"is_spam": false, "confidence": 0.9, "reason": "care request"}
+                """)));
+
+        service.checkSingleRequestAsync(1L).join();
+
+        verify(spamDetectionResultRepository, times(1)).findByRequestIdIn(List.of(1L));
+        verify(spamDetectionResultRepository, never()).findTopByRequestIdOrderByDetectedAtDesc(any());
+    }
+
+    @Test
+    void unavailableLLMYieldsProvisionalVerdictThatIsNotStored() throws Exception {
+        service = createService(true);
+        // Neutral wording, so the pre-filter leans but does not decide
+        addRequest(1L, "Question", "Is there a sale on at the market this weekend?");
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.failedFuture(
+                new LLMUnavailableException(LLMUnavailableException.Reason.CIRCUIT_OPEN, "open")));
+
+        SpamFilterResultDto result = service.checkSingleRequestAsync(1L).join();
+
+        assertThat(result.isProvisional()).isTrue();
+        assertThat(result.getSource()).isEqualTo(SpamDetectionSource.PRE_FILTER);
+        verify(spamDetectionResultRepository, never()).save(any());
+        // The flight is released rather than marked done, so the request is classified again later
+        verify(singleFlight).finish(eq(LLMFeature.SPAM_DETECTION), any(), eq(List.of()));
+    }
+
+    @Test
+    void responseIsStoredAndTheFlightFinishedWhileTheLLMExecutorIsSaturated() {
+        addRequest(1L, "Need a ride", "To the clinic on Monday");
+        // The bulkhead takes the check itself, then is full
+        AtomicInteger accepted = new AtomicInteger();
+        ReflectionTestUtils.setField(service, "asyncExecutor", (Executor) task -> {
+            if (accepted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("LLM executor saturated");
+            }
+            task.run();
+        });
+        when(llmClient.callLLMAsync(any())).thenReturn(CompletableFuture.completedFuture(response("""
+                {"is_spam": false, "confidence": 0.9, "reason": "care request"}
+                """)));
+
+        SpamFilterResultDto result = service.checkSingleRequestAsync(1L).join();
+
+        assertThat(result.getIsSpam()).isFalse();
+        verify(spamDetectionResultRepository).save(any());
+        verify(singleFlight).finish(eq(LLMFeature.SPAM_DETECTION), any(), eq(List.of(1L)));
+    }
+
+    private AISpamFilterService createService(boolean preFilterEnabled) throws Exception {
+        SpamPreFilter preFilter = new SpamPreFilter(preFilterEnabled, new ClassPathResource("spam-prefilter-model.properties"));
+        AISpamFilterService created = new AISpamFilterService(seniorRequestRepository, spamDetectionResultRepository,
+                llmClient, properties, preFilter, singleFlight);
+        ReflectionTestUtils.setField(created, "asyncExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(created, "responseExecutor", (Executor) Runnable::run);
+        return created;
+    }
+
+    private static String indicatorList(String instructions) {
+        int start = instructions.indexOf("Consider the following");
+        int end = instructions.indexOf("Respond only");
+        assertThat(start).isNotNegative();
+        return instructions.substring(start, end);
+    }
+
+    private void addRequest(long id, String title, String description) {
+        SeniorRequest request = new SeniorRequest();
+        request.setId(id);
+        request.setTitle(title);
+        request.setDescription(description);
+        request.setPriority((short) 3);
+        request.setCenterId(1L);
+        requests.put(id, request);
+    }
+
+    private static LLMResponse response(String text) {
+        return new LLMResponse(text, "default-model", 100, 20, 0, 0);
+    }
+}
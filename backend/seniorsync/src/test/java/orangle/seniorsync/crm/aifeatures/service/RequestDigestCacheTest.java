@@ -0,0 +1,140 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import orangle.seniorsync.crm.aifeatures.model.RequestDigest;
+import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestDigestView;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestVersionView;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestDigestCacheTest {
+
+    private static final OffsetDateTime V1 = OffsetDateTime.of(2026, 10, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime V2 = V1.plusHours(1);
+
+    @Mock
+    private SeniorRequestRepository seniorRequestRepository;
+
+    // What the database currently holds, by request id
+    private final Map<Long, OffsetDateTime> updatedAt = new HashMap<>();
+
+    private RequestDigestCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RequestDigestCache(seniorRequestRepository, 400, 2);
+    }
+
+    @Test
+    void unchangedRequestsReuseTheirDigestWithoutReadingTheDescription() {
+        updatedAt.put(1L, V1);
+        stubDigestViews();
+
+        RequestDigest first = cache.digestsFor(List.of(1L)).get(0);
+        RequestDigest second = cache.digestsFor(List.of(1L)).get(0);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.text()).isEqualTo("ID: 1, Type: Meals, Priority: 3, Due date: none, Status: TODO, Description: Needs lunch");
+        verify(seniorRequestRepository, times(1)).findDigestViewsByIdIn(any());
+    }
+
+    @Test
+    void changedRequestsAreRebuiltFromTheProjection() {
+        updatedAt.put(1L, V1);
+        updatedAt.put(2L, V1);
+        stubDigestViews();
+        cache.digestsFor(List.of(1L, 2L));
+
+        updatedAt.put(2L, V2);
+        List<RequestDigest> digests = cache.digestsFor(List.of(1L, 2L));
+
+        assertThat(digests).extracting(RequestDigest::sourceUpdatedAt).containsExactlyInAnyOrder(V1, V2);
+        verify(seniorRequestRepository).findDigestViewsByIdIn(List.of(2L));
+    }
+
+    @Test
+    void deletedRequestsAreLeftOut() {
+        updatedAt.put(1L, V1);
+        stubDigestViews();
+
+        assertThat(cache.digestsFor(List.of(1L, 99L))).extracting(RequestDigest::requestId).containsExactly(1L);
+    }
+
+    @Test
+    void leastRecentlyUsedDigestsAreDroppedBeyondTheLimit() {
+        updatedAt.put(1L, V1);
+        updatedAt.put(2L, V1);
+        updatedAt.put(3L, V1);
+        stubDigestViews();
+
+        cache.digestsFor(List.of(1L));
+        cache.digestsFor(List.of(2L));
+        cache.digestsFor(List.of(1L)); // 2 is now the least recently used
+        cache.digestsFor(List.of(3L));
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.digestsFor(List.of(1L, 2L));
+        verify(seniorRequestRepository, times(1)).findDigestViewsByIdIn(List.of(1L));
+        verify(seniorRequestRepository, times(2)).findDigestViewsByIdIn(List.of(2L));
+    }
+
+    @Test
+    void compactCutsAtASentenceBoundary() {
+        String text = "First sentence here.  Second   sentence that is much longer than the limit allows.";
+
+        assertThat(RequestDigestCache.compact(text, 30)).isEqualTo("First sentence here. …");
+        assertThat(RequestDigestCache.compact("short", 40)).isEqualTo("short");
+        assertThat(RequestDigestCache.compact(null, 40)).isEmpty();
+    }
+
+    private void stubDigestViews() {
+        when(seniorRequestRepository.findVersionViewsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(updatedAt::containsKey).map(id -> version(id, updatedAt.get(id))).toList();
+        });
+        when(seniorRequestRepository.findDigestViewsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> digestView(id, updatedAt.get(id))).toList();
+        });
+    }
+
+    private static RequestVersionView version(Long id, OffsetDateTime updatedAt) {
+        return new RequestVersionView() {
+            public Long getId() { return id; }
+            public OffsetDateTime getUpdatedAt() { return updatedAt; }
+        };
+    }
+
+    private static RequestDigestView digestView(Long id, OffsetDateTime updatedAt) {
+        return new RequestDigestView() {
+            public Long getId() { return id; }
+            public Long getCenterId() { return 1L; }
+            public OffsetDateTime getUpdatedAt() { return updatedAt; }
+            public Long getRequestTypeId() { return 5L; }
+            public String getRequestTypeName() { return "Meals"; }
+            public Short getPriority() { return 3; }
+            public OffsetDateTime getDueDate() { return null; }
+            public RequestStatus getStatus() { return RequestStatus.TODO; }
+            public String getDescription() { return "Needs   lunch"; }
+        };
+    }
+}
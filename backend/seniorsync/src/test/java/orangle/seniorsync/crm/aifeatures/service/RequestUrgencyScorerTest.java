@@ -0,0 +1,94 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import orangle.seniorsync.crm.aifeatures.enums.RankingSource;
+import orangle.seniorsync.crm.aifeatures.model.RequestScore;
+import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+import orangle.seniorsync.crm.requestmanagement.projection.RequestUrgencyView;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestUrgencyScorerTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2026-10-18T12:00:00Z");
+
+    private final RequestUrgencyScorer scorer = new RequestUrgencyScorer("Transportation:5", "HIGH:10");
+
+    @Test
+    void scoreRisesAsTheDueDateApproachesAndPasses() {
+        RequestUrgencyView request = view(NOW.plusDays(6), NOW);
+
+        int weekAhead = scorer.score(request, NOW).score();
+        int dayAhead = scorer.score(request, NOW.plusDays(5)).score();
+        int overdue = scorer.score(request, NOW.plusDays(7)).score();
+
+        assertThat(weekAhead).isLessThan(dayAhead);
+        assertThat(dayAhead).isLessThan(overdue);
+    }
+
+    @Test
+    void olderRequestsGainUpToTenPoints() {
+        RequestUrgencyView request = view(null, NOW);
+
+        int fresh = scorer.score(request, NOW).score();
+
+        assertThat(scorer.score(request, NOW.plusDays(3)).score()).isEqualTo(fresh + 3);
+        assertThat(scorer.score(request, NOW.plusDays(30)).score()).isEqualTo(fresh + 10);
+    }
+
+    @Test
+    void scoresAreMarkedLocalAndCombineTheWeights() {
+        RequestScore score = scorer.score(view(null, NOW), NOW);
+
+        // priority 3 * 8, not started 5, Transportation 5, HIGH 10
+        assertThat(score.score()).isEqualTo(44);
+        assertThat(score.source()).isEqualTo(RankingSource.LOCAL);
+        assertThat(score.rankingFactors()).contains("\"source\":\"local\"");
+    }
+
+    private static RequestUrgencyView view(OffsetDateTime dueDate, OffsetDateTime createdAt) {
+        return new RequestUrgencyView() {
+            @Override
+            public Long getId() {
+                return 1L;
+            }
+
+            @Override
+            public Short getPriority() {
+                return 3;
+            }
+
+            @Override
+            public OffsetDateTime getDueDate() {
+                return dueDate;
+            }
+
+            @Override
+            public OffsetDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public OffsetDateTime getUpdatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public RequestStatus getStatus() {
+                return RequestStatus.TODO;
+            }
+
+            @Override
+            public String getRequestTypeName() {
+                return "Transportation";
+            }
+
+            @Override
+            public String getCareLevel() {
+                return "HIGH";
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package orangle.seniorsync.crm.aifeatures.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the shipped model's thresholds against hand-labelled requests: a decided request must never contradict its
+ * label, and clear-cut examples on either side must be decided locally.
+ */
+class SpamPreFilterTest {
+
+    private static final List<String[]> SPAM = List.of(
+            new String[]{"WIN A FREE PRIZE!!!", "Click http://win.example now to claim your cash bonus!!! Guaranteed winner!!!"},
+            new String[]{"Cheap crypto investment", "Earn bitcoin online, guaranteed bonus, click https://coins.example and subscribe"},
+            new String[]{"casino bonus", "Online casino bet now, free promo, visit www.casino.example and https://bet.example"},
+            new String[]{"SEO followers", "Buy cheap followers and SEO promotion deal, discount offer https://seo.example"},
+            new String[]{"asdf", "asdf qwerty lorem ipsum test test test test test"}
+    );
+
+    private static final List<String[]> HAM = List.of(
+            new String[]{"Grocery shopping", "Could someone help me with grocery shopping this week? I cannot carry heavy bags."},
+            new String[]{"Doctor appointment", "I need a ride to the clinic for my doctor appointment on Tuesday morning."},
+            new String[]{"Medication pickup", "Please collect my medication from the hospital pharmacy, my knee is bad."},
+            new String[]{"Wheelchair repair", "My wheelchair wheel is loose, can a volunteer take it to be fixed?"},
+            new String[]{"Meals", "I would like meals delivered after my physiotherapy sessions at the polyclinic."}
+    );
+
+    // Ordinary wording on both sides; these belong to the LLM
+    private static final List<String[]> AMBIGUOUS = List.of(
+            new String[]{"Question", "Is there a sale on at the market this weekend?"},
+            new String[]{"Help with phone", "My grandson set up an online account for me and I cannot log in."}
+    );
+
+    private SpamPreFilter preFilter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        preFilter = new SpamPreFilter(true, new ClassPathResource("spam-prefilter-model.properties"));
+    }
+
+    @Test
+    void clearSpamIsDecidedAsSpam() {
+        for (String[] sample : SPAM) {
+            assertThat(preFilter.classify(sample[0], sample[1]).decision())
+                    .as(sample[0])
+                    .isEqualTo(SpamPreFilter.Decision.SPAM);
+        }
+    }
+
+    @Test
+    void clearCareRequestsAreDecidedAsHam() {
+        for (String[] sample : HAM) {
+            assertThat(preFilter.classify(sample[0], sample[1]).decision())
+                    .as(sample[0])
+                    .isEqualTo(SpamPreFilter.Decision.HAM);
+        }
+    }
+
+    @Test
+    void ambiguousRequestsAreLeftToTheLLM() {
+        for (String[] sample : AMBIGUOUS) {
+            assertThat(preFilter.classify(sample[0], sample[1]).decision())
+                    .as(sample[0])
+                    .isEqualTo(SpamPreFilter.Decision.UNCERTAIN);
+        }
+    }
+
+    @Test
+    void confidenceMatchesTheDecision() {
+        SpamPreFilter.Result spam = preFilter.classify(SPAM.get(0)[0], SPAM.get(0)[1]);
+        SpamPreFilter.Result ham = preFilter.classify(HAM.get(0)[0], HAM.get(0)[1]);
+
+        assertThat(spam.confidence()).isEqualTo(spam.spamProbability()).isGreaterThanOrEqualTo(0.98);
+        assertThat(ham.confidence()).isEqualTo(1 - ham.spamProbability()).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void disabledFilterDecidesNothing() throws Exception {
+        preFilter = new SpamPreFilter(false, new ClassPathResource("spam-prefilter-model.properties"));
+
+        SpamPreFilter.Result result = preFilter.classify(SPAM.get(0)[0], SPAM.get(0)[1]);
+
+        assertThat(result.decision()).isEqualTo(SpamPreFilter.Decision.UNCERTAIN);
+        assertThat(result.spamProbability()).isNaN();
+    }
+}
@@ -0,0 +1,114 @@
+package orangle.seniorsync.crm.reminder.service;
+
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class AssignmentNotificationCoalescerTest {
+
+    private static final long STAFF_ID = 7L;
+
+    @Mock
+    private INotificationService notificationService;
+
+    private AssignmentNotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new AssignmentNotificationCoalescer(notificationService, 60_000);
+    }
+
+    @Test
+    void periodicFlushKeepsDigestsWhoseWindowIsStillOpen() {
+        coalescer.enqueueAssignment(request(1L), STAFF_ID);
+
+        coalescer.flushDueDigests();
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void oppositeChangesForTheSameRequestCancelOut() {
+        SeniorRequest request = request(1L);
+        coalescer.enqueueAssignment(request, STAFF_ID);
+        coalescer.enqueueUnassignment(request, STAFF_ID);
+
+        coalescer.flushAllDigests();
+
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void shutdownFlushSendsSingleChangeSynchronously() {
+        SeniorRequest request = request(1L);
+        coalescer.enqueueUnassignment(request, STAFF_ID);
+
+        coalescer.flushAllDigests();
+
+        verify(notificationService).notifyRequestUnassignment(request, STAFF_ID);
+        verifyNoMoreInteractions(notificationService);
+    }
+
+    @Test
+    void shutdownFlushSendsDigestSynchronously() {
+        SeniorRequest assigned = request(1L);
+        SeniorRequest unassigned = request(2L);
+        coalescer.enqueueAssignment(assigned, STAFF_ID);
+        coalescer.enqueueUnassignment(unassigned, STAFF_ID);
+
+        coalescer.flushAllDigests();
+
+        verify(notificationService).notifyAssignmentDigest(STAFF_ID, List.of(assigned), List.of(unassigned));
+        verifyNoMoreInteractions(notificationService);
+    }
+
+    @Test
+    void shutdownFlushContinuesAfterOneRecipientFails() {
+        SeniorRequest first = request(1L);
+        SeniorRequest second = request(2L);
+        doThrow(new RuntimeException("smtp down"))
+                .when(notificationService).notifyRequestAssignment(any(), eq(1L));
+        coalescer.enqueueAssignment(first, 1L);
+        coalescer.enqueueAssignment(second, 2L);
+
+        coalescer.flushAllDigests();
+
+        verify(notificationService).notifyRequestAssignment(first, 1L);
+        verify(notificationService).notifyRequestAssignment(second, 2L);
+    }
+
+    @Test
+    void zeroWindowSendsStraightAway() {
+        coalescer = new AssignmentNotificationCoalescer(notificationService, 0);
+        SeniorRequest request = request(1L);
+
+        coalescer.enqueueAssignment(request, STAFF_ID);
+        coalescer.flushAllDigests();
+
+        verify(notificationService).notifyRequestAssignmentAsync(request, STAFF_ID);
+        verify(notificationService, never()).notifyAssignmentDigest(anyLong(), anyList(), anyList());
+    }
+
+    private static SeniorRequest request(long id) {
+        SeniorRequest request = new SeniorRequest();
+        request.setId(id);
+        request.setTitle("Request " + id);
+        return request;
+    }
+}
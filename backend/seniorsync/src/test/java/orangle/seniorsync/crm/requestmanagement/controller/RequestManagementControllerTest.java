@@ -0,0 +1,67 @@
+package orangle.seniorsync.crm.requestmanagement.controller;
+
+import orangle.seniorsync.crm.requestmanagement.dto.SimilarRequestDto;
+import orangle.seniorsync.crm.requestmanagement.service.IRequestManagementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class RequestManagementControllerTest {
+
+    @Mock
+    private IRequestManagementService requestManagementService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new RequestManagementController(requestManagementService)).build();
+    }
+
+    @Test
+    void similarRequestsUsesDefaultWindow() throws Exception {
+        when(requestManagementService.findSimilarRequests(5L, 7))
+                .thenReturn(List.of(new SimilarRequestDto(4L, 10L, 0.97, OffsetDateTime.now())));
+
+        mockMvc.perform(get("/api/requests/5/similar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].requestId").value(4));
+    }
+
+    @Test
+    void similarRequestsRejectsWindowOutsideRetainedRange() throws Exception {
+        mockMvc.perform(get("/api/requests/5/similar").param("days", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/requests/5/similar").param("days", "31"))
+                .andExpect(status().isBadRequest());
+
+        verify(requestManagementService, never()).findSimilarRequests(anyLong(), anyInt());
+    }
+
+    @Test
+    void createRejectsInvalidPayload() throws Exception {
+        mockMvc.perform(post("/api/requests")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"seniorId\": 1, \"title\": \"\", \"description\": \"x\", \"priority\": 3}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,109 @@
+package orangle.seniorsync.crm.requestmanagement.service;
+
+import orangle.seniorsync.common.service.IUserContextService;
+import orangle.seniorsync.crm.reminder.service.IAssignmentNotificationCoalescer;
+import orangle.seniorsync.crm.requestmanagement.dto.CreateSeniorRequestDto;
+import orangle.seniorsync.crm.requestmanagement.dto.SeniorRequestDto;
+import orangle.seniorsync.crm.requestmanagement.dto.SimilarRequestDto;
+import orangle.seniorsync.crm.requestmanagement.enums.RequestStatus;
+import orangle.seniorsync.crm.requestmanagement.event.SeniorRequestChangedEvent;
+import orangle.seniorsync.crm.requestmanagement.mapper.CreateSeniorRequestMapper;
+import orangle.seniorsync.crm.requestmanagement.mapper.SeniorRequestMapper;
+import orangle.seniorsync.crm.requestmanagement.mapper.UpdateSeniorRequestMapper;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import orangle.seniorsync.crm.requestmanagement.repository.RequestTypeRepository;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import orangle.seniorsync.crm.staffmanagement.repository.StaffRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestManagementServiceTest {
+
+    private static final long CENTER_ID = 3L;
+
+    @Mock private SeniorRequestRepository seniorRequestRepository;
+    @Mock private CreateSeniorRequestMapper createSeniorRequestMapper;
+    @Mock private SeniorRequestMapper seniorRequestMapper;
+    @Mock private UpdateSeniorRequestMapper updateSeniorRequestMapper;
+    @Mock private StaffRepository staffRepository;
+    @Mock private RequestTypeRepository requestTypeRepository;
+    @Mock private IUserContextService userContextService;
+    @Mock private IAssignmentNotificationCoalescer assignmentNotificationCoalescer;
+    @Mock private IRequestSimilarityIndex requestSimilarityIndex;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private RequestManagementService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RequestManagementService(seniorRequestRepository, createSeniorRequestMapper, seniorRequestMapper,
+                updateSeniorRequestMapper, staffRepository, requestTypeRepository, userContextService,
+                assignmentNotificationCoalescer, requestSimilarityIndex, eventPublisher, 7);
+    }
+
+    @Test
+    void createRequestReturnsPossibleDuplicates() {
+        CreateSeniorRequestDto createDto = new CreateSeniorRequestDto(10L, 2L, "Grocery run", "Buy rice and eggs", (short) 3, null);
+        SeniorRequest entity = new SeniorRequest();
+        entity.setTitle("Grocery run");
+        entity.setDescription("Buy rice and eggs");
+        SimilarRequestDto duplicate = new SimilarRequestDto(41L, 10L, 0.95, OffsetDateTime.now());
+
+        when(createSeniorRequestMapper.toEntity(createDto)).thenReturn(entity);
+        when(userContextService.getRequestingUserCenterId()).thenReturn(CENTER_ID);
+        when(seniorRequestRepository.save(entity)).thenAnswer(invocation -> {
+            entity.setId(42L);
+            return entity;
+        });
+        when(requestSimilarityIndex.findSimilar(CENTER_ID, "Grocery run", "Buy rice and eggs", Duration.ofDays(7), 42L))
+                .thenReturn(List.of(duplicate));
+        when(seniorRequestMapper.toDto(entity)).thenReturn(dto(42L));
+
+        SeniorRequestDto created = service.createRequest(createDto);
+
+        assertThat(created.id()).isEqualTo(42L);
+        assertThat(entity.getCenterId()).isEqualTo(CENTER_ID);
+        assertThat(created.possibleDuplicates()).containsExactly(duplicate);
+        verify(eventPublisher).publishEvent(any(SeniorRequestChangedEvent.class));
+    }
+
+    @Test
+    void createRequestReturnsEmptyDuplicatesWhenNoneFound() {
+        CreateSeniorRequestDto createDto = new CreateSeniorRequestDto(10L, 2L, "Ride", "To clinic", (short) 3, null);
+        SeniorRequest entity = new SeniorRequest();
+        when(createSeniorRequestMapper.toEntity(createDto)).thenReturn(entity);
+        when(seniorRequestRepository.save(entity)).thenReturn(entity);
+        when(requestSimilarityIndex.findSimilar(any(), any(), any(), eq(Duration.ofDays(7)), any())).thenReturn(List.of());
+        when(seniorRequestMapper.toDto(entity)).thenReturn(dto(43L));
+
+        assertThat(service.createRequest(createDto).possibleDuplicates()).isEmpty();
+    }
+
+    @Test
+    void findSimilarRequestsRejectsNonPositiveWindow() {
+        assertThatThrownBy(() -> service.findSimilarRequests(1L, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("days");
+    }
+
+    private static SeniorRequestDto dto(long id) {
+        return new SeniorRequestDto(id, 10L, null, 2L, "title", "description", (short) 3, null, null, null, null,
+                RequestStatus.TODO, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,107 @@
+package orangle.seniorsync.crm.requestmanagement.service;
+
+import orangle.seniorsync.crm.requestmanagement.dto.SimilarRequestDto;
+import orangle.seniorsync.crm.requestmanagement.event.SeniorRequestChangedEvent;
+import orangle.seniorsync.crm.requestmanagement.model.SeniorRequest;
+import orangle.seniorsync.crm.requestmanagement.repository.SeniorRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequestSimilarityIndexTest {
+
+    private static final long CENTER_ID = 1L;
+    private static final Duration WEEK = Duration.ofDays(7);
+
+    @Mock
+    private SeniorRequestRepository seniorRequestRepository;
+
+    private RequestSimilarityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RequestSimilarityIndex(seniorRequestRepository, Runnable::run, 6, 30);
+    }
+
+    @Test
+    void findsRewordedRequestInSameCenter() {
+        changed(request(1L, CENTER_ID, "Need help buying groceries", "Please buy rice, eggs and milk from the market on Monday"));
+
+        List<SimilarRequestDto> similar = index.findSimilar(CENTER_ID, "Help buying groceries",
+                "Please buy rice, eggs and milk from the market on Monday", WEEK, 2L);
+
+        assertThat(similar).extracting(SimilarRequestDto::requestId).containsExactly(1L);
+        assertThat(similar.get(0).similarity()).isGreaterThan(0.9);
+    }
+
+    @Test
+    void ignoresOtherCentersUnrelatedTextAndTheRequestItself() {
+        changed(request(1L, CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday"));
+        changed(request(2L, 2L, "Grocery run", "Buy rice, eggs and milk from the market on Monday"));
+        changed(request(3L, CENTER_ID, "Ride to clinic", "Transport to the polyclinic for a check up on Friday morning"));
+
+        List<SimilarRequestDto> similar = index.findSimilar(CENTER_ID, "Grocery run",
+                "Buy rice, eggs and milk from the market on Monday", WEEK, 1L);
+
+        assertThat(similar).isEmpty();
+    }
+
+    @Test
+    void respectsLookBackWindow() {
+        SeniorRequest old = request(1L, CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday");
+        old.setCreatedAt(OffsetDateTime.now().minusDays(10));
+        changed(old);
+
+        assertThat(index.findSimilar(CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday", WEEK, 2L))
+                .isEmpty();
+        assertThat(index.findSimilar(CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday", Duration.ofDays(30), 2L))
+                .hasSize(1);
+    }
+
+    @Test
+    void deletedRequestsAreNoLongerMatched() {
+        SeniorRequest request = request(1L, CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday");
+        changed(request);
+        index.onRequestChanged(new SeniorRequestChangedEvent(request, SeniorRequestChangedEvent.ChangeType.DELETED));
+
+        assertThat(index.findSimilar(CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday", WEEK, 2L))
+                .isEmpty();
+    }
+
+    @Test
+    void warmUpLoadsRetainedWindowOnBackgroundExecutor() {
+        when(seniorRequestRepository.findByCreatedAtAfter(any()))
+                .thenReturn(List.of(request(1L, CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday")));
+
+        index.warmUp();
+
+        assertThat(index.findSimilar(CENTER_ID, "Grocery run", "Buy rice, eggs and milk from the market on Monday", WEEK, 2L))
+                .hasSize(1);
+    }
+
+    private void changed(SeniorRequest request) {
+        index.onRequestChanged(new SeniorRequestChangedEvent(request, SeniorRequestChangedEvent.ChangeType.CREATED));
+    }
+
+    private static SeniorRequest request(long id, long centerId, String title, String description) {
+        SeniorRequest request = new SeniorRequest();
+        request.setId(id);
+        request.setSeniorId(100L + id);
+        request.setCenterId(centerId);
+        request.setTitle(title);
+        request.setDescription(description);
+        request.setCreatedAt(OffsetDateTime.now());
+        return request;
+    }
+}
@@ -167,12 +167,22 @@ export function CreateRequestModal({
         dueDate: data.dueDate || undefined,
       };
 
-      await requestApi.createRequest(createDto);
+      const createdRequest = await requestApi.createRequest(createDto);
 
-      toast({
-        title: "Success",
-        description: "Request created successfully!",
-      });
+      // Only one toast is shown at a time, so a duplicate warning replaces the plain success message
+      const duplicates = createdRequest.possibleDuplicates ?? [];
+      if (duplicates.length > 0) {
+        const mostSimilar = duplicates[0];
+        toast({
+          title: "Request created - possible duplicate",
+          description: `This looks similar to ${duplicates.length} recent request(s), most similar: #${mostSimilar.requestId} (${Math.round(mostSimilar.similarity * 100)}% match). Please check before actioning it.`,
+        });
+      } else {
+        toast({
+          title: "Success",
+          description: "Request created successfully!",
+        });
+      }
 
       form.reset();
       setOpen(false);
@@ -23,6 +23,8 @@ export function SeniorChatbot({ seniorId }: SeniorChatbotProps) {
     error, 
     activeConversation, 
     selectedLanguage,
+    hasOlderMessages,
+    loadOlderMessages,
     sendMessage, 
     initializeChat,
     changeLanguage,
@@ -281,6 +283,19 @@ export function SeniorChatbot({ seniorId }: SeniorChatbotProps) {
             <ChatContainer className="h-[500px] md:h-[600px] border rounded-lg bg-gray-50">
               <ChatMessages messages={messages.map(convertToUIMessage)}>
                 <div className="space-y-4 p-4">
+                  {hasOlderMessages && (
+                    <div className="flex justify-center">
+                      <Button
+                        onClick={loadOlderMessages}
+                        variant="ghost"
+                        className="text-base text-blue-600"
+                        disabled={isLoading}
+                      >
+                        Show earlier messages
+                      </Button>
+                    </div>
+                  )}
+
                   {messages.map((message) => (
                     <div
                       key={message.id}
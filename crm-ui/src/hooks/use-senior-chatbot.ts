@@ -3,6 +3,14 @@ import { IncomingMessageDto, ReplyDto, ReplyOption, MessageDto, ConversationDto,
 import { chatbotApiService } from '@/services/chatbot-api'
 import { messageApi } from '@/services/message-api'
 
+// History pages come newest first, the chat shows them oldest first
+const toChatMessages = (page: MessageDto[]): ChatMessage[] => page.map((msg: MessageDto): ChatMessage => ({
+  id: msg.id,
+  role: msg.direction === 'IN' ? 'user' : 'assistant',
+  content: msg.content,
+  createdAt: new Date(msg.createdAt)
+})).reverse()
+
 export function useSeniorChatbot(seniorId: number) {
   const [messages, setMessages] = useState<ChatMessage[]>([])
   const [isLoading, setIsLoading] = useState(false)
@@ -10,9 +18,13 @@ export function useSeniorChatbot(seniorId: number) {
   const [activeConversation, setActiveConversation] = useState<ConversationDto | null>(null)
   const [isInitialized, setIsInitialized] = useState(false)
   const [selectedLanguage, setSelectedLanguage] = useState<SupportedLanguage>('en')
+  // Cursor of the next older history page, null once the oldest message is shown
+  const [olderMessagesCursor, setOlderMessagesCursor] = useState<number | null>(null)
   
   // Prevent concurrent initialization attempts
   const initializationInProgress = useRef(false)
+  // Reply that failed to send; sending the same reply again is a retry and reuses its clientMessageId
+  const unsentReply = useRef<{ replyOption: ReplyOption; clientMessageId: string } | null>(null)
 
   // Centralized conversation initialization to prevent duplicate events
   const initializeNewConversation = useCallback(async (languageCode: SupportedLanguage = 'en'): Promise<ReplyOption[]> => {
@@ -66,17 +78,10 @@ export function useSeniorChatbot(seniorId: number) {
       setActiveConversation(conversation)
       
       if (conversation && conversation.currentState !== 'COMPLETED') {
-        // Load existing messages for active conversation
-        const existingMessages = await messageApi.getMessagesBySenior(seniorId, 'lodging_request')
-        
-        const chatMessages: ChatMessage[] = existingMessages.map((msg: MessageDto) => ({
-          id: msg.id,
-          role: msg.direction === 'IN' ? 'user' : 'assistant',
-          content: msg.content,
-          createdAt: new Date(msg.createdAt)
-        }))
-        
-        setMessages(chatMessages)
+        // Load the newest page of messages, older ones are fetched on request
+        const page = await messageApi.getMessageHistory(seniorId, 'lodging_request')
+        setMessages(toChatMessages(page.messages))
+        setOlderMessagesCursor(page.nextBefore)
         
         // Fetch current reply options for the conversation state with language
         try {
@@ -101,13 +106,34 @@ export function useSeniorChatbot(seniorId: number) {
     }
   }, [seniorId, initializeNewConversation])
 
+  const loadOlderMessages = useCallback(async () => {
+    if (olderMessagesCursor === null) {
+      return
+    }
+    try {
+      const page = await messageApi.getMessageHistory(seniorId, 'lodging_request', olderMessagesCursor)
+      setMessages(prev => [...toChatMessages(page.messages), ...prev])
+      setOlderMessagesCursor(page.nextBefore)
+    } catch (err) {
+      console.error('Failed to load older messages:', err)
+      setError('Failed to load earlier messages. Please try again.')
+    }
+  }, [seniorId, olderMessagesCursor])
+
   const sendMessage = useCallback(async (replyOption: ReplyOption, languageCode: SupportedLanguage = selectedLanguage) => {
     setIsLoading(true)
     setError(null)
 
+    const previous = unsentReply.current
+    const isRetry = previous !== null
+      && previous.replyOption.fsmEvent === replyOption.fsmEvent
+      && previous.replyOption.value === replyOption.value
+    const clientMessageId = isRetry && previous ? previous.clientMessageId : crypto.randomUUID()
+    unsentReply.current = { replyOption, clientMessageId }
+
     try {
-      // Add user message to chat if it has content
-      if (replyOption.value.trim()) {
+      // Add user message to chat if it has content (a retry is already shown)
+      if (replyOption.value.trim() && !isRetry) {
         const userMessage: ChatMessage = {
           id: Date.now(),
           role: 'user',
@@ -123,9 +149,11 @@ export function useSeniorChatbot(seniorId: number) {
         campaignName: 'lodging_request',
         seniorId,
         replyOption,
+        clientMessageId,
       }
 
       const response: ReplyDto = await chatbotApiService.sendMessage(request, languageCode)
+      unsentReply.current = null
 
       // Add assistant response to chat
       const assistantMessage: ChatMessage = {
@@ -145,6 +173,7 @@ export function useSeniorChatbot(seniorId: number) {
         // Reset conversation state after a brief delay
         setTimeout(() => {
           setMessages([])
+          setOlderMessagesCursor(null)
           setActiveConversation(null)
           setIsInitialized(false) // Allow re-initialization
           initializationInProgress.current = false // Reset guard
@@ -206,6 +235,7 @@ export function useSeniorChatbot(seniorId: number) {
 
   const clearMessages = useCallback(() => {
     setMessages([])
+    setOlderMessagesCursor(null)
     setActiveConversation(null)
     setIsInitialized(false)
     initializationInProgress.current = false
@@ -217,6 +247,8 @@ export function useSeniorChatbot(seniorId: number) {
     error,
     activeConversation,
     selectedLanguage,
+    hasOlderMessages: olderMessagesCursor !== null,
+    loadOlderMessages,
     sendMessage,
     initializeChat,
     changeLanguage,
@@ -1,5 +1,5 @@
 import { AuthenticatedApiClient } from './authenticated-api-client';
-import { MessageDto, ConversationDto } from '@/types/chatbot';
+import { MessageDto, MessageHistoryPageDto, ConversationDto } from '@/types/chatbot';
 
 // Configuration
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_BASE_URL || 'http://localhost:8088';
@@ -9,8 +9,9 @@ class MessageApiService extends AuthenticatedApiClient {
     return this.get<MessageDto[]>(`${API_BASE_URL}/api/chatbot/messages/conversation/${conversationId}`);
   }
 
-  async getMessagesBySenior(seniorId: number, campaignName = 'lodging_request'): Promise<MessageDto[]> {
-    return this.get<MessageDto[]>(`${API_BASE_URL}/api/chatbot/messages/senior/${seniorId}?campaignName=${campaignName}`);
+  async getMessageHistory(seniorId: number, campaignName = 'lodging_request', before?: number | null, limit = 50): Promise<MessageHistoryPageDto> {
+    const cursor = before != null ? `&before=${before}` : '';
+    return this.get<MessageHistoryPageDto>(`${API_BASE_URL}/api/chatbot/messages/senior/${seniorId}/history?campaignName=${campaignName}&limit=${limit}${cursor}`);
   }
 
   async getActiveConversation(seniorId: number, campaignName = 'lodging_request'): Promise<ConversationDto | null> {
@@ -9,6 +9,7 @@ export interface IncomingMessageDto {
   campaignName: string;
   seniorId: number;
   replyOption: ReplyOption;
+  clientMessageId?: string; // Resending the same id replays the stored reply
 }
 
 export interface ReplyDto {
@@ -25,9 +26,17 @@ export interface MessageDto {
   direction: 'IN' | 'OUT';
   content: string;
   event?: string;
+  clientMessageId?: string;
   createdAt: string;
 }
 
+// One page of chat history, newest message first; pass nextBefore as before to get the older page
+export interface MessageHistoryPageDto {
+  messages: MessageDto[];
+  nextBefore: number | null;
+  hasMore: boolean;
+}
+
 export interface ConversationDto {
   id: number;
   seniorId: number;
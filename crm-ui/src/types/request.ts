@@ -24,6 +24,15 @@ export interface SeniorRequestDto {
   spamConfidenceScore?: number;
   spamDetectionReason?: string;
   spamDetectedAt?: string; // ISO string
+  // Only set on create: near-duplicates in the same center, most similar first
+  possibleDuplicates?: SimilarRequestDto[];
+}
+
+export interface SimilarRequestDto {
+  requestId: number;
+  seniorId: number;
+  similarity: number; // 0-1, 1 for identical normalised text
+  createdAt: string; // ISO string
 }
 
 export interface CreateSeniorRequestDto {